@@ -0,0 +1,21 @@
+package clustercode.api.cleanup;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class MoveStatistics {
+
+    /**
+     * The amount of transcoded files which have been moved to the output dir with a rename since startup.
+     */
+    private long renames;
+
+    /**
+     * The amount of transcoded files which had to be copied to the output dir since startup, because the temporary
+     * file was on another file store.
+     */
+    private long copies;
+
+}
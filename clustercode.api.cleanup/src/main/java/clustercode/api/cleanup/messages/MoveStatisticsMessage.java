@@ -0,0 +1,16 @@
+package clustercode.api.cleanup.messages;
+
+import clustercode.api.cleanup.MoveStatistics;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class MoveStatisticsMessage {
+
+    /**
+     * The statistics of the moves to the output dir, null if the cleanup does not move files.
+     */
+    private MoveStatistics statistics;
+
+}
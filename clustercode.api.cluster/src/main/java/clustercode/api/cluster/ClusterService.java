@@ -13,18 +13,20 @@ public interface ClusterService {
     void joinCluster();
 
     /**
-     * Removes the currently active task from the cluster, if there was one set.
+     * Removes the given task from the cluster, if it was added by this Java process.
+     *
+     * @param candidate the candidate, not null.
      */
-    void removeTask();
+    void removeTask(Media candidate);
 
     /**
-     * Sets the cleanup which is being executed by this Java process. Replaces the old cleanup if present, only one task
-     * can be active.
+     * Adds a task which is being executed or reserved for execution by this Java process. Multiple tasks can be
+     * active at the same time, one per transcoding slot. Adding an already known task has no effect.
      * This method does nothing if not connected to the cluster.
      *
      * @param candidate the candidate, not null.
      */
-    void setTask(Media candidate);
+    void addTask(Media candidate);
 
     /**
      * Returns true if the candidate is known across the cluster. If this Java process is the only member or not at all
@@ -14,6 +14,16 @@ import java.time.ZonedDateTime;
 @Data
 public class ClusterTask implements Serializable {
 
+    /**
+     * The id of the transcoding job on the node, which identifies the slot that converts this task.
+     */
+    private String jobId;
+
+    /**
+     * The name of the node which converts this task.
+     */
+    private String nodeName;
+
     /**
      * This is the relative path to the base input dir which a node is currently converting.
      */
@@ -29,6 +39,11 @@ public class ClusterTask implements Serializable {
      */
     private ZonedDateTime dateAdded;
 
+    /**
+     * The absolute time when the progress of this task was last updated.
+     */
+    private ZonedDateTime dateUpdated;
+
     /**
      * The progress in percentage of the task.
      */
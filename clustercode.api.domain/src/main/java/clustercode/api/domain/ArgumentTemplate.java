@@ -0,0 +1,150 @@
+package clustercode.api.domain;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Represents a profile argument which has been compiled into literal and variable tokens. Variables have the form
+ * {@code ${NAME}}. The template is compiled once when the profile is parsed, rendering is a single pass without
+ * searching the argument again.
+ */
+public final class ArgumentTemplate {
+
+    /**
+     * The absolute path of the source file.
+     */
+    public static final String INPUT = "INPUT";
+    /**
+     * The path of the file to which the transcoder writes.
+     */
+    public static final String OUTPUT = "OUTPUT";
+    /**
+     * The amount of threads which the transcoder may use.
+     */
+    public static final String THREADS = "THREADS";
+    /**
+     * The dir for temporary files.
+     */
+    public static final String TEMP_DIR = "TEMP_DIR";
+    /**
+     * The duration in seconds of the part of the source to transcode. Only set as variable of tasks which transcode a
+     * range. It is not available to profiles, as the length of the whole source is unknown without probing and the
+     * transcoding service restricts the transcoder to the range itself.
+     */
+    public static final String DURATION = "DURATION";
+    /**
+     * The offset in seconds of the part of the source to transcode, 0 for tasks which transcode the whole source.
+     */
+    public static final String START = "START";
+    /**
+     * The index of the segment, starting with 0. Tasks which transcode the whole source are segment 0.
+     */
+    public static final String SEGMENT = "SEGMENT";
+
+    /**
+     * The variables which are available to every profile in addition to its fields. They have a value for every task.
+     */
+    public static final Set<String> BUILT_IN_VARIABLES = Set.of(INPUT, OUTPUT, THREADS, TEMP_DIR, START, SEGMENT);
+
+    private static final String PREFIX = "${";
+    private static final String SUFFIX = "}";
+
+    private final String source;
+    /**
+     * The tokens in order. Even indexes are literals (possibly empty), odd indexes are variable names.
+     */
+    private final String[] tokens;
+    private final int literalLength;
+
+    private ArgumentTemplate(String source, String[] tokens, int literalLength) {
+        this.source = source;
+        this.tokens = tokens;
+        this.literalLength = literalLength;
+    }
+
+    /**
+     * Compiles the given argument.
+     *
+     * @param argument the argument, not null.
+     * @return the template.
+     * @throws IllegalArgumentException if a variable is not terminated or has no name.
+     */
+    public static ArgumentTemplate compile(String argument) {
+        List<String> tokens = new ArrayList<>();
+        int literalLength = 0;
+        int index = 0;
+        while (true) {
+            int start = argument.indexOf(PREFIX, index);
+            if (start < 0) break;
+            int end = argument.indexOf(SUFFIX, start + PREFIX.length());
+            if (end < 0) {
+                throw new IllegalArgumentException("Unterminated variable in argument: " + argument);
+            }
+            String name = argument.substring(start + PREFIX.length(), end).trim();
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("Variable without name in argument: " + argument);
+            }
+            tokens.add(argument.substring(index, start));
+            tokens.add(name);
+            literalLength += start - index;
+            index = end + SUFFIX.length();
+        }
+        tokens.add(argument.substring(index));
+        literalLength += argument.length() - index;
+        return new ArgumentTemplate(argument, tokens.toArray(new String[0]), literalLength);
+    }
+
+    /**
+     * Gets the names of the variables used in this template.
+     *
+     * @return the set of names, may be empty.
+     */
+    public Set<String> getVariables() {
+        Set<String> names = new LinkedHashSet<>();
+        for (int i = 1; i < tokens.length; i += 2) {
+            names.add(tokens[i]);
+        }
+        return names;
+    }
+
+    /**
+     * Renders this template by replacing each variable with its value.
+     *
+     * @param resolver returns the value of the given variable name, or null if undefined.
+     * @return the argument. The original string if it does not contain variables.
+     * @throws IllegalArgumentException if a variable is undefined.
+     */
+    public String render(Function<String, String> resolver) {
+        if (tokens.length == 1) return tokens[0];
+        StringBuilder builder = new StringBuilder(literalLength + 16 * (tokens.length / 2));
+        for (int i = 0; i < tokens.length; i++) {
+            if (i % 2 == 0) {
+                builder.append(tokens[i]);
+                continue;
+            }
+            String value = resolver.apply(tokens[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("Variable ${" + tokens[i] + "} is not defined.");
+            }
+            builder.append(value);
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return source.equals(((ArgumentTemplate) o).source);
+    }
+
+    @Override
+    public int hashCode() {
+        return source.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
@@ -1,5 +1,8 @@
 package clustercode.api.domain;
 
+import java.time.Instant;
+import java.util.Optional;
+
 /**
  * Represents a matcher with which a media candidate can be excluded or included for job scheduling. The implementing
  * class should throw a runtime exception in the constructor if there is a configuration error. The order of
@@ -17,4 +20,34 @@ public interface Constraint {
      */
     boolean accept(Media candidate);
 
+    /**
+     * Notifies the constraint that the given candidate has been accepted by all constraints and selected for
+     * scheduling. This happens before further candidates of the same selection are tested. Does nothing by default.
+     *
+     * @param candidate the selected candidate, not null.
+     */
+    default void onSelected(Media candidate) {
+    }
+
+    /**
+     * Gets the next instant at which the verdict of this constraint could change without any change of the
+     * candidate, e.g. because a time window opens or closes. This allows the scheduler to sleep until then instead of
+     * polling.
+     *
+     * @return the instant, empty if unknown or if the verdict does not depend on time (default).
+     */
+    default Optional<Instant> getNextVerdictChange() {
+        return Optional.empty();
+    }
+
+    /**
+     * Gets the instant by which accepted candidates are expected to be finished, if this constraint enforces such a
+     * deadline. The scheduler may prefer shorter jobs as the deadline approaches.
+     *
+     * @return the deadline, empty if there is none (default).
+     */
+    default Optional<Instant> getDeadline() {
+        return Optional.empty();
+    }
+
 }
@@ -3,11 +3,14 @@ package clustercode.api.domain;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @Data
 @Builder
@@ -30,4 +33,24 @@ public class Profile {
      */
     private Map<String, String> fields;
 
+    /**
+     * The arguments compiled into templates during parsing. They are derived from the arguments and therefore not part
+     * of equality.
+     */
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private List<ArgumentTemplate> templates;
+
+    /**
+     * Gets the compiled arguments. If the profile has not been compiled during parsing, the arguments are compiled
+     * on each call, without changing the profile.
+     *
+     * @return the templates, in the order of the arguments.
+     * @throws IllegalArgumentException if an argument contains an invalid variable.
+     */
+    public List<ArgumentTemplate> getTemplates() {
+        if (templates != null || getArguments() == null) return templates;
+        return getArguments().stream().map(ArgumentTemplate::compile).collect(Collectors.toList());
+    }
+
 }
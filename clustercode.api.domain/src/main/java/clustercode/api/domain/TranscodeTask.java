@@ -5,6 +5,7 @@ import clustercode.api.domain.Media;
 import clustercode.api.domain.Profile;
 
 import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 
 @Data
@@ -23,4 +24,10 @@ public class TranscodeTask {
      */
     private Profile profile;
 
+    /**
+     * Additional values for the variables of the profile arguments, e.g. {@link ArgumentTemplate#DURATION} for tasks
+     * which transcode a range of the source. May be null.
+     */
+    private Map<String, String> variables;
+
 }
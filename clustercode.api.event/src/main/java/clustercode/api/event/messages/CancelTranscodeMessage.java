@@ -1,14 +1,32 @@
 package clustercode.api.event.messages;
 
-import lombok.Getter;
-import lombok.Setter;
-import lombok.ToString;
+import clustercode.api.domain.Media;
+import lombok.*;
 
 @ToString
 @Getter
 @Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class CancelTranscodeMessage {
 
+    /**
+     * The id of the transcoding job which should be cancelled. Takes precedence over the media if not null.
+     */
+    private String jobId;
+
+    /**
+     * The media whose transcoding should be cancelled. If both the job id and media are null, all current
+     * transcodings are cancelled.
+     */
+    private Media media;
+
     private boolean cancelled;
 
+    /**
+     * The progress in percent of the transcoding at the time it was cancelled, negative if unknown.
+     */
+    private double progress;
+
 }
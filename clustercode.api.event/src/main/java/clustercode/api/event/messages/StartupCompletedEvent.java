@@ -12,4 +12,22 @@ public class StartupCompletedEvent {
     @NonNull
     private String mainVersion;
 
+    /**
+     * The amount of CPUs that can be used, taking the CPU quota of the container into account.
+     */
+    @Getter
+    private int cpus;
+
+    /**
+     * The CPU quota of the container in CPUs, null if unlimited.
+     */
+    @Getter
+    private Double cpuQuota;
+
+    /**
+     * The memory limit of the container in bytes, null if unlimited.
+     */
+    @Getter
+    private Long memoryLimit;
+
 }
@@ -13,6 +13,11 @@ import lombok.Data;
 @AllArgsConstructor
 public class TranscodeBeginEvent {
 
+    /**
+     * The id of the transcoding job.
+     */
+    private String jobId;
+
     private TranscodeTask task;
 
 }
@@ -2,6 +2,7 @@ package clustercode.api.event.messages;
 
 import clustercode.api.domain.Media;
 import clustercode.api.domain.Profile;
+import clustercode.api.domain.TranscodeTask;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -15,6 +16,16 @@ import java.nio.file.Path;
 @AllArgsConstructor
 public class TranscodeFinishedEvent {
 
+    /**
+     * The id of the transcoding job, null if the job could not be created.
+     */
+    private String jobId;
+
+    /**
+     * The task of the job, null if the event does not belong to a single task.
+     */
+    private TranscodeTask task;
+
     /**
      * The original media instance.
      */
@@ -30,6 +41,11 @@ public class TranscodeFinishedEvent {
      */
     private boolean successful;
 
+    /**
+     * The exit code of the transcoder process, -1 if the process could not be started.
+     */
+    private int exitCode;
+
     /**
      * The output file written during transcoding.
      */
@@ -40,4 +56,9 @@ public class TranscodeFinishedEvent {
      */
     private boolean cancelled;
 
+    /**
+     * Whether the task was cancelled because its output would not have been smaller than the source.
+     */
+    private boolean notWorthIt;
+
 }
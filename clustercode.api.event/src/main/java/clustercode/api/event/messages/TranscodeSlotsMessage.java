@@ -0,0 +1,16 @@
+package clustercode.api.event.messages;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class TranscodeSlotsMessage {
+
+    /**
+     * The amount of transcoding slots which are idle on this node. Stays at 1 if nobody answers the query.
+     */
+    @Builder.Default
+    private int availableSlots = 1;
+
+}
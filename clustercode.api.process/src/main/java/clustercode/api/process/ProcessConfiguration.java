@@ -24,4 +24,27 @@ public class ProcessConfiguration {
 
     @Singular
     private List<Consumer<String>> stdoutObservers;
+
+    /**
+     * The niceness (-20 to 19) with which the process is started, null to inherit it. Only applied on Linux.
+     */
+    private Integer niceness;
+
+    /**
+     * The I/O scheduling class of the process: 1 (realtime), 2 (best-effort) or 3 (idle), null to inherit it. Only
+     * applied on Linux.
+     */
+    private Integer ioClass;
+
+    /**
+     * The CPUs on which the process may run as a list in the format of taskset (e.g. "0-3,6"), null for all. Only
+     * applied on Linux.
+     */
+    private String cpuAffinity;
+
+    /**
+     * The cgroup (v2) dir to which the process is moved once started, null to keep it in the cgroup of this process.
+     * Ignored if the cgroup is not writable.
+     */
+    private Path cgroup;
 }
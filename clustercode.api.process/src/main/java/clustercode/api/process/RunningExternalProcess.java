@@ -1,5 +1,7 @@
 package clustercode.api.process;
 
+import java.time.Duration;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -43,4 +45,22 @@ public interface RunningExternalProcess {
      */
     boolean destroyNowWithTimeout(long timeout, TimeUnit unit);
 
+    /**
+     * Terminates the process and its descendants gracefully (SIGTERM). If the process has not terminated within the
+     * timeout, the process and its descendants are killed (SIGKILL) and awaited for the same timeout again.
+     *
+     * @param timeout the time to wait for each step ({@literal > 0}).
+     * @param unit    the unit of {@code timeout}, not null.
+     * @return true if the process terminated. False if it may still be running, e.g. blocked in an uninterruptible
+     * read. Also returns true if no process is active.
+     */
+    boolean terminate(long timeout, TimeUnit unit);
+
+    /**
+     * Gets the CPU time which the process has consumed so far, as reported by the operating system.
+     *
+     * @return the duration, empty if the operating system does not report it.
+     */
+    Optional<Duration> getCpuTime();
+
 }
@@ -0,0 +1,26 @@
+package clustercode.api.rest.v1.dto;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class Aborts {
+
+    @ApiModelProperty(value = "The amount of transcodings aborted since startup because their output would have " +
+            "been larger than allowed.", example = "3")
+    private long aborted;
+
+    @ApiModelProperty(value = "The projected CPU time in seconds the aborted transcodings would still have needed.",
+            example = "14400")
+    private long savedCpuSeconds;
+
+    @ApiModelProperty(value = "The projected wall time in seconds the aborted transcodings would still have needed.",
+            example = "3600")
+    private long savedWallSeconds;
+}
@@ -0,0 +1,26 @@
+package clustercode.api.rest.v1.dto;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class Estimates {
+
+    @ApiModelProperty(value = "The estimates of the running jobs of this node.")
+    private List<JobEta> jobs;
+
+    @ApiModelProperty(value = "The amount of media waiting in the scheduling queues.", example = "12")
+    private long waiting;
+
+    @ApiModelProperty(value = "The estimated time in seconds until this node has transcoded the running jobs and " +
+            "the waiting media, absent if unknown.", example = "36000")
+    private Long queueDrainSeconds;
+}
@@ -0,0 +1,46 @@
+package clustercode.api.rest.v1.dto;
+
+import com.owlike.genson.annotation.JsonDateFormat;
+import com.owlike.genson.annotation.JsonProperty;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class Failure {
+
+    @ApiModelProperty(value = "The path under the root input directory.",
+        example = "0/movies/amovie.mp4", required = true)
+    private String source;
+
+    @ApiModelProperty(value = "The amount of consecutive failed transcodings.",
+        example = "2", required = true)
+    private int failures;
+
+    @JsonProperty
+    @JsonDateFormat(value = "yyyy-MM-dd'T'HH:mm:ssZ")
+    @ApiModelProperty(value = "The timestamp of the last failure.",
+        example = "2017-08-27T05:45:12+0200")
+    private Date lastFailure;
+
+    @JsonProperty
+    @JsonDateFormat(value = "yyyy-MM-dd'T'HH:mm:ssZ")
+    @ApiModelProperty(value = "The timestamp after which the source is scheduled again, unless quarantined.",
+        example = "2017-08-27T06:45:12+0200")
+    private Date nextAttempt;
+
+    @ApiModelProperty(value = "Whether the source is only scheduled again after being released.",
+        example = "false")
+    private boolean quarantined;
+
+    @ApiModelProperty(value = "Whether the transcoding was aborted because the output would have been larger than " +
+        "the source.", example = "false")
+    private boolean notWorthIt;
+}
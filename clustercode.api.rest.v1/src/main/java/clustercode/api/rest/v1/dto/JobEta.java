@@ -0,0 +1,30 @@
+package clustercode.api.rest.v1.dto;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class JobEta {
+
+    @ApiModelProperty(value = "The id of the transcoding job.", required = true)
+    private String jobId;
+
+    @ApiModelProperty(value = "The path of the source, relative to the input dir.", example = "0/movie.mkv",
+            required = true)
+    private String sourcePath;
+
+    @ApiModelProperty(value = "The progress in percent, -1 if unknown.", example = "42.5")
+    private double percentage;
+
+    @ApiModelProperty(value = "The time since the job has been started in seconds.", example = "600")
+    private long elapsedSeconds;
+
+    @ApiModelProperty(value = "The estimated remaining time in seconds, absent if unknown.", example = "800")
+    private Long remainingSeconds;
+}
@@ -0,0 +1,32 @@
+package clustercode.api.rest.v1.dto;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProfileCache {
+
+    @ApiModelProperty(value = "The amount of profile lookups answered from the cache since startup.", example = "420")
+    private long hits;
+
+    @ApiModelProperty(value = "The amount of profile lookups which parsed the file since startup.", example = "12")
+    private long misses;
+
+    @ApiModelProperty(value = "The amount of cached profiles removed because the file changed.", example = "2")
+    private long invalidations;
+
+    @ApiModelProperty(value = "The amount of profiles currently cached.", example = "10")
+    private long entries;
+
+    @ApiModelProperty(value = "The share of lookups answered from the cache, between 0 and 1.", example = "0.97")
+    private double hitRatio;
+
+    @ApiModelProperty(value = "Whether the profile dir is watched for changes.", example = "true")
+    private boolean watching;
+}
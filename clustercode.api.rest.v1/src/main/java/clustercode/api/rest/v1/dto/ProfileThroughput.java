@@ -0,0 +1,40 @@
+package clustercode.api.rest.v1.dto;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProfileThroughput {
+
+    @ApiModelProperty(value = "The location of the profile file.", example = "/profiles/0/profile.ffmpeg",
+            required = true)
+    private String profile;
+
+    @ApiModelProperty(value = "The node which transcoded the media.", example = "node-1", required = true)
+    private String node;
+
+    @ApiModelProperty(value = "The amount of recent transcodings from which the figures are computed.",
+            example = "50")
+    private int samples;
+
+    @ApiModelProperty(value = "The average frames encoded per second, -1 if unknown.", example = "48.5")
+    private double averageFps;
+
+    @ApiModelProperty(value = "The average media time encoded per wall clock time, -1 if unknown.", example = "2.1")
+    private double speedFactor;
+
+    @ApiModelProperty(value = "The average time to transcode a media in seconds.", example = "1800")
+    private long averageWallSeconds;
+
+    @ApiModelProperty(value = "The output size relative to the source size.", example = "0.45")
+    private double sizeRatio;
+
+    @ApiModelProperty(value = "The source bytes transcoded per second, -1 if unknown.", example = "1048576")
+    private double bytesPerSecond;
+}
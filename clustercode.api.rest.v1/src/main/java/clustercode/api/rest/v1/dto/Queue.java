@@ -0,0 +1,38 @@
+package clustercode.api.rest.v1.dto;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class Queue {
+
+    @ApiModelProperty(value = "The priority directory of the queue.", example = "9", required = true)
+    private Integer priority;
+
+    @ApiModelProperty(value = "The share of the queue relative to the other queues.", example = "10.0")
+    private double weight;
+
+    @ApiModelProperty(value = "The amount of media waiting in the queue.", example = "42")
+    private long waiting;
+
+    @ApiModelProperty(value = "The amount of media selected from the queue since startup.", example = "7")
+    private long selected;
+
+    @ApiModelProperty(value = "The median wait time of recently selected media in seconds.", example = "3600")
+    private long medianWaitSeconds;
+
+    @ApiModelProperty(value = "The 90th percentile of the wait time in seconds.", example = "7200")
+    private long p90WaitSeconds;
+
+    @ApiModelProperty(value = "The 99th percentile of the wait time in seconds.", example = "14400")
+    private long p99WaitSeconds;
+
+    @ApiModelProperty(value = "The longest wait time of recently selected media in seconds.", example = "18000")
+    private long maxWaitSeconds;
+}
@@ -42,5 +42,9 @@ public class Task {
 
     @ApiModelProperty(value = "The name of the node which processes this task.", example = "linux-24356")
     private String nodename;
+
+    @ApiModelProperty(value = "The id of the transcoding job, which identifies the slot of the node.",
+        example = "0b6a6ed2-0e58-4c4e-9d0b-2b7f5e6f8f11")
+    private String job;
 }
 
@@ -1,5 +1,6 @@
 package clustercode.api.rest.v1.dto;
 
+import io.swagger.annotations.ApiModelProperty;
 import lombok.*;
 
 @EqualsAndHashCode
@@ -13,4 +14,18 @@ public class VersionInfo {
     @Getter
     private String mainVersion;
 
+    @Getter
+    @ApiModelProperty(value = "The amount of CPUs that can be used, reduced to the CPU quota of the container.",
+            example = "4")
+    private int cpus;
+
+    @Getter
+    @ApiModelProperty(value = "The CPU quota of the container in CPUs, absent if unlimited.", example = "3.5")
+    private Double cpuQuota;
+
+    @Getter
+    @ApiModelProperty(value = "The memory limit of the container in bytes, absent if unlimited.",
+            example = "4294967296")
+    private Long memoryLimit;
+
 }
@@ -0,0 +1,24 @@
+package clustercode.api.rest.v1.hook;
+
+import clustercode.api.scan.FailureRecord;
+
+import java.util.List;
+
+public interface FailureHook {
+
+    /**
+     * Gets the media whose transcoding failed, including the quarantined ones.
+     *
+     * @return the list of failures, sorted by path.
+     */
+    List<FailureRecord> getFailures();
+
+    /**
+     * Releases the media with the given path from the failure registry.
+     *
+     * @param sourcePath the path under the root input directory.
+     * @return true if released, false if the media had no failures.
+     */
+    boolean release(String sourcePath);
+
+}
@@ -0,0 +1,30 @@
+package clustercode.api.rest.v1.hook;
+
+import clustercode.api.event.RxEventBus;
+import clustercode.api.scan.FailureRecord;
+import clustercode.api.scan.messages.FailuresMessage;
+import clustercode.api.scan.messages.ReleaseFailureCommand;
+import com.google.inject.Inject;
+
+import java.util.List;
+
+public class FailureHookImpl implements FailureHook {
+
+    private final RxEventBus eventBus;
+
+    @Inject
+    FailureHookImpl(RxEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    @Override
+    public List<FailureRecord> getFailures() {
+        return eventBus.emit(FailuresMessage.builder().build()).getFailures();
+    }
+
+    @Override
+    public boolean release(String sourcePath) {
+        return eventBus.emit(ReleaseFailureCommand.builder().sourcePath(sourcePath).build()).isReleased();
+    }
+
+}
@@ -3,7 +3,8 @@ package clustercode.api.rest.v1.hook;
 public interface ProgressHook {
 
     /**
-     * Gets the most recent percentage from the transcoding progress.
+     * Gets the most recent percentage from the transcoding progress. If multiple slots are transcoding, this is the
+     * average over the jobs.
      *
      * @return a decimal value between 0 and 100, -1 if not job active.
      */
@@ -7,10 +7,27 @@ import com.google.inject.Inject;
 import lombok.Synchronized;
 import lombok.extern.slf4j.XSlf4j;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 @XSlf4j
 public class ProgressHookImpl implements ProgressHook {
 
-    private TranscodeReport latestProgressOutput;
+    private static final int MAX_FINISHED_JOBS = 100;
+
+    private final Map<String, TranscodeReport> latestProgressOutputs = new ConcurrentHashMap<>();
+    /**
+     * The ids of the most recently finished jobs, so that a report arriving after the end of its job is ignored.
+     */
+    private final Set<String> finishedJobs = Collections.newSetFromMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_FINISHED_JOBS;
+        }
+    });
 
     @Inject
     ProgressHookImpl(RxEventBus eventBus) {
@@ -23,19 +40,24 @@ public class ProgressHookImpl implements ProgressHook {
     @Synchronized
     private void onProgressUpdated(TranscodeReport output) {
         log.entry(output);
-        this.latestProgressOutput = output;
+        if (finishedJobs.contains(output.getJobId())) return;
+        latestProgressOutputs.put(output.getJobId(), output);
     }
 
     @Synchronized
     private void onTranscodingFinished(TranscodeFinishedEvent event) {
         log.entry(event);
-        this.latestProgressOutput = null;
+        if (event.getJobId() == null) return;
+        finishedJobs.add(event.getJobId());
+        latestProgressOutputs.remove(event.getJobId());
     }
 
     @Override
     public double getPercentage() {
-        if (latestProgressOutput == null) return -1d;
-        return latestProgressOutput.getPercentage();
+        return latestProgressOutputs.values().stream()
+                                    .mapToDouble(TranscodeReport::getPercentage)
+                                    .average()
+                                    .orElse(-1d);
     }
 
 }
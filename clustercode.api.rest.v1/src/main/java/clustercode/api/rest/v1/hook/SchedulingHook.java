@@ -0,0 +1,25 @@
+package clustercode.api.rest.v1.hook;
+
+import clustercode.api.scan.ProfileCacheStatistics;
+import clustercode.api.scan.QueueStatistics;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface SchedulingHook {
+
+    /**
+     * Gets the statistics of the scheduling queues.
+     *
+     * @return the list of queues, highest priority first. Empty if the scheduling policy does not use queues.
+     */
+    List<QueueStatistics> getQueueStatistics();
+
+    /**
+     * Gets the statistics of the profile cache.
+     *
+     * @return the statistics, empty if profiles are not cached.
+     */
+    Optional<ProfileCacheStatistics> getProfileCacheStatistics();
+
+}
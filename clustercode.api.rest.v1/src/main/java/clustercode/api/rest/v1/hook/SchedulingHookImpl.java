@@ -0,0 +1,32 @@
+package clustercode.api.rest.v1.hook;
+
+import clustercode.api.event.RxEventBus;
+import clustercode.api.scan.ProfileCacheStatistics;
+import clustercode.api.scan.QueueStatistics;
+import clustercode.api.scan.messages.ProfileCacheStatisticsMessage;
+import clustercode.api.scan.messages.QueueStatisticsMessage;
+import com.google.inject.Inject;
+
+import java.util.List;
+import java.util.Optional;
+
+public class SchedulingHookImpl implements SchedulingHook {
+
+    private final RxEventBus eventBus;
+
+    @Inject
+    SchedulingHookImpl(RxEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    @Override
+    public List<QueueStatistics> getQueueStatistics() {
+        return eventBus.emit(QueueStatisticsMessage.builder().build()).getQueues();
+    }
+
+    @Override
+    public Optional<ProfileCacheStatistics> getProfileCacheStatistics() {
+        return Optional.ofNullable(eventBus.emit(ProfileCacheStatisticsMessage.builder().build()).getStatistics());
+    }
+
+}
@@ -0,0 +1,49 @@
+package clustercode.api.rest.v1.hook;
+
+import clustercode.api.transcode.AbortStatistics;
+import clustercode.api.transcode.JobEstimate;
+import clustercode.api.transcode.ProfileStatistics;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+public interface StatisticsHook {
+
+    /**
+     * Gets the figures of the recent transcodings per profile and node.
+     *
+     * @return the list, may be empty.
+     */
+    List<ProfileStatistics> getProfileStatistics();
+
+    /**
+     * Gets the estimates of the running jobs.
+     *
+     * @return the list, may be empty.
+     */
+    List<JobEstimate> getJobEstimates();
+
+    /**
+     * Gets the amount of media waiting in the scheduling queues.
+     *
+     * @return the amount, 0 if the scheduling policy does not use queues.
+     */
+    long getWaitingMedia();
+
+    /**
+     * Estimates the time until the running jobs and the waiting media are transcoded by this node. Waiting media are
+     * assumed to take the average time of recent transcodings, spread over the slots of this node.
+     *
+     * @return the duration, empty if there are waiting media but no recent transcodings.
+     */
+    Optional<Duration> getQueueDrainTime();
+
+    /**
+     * Gets the figures of the transcodings aborted because of their output size.
+     *
+     * @return the statistics, empty if the transcoding services are not available.
+     */
+    Optional<AbortStatistics> getAbortStatistics();
+
+}
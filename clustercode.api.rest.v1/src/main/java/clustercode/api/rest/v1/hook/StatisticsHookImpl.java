@@ -0,0 +1,73 @@
+package clustercode.api.rest.v1.hook;
+
+import clustercode.api.event.RxEventBus;
+import clustercode.api.scan.QueueStatistics;
+import clustercode.api.scan.messages.QueueStatisticsMessage;
+import clustercode.api.transcode.AbortStatistics;
+import clustercode.api.transcode.JobEstimate;
+import clustercode.api.transcode.ProfileStatistics;
+import clustercode.api.transcode.messages.EncodeStatisticsMessage;
+
+import javax.inject.Inject;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+public class StatisticsHookImpl implements StatisticsHook {
+
+    private final RxEventBus eventBus;
+
+    @Inject
+    StatisticsHookImpl(RxEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    private EncodeStatisticsMessage query() {
+        return eventBus.emit(EncodeStatisticsMessage.builder().build());
+    }
+
+    @Override
+    public List<ProfileStatistics> getProfileStatistics() {
+        return query().getProfiles();
+    }
+
+    @Override
+    public List<JobEstimate> getJobEstimates() {
+        return query().getJobs();
+    }
+
+    @Override
+    public long getWaitingMedia() {
+        return eventBus.emit(QueueStatisticsMessage.builder().build())
+                       .getQueues()
+                       .stream()
+                       .mapToLong(QueueStatistics::getWaiting)
+                       .sum();
+    }
+
+    @Override
+    public Optional<Duration> getQueueDrainTime() {
+        var msg = query();
+        var average = Optional.ofNullable(msg.getAverageWallTime());
+        long waiting = getWaitingMedia();
+        if (waiting > 0 && !average.isPresent()) return Optional.empty();
+        var total = average.map(duration -> duration.multipliedBy(waiting)).orElse(Duration.ZERO);
+        for (JobEstimate job : msg.getJobs()) {
+            if (job.getRemaining() != null) {
+                total = total.plus(job.getRemaining());
+            } else if (average.isPresent()) {
+                var remaining = average.get().minus(job.getElapsed());
+                if (!remaining.isNegative()) total = total.plus(remaining);
+            } else {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(total.dividedBy(Math.max(1, msg.getSlots())));
+    }
+
+    @Override
+    public Optional<AbortStatistics> getAbortStatistics() {
+        return Optional.ofNullable(query().getAborts());
+    }
+
+}
@@ -0,0 +1,89 @@
+package clustercode.api.rest.v1.rest;
+
+import clustercode.api.rest.v1.RestServiceConfig;
+import clustercode.api.rest.v1.dto.ApiError;
+import clustercode.api.rest.v1.dto.Failure;
+import clustercode.api.rest.v1.hook.FailureHook;
+import clustercode.api.scan.FailureRecord;
+import io.swagger.annotations.*;
+
+import javax.inject.Inject;
+import javax.ws.rs.*;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.Date;
+import java.util.stream.Collectors;
+
+@Api
+@Path(RestServiceConfig.REST_API_CONTEXT_PATH + "/failures")
+public class FailuresApi extends AbstractRestApi {
+
+    private final FailureHook failureHook;
+
+    @Inject
+    FailuresApi(FailureHook failureHook) {
+        this.failureHook = failureHook;
+    }
+
+    @GET
+    @Produces({MediaType.APPLICATION_JSON})
+    @ApiOperation(
+        value = "Failed sources",
+        notes = "Gets the sources whose transcoding failed. These are skipped until their backoff has elapsed. " +
+            "Quarantined sources are skipped until released.",
+        response = Failure.class, responseContainer = "List", tags = {"Failures"})
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "An Array of Failure objects.", response = Failure.class,
+            responseContainer = "List"),
+        @ApiResponse(code = 500, message = "Unexpected error", response = ApiError.class)})
+    public Response getFailures(
+        @QueryParam("quarantined")
+        @ApiParam(value = "If true, only quarantined sources are listed.")
+            boolean quarantinedOnly
+    ) {
+        return createResponse(() -> failureHook
+            .getFailures()
+            .stream()
+            .filter(record -> !quarantinedOnly || record.isQuarantined())
+            .map(this::convertToDto)
+            .collect(Collectors.toList()));
+    }
+
+    @DELETE
+    @Produces({MediaType.APPLICATION_JSON})
+    @ApiOperation(
+        value = "Release a failed source",
+        notes = "Forgets the failures of the given source, so that it is scheduled again with the next scan.",
+        tags = {"Failures"})
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "Released the source successfully."),
+        @ApiResponse(code = 404, message = "The source has no recorded failures."),
+        @ApiResponse(code = 412, message = "The parameters were not fully or correctly specified"),
+        @ApiResponse(code = 500, message = "Unexpected error", response = ApiError.class)
+    })
+    public Response releaseFailure(
+        @QueryParam("source")
+        @ApiParam(value = "The path under the root input directory.", required = true)
+            String source
+    ) {
+        if (source == null || source.isEmpty()) return Response.status(Response.Status.PRECONDITION_FAILED).build();
+        try {
+            if (failureHook.release(source)) return Response.ok().build();
+            return Response.status(Response.Status.NOT_FOUND).build();
+        } catch (Exception ex) {
+            log.catching(ex);
+            return serverError(ex);
+        }
+    }
+
+    private Failure convertToDto(FailureRecord record) {
+        return Failure.builder()
+                      .source(record.getSourcePath().toString())
+                      .failures(record.getFailures())
+                      .lastFailure(Date.from(record.getLastFailure()))
+                      .nextAttempt(Date.from(record.getNextAttempt()))
+                      .quarantined(record.isQuarantined())
+                      .notWorthIt(record.isNotWorthIt())
+                      .build();
+    }
+}
@@ -0,0 +1,102 @@
+package clustercode.api.rest.v1.rest;
+
+import clustercode.api.rest.v1.RestServiceConfig;
+import clustercode.api.rest.v1.dto.ApiError;
+import clustercode.api.rest.v1.dto.ProfileCache;
+import clustercode.api.rest.v1.dto.Queue;
+import clustercode.api.rest.v1.hook.SchedulingHook;
+import clustercode.api.scan.ProfileCacheStatistics;
+import clustercode.api.scan.QueueStatistics;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.stream.Collectors;
+
+@Api
+@Path(RestServiceConfig.REST_API_CONTEXT_PATH + "/scheduling")
+public class SchedulingApi extends AbstractRestApi {
+
+    private final SchedulingHook schedulingHook;
+
+    @Inject
+    SchedulingApi(SchedulingHook schedulingHook) {
+        this.schedulingHook = schedulingHook;
+    }
+
+    @GET
+    @Path("/queues")
+    @Produces({MediaType.APPLICATION_JSON})
+    @ApiOperation(
+        value = "Scheduling queues",
+        notes = "Gets the wait time percentiles of each priority directory. The list is empty unless the weighted " +
+            "fair scheduling policy is active.",
+        response = Queue.class, responseContainer = "List", tags = {"Scheduling"})
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "An Array of Queue objects.", response = Queue.class,
+            responseContainer = "List"),
+        @ApiResponse(code = 500, message = "Unexpected error", response = ApiError.class)})
+    public Response getQueues() {
+        return createResponse(() -> schedulingHook
+            .getQueueStatistics()
+            .stream()
+            .map(this::convertToDto)
+            .collect(Collectors.toList()));
+    }
+
+    @GET
+    @Path("/profile-cache")
+    @Produces({MediaType.APPLICATION_JSON})
+    @ApiOperation(
+        value = "Profile cache",
+        notes = "Gets the hit and miss counters of the profile cache.",
+        response = ProfileCache.class, tags = {"Scheduling"})
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "The cache statistics.", response = ProfileCache.class),
+        @ApiResponse(code = 404, message = "Profiles are not cached."),
+        @ApiResponse(code = 500, message = "Unexpected error", response = ApiError.class)})
+    public Response getProfileCache() {
+        try {
+            return schedulingHook
+                .getProfileCacheStatistics()
+                .map(this::convertToDto)
+                .map(dto -> Response.ok(dto).build())
+                .orElseGet(() -> Response.status(Response.Status.NOT_FOUND).build());
+        } catch (Exception ex) {
+            log.catching(ex);
+            return serverError(ex);
+        }
+    }
+
+    private ProfileCache convertToDto(ProfileCacheStatistics cache) {
+        long lookups = cache.getHits() + cache.getMisses();
+        return ProfileCache.builder()
+                           .hits(cache.getHits())
+                           .misses(cache.getMisses())
+                           .invalidations(cache.getInvalidations())
+                           .entries(cache.getEntries())
+                           .hitRatio(lookups == 0 ? 0d : (double) cache.getHits() / lookups)
+                           .watching(cache.isWatching())
+                           .build();
+    }
+
+    private Queue convertToDto(QueueStatistics queue) {
+        return Queue.builder()
+                    .priority(queue.getPriority())
+                    .weight(queue.getWeight())
+                    .waiting(queue.getWaiting())
+                    .selected(queue.getSelected())
+                    .medianWaitSeconds(queue.getMedianWaitTime().getSeconds())
+                    .p90WaitSeconds(queue.getP90WaitTime().getSeconds())
+                    .p99WaitSeconds(queue.getP99WaitTime().getSeconds())
+                    .maxWaitSeconds(queue.getMaxWaitTime().getSeconds())
+                    .build();
+    }
+}
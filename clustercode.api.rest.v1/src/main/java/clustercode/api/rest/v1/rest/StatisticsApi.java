@@ -0,0 +1,130 @@
+package clustercode.api.rest.v1.rest;
+
+import clustercode.api.rest.v1.RestServiceConfig;
+import clustercode.api.rest.v1.dto.Aborts;
+import clustercode.api.rest.v1.dto.ApiError;
+import clustercode.api.rest.v1.dto.Estimates;
+import clustercode.api.rest.v1.dto.JobEta;
+import clustercode.api.rest.v1.dto.ProfileThroughput;
+import clustercode.api.rest.v1.hook.StatisticsHook;
+import clustercode.api.transcode.AbortStatistics;
+import clustercode.api.transcode.JobEstimate;
+import clustercode.api.transcode.ProfileStatistics;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+@Api
+@Path(RestServiceConfig.REST_API_CONTEXT_PATH + "/statistics")
+public class StatisticsApi extends AbstractRestApi {
+
+    private final StatisticsHook statisticsHook;
+
+    @Inject
+    StatisticsApi(StatisticsHook statisticsHook) {
+        this.statisticsHook = statisticsHook;
+    }
+
+    @GET
+    @Path("/profiles")
+    @Produces({MediaType.APPLICATION_JSON})
+    @ApiOperation(
+        value = "Profile throughput",
+        notes = "Gets the encode speed, wall time and size ratio of the recent transcodings of this node, per " +
+            "profile and node.",
+        response = ProfileThroughput.class, responseContainer = "List", tags = {"Statistics"})
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "An Array of ProfileThroughput objects.", response = ProfileThroughput.class,
+            responseContainer = "List"),
+        @ApiResponse(code = 500, message = "Unexpected error", response = ApiError.class)})
+    public Response getProfiles() {
+        return createResponse(() -> statisticsHook
+            .getProfileStatistics()
+            .stream()
+            .map(this::convertToDto)
+            .collect(Collectors.toList()));
+    }
+
+    @GET
+    @Path("/estimates")
+    @Produces({MediaType.APPLICATION_JSON})
+    @ApiOperation(
+        value = "Estimates",
+        notes = "Gets the estimated remaining time of the running jobs and the time until this node has transcoded " +
+            "the waiting media. Waiting media are only counted by the weighted fair scheduling policy.",
+        response = Estimates.class, tags = {"Statistics"})
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "The estimates.", response = Estimates.class),
+        @ApiResponse(code = 500, message = "Unexpected error", response = ApiError.class)})
+    public Response getEstimates() {
+        return createResponse(() -> Estimates
+            .builder()
+            .jobs(statisticsHook
+                .getJobEstimates()
+                .stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList()))
+            .waiting(statisticsHook.getWaitingMedia())
+            .queueDrainSeconds(statisticsHook.getQueueDrainTime().map(Duration::getSeconds).orElse(null))
+            .build());
+    }
+
+    @GET
+    @Path("/aborts")
+    @Produces({MediaType.APPLICATION_JSON})
+    @ApiOperation(
+        value = "Aborted transcodings",
+        notes = "Gets the amount of transcodings of this node which were aborted because their output would have " +
+            "been larger than the source, and the projected time this saved.",
+        response = Aborts.class, tags = {"Statistics"})
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "The statistics.", response = Aborts.class),
+        @ApiResponse(code = 500, message = "Unexpected error", response = ApiError.class)})
+    public Response getAborts() {
+        return createResponse(() -> statisticsHook
+            .getAbortStatistics()
+            .map(this::convertToDto)
+            .orElseGet(() -> Aborts.builder().build()));
+    }
+
+    private Aborts convertToDto(AbortStatistics statistics) {
+        return Aborts.builder()
+                     .aborted(statistics.getAborted())
+                     .savedCpuSeconds(statistics.getSavedCpuTime().getSeconds())
+                     .savedWallSeconds(statistics.getSavedWallTime().getSeconds())
+                     .build();
+    }
+
+    private ProfileThroughput convertToDto(ProfileStatistics profile) {
+        return ProfileThroughput.builder()
+                                .profile(profile.getProfile().toString())
+                                .node(profile.getNode())
+                                .samples(profile.getSamples())
+                                .averageFps(profile.getAverageFps())
+                                .speedFactor(profile.getSpeedFactor())
+                                .averageWallSeconds(profile.getAverageWallTime().getSeconds())
+                                .sizeRatio(profile.getSizeRatio())
+                                .bytesPerSecond(profile.getThroughput())
+                                .build();
+    }
+
+    private JobEta convertToDto(JobEstimate job) {
+        return JobEta.builder()
+                     .jobId(job.getJobId())
+                     .sourcePath(job.getSourcePath().toString())
+                     .percentage(job.getPercentage())
+                     .elapsedSeconds(job.getElapsed().getSeconds())
+                     .remainingSeconds(job.getRemaining() == null ? null : job.getRemaining().getSeconds())
+                     .build();
+    }
+}
@@ -13,6 +13,7 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.sql.Date;
 import java.text.DecimalFormat;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Api
@@ -31,7 +32,8 @@ public class TasksApi extends AbstractRestApi {
     @Produces({MediaType.APPLICATION_JSON})
     @ApiOperation(
         value = "Tasks information",
-        notes = "Provides operations to get task information. Completed tasks do not appear in the list.",
+        notes = "Provides operations to get task information, one entry per active transcoding slot. Completed " +
+            "tasks do not appear in the list.",
         response = Task.class, responseContainer = "List", tags = {"Tasks"})
     @ApiResponses(value = {
         @ApiResponse(code = 200, message = "An Array of Task object.", response = Task.class, responseContainer =
@@ -78,8 +80,10 @@ public class TasksApi extends AbstractRestApi {
                    .priority(clusterTask.getPriority())
                    .source(clusterTask.getSourceName())
                    .added(Date.from(clusterTask.getDateAdded().toInstant()))
-                   .updated(Date.from(clusterTask.getDateAdded().toInstant()))
-                   .nodename("worker")
+                   .updated(Date.from(Optional.ofNullable(clusterTask.getDateUpdated())
+                                              .orElse(clusterTask.getDateAdded()).toInstant()))
+                   .nodename(Optional.ofNullable(clusterTask.getNodeName()).orElse("worker"))
+                   .job(clusterTask.getJobId())
                    .progress(Double.parseDouble(decimalFormat.format(clusterTask.getPercentage())))
                    .build();
     }
@@ -36,6 +36,9 @@ public class VersionApi extends AbstractRestApi {
         return createResponse(() ->
                 VersionInfo.builder()
                            .mainVersion(versionInfo.getMainVersion())
+                           .cpus(versionInfo.getCpus())
+                           .cpuQuota(versionInfo.getCpuQuota())
+                           .memoryLimit(versionInfo.getMemoryLimit())
                            .build());
     }
 
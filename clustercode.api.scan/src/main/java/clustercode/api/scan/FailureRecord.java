@@ -0,0 +1,44 @@
+package clustercode.api.scan;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+@Value
+@Builder
+public class FailureRecord {
+
+    /**
+     * The path of the failed media, relative to the base input dir.
+     */
+    private Path sourcePath;
+
+    /**
+     * The amount of consecutive failed transcodings.
+     */
+    private int failures;
+
+    /**
+     * The time of the last failure.
+     */
+    private Instant lastFailure;
+
+    /**
+     * The earliest time at which the media is considered for scheduling again.
+     */
+    private Instant nextAttempt;
+
+    /**
+     * Whether the media has failed too often and is only scheduled again after being released.
+     */
+    private boolean quarantined;
+
+    /**
+     * Whether the transcoding has been aborted because the output would have been larger than the source. Such media
+     * are quarantined immediately.
+     */
+    private boolean notWorthIt;
+
+}
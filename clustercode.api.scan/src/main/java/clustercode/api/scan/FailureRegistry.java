@@ -0,0 +1,66 @@
+package clustercode.api.scan;
+
+import clustercode.api.domain.Media;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Represents a registry which remembers media whose transcoding failed, so that the same (possibly corrupt) media is
+ * not selected again and again. A failed media is retried after a backoff that grows with each consecutive failure
+ * and is quarantined after too many failures.
+ */
+public interface FailureRegistry {
+
+    /**
+     * Records a failed transcoding of the given media.
+     *
+     * @param media the media, not null.
+     */
+    void recordFailure(Media media);
+
+    /**
+     * Records that the transcoding of the given media has been aborted because the output would have been larger than
+     * the source. The media is quarantined, as transcoding it again would give the same result.
+     *
+     * @param media the media, not null.
+     */
+    void recordNotWorthIt(Media media);
+
+    /**
+     * Records a successful transcoding of the given media, which forgets any previous failures.
+     *
+     * @param media the media, not null.
+     */
+    void recordSuccess(Media media);
+
+    /**
+     * Re-reads the persisted failures if they have been changed since they have been read last, e.g. by another node
+     * sharing the same registry. Should be called before a series of eligibility checks.
+     */
+    void refresh();
+
+    /**
+     * Tests whether the given media may be scheduled.
+     *
+     * @param media the media, not null.
+     * @return false if the media is quarantined or its backoff has not elapsed yet, true otherwise.
+     */
+    boolean isEligible(Media media);
+
+    /**
+     * Gets the recorded failures.
+     *
+     * @return the list of failed media, sorted by path. May be empty.
+     */
+    List<FailureRecord> getFailures();
+
+    /**
+     * Forgets the failures of the media with the given path, which makes it eligible for scheduling again.
+     *
+     * @param sourcePath the path of the media, relative to the base input dir.
+     * @return true if a record has been removed, false if the media had no failures.
+     */
+    boolean release(Path sourcePath);
+
+}
@@ -0,0 +1,36 @@
+package clustercode.api.scan;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class ProfileCacheStatistics {
+
+    /**
+     * The amount of lookups which have been answered from the cache since startup.
+     */
+    private long hits;
+
+    /**
+     * The amount of lookups which required the profile file to be parsed since startup.
+     */
+    private long misses;
+
+    /**
+     * The amount of entries which have been removed because the file changed.
+     */
+    private long invalidations;
+
+    /**
+     * The amount of profiles currently cached.
+     */
+    private long entries;
+
+    /**
+     * Whether the profile dir is being watched for changes. If not, cached entries are validated by modification
+     * time and size on each lookup.
+     */
+    private boolean watching;
+
+}
@@ -17,4 +17,13 @@ public interface ProfileParser {
      */
     Optional<Profile> parseFile(Path path);
 
+    /**
+     * Gets the statistics of the cache used by this parser.
+     *
+     * @return the statistics, empty if this parser does not cache profiles (default).
+     */
+    default Optional<ProfileCacheStatistics> getCacheStatistics() {
+        return Optional.empty();
+    }
+
 }
@@ -0,0 +1,52 @@
+package clustercode.api.scan;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+@Value
+@Builder
+public class QueueStatistics {
+
+    /**
+     * The priority of the media in this queue, which is the name of the priority directory.
+     */
+    private int priority;
+
+    /**
+     * The share of the queue relative to other queues.
+     */
+    private double weight;
+
+    /**
+     * The amount of candidates that are currently waiting in the queue.
+     */
+    private long waiting;
+
+    /**
+     * The amount of media that have been selected from this queue since startup.
+     */
+    private long selected;
+
+    /**
+     * The median time that recently selected media have waited since they were first seen.
+     */
+    private Duration medianWaitTime;
+
+    /**
+     * The 90th percentile of the wait time of recently selected media.
+     */
+    private Duration p90WaitTime;
+
+    /**
+     * The 99th percentile of the wait time of recently selected media.
+     */
+    private Duration p99WaitTime;
+
+    /**
+     * The longest wait time of recently selected media.
+     */
+    private Duration maxWaitTime;
+
+}
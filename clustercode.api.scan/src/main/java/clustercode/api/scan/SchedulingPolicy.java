@@ -0,0 +1,40 @@
+package clustercode.api.scan;
+
+import clustercode.api.domain.Media;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents a strategy which decides in which order media candidates are considered for scheduling. The selection
+ * evaluates the constraints in the returned order and picks the first accepted candidates.
+ */
+public interface SchedulingPolicy {
+
+    /**
+     * Orders the given candidates by preference. Implementations may drop duplicates, but must not add or otherwise
+     * remove candidates and must not modify the given list.
+     *
+     * @param candidates the candidates, not null.
+     * @return a new list with the same candidates, the most preferred first.
+     */
+    List<Media> order(List<Media> candidates);
+
+    /**
+     * Notifies the policy that the given media has been selected for scheduling. Does nothing by default.
+     *
+     * @param media the selected media, not null.
+     */
+    default void onSelected(Media media) {
+    }
+
+    /**
+     * Gets the statistics of the queues which this policy maintains.
+     *
+     * @return the statistics, highest priority first. Empty by default.
+     */
+    default List<QueueStatistics> getQueueStatistics() {
+        return Collections.emptyList();
+    }
+
+}
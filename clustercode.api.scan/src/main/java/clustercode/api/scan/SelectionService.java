@@ -2,11 +2,60 @@ package clustercode.api.scan;
 
 import clustercode.api.domain.Media;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
 public interface SelectionService {
 
-    Optional<Media> selectMedia(List<Media> list);
+    /**
+     * Selects the most suitable media from the given list.
+     *
+     * @param list the list of candidates, not null.
+     * @return the selected media, otherwise empty.
+     */
+    default Optional<Media> selectMedia(List<Media> list) {
+        return selectMedia(list, 1).stream().findFirst();
+    }
+
+    /**
+     * Selects up to {@code count} distinct media from the given list which are accepted by all constraints. Media that
+     * are not eligible according to the {@link FailureRegistry} are skipped. The candidates are evaluated in a single
+     * pass in order of their priority, the evaluation stops as soon as enough media have been found.
+     *
+     * @param list  the list of candidates, not null.
+     * @param count the maximum amount of media to select. If less than 1, an empty list is returned.
+     * @return the selected media in order of their priority (highest first), may be empty.
+     */
+    List<Media> selectMedia(List<Media> list, int count);
+
+    /**
+     * Finds the media with the highest priority from the given list which is eligible and accepted by all constraints,
+     * without selecting it. Unlike {@link #selectMedia(List, int)}, neither the scheduling policy nor the constraints
+     * are notified, and the state of the policy is left untouched. This allows to check whether a media could be
+     * scheduled before committing to it, e.g. for preemption.
+     *
+     * @param list the list of candidates, not null.
+     * @return the media, empty if none is accepted.
+     */
+    Optional<Media> peekMedia(List<Media> list);
+
+    /**
+     * Notifies the scheduling policy and the constraints that the given media has been selected outside of
+     * {@link #selectMedia(List, int)}, e.g. after it has been found with {@link #peekMedia(List)}.
+     *
+     * @param media the selected media, not null.
+     */
+    void onSelected(Media media);
+
+    /**
+     * Gets the instant until which no media from the given list can be selected. This is the case if one or more
+     * constraints decline all of the given candidates and know when their verdict could change next (e.g. the time
+     * window). If multiple constraints block, the latest of their instants is returned.
+     *
+     * @param list the list of candidates which have not been selected, not null.
+     * @return the instant, empty if unknown or if no constraint declines all candidates.
+     */
+    Optional<Instant> getNextVerdictChange(List<Media> list);
 
 }
@@ -0,0 +1,33 @@
+package clustercode.api.scan;
+
+import clustercode.api.domain.Media;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Represents a service which predicts how long it takes to transcode a media.
+ */
+public interface TranscodeEstimator {
+
+    /**
+     * Estimates the wall-clock time needed to transcode the given media with its profile, based on the speed
+     * observed in past transcodings.
+     *
+     * @param media the media, not null.
+     * @return the estimated duration, empty if there is no history for the profile or the source is not readable.
+     */
+    Optional<Duration> estimateDuration(Media media);
+
+    /**
+     * Estimates the size of the transcoded file, based on the ratio between output and source size observed in past
+     * transcodings with the media's profile.
+     *
+     * @param media the media, not null.
+     * @return the estimated size in bytes, empty if there is no history for the profile or the source is not
+     * readable.
+     */
+    OptionalLong estimateOutputSize(Media media);
+
+}
@@ -0,0 +1,20 @@
+package clustercode.api.scan.messages;
+
+import clustercode.api.scan.FailureRecord;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Collections;
+import java.util.List;
+
+@Data
+@Builder
+public class FailuresMessage {
+
+    /**
+     * The media whose transcoding failed, sorted by path.
+     */
+    @Builder.Default
+    private List<FailureRecord> failures = Collections.emptyList();
+
+}
@@ -0,0 +1,16 @@
+package clustercode.api.scan.messages;
+
+import clustercode.api.scan.ProfileCacheStatistics;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ProfileCacheStatisticsMessage {
+
+    /**
+     * The statistics of the profile cache, null if profiles are not cached.
+     */
+    private ProfileCacheStatistics statistics;
+
+}
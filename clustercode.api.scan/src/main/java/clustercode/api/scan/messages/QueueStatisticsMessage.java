@@ -0,0 +1,21 @@
+package clustercode.api.scan.messages;
+
+import clustercode.api.scan.QueueStatistics;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Collections;
+import java.util.List;
+
+@Data
+@Builder
+public class QueueStatisticsMessage {
+
+    /**
+     * The statistics of the scheduling queues, highest priority first. Empty if the scheduling policy does not use
+     * queues.
+     */
+    @Builder.Default
+    private List<QueueStatistics> queues = Collections.emptyList();
+
+}
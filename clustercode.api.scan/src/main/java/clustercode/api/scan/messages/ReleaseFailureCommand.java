@@ -0,0 +1,20 @@
+package clustercode.api.scan.messages;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ReleaseFailureCommand {
+
+    /**
+     * The path of the media to release, relative to the base input dir.
+     */
+    private String sourcePath;
+
+    /**
+     * Whether a record has been released.
+     */
+    private boolean released;
+
+}
@@ -0,0 +1,28 @@
+package clustercode.api.transcode;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+@Value
+@Builder
+public class AbortStatistics {
+
+    /**
+     * The amount of transcodings aborted since startup because their output would have been larger than allowed.
+     */
+    private long aborted;
+
+    /**
+     * The CPU time the aborted transcodings would still have needed, projected from their progress. Only includes
+     * transcodings whose CPU time is reported by the operating system.
+     */
+    private Duration savedCpuTime;
+
+    /**
+     * The wall time the aborted transcodings would still have needed, projected from their progress.
+     */
+    private Duration savedWallTime;
+
+}
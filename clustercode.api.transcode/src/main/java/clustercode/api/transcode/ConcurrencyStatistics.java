@@ -0,0 +1,50 @@
+package clustercode.api.transcode;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class ConcurrencyStatistics {
+
+    /**
+     * The current amount of transcoding slots.
+     */
+    private int slots;
+
+    /**
+     * The lower bound of slots.
+     */
+    private int minSlots;
+
+    /**
+     * The upper bound of slots. Equal to the lower bound if the amount of slots is not adjusted.
+     */
+    private int maxSlots;
+
+    /**
+     * The amount of times a slot has been added since startup.
+     */
+    private long increases;
+
+    /**
+     * The amount of times slots have been removed since startup.
+     */
+    private long decreases;
+
+    /**
+     * The CPU utilization in percent at the last adjustment check, -1 if unknown.
+     */
+    private double cpuUtilization;
+
+    /**
+     * The amount of runnable tasks per CPU at the last adjustment check, -1 if unknown.
+     */
+    private double runQueuePerCpu;
+
+    /**
+     * The sum of the frames encoded per second of all running jobs at the last adjustment check.
+     */
+    private double throughput;
+
+}
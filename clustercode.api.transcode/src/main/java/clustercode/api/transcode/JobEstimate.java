@@ -0,0 +1,38 @@
+package clustercode.api.transcode;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Value
+@Builder
+public class JobEstimate {
+
+    /**
+     * The id of the transcoding job.
+     */
+    private String jobId;
+
+    /**
+     * The path of the source, relative to the input dir.
+     */
+    private Path sourcePath;
+
+    /**
+     * The progress in percent, -1 if unknown.
+     */
+    private double percentage;
+
+    /**
+     * The time since the job has been started.
+     */
+    private Duration elapsed;
+
+    /**
+     * The estimated time until the job is finished, null if unknown.
+     */
+    private Duration remaining;
+
+}
@@ -0,0 +1,53 @@
+package clustercode.api.transcode;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Value
+@Builder
+public class ProfileStatistics {
+
+    /**
+     * The location of the profile file.
+     */
+    private Path profile;
+
+    /**
+     * The name of the node which transcoded the media.
+     */
+    private String node;
+
+    /**
+     * The amount of recent transcodings from which the figures are computed.
+     */
+    private int samples;
+
+    /**
+     * The average amount of frames encoded per second, -1 if unknown.
+     */
+    private double averageFps;
+
+    /**
+     * The average speed factor (media time encoded per wall clock time), -1 if unknown.
+     */
+    private double speedFactor;
+
+    /**
+     * The average time it took to transcode a media.
+     */
+    private Duration averageWallTime;
+
+    /**
+     * The ratio between the output size and the source size (e.g. 0.4 if the outputs are 40% of the sources' size).
+     */
+    private double sizeRatio;
+
+    /**
+     * The amount of source bytes transcoded per second, -1 if unknown.
+     */
+    private double throughput;
+
+}
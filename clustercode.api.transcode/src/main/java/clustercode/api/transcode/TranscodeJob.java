@@ -0,0 +1,58 @@
+package clustercode.api.transcode;
+
+import clustercode.api.domain.TranscodeTask;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.OptionalDouble;
+
+/**
+ * Represents a transcoding job which occupies one transcoding slot of this node. The job is the handle of a single
+ * transcoder process, the events and reports of the job carry its id.
+ */
+public interface TranscodeJob {
+
+    /**
+     * Gets the id of this job, which is unique on this node.
+     *
+     * @return the id, not null.
+     */
+    String getId();
+
+    /**
+     * Gets the task of this job.
+     *
+     * @return the task, not null.
+     */
+    TranscodeTask getTask();
+
+    /**
+     * Gets the file to which the transcoder writes.
+     *
+     * @return the path, not null.
+     */
+    Path getTemporaryPath();
+
+    /**
+     * Gets the time at which the job has been started.
+     *
+     * @return the instant, not null.
+     */
+    Instant getStarted();
+
+    /**
+     * Gets the most recent progress of this job.
+     *
+     * @return the progress in percent, empty if no progress has been reported yet.
+     */
+    OptionalDouble getProgress();
+
+    /**
+     * Cancels this job by destroying the transcoder process. If the process has not been started yet, it is destroyed
+     * as soon as it starts.
+     *
+     * @return true if the job has been cancelled, false if cancellation timed out.
+     */
+    boolean cancel();
+
+}
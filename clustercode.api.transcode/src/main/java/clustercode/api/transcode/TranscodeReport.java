@@ -2,6 +2,13 @@ package clustercode.api.transcode;
 
 public interface TranscodeReport {
 
+    /**
+     * Gets the id of the {@link TranscodeJob} which this report belongs to.
+     *
+     * @return the job id, not null.
+     */
+    String getJobId();
+
     double getPercentage();
 
 }
@@ -0,0 +1,28 @@
+package clustercode.api.transcode;
+
+import clustercode.api.domain.Profile;
+
+import java.util.OptionalDouble;
+
+/**
+ * Provides historical figures of successfully finished transcodings, aggregated per profile.
+ */
+public interface TranscodeStatistics {
+
+    /**
+     * Gets the ratio between the output size and the source size of media transcoded with the given profile.
+     *
+     * @param profile the profile, not null.
+     * @return the ratio (e.g. 0.4 if the outputs are 40% of the sources' size), empty if not known yet.
+     */
+    OptionalDouble getSizeRatio(Profile profile);
+
+    /**
+     * Gets the amount of source bytes transcoded per second with the given profile.
+     *
+     * @param profile the profile, not null.
+     * @return the throughput in bytes per second, empty if not known yet.
+     */
+    OptionalDouble getThroughput(Profile profile);
+
+}
@@ -1,11 +1,15 @@
 package clustercode.api.transcode;
 
+import clustercode.api.domain.Media;
 import clustercode.api.domain.TranscodeTask;
 import clustercode.api.event.messages.TranscodeBeginEvent;
 import clustercode.api.event.messages.TranscodeFinishedEvent;
 import io.reactivex.Flowable;
 import io.reactivex.Observable;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.OptionalDouble;
 import java.util.function.Consumer;
 
 public interface TranscodingService {
@@ -18,12 +22,59 @@ public interface TranscodingService {
     void transcode(TranscodeTask task);
 
     /**
-     * Cancels the current transcoding job. Does nothing if no transcoding active.
+     * Cancels all current transcoding jobs. Does nothing if no transcoding active.
      *
-     * @return true if the job has been cancelled or none active. False if failed or cancellation timed out.
+     * @return true if the jobs have been cancelled or none active. False if failed or cancellation timed out.
      */
     boolean cancelTranscode();
 
+    /**
+     * Cancels the transcoding job with the given id. Does nothing if the job is not active.
+     *
+     * @param jobId the id of the job, not null.
+     * @return true if the job has been cancelled. False if the job is not active or cancellation failed.
+     */
+    boolean cancelTranscode(String jobId);
+
+    /**
+     * Cancels the transcoding job of the given media. Does nothing if the media is not being transcoded.
+     *
+     * @param media the media, not null.
+     * @return true if the job has been cancelled. False if the media is not being transcoded or cancellation failed.
+     */
+    boolean cancelTranscode(Media media);
+
+    /**
+     * Gets the most recent progress of the transcoding job of the given media.
+     *
+     * @param media the media, not null.
+     * @return the progress in percent, empty if the media is not being transcoded or no progress has been reported.
+     */
+    OptionalDouble getProgress(Media media);
+
+    /**
+     * Gets the amount of transcoding slots which are idle and would start a new task immediately.
+     *
+     * @return the amount of idle slots, 0 if all are busy.
+     */
+    int getAvailableSlots();
+
+    /**
+     * Gets the jobs which are currently transcoding, at most one per slot.
+     *
+     * @return the jobs, may be empty.
+     */
+    Collection<TranscodeJob> getActiveJobs();
+
+    /**
+     * Estimates the remaining time of the jobs which are currently transcoding. The estimate of the transcoder is
+     * used if it reports one, otherwise it is extrapolated from the progress or, before any progress has been
+     * reported, from the throughput of recent transcodings with the same profile.
+     *
+     * @return the estimates, may be empty.
+     */
+    List<JobEstimate> getEstimates();
+
     Flowable<TranscodeBeginEvent> onTranscodeBegin();
 
     Flowable<TranscodeFinishedEvent> onTranscodeFinished();
@@ -0,0 +1,16 @@
+package clustercode.api.transcode.messages;
+
+import clustercode.api.transcode.ConcurrencyStatistics;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ConcurrencyStatisticsMessage {
+
+    /**
+     * The statistics of the transcoding slots, null if not answered.
+     */
+    private ConcurrencyStatistics statistics;
+
+}
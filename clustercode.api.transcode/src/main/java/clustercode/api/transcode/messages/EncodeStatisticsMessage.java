@@ -0,0 +1,44 @@
+package clustercode.api.transcode.messages;
+
+import clustercode.api.transcode.AbortStatistics;
+import clustercode.api.transcode.JobEstimate;
+import clustercode.api.transcode.ProfileStatistics;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+@Data
+@Builder
+public class EncodeStatisticsMessage {
+
+    /**
+     * The figures of the recent transcodings per profile and node.
+     */
+    @Builder.Default
+    private List<ProfileStatistics> profiles = Collections.emptyList();
+
+    /**
+     * The estimates of the running jobs.
+     */
+    @Builder.Default
+    private List<JobEstimate> jobs = Collections.emptyList();
+
+    /**
+     * The amount of transcoding slots of this node.
+     */
+    private int slots;
+
+    /**
+     * The average time it took to transcode a media with any profile, null if unknown.
+     */
+    private Duration averageWallTime;
+
+    /**
+     * The figures of the transcodings aborted because of their output size, null if unknown.
+     */
+    private AbortStatistics aborts;
+
+}
@@ -1,10 +1,12 @@
 package clustercode.impl.cleanup;
 
+import clustercode.api.cleanup.messages.MoveStatisticsMessage;
 import clustercode.api.domain.Activator;
 import clustercode.api.domain.ActivatorContext;
 import clustercode.api.event.RxEventBus;
 import clustercode.api.event.messages.TranscodeFinishedEvent;
 import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.inject.Inject;
@@ -27,8 +29,13 @@ public class CleanupActivator implements Activator {
     @Override
     public void preActivate(ActivatorContext context) {
         log.debug("Activating cleanup services.");
+        // Moving the output may copy a whole file, which must not block the thread that delivers the job events.
         handlers.add(eventBus
-                .listenFor(TranscodeFinishedEvent.class, messageHandler::onTranscodeFinished));
+                .listenFor(TranscodeFinishedEvent.class)
+                .observeOn(Schedulers.io())
+                .subscribe(messageHandler::onTranscodeFinished));
+        handlers.add(eventBus
+                .listenFor(MoveStatisticsMessage.class, messageHandler::onMoveStatisticsQuery));
     }
 
     @Override
@@ -1,9 +1,11 @@
 package clustercode.impl.cleanup;
 
 import clustercode.api.cleanup.CleanupService;
+import clustercode.api.cleanup.messages.MoveStatisticsMessage;
 import clustercode.api.event.RxEventBus;
 import clustercode.api.event.messages.CleanupFinishedMessage;
 import clustercode.api.event.messages.TranscodeFinishedEvent;
+import clustercode.impl.cleanup.processor.MoveCounter;
 
 import javax.inject.Inject;
 
@@ -11,13 +13,16 @@ class CleanupMessageHandler {
 
     private final RxEventBus eventBus;
     private final CleanupService cleanupService;
+    private final MoveCounter moveCounter;
 
     @Inject
     CleanupMessageHandler(
             RxEventBus eventBus,
-                          CleanupService cleanupService) {
+            CleanupService cleanupService,
+            MoveCounter moveCounter) {
         this.eventBus = eventBus;
         this.cleanupService = cleanupService;
+        this.moveCounter = moveCounter;
     }
 
     void onTranscodeFinished(TranscodeFinishedEvent msg) {
@@ -25,4 +30,8 @@ class CleanupMessageHandler {
         eventBus.emitAsync(new CleanupFinishedMessage());
     }
 
+    void onMoveStatisticsQuery(MoveStatisticsMessage msg) {
+        msg.setStatistics(moveCounter.getStatistics());
+    }
+
 }
@@ -7,6 +7,7 @@ import org.slf4j.ext.XLogger;
 import org.slf4j.ext.XLoggerFactory;
 
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
@@ -20,15 +21,18 @@ public abstract class AbstractOutputDirectoryProcessor implements CleanupProcess
     public static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd.HH-mm-ss");
     protected final XLogger log = XLoggerFactory.getXLogger(getClass());
     protected final Clock clock;
+    private final MoveCounter moveCounter;
 
-    protected AbstractOutputDirectoryProcessor(Clock clock) {
+    protected AbstractOutputDirectoryProcessor(Clock clock, MoveCounter moveCounter) {
         this.clock = clock;
+        this.moveCounter = moveCounter;
     }
 
     /**
      * Moves the source file to the target file. If the file exists and {@code overwrite} is enabled, then the file is
      * being overwritten. If the file exists and {@code overwrite} is disabled, then the target path is being modified
-     * using {@link FileUtil#getTimestampedPath(Path, TemporalAccessor, DateTimeFormatter)}.
+     * using {@link FileUtil#getTimestampedPath(Path, TemporalAccessor, DateTimeFormatter)}. The file is renamed if
+     * possible, otherwise (e.g. if the target is on another file store) it is copied and deleted.
      *
      * @param source    the source file.
      * @param target    the target outputfile.
@@ -45,7 +49,15 @@ public abstract class AbstractOutputDirectoryProcessor implements CleanupProcess
 
         try {
             log.info("Moving file from {} to {}...", source, target);
-            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+            try {
+                Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                moveCounter.recordRename();
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+                moveCounter.recordCopy();
+                log.warn("Copied {} to another file store. Place the temporary dir on the file store of {} to " +
+                        "avoid copies.", source, target.getParent());
+            }
             return target;
         } catch (IOException e) {
             log.error("Could not move {} to {}: {}", source, target, e.toString());
@@ -0,0 +1,30 @@
+package clustercode.impl.cleanup.processor;
+
+import clustercode.api.cleanup.MoveStatistics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how the output processors moved the transcoded files: a rename within the same file store is instant, while
+ * a move across file stores copies the whole file.
+ */
+public class MoveCounter {
+
+    private final LongAdder renames = new LongAdder();
+    private final LongAdder copies = new LongAdder();
+
+    void recordRename() {
+        renames.increment();
+    }
+
+    void recordCopy() {
+        copies.increment();
+    }
+
+    public MoveStatistics getStatistics() {
+        return MoveStatistics.builder()
+                             .renames(renames.sum())
+                             .copies(copies.sum())
+                             .build();
+    }
+}
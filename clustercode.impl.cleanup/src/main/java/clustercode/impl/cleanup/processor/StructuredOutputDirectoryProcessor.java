@@ -20,8 +20,9 @@ public class StructuredOutputDirectoryProcessor
 
     @Inject
     StructuredOutputDirectoryProcessor(CleanupConfig cleanupConfig,
-                                       Clock clock) {
-        super(clock);
+                                       Clock clock,
+                                       MoveCounter moveCounter) {
+        super(clock, moveCounter);
         this.cleanupConfig = cleanupConfig;
         FileUtil.createDirectoriesFor(cleanupConfig.base_output_dir());
     }
@@ -19,8 +19,9 @@ public class UnifiedOutputDirectoryProcessor
 
     @Inject
     UnifiedOutputDirectoryProcessor(CleanupConfig cleanupConfig,
-                                    Clock clock) {
-        super(clock);
+                                    Clock clock,
+                                    MoveCounter moveCounter) {
+        super(clock, moveCounter);
         this.cleanupConfig = cleanupConfig;
         FileUtil.createDirectoriesFor(cleanupConfig.base_output_dir());
     }
@@ -44,7 +44,7 @@ public class StructuredOutputDirectoryProcessorTest
         when(settings.base_output_dir()).thenReturn(outputDir);
         when(transcodeFinishedEvent.isSuccessful()).thenReturn(true);
 
-        subject = new StructuredOutputDirectoryProcessor(settings, getFixedClock(8, 20));
+        subject = new StructuredOutputDirectoryProcessor(settings, getFixedClock(8, 20), new MoveCounter());
     }
 
     @Test
@@ -32,6 +32,7 @@ public class UnifiedOutputDirectoryProcessorTest
     private Media media;
 
     private Path outputDir;
+    private MoveCounter moveCounter = new MoveCounter();
 
     @BeforeEach
     public void setUp() throws Exception {
@@ -43,7 +44,7 @@ public class UnifiedOutputDirectoryProcessorTest
         when(cleanupConfig.base_output_dir()).thenReturn(outputDir);
         when(transcodeFinishedEvent.isSuccessful()).thenReturn(true);
 
-        subject = new UnifiedOutputDirectoryProcessor(cleanupConfig, getFixedClock(8, 20));
+        subject = new UnifiedOutputDirectoryProcessor(cleanupConfig, getFixedClock(8, 20), moveCounter);
     }
 
     @Test
@@ -94,4 +95,16 @@ public class UnifiedOutputDirectoryProcessorTest
                 .exists();
     }
 
+    @Test
+    public void processStep_ShouldCountRename_IfOnSameFileStore() throws Exception {
+        Path temp = createFile(getPath("0", "video.ext"));
+
+        transcodeFinishedEvent.setTemporaryPath(temp);
+
+        subject.processStep(context);
+
+        Assertions.assertThat(moveCounter.getStatistics().getRenames()).isEqualTo(1);
+        Assertions.assertThat(moveCounter.getStatistics().getCopies()).isZero();
+    }
+
 }
@@ -29,13 +29,13 @@ public class JGroupsClusterFacade implements ClusterService {
     }
 
     @Override
-    public void removeTask() {
-        current.removeTask();
+    public void removeTask(Media candidate) {
+        current.removeTask(candidate);
     }
 
     @Override
-    public void setTask(Media candidate) {
-        current.setTask(candidate);
+    public void addTask(Media candidate) {
+        current.addTask(candidate);
     }
 
     @Override
@@ -1,19 +1,26 @@
 package clustercode.impl.cluster.jgroups;
 
 import clustercode.api.cluster.ClusterService;
+import clustercode.api.cluster.ClusterTask;
 import clustercode.api.cluster.messages.CancelTaskApiRequest;
+import clustercode.api.cluster.messages.ClusterTaskCollectionChanged;
 import clustercode.api.domain.Activator;
 import clustercode.api.domain.ActivatorContext;
 import clustercode.api.domain.TranscodeTask;
 import clustercode.api.event.RxEventBus;
 import clustercode.api.event.messages.*;
+import clustercode.api.transcode.TranscodeReport;
 import io.reactivex.disposables.Disposable;
 import lombok.extern.slf4j.XSlf4j;
 
 import javax.inject.Inject;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 @XSlf4j
 public class JgroupsClusterActivator implements Activator {
@@ -21,6 +28,10 @@ public class JgroupsClusterActivator implements Activator {
     private final ClusterService clusterService;
     private final RxEventBus eventBus;
     private final List<Disposable> handlers = new LinkedList<>();
+    /**
+     * The tasks of the local transcoding slots by job id.
+     */
+    private final Map<String, ClusterTask> slots = new ConcurrentHashMap<>();
 
     @Inject
     JgroupsClusterActivator(
@@ -45,15 +56,38 @@ public class JgroupsClusterActivator implements Activator {
             .doOnNext(log::entry)
             .subscribe(r -> r.setCancelled(true)));
 
+        handlers.add(eventBus
+            .listenFor(MediaSelectedMessage.class)
+            .filter(MediaSelectedMessage::isSelected)
+            .map(MediaSelectedMessage::getMedia)
+            .subscribe(clusterService::addTask));
+
+        handlers.add(eventBus
+            .listenFor(ProfileSelectedMessage.class)
+            .filter(ProfileSelectedMessage::isNotSelected)
+            .map(ProfileSelectedMessage::getMedia)
+            .subscribe(clusterService::removeTask));
+
         handlers.add(eventBus
             .listenFor(TranscodeBeginEvent.class)
             .map(TranscodeBeginEvent::getTask)
             .map(TranscodeTask::getMedia)
-            .subscribe(clusterService::setTask));
+            .subscribe(clusterService::addTask));
 
         handlers.add(eventBus
             .listenFor(TranscodeFinishedEvent.class)
-            .subscribe(e -> clusterService.removeTask()));
+            .filter(e -> e.getMedia() != null)
+            .map(TranscodeFinishedEvent::getMedia)
+            .subscribe(clusterService::removeTask));
+
+        handlers.add(eventBus
+            .listenFor(TranscodeBeginEvent.class, this::onTranscodeBegin));
+
+        handlers.add(eventBus
+            .listenFor(TranscodeReport.class, this::onTranscodeProgress));
+
+        handlers.add(eventBus
+            .listenFor(TranscodeFinishedEvent.class, this::onTranscodeFinished));
 
         handlers.add(eventBus
             .listenFor(MediaInClusterMessage.class)
@@ -76,6 +110,42 @@ public class JgroupsClusterActivator implements Activator {
         });
     }
 
+    private void onTranscodeBegin(TranscodeBeginEvent event) {
+        if (event.getJobId() == null) return;
+        var media = event.getTask().getMedia();
+        var now = ZonedDateTime.now();
+        slots.put(event.getJobId(), ClusterTask
+            .builder()
+            .jobId(event.getJobId())
+            .nodeName(clusterService.getName().orElse("localhost"))
+            .sourceName(media.getSourcePath().toString())
+            .priority(media.getPriority())
+            .dateAdded(now)
+            .dateUpdated(now)
+            .build());
+        publishSlots();
+    }
+
+    private void onTranscodeProgress(TranscodeReport report) {
+        var task = slots.get(report.getJobId());
+        if (task == null) return;
+        task.setPercentage(Math.max(0, report.getPercentage()));
+        task.setDateUpdated(ZonedDateTime.now());
+        publishSlots();
+    }
+
+    private void onTranscodeFinished(TranscodeFinishedEvent event) {
+        if (event.getJobId() == null || slots.remove(event.getJobId()) == null) return;
+        publishSlots();
+    }
+
+    private void publishSlots() {
+        eventBus.emitAsync(ClusterTaskCollectionChanged
+            .builder()
+            .tasks(new ArrayList<>(slots.values()))
+            .build());
+    }
+
     private void onMediaInClusterQuery(MediaInClusterMessage mediaInClusterMessage) {
         mediaInClusterMessage.setInCluster(clusterService.isQueuedInCluster(mediaInClusterMessage.getMedia()));
     }
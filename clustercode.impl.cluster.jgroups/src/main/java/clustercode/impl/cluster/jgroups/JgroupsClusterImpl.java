@@ -5,13 +5,15 @@ import clustercode.api.domain.Media;
 import lombok.Synchronized;
 import lombok.extern.slf4j.XSlf4j;
 
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 
 @XSlf4j
 public class JgroupsClusterImpl
         implements ClusterService {
 
-    private Media current;
+    private final Set<Media> tasks = new HashSet<>();
 
     @Synchronized
     @Override
@@ -21,19 +23,21 @@ public class JgroupsClusterImpl
 
     @Synchronized
     @Override
-    public void removeTask() {
-        current = null;
+    public void removeTask(Media candidate) {
+        tasks.remove(candidate);
     }
 
+    @Synchronized
     @Override
-    public void setTask(Media candidate) {
+    public void addTask(Media candidate) {
         // TODO: add to messaging
-        current = candidate;
+        tasks.add(candidate);
     }
 
+    @Synchronized
     @Override
     public boolean isQueuedInCluster(Media candidate) {
-        return candidate.equals(current);
+        return tasks.contains(candidate);
     }
 
     @Override
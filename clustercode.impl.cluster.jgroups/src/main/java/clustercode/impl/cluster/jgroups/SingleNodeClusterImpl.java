@@ -5,11 +5,13 @@ import clustercode.api.domain.Media;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 public class SingleNodeClusterImpl implements ClusterService {
 
-    private Media task;
+    private final Set<Media> tasks = ConcurrentHashMap.newKeySet();
 
     @Override
     public void joinCluster() {
@@ -17,19 +19,19 @@ public class SingleNodeClusterImpl implements ClusterService {
     }
 
     @Override
-    public void removeTask() {
-        this.task = null;
+    public void removeTask(Media candidate) {
+        tasks.remove(candidate);
     }
 
     @Override
-    public void setTask(Media candidate) {
-        this.task = candidate;
+    public void addTask(Media candidate) {
+        tasks.add(candidate);
     }
 
     @Override
     public boolean isQueuedInCluster(Media candidate) {
         if (candidate == null) return false;
-        return candidate.equals(task);
+        return tasks.contains(candidate);
     }
 
     @Override
@@ -28,13 +28,22 @@ public interface ConstraintConfig extends Config {
 
     /**
      * Unordered List of constraints.
-     * @return one of: ALL, FILE_SIZE, TIME, FILE_NAME, NONE
+     * @return one of: ALL, FILE_SIZE, TIME, FILE_NAME, CLUSTER, SYSTEM_LOAD, DISK_SPACE, EXPRESSION, NONE. ALL does not
+     * include EXPRESSION.
      */
     @Separator(" ")
     @Key("CC_CONSTRAINTS_ACTIVE")
     @DefaultValue("FILE_SIZE CLUSTER")
     List<Constraints> active_constraints();
 
+    /**
+     * The expression evaluated by the EXPRESSION constraint, e.g. "priority >= 8 OR (TIME AND SYSTEM_LOAD)".
+     * @return the expression. Required if EXPRESSION is active.
+     */
+    @Key("CC_CONSTRAINT_EXPRESSION")
+    @DefaultValue("")
+    String constraint_expression();
+
     @Key("CC_CONSTRAINT_TIME_BEGIN")
     @DefaultValue("08:00")
     String time_begin();
@@ -43,6 +52,66 @@ public interface ConstraintConfig extends Config {
     @DefaultValue("16:00")
     String time_stop();
 
+    /**
+     * Whether the time constraint only accepts media that are predicted to finish before the window closes.
+     * @return true if deadline-aware.
+     */
+    @Key("CC_CONSTRAINT_TIME_DEADLINE")
+    @DefaultValue("false")
+    boolean time_deadline();
+
+    /**
+     * @return the safety margin in percent added to the predicted duration. x >= 0
+     */
+    @Key("CC_CONSTRAINT_TIME_DEADLINE_MARGIN")
+    @DefaultValue("10")
+    long time_deadline_margin();
+
+    /**
+     * @return the maximum 1-minute load average per CPU. 0 disables the check. x >= 0
+     */
+    @Key("CC_CONSTRAINT_LOAD_MAX")
+    @DefaultValue("0.8")
+    double max_load();
+
+    /**
+     * @return the maximum CPU utilization in percent. 0 disables the check. x >= 0
+     */
+    @Key("CC_CONSTRAINT_LOAD_CPU_MAX")
+    @DefaultValue("0")
+    double max_cpu_utilization();
+
+    /**
+     * @return the maximum CPU pressure in percent ("some avg10" of /proc/pressure/cpu). 0 disables the check. x >= 0
+     */
+    @Key("CC_CONSTRAINT_LOAD_PRESSURE_MAX")
+    @DefaultValue("20")
+    double max_cpu_pressure();
+
+    /**
+     * @return the interval in seconds in which the system load is sampled. x >= 1
+     */
+    @Key("CC_CONSTRAINT_LOAD_SAMPLE_INTERVAL")
+    @DefaultValue("10")
+    long load_sample_interval();
+
+    /**
+     * @return the space in MB that must remain free in the temporary and output directories. x >= 0
+     */
+    @Key("CC_CONSTRAINT_DISK_MIN_FREE")
+    @DefaultValue("1024")
+    long min_free_space();
+
+    @Key("CC_TRANSCODE_TEMP_DIR")
+    @DefaultValue("/var/tmp/clustercode")
+    @ConverterClass(PathConverter.class)
+    Path temporary_dir();
+
+    @Key("CC_MEDIA_OUTPUT_DIR")
+    @DefaultValue("/output")
+    @ConverterClass(PathConverter.class)
+    Path base_output_dir();
+
     @Key("CC_MEDIA_INPUT_DIR")
     @DefaultValue("/input")
     @ConverterClass(PathConverter.class)
@@ -7,6 +7,9 @@ public enum Constraints {
     FILE_NAME,
     TIME,
     FILE_SIZE,
-    CLUSTER
+    CLUSTER,
+    SYSTEM_LOAD,
+    DISK_SPACE,
+    EXPRESSION
 
 }
@@ -0,0 +1,72 @@
+package clustercode.impl.constraint;
+
+import clustercode.api.domain.Media;
+import clustercode.api.scan.TranscodeEstimator;
+import clustercode.impl.util.InvalidConfigurationException;
+
+import javax.inject.Inject;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+
+/**
+ * Provides a time constraint which additionally only accepts media that are predicted to be transcoded before the
+ * time window closes. The prediction is taken from the {@link TranscodeEstimator} and extended by a configurable
+ * safety margin. Media without a prediction (e.g. no transcoding has finished with its profile yet) are accepted as
+ * long as the window is open.
+ */
+public class DeadlineTimeConstraint
+        extends TimeConstraint {
+
+    private final TranscodeEstimator estimator;
+    private final double margin;
+
+    @Inject
+    DeadlineTimeConstraint(ConstraintConfig config,
+                           Clock clock,
+                           TranscodeEstimator estimator) {
+        super(config, clock);
+        this.estimator = estimator;
+        if (config.time_deadline_margin() < 0) {
+            throw new InvalidConfigurationException("The deadline margin must be >= 0. You specified: {}",
+                    config.time_deadline_margin());
+        }
+        this.margin = 1d + config.time_deadline_margin() / 100d;
+    }
+
+    @Override
+    public boolean accept(Media candidate) {
+        if (!super.accept(candidate)) return false;
+        Optional<Duration> estimate = estimator.estimateDuration(candidate);
+        if (!estimate.isPresent()) {
+            log.debug("Accepted: no duration estimate for {}", candidate);
+            return true;
+        }
+        Instant now = clock.instant();
+        Instant deadline = getNextClosing(ZonedDateTime.now(clock));
+        Instant finish = now.plusMillis((long) (estimate.get().toMillis() * margin));
+        return logAndReturnResult(!finish.isAfter(deadline), "{} is estimated to finish at {} (window closes at {})",
+                candidate, finish, deadline);
+    }
+
+    /**
+     * Gets the next opening of the time window. While the window is open, candidates declined by this constraint only
+     * become viable again with the next opening, as the remaining time shrinks.
+     *
+     * @return the instant, never empty.
+     */
+    @Override
+    public Optional<Instant> getNextVerdictChange() {
+        return Optional.of(getNextOpening(ZonedDateTime.now(clock)));
+    }
+
+    @Override
+    public Optional<Instant> getDeadline() {
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        if (!isInWindow(now.toLocalTime())) return Optional.empty();
+        return Optional.of(getNextClosing(now));
+    }
+
+}
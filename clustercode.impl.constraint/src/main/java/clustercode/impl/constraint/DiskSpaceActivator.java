@@ -0,0 +1,62 @@
+package clustercode.impl.constraint;
+
+import clustercode.api.domain.Activator;
+import clustercode.api.domain.ActivatorContext;
+import clustercode.api.event.RxEventBus;
+import clustercode.api.event.messages.MediaSelectedMessage;
+import clustercode.api.event.messages.ProfileSelectedMessage;
+import clustercode.api.event.messages.TranscodeFinishedEvent;
+import io.reactivex.disposables.Disposable;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Inject;
+import java.util.LinkedList;
+import java.util.List;
+
+@Slf4j
+public class DiskSpaceActivator implements Activator {
+
+    private final RxEventBus eventBus;
+    private final DiskSpaceConstraint constraint;
+    private final List<Disposable> handlers = new LinkedList<>();
+
+    @Inject
+    DiskSpaceActivator(RxEventBus eventBus, DiskSpaceConstraint constraint) {
+        this.eventBus = eventBus;
+        this.constraint = constraint;
+    }
+
+    @Override
+    public void preActivate(ActivatorContext context) {
+        log.debug("Activating disk space reservations.");
+        handlers.add(eventBus
+                .listenFor(MediaSelectedMessage.class, this::onMediaSelected));
+        handlers.add(eventBus
+                .listenFor(ProfileSelectedMessage.class, this::onProfileSelected));
+        handlers.add(eventBus
+                .listenFor(TranscodeFinishedEvent.class, this::onTranscodeFinished));
+    }
+
+    @Override
+    public void activate(ActivatorContext context) {
+    }
+
+    private void onMediaSelected(MediaSelectedMessage msg) {
+        if (msg.isSelected()) constraint.confirm(msg.getMedia());
+    }
+
+    private void onProfileSelected(ProfileSelectedMessage msg) {
+        if (msg.isNotSelected()) constraint.release(msg.getMedia());
+    }
+
+    private void onTranscodeFinished(TranscodeFinishedEvent event) {
+        if (event.getMedia() != null) constraint.release(event.getMedia());
+    }
+
+    @Override
+    public void deactivate(ActivatorContext context) {
+        log.debug("Deactivating disk space reservations.");
+        handlers.forEach(Disposable::dispose);
+        handlers.clear();
+    }
+}
@@ -0,0 +1,163 @@
+package clustercode.impl.constraint;
+
+import clustercode.api.domain.Media;
+import clustercode.api.scan.TranscodeEstimator;
+import clustercode.impl.util.InvalidConfigurationException;
+import lombok.Synchronized;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Provides a constraint which only accepts media whose transcoded file is expected to fit into the free space of the
+ * temporary and the output directory. The required space is estimated from the source size and the output ratio
+ * observed for the media's profile, or the source size if there is no history. Media reserve their space once they
+ * have been accepted by all constraints and selected, so that candidates declined by another constraint do not block
+ * space. The reservation is confirmed when the selection is announced and released when its transcoding finished (or
+ * no profile could be found). Unconfirmed reservations (e.g. of a failed preemption) expire after a minute. If both
+ * directories are on the same file store, the space is only required once. Space already written by running
+ * transcodings is counted twice (used and reserved), which errs on the safe side. The events are subscribed by the
+ * {@link DiskSpaceActivator}.
+ */
+@Singleton
+public class DiskSpaceConstraint
+        extends AbstractConstraint {
+
+    static final Duration TENTATIVE_TIMEOUT = Duration.ofMinutes(1);
+
+    private final Map<Media, Reservation> reservations = new HashMap<>();
+    private final TranscodeEstimator estimator;
+    private final Clock clock;
+    private final Path inputDir;
+    private final List<Path> targetDirs;
+    private final long minFreeSpace;
+
+    @Inject
+    DiskSpaceConstraint(ConstraintConfig config,
+                        TranscodeEstimator estimator,
+                        Clock clock) {
+        this.estimator = estimator;
+        this.clock = clock;
+        this.inputDir = config.base_input_dir();
+        this.targetDirs = Arrays.asList(config.temporary_dir(), config.base_output_dir());
+        if (config.min_free_space() < 0) {
+            throw new InvalidConfigurationException("The minimum free space cannot be negative. You specified: {}",
+                    config.min_free_space());
+        }
+        this.minFreeSpace = config.min_free_space() * FileSizeConstraint.MEBI_BYTES;
+    }
+
+    @Synchronized
+    @Override
+    public boolean accept(Media candidate) {
+        Instant now = clock.instant();
+        reservations.values().removeIf(r -> !r.confirmed && r.created.plus(TENTATIVE_TIMEOUT).isBefore(now));
+
+        OptionalLong required = getRequiredSpace(candidate);
+        if (!required.isPresent()) return logAndReturnResult(false, "Unknown size of {}", candidate.getSourcePath());
+        Set<FileStore> stores = new HashSet<>();
+        try {
+            for (Path dir : targetDirs) {
+                FileStore store = getFileStore(dir);
+                if (!stores.add(store)) continue;
+                long available = store.getUsableSpace() - getReservedSpace(store, candidate) - minFreeSpace;
+                if (required.getAsLong() > available) {
+                    return logAndReturnResult(false, "{} requires {} MB in {}, but only {} MB are available",
+                            candidate.getSourcePath(), toMebiBytes(required.getAsLong()), dir, toMebiBytes(available));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not determine free space: {}. Declined file.", e.toString());
+            return false;
+        }
+        return logAndReturnResult(true, "{} requires {} MB", candidate.getSourcePath(),
+                toMebiBytes(required.getAsLong()));
+    }
+
+    @Synchronized
+    @Override
+    public void onSelected(Media candidate) {
+        OptionalLong required = getRequiredSpace(candidate);
+        if (!required.isPresent()) return;
+        Set<FileStore> stores = new HashSet<>();
+        try {
+            for (Path dir : targetDirs) {
+                stores.add(getFileStore(dir));
+            }
+        } catch (IOException e) {
+            log.warn("Could not reserve disk space for {}: {}", candidate.getSourcePath(), e.toString());
+            return;
+        }
+        reservations.put(candidate, new Reservation(stores, required.getAsLong(), clock.instant()));
+    }
+
+    private OptionalLong getRequiredSpace(Media candidate) {
+        OptionalLong estimate = estimator.estimateOutputSize(candidate);
+        if (estimate.isPresent()) return estimate;
+        try {
+            return OptionalLong.of(Files.size(inputDir.resolve(candidate.getSourcePath())));
+        } catch (IOException e) {
+            log.warn("Could not determine file size of {}: {}", candidate.getSourcePath(), e.toString());
+            return OptionalLong.empty();
+        }
+    }
+
+    private long getReservedSpace(FileStore store, Media candidate) {
+        return reservations.entrySet().stream()
+                .filter(entry -> !entry.getKey().equals(candidate))
+                .map(Map.Entry::getValue)
+                .filter(reservation -> reservation.stores.contains(store))
+                .mapToLong(reservation -> reservation.bytes)
+                .sum();
+    }
+
+    /**
+     * Gets the file store of the given directory. If the directory does not exist (yet), the store of the closest
+     * existing parent is used.
+     */
+    private FileStore getFileStore(Path dir) throws IOException {
+        Path existing = dir.toAbsolutePath();
+        while (existing != null && !Files.exists(existing)) {
+            existing = existing.getParent();
+        }
+        if (existing == null) throw new IOException("No existing parent of " + dir);
+        return Files.getFileStore(existing);
+    }
+
+    @Synchronized
+    void confirm(Media media) {
+        Reservation reservation = reservations.get(media);
+        if (reservation != null) reservation.confirmed = true;
+    }
+
+    @Synchronized
+    void release(Media media) {
+        if (reservations.remove(media) != null) log.debug("Released disk space reservation of {}", media);
+    }
+
+    private long toMebiBytes(long bytes) {
+        return bytes / FileSizeConstraint.MEBI_BYTES;
+    }
+
+    private static class Reservation {
+        private final Set<FileStore> stores;
+        private final long bytes;
+        private final Instant created;
+        private boolean confirmed;
+
+        Reservation(Set<FileStore> stores, long bytes, Instant created) {
+            this.stores = stores;
+            this.bytes = bytes;
+            this.created = created;
+        }
+    }
+
+}
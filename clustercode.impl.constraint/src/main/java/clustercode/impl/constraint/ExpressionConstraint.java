@@ -0,0 +1,91 @@
+package clustercode.impl.constraint;
+
+import clustercode.api.domain.Constraint;
+import clustercode.api.domain.Media;
+import clustercode.impl.constraint.expression.ExpressionParser;
+import clustercode.impl.constraint.expression.Node;
+import com.google.inject.Provider;
+
+import javax.inject.Inject;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Provides a constraint which combines other constraints and media attributes with AND, OR and NOT, for example
+ * {@code priority >= 8 OR (TIME AND SYSTEM_LOAD)}. See {@link ExpressionParser} for the syntax. The expression is
+ * compiled once: constant sub-expressions are folded and the operands of each junction are reordered so that cheap
+ * checks short-circuit expensive ones (e.g. the free disk space is only determined if everything else accepts).
+ * Only the referenced constraints are instantiated. Selections are forwarded to all referenced constraints.
+ */
+public class ExpressionConstraint
+        extends AbstractConstraint {
+
+    private static final Map<Constraints, Integer> COSTS = new EnumMap<>(Constraints.class);
+
+    static {
+        COSTS.put(Constraints.TIME, 1);
+        COSTS.put(Constraints.FILE_NAME, 2);
+        COSTS.put(Constraints.SYSTEM_LOAD, 5);
+        COSTS.put(Constraints.FILE_SIZE, 10);
+        COSTS.put(Constraints.CLUSTER, 50);
+        COSTS.put(Constraints.DISK_SPACE, 100);
+    }
+
+    private final Node root;
+    private final List<Constraint> constraints;
+
+    @Inject
+    ExpressionConstraint(ConstraintConfig config,
+                         Map<Constraints, Provider<Constraint>> providers) {
+        Map<Constraints, Constraint> resolved = new EnumMap<>(Constraints.class);
+        Function<String, Optional<Constraint>> resolver = name -> getKey(name)
+                .filter(providers::containsKey)
+                .map(key -> resolved.computeIfAbsent(key, k -> providers.get(k).get()));
+        ExpressionParser parser = new ExpressionParser(config.base_input_dir(), resolver,
+                name -> getKey(name).map(key -> COSTS.getOrDefault(key, 10)).orElse(10));
+        this.root = parser.parse(config.constraint_expression()).optimize();
+        this.constraints = root.getConstraints().distinct().collect(Collectors.toList());
+        log.info("Compiled constraint expression: {}", root);
+    }
+
+    private static Optional<Constraints> getKey(String name) {
+        try {
+            return Optional.of(Constraints.valueOf(name));
+        } catch (IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public boolean accept(Media candidate) {
+        return logAndReturnResult(root.test(candidate), "{} for {}", root, candidate.getSourcePath());
+    }
+
+    @Override
+    public void onSelected(Media candidate) {
+        constraints.forEach(constraint -> constraint.onSelected(candidate));
+    }
+
+    @Override
+    public Optional<Instant> getNextVerdictChange() {
+        return constraints.stream()
+                .map(Constraint::getNextVerdictChange)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .min(Instant::compareTo);
+    }
+
+    @Override
+    public Optional<Instant> getDeadline() {
+        return constraints.stream()
+                .map(Constraint::getDeadline)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .min(Instant::compareTo);
+    }
+}
@@ -0,0 +1,109 @@
+package clustercode.impl.constraint;
+
+import clustercode.api.domain.Media;
+import clustercode.api.event.RxEventBus;
+import clustercode.api.event.messages.ScanMediaCommand;
+import clustercode.impl.util.InvalidConfigurationException;
+import clustercode.impl.util.system.ContainerLimits;
+import clustercode.impl.util.system.SystemLoad;
+import clustercode.impl.util.system.SystemLoadSampler;
+import io.reactivex.Observable;
+import io.reactivex.disposables.Disposable;
+import lombok.Synchronized;
+
+import javax.inject.Inject;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.OptionalDouble;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provides a constraint which only accepts media while the system load is below the configured thresholds: the
+ * 1-minute load average per CPU, the CPU utilization and the CPU pressure (PSI). A threshold of 0 disables the
+ * respective check, figures that are not available on this system are ignored. The load is sampled at most once per
+ * sample interval. After declining, the load is watched with the same interval and a media scan is triggered as soon
+ * as the load has dropped below the thresholds.
+ */
+public class SystemLoadConstraint
+        extends AbstractConstraint {
+
+    private final SystemLoadSampler sampler;
+    private final RxEventBus eventBus;
+    private final Duration interval;
+    private final double maxLoad;
+    private final double maxCpu;
+    private final double maxPressure;
+    private Disposable watcher;
+
+    @Inject
+    SystemLoadConstraint(ConstraintConfig config,
+                         RxEventBus eventBus,
+                         ContainerLimits limits,
+                         Clock clock) {
+        this(config, eventBus, new SystemLoadSampler(Paths.get("/proc"), clock, limits.getEffectiveCpus()));
+    }
+
+    SystemLoadConstraint(ConstraintConfig config,
+                         RxEventBus eventBus,
+                         SystemLoadSampler sampler) {
+        this.sampler = sampler;
+        this.eventBus = eventBus;
+        this.interval = Duration.ofSeconds(config.load_sample_interval());
+        this.maxLoad = config.max_load();
+        this.maxCpu = config.max_cpu_utilization();
+        this.maxPressure = config.max_cpu_pressure();
+        checkConfiguration();
+    }
+
+    private void checkConfiguration() {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new InvalidConfigurationException("The load sample interval must be >= 1. You specified: {}",
+                    interval.getSeconds());
+        }
+        if (Math.min(maxLoad, Math.min(maxCpu, maxPressure)) < 0) {
+            throw new InvalidConfigurationException("Load thresholds cannot contain negative values. Load: {}, " +
+                    "CPU: {}, pressure: {}", maxLoad, maxCpu, maxPressure);
+        }
+    }
+
+    @Override
+    public boolean accept(Media candidate) {
+        SystemLoad load = sampler.getLoad(interval);
+        boolean accepted = isBelowThresholds(load);
+        if (!accepted) startWatching();
+        return logAndReturnResult(accepted, "system load per cpu {} (max {}), cpu {}% (max {}%), pressure {}% " +
+                        "(max {}%)", format(load.getLoadPerCpu()), maxLoad, format(load.getCpuUtilization()), maxCpu,
+                format(load.getCpuPressure()), maxPressure);
+    }
+
+    boolean isBelowThresholds(SystemLoad load) {
+        return isBelow(load.getLoadPerCpu(), maxLoad) &&
+                isBelow(load.getCpuUtilization(), maxCpu) &&
+                isBelow(load.getCpuPressure(), maxPressure);
+    }
+
+    private boolean isBelow(OptionalDouble value, double threshold) {
+        return threshold <= 0 || !value.isPresent() || value.getAsDouble() < threshold;
+    }
+
+    @Synchronized
+    private void startWatching() {
+        if (watcher != null && !watcher.isDisposed()) return;
+        log.debug("Watching system load every {} seconds.", interval.getSeconds());
+        watcher = Observable
+                .interval(interval.toMillis(), TimeUnit.MILLISECONDS)
+                .map(tick -> sampler.getLoad(interval))
+                .filter(this::isBelowThresholds)
+                .firstElement()
+                .subscribe(load -> {
+                    log.info("System load dropped, triggering media scan.");
+                    eventBus.emitAsync(new ScanMediaCommand());
+                });
+    }
+
+    private String format(OptionalDouble value) {
+        return value.isPresent() ? String.format("%.2f", value.getAsDouble()) : "n/a";
+    }
+
+}
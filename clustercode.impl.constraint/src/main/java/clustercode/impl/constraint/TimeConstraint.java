@@ -5,9 +5,12 @@ import clustercode.impl.util.InvalidConfigurationException;
 
 import javax.inject.Inject;
 import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalTime;
+import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.Optional;
 
 /**
  * Provides an implementation of a time constraint. The media will not be accepted for scheduling when the current
@@ -17,7 +20,7 @@ import java.time.format.DateTimeParseException;
 public class TimeConstraint
         extends AbstractConstraint {
 
-    private final Clock clock;
+    protected final Clock clock;
     private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm");
     private LocalTime stop;
     private LocalTime begin;
@@ -48,14 +51,59 @@ public class TimeConstraint
     @Override
     public boolean accept(Media candidate) {
         LocalTime now = LocalTime.now(clock);
+        return logAndReturn(isInWindow(now), now);
+    }
+
+    protected boolean isInWindow(LocalTime now) {
         if (begin.isBefore(stop)) {
-            return logAndReturn(begin.isBefore(now) && now.isBefore(stop), now);
+            return begin.isBefore(now) && now.isBefore(stop);
+        } else {
+            return (now.isAfter(begin) && now.isAfter(stop)) || (now.isBefore(stop) && now.isBefore(begin));
+        }
+    }
+
+    /**
+     * Gets the next instant at which the time window opens or closes. Since the window excludes the begin time, the
+     * opening is reported one second after the begin time.
+     *
+     * @return the instant, never empty.
+     */
+    @Override
+    public Optional<Instant> getNextVerdictChange() {
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        if (isInWindow(now.toLocalTime())) {
+            return Optional.of(getNextClosing(now));
         } else {
-            return logAndReturn((
-                    now.isAfter(begin) && now.isAfter(stop)) || (now.isBefore(stop) && now.isBefore(begin)), now);
+            return Optional.of(getNextOpening(now));
         }
     }
 
+    /**
+     * Gets the first instant after {@code now} at which the window is open, i.e. one second after the next begin.
+     *
+     * @param now the current time, not null.
+     * @return the instant.
+     */
+    protected Instant getNextOpening(ZonedDateTime now) {
+        return getNextOccurrence(now, begin.plusSeconds(1));
+    }
+
+    /**
+     * Gets the next instant after {@code now} at which the window closes.
+     *
+     * @param now the current time, not null.
+     * @return the instant.
+     */
+    protected Instant getNextClosing(ZonedDateTime now) {
+        return getNextOccurrence(now, stop);
+    }
+
+    private Instant getNextOccurrence(ZonedDateTime now, LocalTime time) {
+        ZonedDateTime next = now.with(time);
+        if (!next.isAfter(now)) next = next.plusDays(1);
+        return next.toInstant();
+    }
+
     protected boolean logAndReturn(boolean result, LocalTime now) {
         return logAndReturnResult(result, "Time window {} (begin: {}, stop {})",
                 formatter.format(now), formatter.format(begin), formatter.format(stop));
@@ -0,0 +1,137 @@
+package clustercode.impl.constraint.expression;
+
+import clustercode.api.domain.Media;
+import clustercode.impl.util.FileUtil;
+import lombok.extern.slf4j.XSlf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Compares an attribute of the media with a constant: {@code priority} and {@code size} (in MB) numerically,
+ * {@code path} (relative to the input dir) and {@code ext} (without dot, case-insensitive) as strings or by regex.
+ */
+@XSlf4j
+class ComparisonNode implements Node {
+
+    private static final double MEBI_BYTES = 1024d * 1024d;
+
+    enum Attribute {
+        PRIORITY(1, true), PATH(2, false), EXT(2, false), SIZE(10, true);
+
+        private final int cost;
+        private final boolean numeric;
+
+        Attribute(int cost, boolean numeric) {
+            this.cost = cost;
+            this.numeric = numeric;
+        }
+
+        boolean isNumeric() {
+            return numeric;
+        }
+    }
+
+    enum Operator {
+        LT("<"), LE("<="), GT(">"), GE(">="), EQ("=="), NE("!="), MATCHES("~");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        String getSymbol() {
+            return symbol;
+        }
+    }
+
+    private final Attribute attribute;
+    private final Operator operator;
+    private final double number;
+    private final String string;
+    private final Pattern pattern;
+    private final Path inputDir;
+
+    ComparisonNode(Attribute attribute, Operator operator, double number, Path inputDir) {
+        this.attribute = attribute;
+        this.operator = operator;
+        this.number = number;
+        this.string = null;
+        this.pattern = null;
+        this.inputDir = inputDir;
+    }
+
+    ComparisonNode(Attribute attribute, Operator operator, String string, Path inputDir) {
+        this.attribute = attribute;
+        this.operator = operator;
+        this.number = 0;
+        this.string = attribute == Attribute.EXT ? string.toLowerCase(Locale.ENGLISH) : string;
+        this.pattern = operator == Operator.MATCHES ?
+                Pattern.compile(string, attribute == Attribute.EXT ? Pattern.CASE_INSENSITIVE : 0) : null;
+        this.inputDir = inputDir;
+    }
+
+    @Override
+    public boolean test(Media media) {
+        switch (attribute) {
+            case PRIORITY:
+                return compare(media.getPriority());
+            case SIZE:
+                try {
+                    return compare(Files.size(inputDir.resolve(media.getSourcePath())) / MEBI_BYTES);
+                } catch (IOException e) {
+                    log.warn("Could not determine file size of {}: {}", media.getSourcePath(), e.toString());
+                    return false;
+                }
+            case PATH:
+                return compare(media.getSourcePath().toString());
+            default:
+                return compare(FileUtil.getFileExtension(media.getSourcePath())
+                        .replaceFirst("^\\.", "")
+                        .toLowerCase(Locale.ENGLISH));
+        }
+    }
+
+    private boolean compare(double value) {
+        switch (operator) {
+            case LT:
+                return value < number;
+            case LE:
+                return value <= number;
+            case GT:
+                return value > number;
+            case GE:
+                return value >= number;
+            case EQ:
+                return value == number;
+            default:
+                return value != number;
+        }
+    }
+
+    private boolean compare(String value) {
+        switch (operator) {
+            case EQ:
+                return value.equals(string);
+            case NE:
+                return !value.equals(string);
+            default:
+                return pattern.matcher(value).matches();
+        }
+    }
+
+    @Override
+    public int getCost() {
+        return attribute.cost;
+    }
+
+    @Override
+    public String toString() {
+        String value = attribute.isNumeric() ? Double.toString(number) : "'" + string + "'";
+        return attribute.name().toLowerCase(Locale.ENGLISH) + " " + operator.getSymbol() + " " + value;
+    }
+}
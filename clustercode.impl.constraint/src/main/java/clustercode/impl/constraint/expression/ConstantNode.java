@@ -0,0 +1,41 @@
+package clustercode.impl.constraint.expression;
+
+import clustercode.api.domain.Media;
+
+import java.util.Optional;
+
+class ConstantNode implements Node {
+
+    static final ConstantNode TRUE = new ConstantNode(true);
+    static final ConstantNode FALSE = new ConstantNode(false);
+
+    private final boolean value;
+
+    private ConstantNode(boolean value) {
+        this.value = value;
+    }
+
+    static ConstantNode of(boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
+    @Override
+    public boolean test(Media media) {
+        return value;
+    }
+
+    @Override
+    public int getCost() {
+        return 0;
+    }
+
+    @Override
+    public Optional<Boolean> getConstant() {
+        return Optional.of(value);
+    }
+
+    @Override
+    public String toString() {
+        return value ? "TRUE" : "FALSE";
+    }
+}
@@ -0,0 +1,39 @@
+package clustercode.impl.constraint.expression;
+
+import clustercode.api.domain.Constraint;
+import clustercode.api.domain.Media;
+
+import java.util.stream.Stream;
+
+class ConstraintNode implements Node {
+
+    private final String name;
+    private final Constraint constraint;
+    private final int cost;
+
+    ConstraintNode(String name, Constraint constraint, int cost) {
+        this.name = name;
+        this.constraint = constraint;
+        this.cost = cost;
+    }
+
+    @Override
+    public boolean test(Media media) {
+        return constraint.accept(media);
+    }
+
+    @Override
+    public int getCost() {
+        return cost;
+    }
+
+    @Override
+    public Stream<Constraint> getConstraints() {
+        return Stream.of(constraint);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,245 @@
+package clustercode.impl.constraint.expression;
+
+import clustercode.api.domain.Constraint;
+import clustercode.impl.util.InvalidConfigurationException;
+import org.slf4j.helpers.MessageFormatter;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Parses constraint expressions into a tree of {@link Node}s. Grammar (keywords are case-insensitive):
+ * <pre>
+ * expression := and ( OR and )*
+ * and        := not ( AND not )*
+ * not        := NOT not | primary
+ * primary    := '(' expression ')' | TRUE | FALSE | constraint | attribute operator value
+ * attribute  := priority | size | path | ext
+ * operator   := '&lt;' | '&lt;=' | '&gt;' | '&gt;=' | '==' | '!=' | '~'
+ * value      := number | 'string' | "string"
+ * </pre>
+ * Example: {@code priority >= 8 OR (TIME AND SYSTEM_LOAD AND size < 4096)}. Numeric attributes ({@code priority},
+ * {@code size} in MB) support all operators except {@code ~}, string attributes ({@code path} relative to the input
+ * dir, {@code ext} without dot) support {@code ==}, {@code !=} and {@code ~} (regex, full match).
+ */
+public class ExpressionParser {
+
+    private final Path inputDir;
+    private final Function<String, Optional<Constraint>> resolver;
+    private final ToIntFunction<String> costs;
+
+    private List<Token> tokens;
+    private int index;
+
+    /**
+     * @param inputDir the base input dir against which the size of the media is resolved.
+     * @param resolver resolves a constraint name (upper case), empty if the name is unknown.
+     * @param costs    the relative cost of evaluating the constraint with the given name.
+     */
+    public ExpressionParser(Path inputDir,
+                            Function<String, Optional<Constraint>> resolver,
+                            ToIntFunction<String> costs) {
+        this.inputDir = inputDir;
+        this.resolver = resolver;
+        this.costs = costs;
+    }
+
+    /**
+     * Parses the given expression. The returned tree is not optimized yet.
+     *
+     * @param expression the expression, not null.
+     * @return the root node.
+     * @throws InvalidConfigurationException if the expression is empty or invalid.
+     */
+    public synchronized Node parse(String expression) {
+        tokens = tokenize(expression);
+        index = 0;
+        if (tokens.size() == 1) {
+            throw new InvalidConfigurationException("The constraint expression is empty.");
+        }
+        Node root = parseOr();
+        if (peek().type != TokenType.END) {
+            throw error(peek(), "Unexpected '{}'", peek().text);
+        }
+        return root;
+    }
+
+    private Node parseOr() {
+        List<Node> operands = new ArrayList<>();
+        operands.add(parseAnd());
+        while (acceptKeyword("OR")) {
+            operands.add(parseAnd());
+        }
+        return operands.size() == 1 ? operands.get(0) : JunctionNode.or(operands);
+    }
+
+    private Node parseAnd() {
+        List<Node> operands = new ArrayList<>();
+        operands.add(parseNot());
+        while (acceptKeyword("AND")) {
+            operands.add(parseNot());
+        }
+        return operands.size() == 1 ? operands.get(0) : JunctionNode.and(operands);
+    }
+
+    private Node parseNot() {
+        if (acceptKeyword("NOT")) return new NotNode(parseNot());
+        return parsePrimary();
+    }
+
+    private Node parsePrimary() {
+        Token token = next();
+        if (token.type == TokenType.OPEN) {
+            Node node = parseOr();
+            if (next().type != TokenType.CLOSE) throw error(tokens.get(index - 1), "Expected ')'");
+            return node;
+        }
+        if (token.type != TokenType.WORD) throw error(token, "Unexpected '{}'", token.text);
+        String word = token.text.toUpperCase(Locale.ENGLISH);
+        if ("TRUE".equals(word)) return ConstantNode.TRUE;
+        if ("FALSE".equals(word)) return ConstantNode.FALSE;
+        if (peek().type == TokenType.OPERATOR) return parseComparison(token);
+        return resolver.apply(word)
+                .map(constraint -> (Node) new ConstraintNode(word, constraint, costs.applyAsInt(word)))
+                .orElseThrow(() -> error(token, "Unknown constraint '{}'", token.text));
+    }
+
+    private Node parseComparison(Token name) {
+        ComparisonNode.Attribute attribute;
+        try {
+            attribute = ComparisonNode.Attribute.valueOf(name.text.toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException ex) {
+            throw error(name, "Unknown attribute '{}'", name.text);
+        }
+        Token op = next();
+        ComparisonNode.Operator operator = getOperator(op);
+        Token value = next();
+        if (attribute.isNumeric()) {
+            if (operator == ComparisonNode.Operator.MATCHES) {
+                throw error(op, "Operator '~' is not supported for '{}'", name.text);
+            }
+            if (value.type != TokenType.WORD) throw error(value, "Expected a number");
+            try {
+                return new ComparisonNode(attribute, operator, Double.parseDouble(value.text), inputDir);
+            } catch (NumberFormatException ex) {
+                throw error(value, "Expected a number, got '{}'", value.text);
+            }
+        }
+        switch (operator) {
+            case EQ:
+            case NE:
+            case MATCHES:
+                break;
+            default:
+                throw error(op, "Operator '{}' is not supported for '{}'", op.text, name.text);
+        }
+        if (value.type != TokenType.STRING && value.type != TokenType.WORD) {
+            throw error(value, "Expected a string");
+        }
+        try {
+            return new ComparisonNode(attribute, operator, value.text, inputDir);
+        } catch (PatternSyntaxException ex) {
+            throw error(value, "Invalid regex '{}'", value.text);
+        }
+    }
+
+    private ComparisonNode.Operator getOperator(Token token) {
+        for (ComparisonNode.Operator operator : ComparisonNode.Operator.values()) {
+            if (operator.getSymbol().equals(token.text)) return operator;
+        }
+        throw error(token, "Expected an operator");
+    }
+
+    private boolean acceptKeyword(String keyword) {
+        Token token = peek();
+        if (token.type == TokenType.WORD && keyword.equalsIgnoreCase(token.text) &&
+                tokens.get(index + 1).type != TokenType.OPERATOR) {
+            index++;
+            return true;
+        }
+        return false;
+    }
+
+    private Token peek() {
+        return tokens.get(index);
+    }
+
+    private Token next() {
+        Token token = tokens.get(index);
+        if (token.type != TokenType.END) index++;
+        return token;
+    }
+
+    private InvalidConfigurationException error(Token token, String message, Object... args) {
+        String formatted = MessageFormatter.arrayFormat(message, args).getMessage();
+        return new InvalidConfigurationException("Invalid constraint expression at position {}: {}",
+                token.position + 1, token.type == TokenType.END ? formatted + " (end of expression)" : formatted);
+    }
+
+    static List<Token> tokenize(String expression) {
+        List<Token> list = new ArrayList<>();
+        int i = 0;
+        while (i < expression.length()) {
+            char c = expression.charAt(i);
+            int start = i;
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(' || c == ')') {
+                list.add(new Token(c == '(' ? TokenType.OPEN : TokenType.CLOSE, String.valueOf(c), start));
+                i++;
+            } else if (c == '\'' || c == '"') {
+                int end = expression.indexOf(c, i + 1);
+                if (end < 0) {
+                    throw new InvalidConfigurationException(
+                            "Invalid constraint expression at position {}: Unterminated string", start + 1);
+                }
+                list.add(new Token(TokenType.STRING, expression.substring(i + 1, end), start));
+                i = end + 1;
+            } else if ("<>=!~".indexOf(c) >= 0) {
+                i++;
+                if (i < expression.length() && expression.charAt(i) == '=' && c != '~') i++;
+                String op = expression.substring(start, i);
+                if ("=".equals(op) || "!".equals(op)) {
+                    throw new InvalidConfigurationException(
+                            "Invalid constraint expression at position {}: Unknown operator '{}'", start + 1, op);
+                }
+                list.add(new Token(TokenType.OPERATOR, op, start));
+            } else {
+                while (i < expression.length() && isWordChar(expression.charAt(i))) i++;
+                if (i == start) {
+                    throw new InvalidConfigurationException(
+                            "Invalid constraint expression at position {}: Unexpected '{}'", start + 1, c);
+                }
+                list.add(new Token(TokenType.WORD, expression.substring(start, i), start));
+            }
+        }
+        list.add(new Token(TokenType.END, "", expression.length()));
+        return list;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '-';
+    }
+
+    enum TokenType {
+        WORD, STRING, OPERATOR, OPEN, CLOSE, END
+    }
+
+    static class Token {
+        final TokenType type;
+        final String text;
+        final int position;
+
+        Token(TokenType type, String text, int position) {
+            this.type = type;
+            this.text = text;
+            this.position = position;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package clustercode.impl.constraint.expression;
+
+import clustercode.api.domain.Constraint;
+import clustercode.api.domain.Media;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Represents a short-circuiting AND or OR of multiple operands.
+ */
+class JunctionNode implements Node {
+
+    private final boolean conjunction;
+    private final List<Node> operands;
+
+    private JunctionNode(boolean conjunction, List<Node> operands) {
+        this.conjunction = conjunction;
+        this.operands = operands;
+    }
+
+    static JunctionNode and(List<Node> operands) {
+        return new JunctionNode(true, operands);
+    }
+
+    static JunctionNode or(List<Node> operands) {
+        return new JunctionNode(false, operands);
+    }
+
+    @Override
+    public boolean test(Media media) {
+        for (Node operand : operands) {
+            if (operand.test(media) != conjunction) return !conjunction;
+        }
+        return conjunction;
+    }
+
+    @Override
+    public int getCost() {
+        return operands.stream().mapToInt(Node::getCost).sum();
+    }
+
+    /**
+     * Folds the operands: in an AND, a FALSE operand makes the whole junction FALSE and TRUE operands are dropped (vice
+     * versa in an OR). Nested junctions of the same kind are flattened. The remaining operands are sorted by their
+     * cost, so that cheap operands short-circuit expensive ones.
+     */
+    @Override
+    public Node optimize() {
+        List<Node> result = new ArrayList<>();
+        for (Node operand : operands) {
+            Node optimized = operand.optimize();
+            if (optimized.getConstant().isPresent()) {
+                if (optimized.getConstant().get() != conjunction) return ConstantNode.of(!conjunction);
+                continue;
+            }
+            if (optimized instanceof JunctionNode && ((JunctionNode) optimized).conjunction == conjunction) {
+                result.addAll(((JunctionNode) optimized).operands);
+            } else {
+                result.add(optimized);
+            }
+        }
+        if (result.isEmpty()) return ConstantNode.of(conjunction);
+        if (result.size() == 1) return result.get(0);
+        result.sort(Comparator.comparingInt(Node::getCost));
+        return new JunctionNode(conjunction, result);
+    }
+
+    @Override
+    public Stream<Constraint> getConstraints() {
+        return operands.stream().flatMap(Node::getConstraints);
+    }
+
+    @Override
+    public String toString() {
+        return operands.stream()
+                .map(Node::toString)
+                .collect(Collectors.joining(conjunction ? " AND " : " OR ", "(", ")"));
+    }
+}
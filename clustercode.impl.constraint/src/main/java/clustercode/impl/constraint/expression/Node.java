@@ -0,0 +1,57 @@
+package clustercode.impl.constraint.expression;
+
+import clustercode.api.domain.Constraint;
+import clustercode.api.domain.Media;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Represents a node of a compiled constraint expression.
+ */
+public interface Node {
+
+    /**
+     * Evaluates this node for the given media.
+     *
+     * @param media the candidate, not null.
+     * @return true if accepted.
+     */
+    boolean test(Media media);
+
+    /**
+     * Gets the relative cost of evaluating this node. Cheaper nodes are evaluated first.
+     *
+     * @return the cost, {@literal >= 0}.
+     */
+    int getCost();
+
+    /**
+     * Gets the value of this node if it does not depend on the media.
+     *
+     * @return the constant value, empty if the node needs to be evaluated.
+     */
+    default Optional<Boolean> getConstant() {
+        return Optional.empty();
+    }
+
+    /**
+     * Returns an equivalent node with constant sub-expressions folded, nested junctions flattened and operands
+     * ordered cheapest first.
+     *
+     * @return the optimized node, may be this.
+     */
+    default Node optimize() {
+        return this;
+    }
+
+    /**
+     * Gets the constraints referenced by this node and its children.
+     *
+     * @return the stream of constraints.
+     */
+    default Stream<Constraint> getConstraints() {
+        return Stream.empty();
+    }
+
+}
@@ -0,0 +1,43 @@
+package clustercode.impl.constraint.expression;
+
+import clustercode.api.domain.Constraint;
+import clustercode.api.domain.Media;
+
+import java.util.stream.Stream;
+
+class NotNode implements Node {
+
+    private final Node operand;
+
+    NotNode(Node operand) {
+        this.operand = operand;
+    }
+
+    @Override
+    public boolean test(Media media) {
+        return !operand.test(media);
+    }
+
+    @Override
+    public int getCost() {
+        return operand.getCost();
+    }
+
+    @Override
+    public Node optimize() {
+        Node optimized = operand.optimize();
+        if (optimized.getConstant().isPresent()) return ConstantNode.of(!optimized.getConstant().get());
+        if (optimized instanceof NotNode) return ((NotNode) optimized).operand;
+        return new NotNode(optimized);
+    }
+
+    @Override
+    public Stream<Constraint> getConstraints() {
+        return operand.getConstraints();
+    }
+
+    @Override
+    public String toString() {
+        return "NOT " + operand;
+    }
+}
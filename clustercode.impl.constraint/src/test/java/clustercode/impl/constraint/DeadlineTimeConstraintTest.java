@@ -0,0 +1,100 @@
+package clustercode.impl.constraint;
+
+import clustercode.api.domain.Media;
+import clustercode.api.scan.TranscodeEstimator;
+import clustercode.impl.util.InvalidConfigurationException;
+import clustercode.test.util.ClockBasedUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.*;
+
+public class DeadlineTimeConstraintTest implements ClockBasedUnitTest {
+
+    private DeadlineTimeConstraint subject;
+
+    @Mock
+    private Media candidate;
+    @Mock
+    private ConstraintConfig config;
+    @Mock
+    private TranscodeEstimator estimator;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        when(config.time_begin()).thenReturn("08:00");
+        when(config.time_stop()).thenReturn("16:00");
+        when(config.time_deadline_margin()).thenReturn(10L);
+    }
+
+    @Test
+    public void accept_ShouldReturnTrue_IfMediaFinishesBeforeStop() throws Exception {
+        subject = new DeadlineTimeConstraint(config, getFixedClock(15, 0), estimator);
+        when(estimator.estimateDuration(candidate)).thenReturn(Optional.of(Duration.ofMinutes(30)));
+
+        assertThat(subject.accept(candidate)).isTrue();
+    }
+
+    @Test
+    public void accept_ShouldReturnFalse_IfMediaFinishesAfterStop_IncludingMargin() throws Exception {
+        subject = new DeadlineTimeConstraint(config, getFixedClock(15, 0), estimator);
+        when(estimator.estimateDuration(candidate)).thenReturn(Optional.of(Duration.ofMinutes(55)));
+
+        assertThat(subject.accept(candidate)).isFalse();
+    }
+
+    @Test
+    public void accept_ShouldReturnTrue_IfDurationIsUnknown() throws Exception {
+        subject = new DeadlineTimeConstraint(config, getFixedClock(15, 55), estimator);
+        when(estimator.estimateDuration(candidate)).thenReturn(Optional.empty());
+
+        assertThat(subject.accept(candidate)).isTrue();
+    }
+
+    @Test
+    public void accept_ShouldReturnFalse_IfOutsideOfWindow() throws Exception {
+        subject = new DeadlineTimeConstraint(config, getFixedClock(17, 0), estimator);
+
+        assertThat(subject.accept(candidate)).isFalse();
+        verifyZeroInteractions(estimator);
+    }
+
+    @Test
+    public void getDeadline_ShouldReturnStop_IfInsideOfWindow() throws Exception {
+        subject = new DeadlineTimeConstraint(config, getFixedClock(15, 0), estimator);
+
+        assertThat(subject.getDeadline()).hasValue(Instant.parse("2017-01-31T16:00:00Z"));
+    }
+
+    @Test
+    public void getDeadline_ShouldReturnEmpty_IfOutsideOfWindow() throws Exception {
+        subject = new DeadlineTimeConstraint(config, getFixedClock(17, 0), estimator);
+
+        assertThat(subject.getDeadline()).isEmpty();
+    }
+
+    @Test
+    public void getNextVerdictChange_ShouldReturnNextOpening_IfInsideOfWindow() throws Exception {
+        subject = new DeadlineTimeConstraint(config, getFixedClock(15, 0), estimator);
+
+        assertThat(subject.getNextVerdictChange()).hasValue(Instant.parse("2017-02-01T08:00:01Z"));
+    }
+
+    @Test
+    public void ctor_ShouldThrowException_IfMarginIsNegative() throws Exception {
+        when(config.time_deadline_margin()).thenReturn(-1L);
+
+        assertThatExceptionOfType(InvalidConfigurationException.class).isThrownBy(() ->
+                new DeadlineTimeConstraint(config, getFixedClock(15, 0), estimator));
+    }
+
+}
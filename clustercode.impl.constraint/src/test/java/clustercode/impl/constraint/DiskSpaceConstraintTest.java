@@ -0,0 +1,174 @@
+package clustercode.impl.constraint;
+
+import clustercode.api.domain.Media;
+import clustercode.api.event.RxEventBus;
+import clustercode.api.event.RxEventBusImpl;
+import clustercode.api.event.messages.MediaSelectedMessage;
+import clustercode.api.event.messages.TranscodeFinishedEvent;
+import clustercode.api.scan.TranscodeEstimator;
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.OptionalLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.when;
+
+public class DiskSpaceConstraintTest {
+
+    private static final long MB = FileSizeConstraint.MEBI_BYTES;
+
+    private DiskSpaceConstraint subject;
+    private DiskSpaceActivator activator;
+
+    @Mock
+    private ConstraintConfig config;
+    @Mock
+    private TranscodeEstimator estimator;
+    @Mock
+    private Clock clock;
+
+    private RxEventBus eventBus = new RxEventBusImpl();
+    private Instant now = Instant.parse("2017-01-31T08:00:00Z");
+    private Path inputDir;
+    private long usable;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        FileSystem fs = Jimfs.newFileSystem(Configuration.unix().toBuilder().setMaxSize(100 * MB).build());
+        inputDir = fs.getPath("/input");
+        Files.createDirectories(inputDir);
+        when(clock.instant()).thenAnswer(invocation -> now);
+        when(config.base_input_dir()).thenReturn(inputDir);
+        when(config.temporary_dir()).thenReturn(fs.getPath("/var/tmp/clustercode"));
+        when(config.base_output_dir()).thenReturn(fs.getPath("/output"));
+        when(config.min_free_space()).thenReturn(10L);
+        when(estimator.estimateOutputSize(any())).thenReturn(OptionalLong.empty());
+        usable = Files.getFileStore(inputDir).getUsableSpace();
+        subject = new DiskSpaceConstraint(config, estimator, clock);
+        activator = new DiskSpaceActivator(eventBus, subject);
+        activator.preActivate(null);
+    }
+
+    private Media createMedia(String name, long outputSize) {
+        Media media = Media.builder().sourcePath(inputDir.getFileSystem().getPath("0", name)).build();
+        when(estimator.estimateOutputSize(media)).thenReturn(OptionalLong.of(outputSize));
+        return media;
+    }
+
+    @Test
+    public void accept_ShouldReturnTrue_IfOutputFits() throws Exception {
+        Media media = createMedia("a.mkv", usable - 20 * MB);
+
+        assertThat(subject.accept(media)).isTrue();
+    }
+
+    @Test
+    public void accept_ShouldReturnFalse_IfMinimumFreeSpaceWouldBeViolated() throws Exception {
+        Media media = createMedia("a.mkv", usable - 5 * MB);
+
+        assertThat(subject.accept(media)).isFalse();
+    }
+
+    @Test
+    public void accept_ShouldReturnFalse_IfSpaceIsReservedByOtherMedia() throws Exception {
+        Media first = createMedia("a.mkv", usable / 2);
+        Media second = createMedia("b.mkv", usable / 2);
+
+        assertThat(subject.accept(first)).isTrue();
+        subject.onSelected(first);
+        assertThat(subject.accept(second)).isFalse();
+    }
+
+    @Test
+    public void accept_ShouldNotReserveSpace_IfMediaHasNotBeenSelected() throws Exception {
+        Media first = createMedia("a.mkv", usable / 2);
+        Media second = createMedia("b.mkv", usable / 2);
+
+        assertThat(subject.accept(first)).isTrue();
+        assertThat(subject.accept(second)).isTrue();
+    }
+
+    @Test
+    public void accept_ShouldNotCountOwnReservation_IfAcceptedAgain() throws Exception {
+        Media media = createMedia("a.mkv", usable / 2);
+        subject.onSelected(media);
+
+        assertThat(subject.accept(media)).isTrue();
+    }
+
+    @Test
+    public void accept_ShouldReleaseReservation_IfTentativeReservationExpired() throws Exception {
+        Media first = createMedia("a.mkv", usable / 2);
+        Media second = createMedia("b.mkv", usable / 2);
+        subject.onSelected(first);
+
+        now = now.plus(DiskSpaceConstraint.TENTATIVE_TIMEOUT).plusSeconds(1);
+
+        assertThat(subject.accept(second)).isTrue();
+    }
+
+    @Test
+    public void accept_ShouldKeepReservation_IfMediaHasBeenSelected() throws Exception {
+        Media first = createMedia("a.mkv", usable / 2);
+        Media second = createMedia("b.mkv", usable / 2);
+        subject.onSelected(first);
+        eventBus.emit(MediaSelectedMessage.builder().media(first).build());
+
+        now = now.plus(DiskSpaceConstraint.TENTATIVE_TIMEOUT).plusSeconds(1);
+
+        assertThat(subject.accept(second)).isFalse();
+    }
+
+    @Test
+    public void accept_ShouldReturnTrue_IfReservationReleasedAfterTranscoding() throws Exception {
+        Media first = createMedia("a.mkv", usable / 2);
+        Media second = createMedia("b.mkv", usable / 2);
+        subject.onSelected(first);
+        eventBus.emit(MediaSelectedMessage.builder().media(first).build());
+
+        eventBus.emit(TranscodeFinishedEvent.builder().media(first).successful(true).build());
+
+        assertThat(subject.accept(second)).isTrue();
+    }
+
+    @Test
+    public void deactivate_ShouldStopListeningForEvents() throws Exception {
+        Media first = createMedia("a.mkv", usable / 2);
+        Media second = createMedia("b.mkv", usable / 2);
+        subject.onSelected(first);
+        activator.deactivate(null);
+
+        eventBus.emit(TranscodeFinishedEvent.builder().media(first).successful(true).build());
+
+        assertThat(subject.accept(second)).isFalse();
+    }
+
+    @Test
+    public void accept_ShouldUseSourceSize_IfOutputSizeIsUnknown() throws Exception {
+        Media media = Media.builder().sourcePath(inputDir.getFileSystem().getPath("0", "a.mkv")).build();
+        Files.createDirectories(inputDir.resolve("0"));
+        Files.write(inputDir.resolve(media.getSourcePath()), new byte[1024]);
+
+        assertThat(subject.accept(media)).isTrue();
+    }
+
+    @Test
+    public void accept_ShouldReturnFalse_IfSourceSizeIsUnknown() throws Exception {
+        Media media = Media.builder().sourcePath(inputDir.getFileSystem().getPath("0", "missing.mkv")).build();
+
+        assertThat(subject.accept(media)).isFalse();
+    }
+
+}
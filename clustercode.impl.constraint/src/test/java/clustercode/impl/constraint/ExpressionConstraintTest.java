@@ -0,0 +1,92 @@
+package clustercode.impl.constraint;
+
+import clustercode.api.domain.Constraint;
+import clustercode.api.domain.Media;
+import com.google.inject.Provider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class ExpressionConstraintTest {
+
+    @Mock
+    private ConstraintConfig config;
+    @Mock
+    private Constraint time;
+    @Mock
+    private Constraint load;
+    @Mock
+    private Provider<Constraint> timeProvider;
+    @Mock
+    private Provider<Constraint> loadProvider;
+
+    private Map<Constraints, Provider<Constraint>> providers = new EnumMap<>(Constraints.class);
+    private Media media;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        when(config.base_input_dir()).thenReturn(Paths.get("input"));
+        when(timeProvider.get()).thenReturn(time);
+        when(loadProvider.get()).thenReturn(load);
+        when(time.getNextVerdictChange()).thenReturn(Optional.of(Instant.parse("2017-01-31T16:00:00Z")));
+        when(time.getDeadline()).thenReturn(Optional.empty());
+        providers.put(Constraints.TIME, timeProvider);
+        providers.put(Constraints.SYSTEM_LOAD, loadProvider);
+        media = Media.builder().sourcePath(Paths.get("9", "movie.mkv")).priority(9).build();
+    }
+
+    @Test
+    public void ctor_ShouldOnlyInstantiateReferencedConstraints() throws Exception {
+        when(config.constraint_expression()).thenReturn("priority >= 8 OR TIME");
+
+        new ExpressionConstraint(config, providers);
+
+        verify(timeProvider).get();
+        verifyZeroInteractions(loadProvider);
+    }
+
+    @Test
+    public void accept_ShouldEvaluateExpression() throws Exception {
+        when(config.constraint_expression()).thenReturn("priority >= 8 OR (TIME AND SYSTEM_LOAD)");
+        when(time.accept(any())).thenReturn(false);
+        ExpressionConstraint subject = new ExpressionConstraint(config, providers);
+
+        assertThat(subject.accept(media)).isTrue();
+        media.setPriority(1);
+        assertThat(subject.accept(media)).isFalse();
+        verify(load, never()).accept(any());
+    }
+
+    @Test
+    public void getNextVerdictChange_ShouldReturnEarliestOfReferencedConstraints() throws Exception {
+        when(config.constraint_expression()).thenReturn("TIME AND SYSTEM_LOAD");
+        when(load.getNextVerdictChange()).thenReturn(Optional.empty());
+        ExpressionConstraint subject = new ExpressionConstraint(config, providers);
+
+        assertThat(subject.getNextVerdictChange()).hasValue(Instant.parse("2017-01-31T16:00:00Z"));
+    }
+
+    @Test
+    public void onSelected_ShouldNotifyReferencedConstraints() throws Exception {
+        when(config.constraint_expression()).thenReturn("TIME AND SYSTEM_LOAD");
+        ExpressionConstraint subject = new ExpressionConstraint(config, providers);
+
+        subject.onSelected(media);
+
+        verify(time).onSelected(media);
+        verify(load).onSelected(media);
+    }
+
+}
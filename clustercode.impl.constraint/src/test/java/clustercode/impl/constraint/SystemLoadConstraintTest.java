@@ -0,0 +1,89 @@
+package clustercode.impl.constraint;
+
+import clustercode.api.domain.Media;
+import clustercode.api.event.RxEventBus;
+import clustercode.impl.util.InvalidConfigurationException;
+import clustercode.impl.util.system.SystemLoad;
+import clustercode.impl.util.system.SystemLoadSampler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Instant;
+import java.util.OptionalDouble;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.when;
+
+public class SystemLoadConstraintTest {
+
+    private SystemLoadConstraint subject;
+
+    @Mock
+    private ConstraintConfig config;
+    @Mock
+    private RxEventBus eventBus;
+    @Mock
+    private SystemLoadSampler sampler;
+    @Mock
+    private Media candidate;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        when(config.load_sample_interval()).thenReturn(3600L);
+        when(config.max_load()).thenReturn(0.8);
+        when(config.max_cpu_utilization()).thenReturn(0d);
+        when(config.max_cpu_pressure()).thenReturn(20d);
+        subject = new SystemLoadConstraint(config, eventBus, sampler);
+    }
+
+    private void givenLoad(OptionalDouble load, OptionalDouble cpu, OptionalDouble pressure) {
+        when(sampler.getLoad(any())).thenReturn(SystemLoad.builder()
+                .sampled(Instant.now())
+                .loadPerCpu(load)
+                .cpuUtilization(cpu)
+                .cpuPressure(pressure)
+                .build());
+    }
+
+    @Test
+    public void accept_ShouldReturnTrue_IfLoadIsBelowThresholds() throws Exception {
+        givenLoad(OptionalDouble.of(0.5), OptionalDouble.of(99), OptionalDouble.of(10));
+
+        assertThat(subject.accept(candidate)).isTrue();
+    }
+
+    @Test
+    public void accept_ShouldReturnFalse_IfLoadAverageIsTooHigh() throws Exception {
+        givenLoad(OptionalDouble.of(0.9), OptionalDouble.empty(), OptionalDouble.of(10));
+
+        assertThat(subject.accept(candidate)).isFalse();
+    }
+
+    @Test
+    public void accept_ShouldReturnFalse_IfPressureIsTooHigh() throws Exception {
+        givenLoad(OptionalDouble.of(0.5), OptionalDouble.empty(), OptionalDouble.of(25));
+
+        assertThat(subject.accept(candidate)).isFalse();
+    }
+
+    @Test
+    public void accept_ShouldReturnTrue_IfFiguresAreUnavailable() throws Exception {
+        givenLoad(OptionalDouble.empty(), OptionalDouble.empty(), OptionalDouble.empty());
+
+        assertThat(subject.accept(candidate)).isTrue();
+    }
+
+    @Test
+    public void ctor_ShouldThrowException_IfThresholdIsNegative() throws Exception {
+        when(config.max_load()).thenReturn(-1d);
+
+        assertThatExceptionOfType(InvalidConfigurationException.class)
+                .isThrownBy(() -> new SystemLoadConstraint(config, eventBus, sampler));
+    }
+
+}
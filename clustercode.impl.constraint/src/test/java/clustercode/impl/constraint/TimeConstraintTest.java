@@ -9,6 +9,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.time.Clock;
+import java.time.Instant;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
@@ -73,6 +74,52 @@ public class TimeConstraintTest implements ClockBasedUnitTest {
         assertThat(subject.accept(candidate)).isFalse();
     }
 
+    @Test
+    public void getNextVerdictChange_ShouldReturnBegin_IfCurrentTimeIsBeforeBegin() throws Exception {
+        when(config.time_begin()).thenReturn("13:00");
+        when(config.time_stop()).thenReturn("14:00");
+        subject = new TimeConstraint(config, getFixedClock(12, 30));
+
+        assertThat(subject.getNextVerdictChange()).hasValue(Instant.parse("2017-01-31T13:00:01Z"));
+    }
+
+    @Test
+    public void getNextVerdictChange_ShouldReturnStop_IfCurrentTimeIsBetweenBeginAndStop() throws Exception {
+        when(config.time_begin()).thenReturn("13:00");
+        when(config.time_stop()).thenReturn("14:00");
+        subject = new TimeConstraint(config, getFixedClock(13, 30));
+
+        assertThat(subject.getNextVerdictChange()).hasValue(Instant.parse("2017-01-31T14:00:00Z"));
+    }
+
+    @Test
+    public void getNextVerdictChange_ShouldReturnBeginOfNextDay_IfCurrentTimeIsAfterStop() throws Exception {
+        when(config.time_begin()).thenReturn("13:00");
+        when(config.time_stop()).thenReturn("14:00");
+        subject = new TimeConstraint(config, getFixedClock(14, 30));
+
+        assertThat(subject.getNextVerdictChange()).hasValue(Instant.parse("2017-02-01T13:00:01Z"));
+    }
+
+    @Test
+    public void getNextVerdictChange_ShouldReturnStopOfNextDay_IfWindowSpansMidnight() throws Exception {
+        when(config.time_begin()).thenReturn("22:00");
+        when(config.time_stop()).thenReturn("06:00");
+        subject = new TimeConstraint(config, getFixedClock(23, 0));
+
+        assertThat(subject.getNextVerdictChange()).hasValue(Instant.parse("2017-02-01T06:00:00Z"));
+    }
+
+    @Test
+    public void getNextVerdictChange_ShouldReturnOpening_IfCurrentTimeIsBegin() throws Exception {
+        when(config.time_begin()).thenReturn("13:00");
+        when(config.time_stop()).thenReturn("14:00");
+        subject = new TimeConstraint(config, getFixedClock(13, 0));
+
+        assertThat(subject.accept(candidate)).isFalse();
+        assertThat(subject.getNextVerdictChange()).hasValue(Instant.parse("2017-01-31T13:00:01Z"));
+    }
+
     @Test
     public void ctor_ShouldThrowException_IfBeginAndStopAreSame() throws Exception {
         when(config.time_begin()).thenReturn("12:00");
@@ -0,0 +1,134 @@
+package clustercode.impl.constraint.expression;
+
+import clustercode.api.domain.Constraint;
+import clustercode.api.domain.Media;
+import clustercode.impl.util.InvalidConfigurationException;
+import clustercode.test.util.FileBasedUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class ExpressionParserTest implements FileBasedUnitTest {
+
+    private ExpressionParser subject;
+    private Path inputDir;
+
+    @Mock
+    private Constraint time;
+    @Mock
+    private Constraint disk;
+
+    private Media media;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        setupFileSystem();
+        inputDir = getPath("input");
+        Files.createDirectories(inputDir.resolve("5"));
+        Path file = inputDir.resolve("5").resolve("movie.MKV");
+        Files.write(file, new byte[2 * 1024 * 1024]);
+        media = Media.builder().sourcePath(inputDir.relativize(file)).priority(5).build();
+
+        Map<String, Constraint> constraints = new HashMap<>();
+        constraints.put("TIME", time);
+        constraints.put("DISK_SPACE", disk);
+        Map<String, Integer> costs = new HashMap<>();
+        costs.put("TIME", 1);
+        costs.put("DISK_SPACE", 100);
+        subject = new ExpressionParser(inputDir,
+                name -> Optional.ofNullable(constraints.get(name)),
+                name -> costs.getOrDefault(name, 10));
+    }
+
+    private boolean evaluate(String expression) {
+        return subject.parse(expression).optimize().test(media);
+    }
+
+    @Test
+    public void parse_ShouldBindAndTighterThanOr() throws Exception {
+        when(time.accept(any())).thenReturn(false);
+
+        assertThat(evaluate("TRUE OR time AND FALSE")).isTrue();
+        assertThat(evaluate("(TRUE OR time) AND FALSE")).isFalse();
+    }
+
+    @Test
+    public void parse_ShouldNegate() throws Exception {
+        when(time.accept(any())).thenReturn(false);
+
+        assertThat(evaluate("NOT TIME")).isTrue();
+        assertThat(evaluate("not not TIME")).isFalse();
+    }
+
+    @Test
+    public void parse_ShouldCompareAttributes() throws Exception {
+        assertThat(evaluate("priority >= 5 AND priority < 6")).isTrue();
+        assertThat(evaluate("priority != 5")).isFalse();
+        assertThat(evaluate("size > 1.5 AND size <= 2")).isTrue();
+        assertThat(evaluate("ext == 'mkv'")).isTrue();
+        assertThat(evaluate("path ~ \"5/.*\\.mkv\"")).isFalse();
+        assertThat(evaluate("path ~ '5/.*'")).isTrue();
+    }
+
+    @Test
+    public void test_ShouldReturnFalse_IfSizeCannotBeDetermined() throws Exception {
+        media.setSourcePath(inputDir.relativize(inputDir.resolve("5").resolve("missing.mkv")));
+
+        assertThat(evaluate("size >= 0")).isFalse();
+    }
+
+    @Test
+    public void optimize_ShouldFoldConstants() throws Exception {
+        Node result = subject.parse("TIME AND (FALSE OR NOT TRUE)").optimize();
+
+        assertThat(result.getConstant()).hasValue(false);
+        assertThat(result.getConstraints()).isEmpty();
+    }
+
+    @Test
+    public void optimize_ShouldOrderCheapOperandsFirst() throws Exception {
+        Node result = subject.parse("DISK_SPACE AND (TIME AND priority > 3)").optimize();
+
+        assertThat(result.toString()).isEqualTo("(TIME AND priority > 3.0 AND DISK_SPACE)");
+    }
+
+    @Test
+    public void test_ShouldShortCircuit_ExpensiveConstraints() throws Exception {
+        when(time.accept(any())).thenReturn(false);
+
+        assertThat(evaluate("DISK_SPACE AND TIME")).isFalse();
+        verify(disk, never()).accept(any());
+    }
+
+    @Test
+    public void parse_ShouldThrowException_IfConstraintIsUnknown() throws Exception {
+        assertThatExceptionOfType(InvalidConfigurationException.class)
+                .isThrownBy(() -> subject.parse("TIME OR CLUSTER"))
+                .withMessageContaining("position 9");
+    }
+
+    @Test
+    public void parse_ShouldThrowException_IfSyntaxIsInvalid() throws Exception {
+        assertThatExceptionOfType(InvalidConfigurationException.class).isThrownBy(() -> subject.parse(""));
+        assertThatExceptionOfType(InvalidConfigurationException.class).isThrownBy(() -> subject.parse("(TIME"));
+        assertThatExceptionOfType(InvalidConfigurationException.class).isThrownBy(() -> subject.parse("TIME TIME"));
+        assertThatExceptionOfType(InvalidConfigurationException.class).isThrownBy(() -> subject.parse("size ~ 3"));
+        assertThatExceptionOfType(InvalidConfigurationException.class).isThrownBy(() -> subject.parse("ext < 'a'"));
+        assertThatExceptionOfType(InvalidConfigurationException.class).isThrownBy(() -> subject.parse("path ~ '('"));
+        assertThatExceptionOfType(InvalidConfigurationException.class).isThrownBy(() -> subject.parse("size = 3"));
+    }
+
+}
@@ -13,8 +13,6 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
@@ -35,7 +33,8 @@ class ExternalProcess {
     }
 
     public int start() throws InterruptedException, IOException {
-        ProcessBuilder builder = new ProcessBuilder(buildArguments());
+        ProcessBuilder builder = new ProcessBuilder(
+                ResourceControls.buildCommand(c, Platform.currentPlatform() == Platform.LINUX));
         if (Platform.currentPlatform() == Platform.WINDOWS) {
             // This is necessary. Otherwise waitFor() will be deadlocked even if the process finished hours ago.
             builder.redirectErrorStream(true);
@@ -44,6 +43,7 @@ class ExternalProcess {
 
         log.info("Invoking: {}", builder.command());
         this.process = builder.start();
+        ResourceControls.joinCgroup(c, process.pid());
 
         if (Platform.currentPlatform() != Platform.WINDOWS) {
             c.getErrorObservers().forEach(consumer ->
@@ -64,13 +64,6 @@ class ExternalProcess {
         return process.waitFor();
     }
 
-    private List<String> buildArguments() {
-        List<String> args = new LinkedList<>();
-        args.add(c.getExecutable().toString());
-        args.addAll(c.getArguments());
-        return args;
-    }
-
     private void readStreamAsync(InputStream stream, Subject<Object> subject) {
         CompletableFuture.runAsync(() -> {
             try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream))) {
@@ -0,0 +1,112 @@
+package clustercode.impl.process;
+
+import clustercode.api.process.ProcessConfiguration;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Applies the Linux resource controls of a {@link ProcessConfiguration}. Niceness, I/O class and CPU affinity are
+ * applied at spawn time by prefixing the command with the nice, ionice and taskset wrappers, each of which execs the
+ * next one, so that no additional processes remain. The cgroup is joined after the process has been started by
+ * writing its pid into the cgroup.procs file. Controls whose wrapper is not installed or whose cgroup is not writable
+ * are skipped with a warning.
+ */
+@Slf4j
+final class ResourceControls {
+
+    private static final Map<String, Optional<Path>> WRAPPERS = new ConcurrentHashMap<>();
+
+    private ResourceControls() {
+    }
+
+    /**
+     * Builds the command which starts the executable of the given configuration with its resource controls.
+     *
+     * @param c        the configuration.
+     * @param isLinux  whether the controls are supported.
+     * @param resolver resolves the name of a wrapper to its executable, empty if not installed.
+     * @return the command line, which is the executable and its arguments if no controls are applied.
+     */
+    static List<String> buildCommand(ProcessConfiguration c, boolean isLinux,
+                                     Function<String, Optional<Path>> resolver) {
+        List<String> command = new ArrayList<>();
+        if (isLinux) {
+            if (c.getCpuAffinity() != null) {
+                addWrapper(command, resolver, "taskset", "-c", c.getCpuAffinity());
+            }
+            if (c.getIoClass() != null) {
+                addWrapper(command, resolver, "ionice", "-c", c.getIoClass().toString());
+            }
+            if (c.getNiceness() != null) {
+                addWrapper(command, resolver, "nice", "-n", c.getNiceness().toString());
+            }
+        }
+        command.add(c.getExecutable().toString());
+        command.addAll(c.getArguments());
+        return command;
+    }
+
+    static List<String> buildCommand(ProcessConfiguration c, boolean isLinux) {
+        return buildCommand(c, isLinux, ResourceControls::findWrapper);
+    }
+
+    private static void addWrapper(List<String> command, Function<String, Optional<Path>> resolver,
+                                   String name, String... arguments) {
+        Optional<Path> wrapper = resolver.apply(name);
+        if (!wrapper.isPresent()) {
+            log.warn("Cannot apply {} {}: {} is not installed.", name, String.join(" ", arguments), name);
+            return;
+        }
+        command.add(wrapper.get().toString());
+        command.addAll(Arrays.asList(arguments));
+    }
+
+    /**
+     * Finds the given executable in the PATH. The result is cached.
+     */
+    private static Optional<Path> findWrapper(String name) {
+        return WRAPPERS.computeIfAbsent(name, key -> {
+            String path = System.getenv("PATH");
+            if (path == null) return Optional.empty();
+            for (String dir : path.split(File.pathSeparator)) {
+                if (dir.isEmpty()) continue;
+                Path candidate = Paths.get(dir, key);
+                if (Files.isExecutable(candidate)) return Optional.of(candidate);
+            }
+            return Optional.empty();
+        });
+    }
+
+    /**
+     * Moves the given process into the cgroup of the configuration, if any.
+     *
+     * @param c   the configuration.
+     * @param pid the pid of the started process.
+     */
+    static void joinCgroup(ProcessConfiguration c, long pid) {
+        if (c.getCgroup() == null) return;
+        Path procs = c.getCgroup().resolve("cgroup.procs");
+        if (!Files.isWritable(procs)) {
+            log.warn("Cannot move process {} into cgroup {}: {} is not writable.", pid, c.getCgroup(), procs);
+            return;
+        }
+        try {
+            Files.write(procs, Long.toString(pid).getBytes(StandardCharsets.US_ASCII));
+        } catch (IOException e) {
+            log.warn("Cannot move process {} into cgroup {}: {}", pid, c.getCgroup(), e.toString());
+        }
+    }
+}
@@ -4,7 +4,11 @@ import lombok.extern.slf4j.XSlf4j;
 import clustercode.api.process.RunningExternalProcess;
 import org.slf4j.ext.XLogger;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @XSlf4j
 class RunningProcessImpl implements RunningExternalProcess {
@@ -52,4 +56,30 @@ class RunningProcessImpl implements RunningExternalProcess {
         }
     }
 
+    @Override
+    public boolean terminate(long timeout, TimeUnit unit) {
+        List<ProcessHandle> descendants = process.descendants().collect(Collectors.toList());
+        try {
+            log.warn("Terminating process {} and {} descendant(s)...", process.pid(), descendants.size());
+            descendants.forEach(ProcessHandle::destroy);
+            process.destroy();
+            if (process.waitFor(timeout, unit)) {
+                descendants.stream().filter(ProcessHandle::isAlive).forEach(ProcessHandle::destroyForcibly);
+                return true;
+            }
+            log.warn("Process {} did not terminate within {} {}, killing it...",
+                    process.pid(), timeout, unit.toString().toLowerCase());
+            descendants.forEach(ProcessHandle::destroyForcibly);
+            return process.destroyForcibly().waitFor(timeout, unit);
+        } catch (InterruptedException e) {
+            log.throwing(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public Optional<Duration> getCpuTime() {
+        return process.info().totalCpuDuration();
+    }
+
 }
@@ -0,0 +1,58 @@
+package clustercode.impl.process;
+
+import clustercode.api.process.ProcessConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResourceControlsTest {
+
+    private Function<String, Optional<Path>> installed = name -> Optional.of(Paths.get("/usr/bin", name));
+
+    private ProcessConfiguration.ProcessConfigurationBuilder builder() {
+        return ProcessConfiguration.builder()
+                .executable(Paths.get("/usr/bin/ffmpeg"))
+                .argument("-i")
+                .argument("input.mkv");
+    }
+
+    @Test
+    public void buildCommand_ShouldReturnExecutableAndArguments_IfNoControlsAreSet() throws Exception {
+        assertThat(ResourceControls.buildCommand(builder().build(), true, installed))
+                .containsExactly("/usr/bin/ffmpeg", "-i", "input.mkv");
+    }
+
+    @Test
+    public void buildCommand_ShouldPrefixWrappers_InOrder() throws Exception {
+        var configuration = builder().niceness(10).ioClass(3).cpuAffinity("0-3").build();
+
+        assertThat(ResourceControls.buildCommand(configuration, true, installed)).containsExactly(
+                "/usr/bin/taskset", "-c", "0-3",
+                "/usr/bin/ionice", "-c", "3",
+                "/usr/bin/nice", "-n", "10",
+                "/usr/bin/ffmpeg", "-i", "input.mkv");
+    }
+
+    @Test
+    public void buildCommand_ShouldSkipWrapper_IfNotInstalled() throws Exception {
+        var configuration = builder().niceness(10).ioClass(3).build();
+
+        var result = ResourceControls.buildCommand(configuration, true,
+                name -> name.equals("ionice") ? Optional.empty() : installed.apply(name));
+
+        assertThat(result).containsExactly("/usr/bin/nice", "-n", "10", "/usr/bin/ffmpeg", "-i", "input.mkv");
+    }
+
+    @Test
+    public void buildCommand_ShouldNotWrap_IfNotOnLinux() throws Exception {
+        var configuration = builder().niceness(10).cpuAffinity("1").build();
+
+        assertThat(ResourceControls.buildCommand(configuration, false, installed))
+                .containsExactly("/usr/bin/ffmpeg", "-i", "input.mkv");
+    }
+}
@@ -0,0 +1,123 @@
+package clustercode.impl.scan;
+
+import clustercode.api.domain.Profile;
+import clustercode.api.scan.ProfileCacheStatistics;
+import clustercode.api.scan.ProfileParser;
+import lombok.extern.slf4j.XSlf4j;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Provides a profile parser which caches the parsed profiles by path. Entries are invalidated by the
+ * {@link ProfileDirWatcher}, so that lookups of files within the profile dir are plain memory reads. Files outside the
+ * profile dir (e.g. companion profiles) or all files if the dir cannot be watched are validated against the
+ * modification time and size on each lookup, which costs one stat instead of reading and parsing the file.
+ */
+@XSlf4j
+public class CachingProfileParser implements ProfileParser, ProfileDirWatcher.Listener {
+
+    private final ProfileParser delegate;
+    private final ProfileDirWatcher watcher;
+    private final Path baseDir;
+    private final Map<Path, Entry> cache = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    @Inject
+    CachingProfileParser(ProfileParserImpl delegate,
+                         ProfileDirWatcher watcher) {
+        this.delegate = delegate;
+        this.watcher = watcher;
+        this.baseDir = watcher.getBaseDir();
+        watcher.addListener(this);
+    }
+
+    @Override
+    public Optional<Profile> parseFile(Path path) {
+        Path key = path.toAbsolutePath().normalize();
+        Entry entry = cache.get(key);
+        if (entry != null && watcher.isWatching() && key.startsWith(baseDir)) {
+            hits.increment();
+            return entry.profile;
+        }
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        } catch (IOException e) {
+            if (cache.remove(key) != null) invalidations.increment();
+            misses.increment();
+            return delegate.parseFile(path);
+        }
+        if (entry != null && entry.isValid(attributes)) {
+            hits.increment();
+            return entry.profile;
+        }
+        misses.increment();
+        Optional<Profile> profile = delegate.parseFile(path);
+        if (profile.isPresent()) {
+            cache.put(key, new Entry(attributes.lastModifiedTime(), attributes.size(), profile));
+        }
+        return profile;
+    }
+
+    @Override
+    public Optional<ProfileCacheStatistics> getCacheStatistics() {
+        return Optional.of(ProfileCacheStatistics.builder()
+                .hits(hits.sum())
+                .misses(misses.sum())
+                .invalidations(invalidations.sum())
+                .entries(cache.size())
+                .watching(watcher.isWatching())
+                .build());
+    }
+
+    @Override
+    public void onChanged(Path path) {
+        invalidate(path);
+    }
+
+    @Override
+    public void onReset() {
+        invalidate(baseDir);
+    }
+
+    /**
+     * Removes the cache entries of the given file, or of all files within if the path is a dir.
+     *
+     * @param path the absolute and normalized path.
+     */
+    private void invalidate(Path path) {
+        cache.keySet().removeIf(key -> {
+            if (!key.startsWith(path)) return false;
+            log.debug("Invalidating cached profile {}.", key);
+            invalidations.increment();
+            return true;
+        });
+    }
+
+    private static class Entry {
+        private final FileTime lastModified;
+        private final long size;
+        private final Optional<Profile> profile;
+
+        Entry(FileTime lastModified, long size, Optional<Profile> profile) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.profile = profile;
+        }
+
+        boolean isValid(BasicFileAttributes attributes) {
+            return lastModified.equals(attributes.lastModifiedTime()) && size == attributes.size();
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package clustercode.impl.scan;
+
+import clustercode.api.domain.Media;
+import clustercode.api.scan.FailureRecord;
+import clustercode.api.scan.FailureRegistry;
+import clustercode.impl.util.InvalidConfigurationException;
+import lombok.Synchronized;
+import lombok.extern.slf4j.XSlf4j;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Provides a failure registry which persists the failures in a properties file, so that they survive a restart. The
+ * backoff starts with the configured duration and doubles with each consecutive failure up to the configured maximum.
+ * Each record is stored as "failures,lastFailureMillis", followed by ",1" if the media was not worth transcoding.
+ * <p>
+ * The file is meant to be shared by all nodes of the cluster, so that a media quarantined by one node is not retried
+ * by the others. Each change therefore re-reads the file and merges the change into it while holding an exclusive lock
+ * on a sibling ".lock" file. If the lock cannot be acquired (e.g. the share does not support locking), the change is
+ * still merged into the freshly read file, which narrows the window in which concurrent writers lose records. The
+ * records of other nodes are picked up on {@link #refresh()} once the modification time of the file has changed.
+ */
+@XSlf4j
+public class FailureRegistryImpl implements FailureRegistry {
+
+    private final Map<Path, FailureRecord> records = new HashMap<>();
+    private final Path file;
+    private final Path lockFile;
+    private final Duration backoff;
+    private final Duration maxBackoff;
+    private final int quarantineThreshold;
+    private final Clock clock;
+    private FileTime lastModified;
+
+    @Inject
+    FailureRegistryImpl(MediaScanConfig config,
+                        Clock clock) {
+        this.clock = clock;
+        this.file = config.failure_registry_file();
+        this.lockFile = file.resolveSibling(file.getFileName() + ".lock");
+        this.backoff = Duration.ofMinutes(config.failure_backoff());
+        this.maxBackoff = Duration.ofMinutes(config.failure_max_backoff());
+        this.quarantineThreshold = config.failure_quarantine_threshold();
+        if (backoff.isNegative() || maxBackoff.compareTo(backoff) < 0) {
+            throw new InvalidConfigurationException("The failure backoff must be >= 0 and <= the maximum backoff. " +
+                    "You specified: {}, {}", config.failure_backoff(), config.failure_max_backoff());
+        }
+        if (quarantineThreshold < 0) {
+            throw new InvalidConfigurationException("The quarantine threshold must be >= 0.");
+        }
+        load();
+        log.info("Loaded {} failure record(s) from {}.", records.size(), file);
+    }
+
+    @Synchronized
+    @Override
+    public void recordFailure(Media media) {
+        update(media.getSourcePath(), previous -> createRecord(media.getSourcePath(),
+                previous == null ? 1 : previous.getFailures() + 1, clock.instant(), false));
+        FailureRecord record = records.get(media.getSourcePath());
+        if (record.isQuarantined()) {
+            log.warn("Transcoding {} failed {} times, quarantined.", media.getSourcePath(), record.getFailures());
+        } else {
+            log.info("Transcoding {} failed {} time(s), retrying not before {}.",
+                    media.getSourcePath(), record.getFailures(), record.getNextAttempt());
+        }
+    }
+
+    @Synchronized
+    @Override
+    public void recordNotWorthIt(Media media) {
+        update(media.getSourcePath(), previous -> createRecord(media.getSourcePath(),
+                previous == null ? 1 : previous.getFailures() + 1, clock.instant(), true));
+        log.warn("Transcoding {} would not reduce its size, quarantined.", media.getSourcePath());
+    }
+
+    @Synchronized
+    @Override
+    public void recordSuccess(Media media) {
+        if (records.containsKey(media.getSourcePath())) update(media.getSourcePath(), previous -> null);
+    }
+
+    @Synchronized
+    @Override
+    public void refresh() {
+        try {
+            if (Files.exists(file) && !Files.getLastModifiedTime(file).equals(lastModified)) load();
+        } catch (IOException e) {
+            log.warn("Could not read failure registry {}: {}", file, e.toString());
+        }
+    }
+
+    @Synchronized
+    @Override
+    public boolean isEligible(Media media) {
+        FailureRecord record = records.get(media.getSourcePath());
+        if (record == null) return true;
+        return !record.isQuarantined() && !clock.instant().isBefore(record.getNextAttempt());
+    }
+
+    @Synchronized
+    @Override
+    public List<FailureRecord> getFailures() {
+        load();
+        return records.values().stream()
+                .sorted(Comparator.comparing(record -> record.getSourcePath().toString()))
+                .collect(Collectors.toList());
+    }
+
+    @Synchronized
+    @Override
+    public boolean release(Path sourcePath) {
+        if (update(sourcePath, previous -> null) == null) return false;
+        log.info("Released {}.", sourcePath);
+        return true;
+    }
+
+    /**
+     * Gets the relative path of a media from the given string, using the file system of the registry file.
+     *
+     * @param sourcePath the path string, not null.
+     * @return the path.
+     */
+    Path getPath(String sourcePath) {
+        return file.getFileSystem().getPath(sourcePath);
+    }
+
+    private FailureRecord createRecord(Path sourcePath, int failures, Instant lastFailure, boolean notWorthIt) {
+        return FailureRecord.builder()
+                .sourcePath(sourcePath)
+                .failures(failures)
+                .lastFailure(lastFailure)
+                .nextAttempt(lastFailure.plus(getBackoff(failures)))
+                .quarantined(notWorthIt || quarantineThreshold > 0 && failures >= quarantineThreshold)
+                .notWorthIt(notWorthIt)
+                .build();
+    }
+
+    /**
+     * Gets the backoff after the given amount of consecutive failures: the configured backoff, doubled for each
+     * further failure, but not more than the maximum backoff.
+     *
+     * @param failures the amount of failures, >= 1.
+     * @return the backoff.
+     */
+    Duration getBackoff(int failures) {
+        Duration result = backoff;
+        for (int i = 1; i < failures && result.compareTo(maxBackoff) < 0; i++) {
+            result = result.multipliedBy(2);
+        }
+        return result.compareTo(maxBackoff) > 0 ? maxBackoff : result;
+    }
+
+    /**
+     * Re-reads the file and applies the given function to the record of the given media, then writes the file. The
+     * whole cycle holds the lock on the lock file, so that changes of other nodes are merged rather than overwritten.
+     *
+     * @param sourcePath the path of the media, not null.
+     * @param function   computes the new record from the current one (null if none), returns null to remove it.
+     * @return the previous record, null if there was none.
+     */
+    private FailureRecord update(Path sourcePath, UnaryOperator<FailureRecord> function) {
+        FileChannel channel = lock();
+        try {
+            load();
+            FailureRecord previous = records.get(sourcePath);
+            FailureRecord record = function.apply(previous);
+            if (record == null) {
+                records.remove(sourcePath);
+            } else {
+                records.put(sourcePath, record);
+            }
+            save();
+            return previous;
+        } finally {
+            unlock(channel);
+        }
+    }
+
+    private FileChannel lock() {
+        FileChannel channel = null;
+        try {
+            if (lockFile.getParent() != null) Files.createDirectories(lockFile.getParent());
+            channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            channel.lock();
+            return channel;
+        } catch (IOException e) {
+            log.warn("Could not lock failure registry {}, concurrent changes may get lost: {}", lockFile,
+                    e.toString());
+            unlock(channel);
+            return null;
+        }
+    }
+
+    private void unlock(FileChannel channel) {
+        if (channel == null) return;
+        try {
+            // Closing the channel releases the lock.
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Could not release lock of failure registry {}: {}", lockFile, e.toString());
+        }
+    }
+
+    /**
+     * Replaces the records in memory with the ones in the file. The records are kept if the file does not exist or
+     * cannot be read.
+     */
+    private void load() {
+        if (!Files.exists(file)) return;
+        Properties properties = new Properties();
+        FileTime modified;
+        try {
+            // Read before the content: a concurrent change then causes another reload rather than being missed.
+            modified = Files.getLastModifiedTime(file);
+            try (InputStream stream = Files.newInputStream(file)) {
+                properties.load(stream);
+            }
+        } catch (IOException e) {
+            log.warn("Could not read failure registry {}: {}", file, e.toString());
+            return;
+        }
+        lastModified = modified;
+        records.clear();
+        properties.stringPropertyNames().forEach(key -> {
+            String[] values = properties.getProperty(key).split(",");
+            try {
+                Path sourcePath = getPath(key);
+                records.put(sourcePath, createRecord(sourcePath, Integer.parseInt(values[0]),
+                        Instant.ofEpochMilli(Long.parseLong(values[1])), values.length > 2 && "1".equals(values[2])));
+            } catch (RuntimeException e) {
+                log.warn("Ignoring invalid failure record for {}: {}", key, e.toString());
+            }
+        });
+    }
+
+    private void save() {
+        Properties properties = new Properties();
+        records.values().forEach(record -> properties.setProperty(record.getSourcePath().toString(),
+                record.getFailures() + "," + record.getLastFailure().toEpochMilli() +
+                        (record.isNotWorthIt() ? ",1" : "")));
+        try {
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (OutputStream stream = Files.newOutputStream(temp)) {
+                properties.store(stream, "clustercode failure registry");
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write failure registry {}: {}", file, e.toString());
+        }
+    }
+
+}
@@ -1,6 +1,7 @@
 package clustercode.impl.scan;
 
 import clustercode.api.config.converter.PathConverter;
+import clustercode.impl.scan.policy.SchedulingPolicies;
 import org.aeonbits.owner.Config;
 
 import java.nio.file.Path;
@@ -55,4 +56,130 @@ public interface MediaScanConfig extends Config {
     @DefaultValue("/input/done")
     @ConverterClass(PathConverter.class)
     Path mark_source_dir();
+
+    /**
+     * Gets the policy which decides in which order the media candidates are considered for scheduling.
+     *
+     * @return the policy, not null.
+     */
+    @Key("CC_SCHEDULING_POLICY")
+    @DefaultValue("PRIORITY")
+    SchedulingPolicies scheduling_policy();
+
+    /**
+     * Gets the weights of the priority directories for the weighted fair scheduling policy. An entry has the form
+     * "priority:weight", e.g. "9:8". Directories without an entry get a weight of their priority + 1.
+     *
+     * @return the list of weights, may be empty.
+     */
+    @Separator(" ")
+    @Key("CC_SCHEDULING_WEIGHTS")
+    @DefaultValue("")
+    List<String> scheduling_weights();
+
+    /**
+     * Gets the interval after which waiting media gain as much precedence in the weighted fair scheduling policy as
+     * one selection from a queue with weight 1 is worth. 0 disables aging.
+     *
+     * @return the interval in minutes, >= 0.
+     */
+    @Key("CC_SCHEDULING_AGING_INTERVAL")
+    @DefaultValue("60")
+    long scheduling_aging_interval();
+
+    /**
+     * Gets the time before a deadline (e.g. the end of the time window) during which shorter jobs are preferred over
+     * the order of the scheduling policy.
+     *
+     * @return the end phase in minutes, >= 0.
+     */
+    @Key("CC_SCHEDULING_END_PHASE")
+    @DefaultValue("60")
+    long scheduling_end_phase();
+
+    /**
+     * Gets the file in which the failed transcodings are remembered across restarts. The default location on the
+     * input share is shared by all nodes, so that a quarantine applies cluster-wide. Nodes merge their changes into it
+     * under a lock on a sibling ".lock" file. If the share does not support file locks, give each node its own file.
+     *
+     * @return the path to the file.
+     */
+    @Key("CC_FAILURE_REGISTRY_FILE")
+    @DefaultValue("/input/failures.properties")
+    @ConverterClass(PathConverter.class)
+    Path failure_registry_file();
+
+    /**
+     * Gets the time after which a failed media is retried. The backoff doubles with each consecutive failure.
+     *
+     * @return the backoff in minutes, >= 0.
+     */
+    @Key("CC_FAILURE_BACKOFF")
+    @DefaultValue("30")
+    long failure_backoff();
+
+    /**
+     * Gets the upper limit of the backoff.
+     *
+     * @return the maximum backoff in minutes, >= backoff.
+     */
+    @Key("CC_FAILURE_MAX_BACKOFF")
+    @DefaultValue("1440")
+    long failure_max_backoff();
+
+    /**
+     * Gets the amount of consecutive failures after which a media is quarantined until it is released via REST API.
+     * 0 disables the quarantine.
+     *
+     * @return the threshold, >= 0.
+     */
+    @Key("CC_FAILURE_QUARANTINE_THRESHOLD")
+    @DefaultValue("5")
+    int failure_quarantine_threshold();
+
+    /**
+     * Gets the difference in priority by which a candidate has to exceed the lowest-priority running transcoding in
+     * order to preempt it when no slot is free. 0 disables preemption.
+     *
+     * @return the priority gap, >= 0.
+     */
+    @Key("CC_PREEMPTION_PRIORITY_GAP")
+    @DefaultValue("0")
+    int preemption_priority_gap();
+
+    /**
+     * Gets the time that a transcoding has to run before it can be preempted.
+     *
+     * @return the minimum runtime in minutes, >= 0.
+     */
+    @Key("CC_PREEMPTION_MIN_RUNTIME")
+    @DefaultValue("10")
+    long preemption_min_runtime();
+
+    /**
+     * Gets the estimated remaining time below which a transcoding is left to finish instead of being preempted.
+     *
+     * @return the minimum remaining time in minutes, >= 0.
+     */
+    @Key("CC_PREEMPTION_MIN_REMAINING")
+    @DefaultValue("15")
+    long preemption_min_remaining();
+
+    /**
+     * Gets the time after a preemption during which no further transcoding is preempted.
+     *
+     * @return the cooldown in minutes, >= 0.
+     */
+    @Key("CC_PREEMPTION_COOLDOWN")
+    @DefaultValue("30")
+    long preemption_cooldown();
+
+    /**
+     * Gets how many times the same media may be preempted. Afterwards it is always allowed to finish.
+     *
+     * @return the maximum amount of preemptions per media, >= 1.
+     */
+    @Key("CC_PREEMPTION_MAX_PER_MEDIA")
+    @DefaultValue("1")
+    int preemption_max_per_media();
 }
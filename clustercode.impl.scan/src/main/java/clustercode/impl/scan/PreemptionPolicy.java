@@ -0,0 +1,134 @@
+package clustercode.impl.scan;
+
+import clustercode.api.domain.Media;
+import clustercode.api.scan.TranscodeEstimator;
+import lombok.Synchronized;
+import lombok.extern.slf4j.XSlf4j;
+
+import javax.inject.Inject;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Decides whether a running transcoding of this node should be preempted in favour of a newly arrived candidate with
+ * higher priority when no slot is free. The lowest-priority running transcoding is the victim, provided that
+ * <ul>
+ * <li>the candidate exceeds its priority by at least the configured gap,</li>
+ * <li>it has been running for the minimum runtime and is not estimated to finish within the minimum remaining
+ * time,</li>
+ * <li>it has not been preempted the maximum amount of times already and</li>
+ * <li>no other transcoding has been preempted during the cooldown.</li>
+ * </ul>
+ * These thresholds prevent churn. The progress at the time of the preemption is remembered until the media has been
+ * transcoded successfully.
+ */
+@XSlf4j
+class PreemptionPolicy {
+
+    private final TranscodeEstimator estimator;
+    private final Clock clock;
+    private final int priorityGap;
+    private final Duration minRuntime;
+    private final Duration minRemaining;
+    private final Duration cooldown;
+    private final int maxPreemptions;
+    private final Map<Media, Instant> running = new HashMap<>();
+    private final Map<Path, Preemption> preemptions = new HashMap<>();
+    private Instant lastPreemption = Instant.MIN;
+
+    @Inject
+    PreemptionPolicy(MediaScanConfig config,
+                     TranscodeEstimator estimator,
+                     Clock clock) {
+        this.estimator = estimator;
+        this.clock = clock;
+        this.priorityGap = config.preemption_priority_gap();
+        this.minRuntime = Duration.ofMinutes(config.preemption_min_runtime());
+        this.minRemaining = Duration.ofMinutes(config.preemption_min_remaining());
+        this.cooldown = Duration.ofMinutes(config.preemption_cooldown());
+        this.maxPreemptions = Math.max(1, config.preemption_max_per_media());
+    }
+
+    boolean isEnabled() {
+        return priorityGap > 0;
+    }
+
+    @Synchronized
+    void onTranscodeBegin(Media media) {
+        running.put(media, clock.instant());
+        Preemption preemption = preemptions.get(media.getSourcePath());
+        if (preemption != null) {
+            log.info("Restarting {}, which has been preempted {} time(s), last at {}% progress.",
+                    media, preemption.count, preemption.progress);
+        }
+    }
+
+    @Synchronized
+    void onTranscodeFinished(Media media, boolean successful) {
+        running.remove(media);
+        if (successful) preemptions.remove(media.getSourcePath());
+    }
+
+    /**
+     * Gets the running transcoding which may be preempted.
+     *
+     * @return the running media with the lowest priority which satisfies the thresholds, empty if none or if the
+     * cooldown has not yet passed.
+     */
+    @Synchronized
+    Optional<Media> getVictim() {
+        if (!isEnabled()) return Optional.empty();
+        Instant now = clock.instant();
+        if (lastPreemption.plus(cooldown).isAfter(now)) return Optional.empty();
+        return running.entrySet().stream()
+                .filter(entry -> isPreemptible(entry.getKey(), entry.getValue(), now))
+                .map(Map.Entry::getKey)
+                .min(Comparator.comparingInt(Media::getPriority));
+    }
+
+    private boolean isPreemptible(Media media, Instant started, Instant now) {
+        Duration runtime = Duration.between(started, now);
+        if (runtime.compareTo(minRuntime) < 0) return false;
+        Preemption preemption = preemptions.get(media.getSourcePath());
+        if (preemption != null && preemption.count >= maxPreemptions) return false;
+        return estimator.estimateDuration(media)
+                .map(estimate -> estimate.minus(runtime).compareTo(minRemaining) >= 0)
+                .orElse(true);
+    }
+
+    /**
+     * Gets the candidates whose priority is high enough to preempt the given victim.
+     *
+     * @param candidates the candidates.
+     * @param victim     the running media.
+     * @return the filtered candidates in the given order.
+     */
+    List<Media> getPreemptingCandidates(List<Media> candidates, Media victim) {
+        return candidates.stream()
+                .filter(media -> media.getPriority() >= victim.getPriority() + priorityGap)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Records that the given media has been preempted.
+     *
+     * @param victim   the preempted media.
+     * @param progress the progress in percent, negative if unknown.
+     */
+    @Synchronized
+    void onPreempted(Media victim, double progress) {
+        lastPreemption = clock.instant();
+        Preemption preemption = preemptions.computeIfAbsent(victim.getSourcePath(), path -> new Preemption());
+        preemption.count++;
+        preemption.progress = progress;
+    }
+
+    private static class Preemption {
+        private int count;
+        private double progress;
+    }
+}
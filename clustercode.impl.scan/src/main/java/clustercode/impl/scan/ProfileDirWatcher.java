@@ -0,0 +1,140 @@
+package clustercode.impl.scan;
+
+import io.reactivex.Completable;
+import io.reactivex.schedulers.Schedulers;
+import lombok.extern.slf4j.XSlf4j;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watches the profile dir and its sub dirs for changes and notifies the registered listeners in the background. Sub
+ * dirs which are created later are registered as well.
+ */
+@XSlf4j
+public class ProfileDirWatcher {
+
+    private final Path baseDir;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean watching;
+    private WatchService watchService;
+
+    @Inject
+    ProfileDirWatcher(ProfileScanConfig config) {
+        this(config.profile_base_dir());
+        start();
+    }
+
+    ProfileDirWatcher(Path baseDir) {
+        this.baseDir = baseDir.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Gets the watched dir.
+     *
+     * @return the absolute and normalized profile dir.
+     */
+    public Path getBaseDir() {
+        return baseDir;
+    }
+
+    /**
+     * Returns true as long as changes in the profile dir are being reported. If false, listeners cannot rely on
+     * being notified.
+     *
+     * @return true if watching.
+     */
+    public boolean isWatching() {
+        return watching;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Registers the profile dir and its sub dirs with a watch service and processes the events in the background.
+     * Logs a warning if the dir cannot be watched.
+     */
+    void start() {
+        if (!Files.isDirectory(baseDir)) {
+            log.warn("Profile dir {} does not exist, changes are not watched.", baseDir);
+            return;
+        }
+        try {
+            watchService = baseDir.getFileSystem().newWatchService();
+            registerAll(baseDir);
+        } catch (IOException | UnsupportedOperationException e) {
+            log.warn("Cannot watch profile dir {}: {}", baseDir, e.toString());
+            return;
+        }
+        watching = true;
+        Completable.fromAction(this::processEvents)
+                .subscribeOn(Schedulers.io())
+                .subscribe();
+    }
+
+    private void registerAll(Path dir) throws IOException {
+        Files.walkFileTree(dir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path subDir, BasicFileAttributes attrs) throws IOException {
+                subDir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void processEvents() {
+        while (watching) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                break;
+            }
+            Path dir = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    log.debug("Profile watch events overflowed.");
+                    listeners.forEach(Listener::onReset);
+                    continue;
+                }
+                Path child = dir.resolve((Path) event.context()).toAbsolutePath().normalize();
+                if (event.kind() == ENTRY_CREATE && Files.isDirectory(child)) {
+                    try {
+                        registerAll(child);
+                    } catch (IOException e) {
+                        log.warn("Cannot watch profile dir {}: {}", child, e.toString());
+                    }
+                }
+                listeners.forEach(listener -> listener.onChanged(child));
+            }
+            key.reset();
+        }
+        watching = false;
+        log.warn("Stopped watching profile dir {}.", baseDir);
+        listeners.forEach(Listener::onReset);
+    }
+
+    public interface Listener {
+
+        /**
+         * Invoked if the given file or dir has been created, modified or deleted.
+         *
+         * @param path the absolute and normalized path within the profile dir.
+         */
+        void onChanged(Path path);
+
+        /**
+         * Invoked if changes may have been missed. Listeners should discard all state derived from the profile dir.
+         */
+        void onReset();
+
+    }
+}
@@ -0,0 +1,127 @@
+package clustercode.impl.scan;
+
+import lombok.Synchronized;
+import lombok.extern.slf4j.XSlf4j;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Provides an in-memory index of the dirs in the profile dir which contain a profile file. The index is a trie of dir
+ * names, built with a single walk of the profile dir on first use and updated incrementally from the changes reported
+ * by the {@link ProfileDirWatcher}. If changes are not being watched, the index is not available and callers have to
+ * probe the file system themselves.
+ */
+@XSlf4j
+public class ProfileIndex implements ProfileDirWatcher.Listener {
+
+    private final ProfileDirWatcher watcher;
+    private final Path baseDir;
+    private final String fileName;
+    private Node root;
+
+    @Inject
+    ProfileIndex(ProfileScanConfig config,
+                 ProfileDirWatcher watcher) {
+        this.watcher = watcher;
+        this.baseDir = watcher.getBaseDir();
+        this.fileName = config.profile_file_name() + config.profile_file_name_extension();
+        watcher.addListener(this);
+    }
+
+    /**
+     * Returns true if the index is kept up to date.
+     *
+     * @return true if the profile dir is being watched.
+     */
+    public boolean isAvailable() {
+        return watcher.isWatching();
+    }
+
+    /**
+     * Gets the profile files which apply to the given dir, the nearest first. These are the profile files in the
+     * given dir and its parents up to and including the given top dir.
+     *
+     * @param dir the dir relative to the profile dir, not null.
+     * @param top an ancestor of dir (or dir itself) relative to the profile dir, not null.
+     * @return the absolute profile files, may be empty.
+     */
+    @Synchronized
+    public List<Path> getProfileFiles(Path dir, Path top) {
+        if (root == null) root = build();
+        List<Path> result = new ArrayList<>();
+        Node node = root;
+        for (int i = 0; i < dir.getNameCount() && node != null; i++) {
+            node = node.children.get(dir.getName(i).toString());
+            if (node != null && node.hasProfile && i >= top.getNameCount() - 1) {
+                result.add(baseDir.resolve(dir.subpath(0, i + 1).toString()).resolve(fileName));
+            }
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private Node build() {
+        Node node = new Node();
+        addAll(node, baseDir);
+        log.debug("Indexed profile dir {}.", baseDir);
+        return node;
+    }
+
+    /**
+     * Adds all profile files found in the given dir and its sub dirs to the index.
+     */
+    private void addAll(Node node, Path dir) {
+        if (!Files.isDirectory(dir)) return;
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.filter(file -> fileName.equals(String.valueOf(file.getFileName())))
+                 .filter(Files::isRegularFile)
+                 .forEach(file -> getOrCreate(node, dir.relativize(file.getParent())).hasProfile = true);
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Could not index profile dir {}: {}", dir, e.toString());
+        }
+    }
+
+    private Node getOrCreate(Node node, Path relative) {
+        for (Path name : relative) {
+            if (name.toString().isEmpty()) continue;
+            node = node.children.computeIfAbsent(name.toString(), key -> new Node());
+        }
+        return node;
+    }
+
+    @Override
+    @Synchronized
+    public void onChanged(Path path) {
+        if (root == null || !path.startsWith(baseDir) || path.equals(baseDir)) return;
+        Path relative = baseDir.relativize(path);
+        if (fileName.equals(String.valueOf(path.getFileName()))) {
+            Path parent = relative.getParent();
+            Node node = parent == null ? root : getOrCreate(root, parent);
+            node.hasProfile = Files.isRegularFile(path);
+            return;
+        }
+        Path parent = relative.getParent();
+        Node parentNode = parent == null ? root : getOrCreate(root, parent);
+        parentNode.children.remove(relative.getFileName().toString());
+        if (Files.isDirectory(path)) {
+            addAll(getOrCreate(parentNode, relative.getFileName()), path);
+        }
+    }
+
+    @Override
+    @Synchronized
+    public void onReset() {
+        root = null;
+    }
+
+    private static class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private boolean hasProfile;
+    }
+}
@@ -1,5 +1,6 @@
 package clustercode.impl.scan;
 
+import clustercode.api.domain.ArgumentTemplate;
 import clustercode.api.domain.Profile;
 import clustercode.api.scan.ProfileParser;
 import lombok.extern.slf4j.XSlf4j;
@@ -11,6 +12,7 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -31,14 +33,19 @@ public class ProfileParserImpl implements ProfileParser {
                     .map(String::trim)
                     .filter(this::isNotCommentLine)
                     .collect(Collectors.toList());
+            List<String> arguments = lines.stream()
+                    .filter(this::isNotFieldLine)
+                    .collect(Collectors.toList());
+            Map<String, String> fields = lines.stream()
+                    .filter(this::isFieldLine)
+                    .collect(Collectors.toMap(this::extractKey, this::extractValue));
+            Optional<List<ArgumentTemplate>> templates = compileArguments(path, arguments, fields);
+            if (!templates.isPresent()) return log.exit(Optional.empty());
             return log.exit(Optional.of(
                     Profile.builder()
-                            .arguments(lines.stream()
-                                    .filter(this::isNotFieldLine)
-                                    .collect(Collectors.toList()))
-                            .fields(lines.stream()
-                                    .filter(this::isFieldLine)
-                                    .collect(Collectors.toMap(this::extractKey, this::extractValue)))
+                            .arguments(arguments)
+                            .fields(fields)
+                            .templates(templates.get())
                             .location(path)
                             .build()));
         } catch (IOException e) {
@@ -47,6 +54,33 @@ public class ProfileParserImpl implements ProfileParser {
         }
     }
 
+    /**
+     * Compiles the given arguments into templates. Each variable has to be either a built-in variable or one of the
+     * fields of the profile.
+     *
+     * @return the templates, empty if an argument is invalid or uses an undefined variable (logged as warning).
+     */
+    Optional<List<ArgumentTemplate>> compileArguments(Path path, List<String> arguments, Map<String, String> fields) {
+        List<ArgumentTemplate> templates = new ArrayList<>(arguments.size());
+        for (String argument : arguments) {
+            ArgumentTemplate template;
+            try {
+                template = ArgumentTemplate.compile(argument);
+            } catch (IllegalArgumentException ex) {
+                log.warn("Rejecting profile {}: {}", path, ex.getMessage());
+                return Optional.empty();
+            }
+            for (String variable : template.getVariables()) {
+                if (!ArgumentTemplate.BUILT_IN_VARIABLES.contains(variable) && !fields.containsKey(variable)) {
+                    log.warn("Rejecting profile {}: the variable ${{}} is not defined.", path, variable);
+                    return Optional.empty();
+                }
+            }
+            templates.add(template);
+        }
+        return Optional.of(templates);
+    }
+
     /**
      * Returns the key (first group) extracted from {@link #FORMAT_PATTERN}.
      *
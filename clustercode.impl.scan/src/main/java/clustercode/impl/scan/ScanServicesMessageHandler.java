@@ -4,13 +4,29 @@ import clustercode.api.domain.Media;
 import clustercode.api.domain.Profile;
 import clustercode.api.event.RxEventBus;
 import clustercode.api.event.messages.*;
+import clustercode.api.scan.FailureRegistry;
 import clustercode.api.scan.MediaScanService;
+import clustercode.api.scan.ProfileParser;
 import clustercode.api.scan.ProfileScanService;
+import clustercode.api.scan.SchedulingPolicy;
 import clustercode.api.scan.SelectionService;
+import clustercode.api.scan.messages.FailuresMessage;
+import clustercode.api.scan.messages.ProfileCacheStatisticsMessage;
+import clustercode.api.scan.messages.QueueStatisticsMessage;
+import clustercode.api.scan.messages.ReleaseFailureCommand;
+import io.reactivex.Completable;
+import io.reactivex.disposables.Disposable;
+import lombok.Synchronized;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.inject.Inject;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 class ScanServicesMessageHandler {
@@ -18,22 +34,42 @@ class ScanServicesMessageHandler {
     private final MediaScanService scanService;
     private final SelectionService selectionService;
     private final ProfileScanService profileScanService;
+    private final ProfileParser profileParser;
+    private final SchedulingPolicy schedulingPolicy;
+    private final FailureRegistry failureRegistry;
+    private final PreemptionPolicy preemptionPolicy;
+    private final MediaScanConfig config;
+    private final Clock clock;
     private final RxEventBus eventBus;
+    private Disposable pendingScan;
 
     @Inject
     ScanServicesMessageHandler(
             MediaScanService scanService,
             SelectionService selectionService,
             ProfileScanService profileScanService,
+            ProfileParser profileParser,
+            SchedulingPolicy schedulingPolicy,
+            FailureRegistry failureRegistry,
+            PreemptionPolicy preemptionPolicy,
+            MediaScanConfig config,
+            Clock clock,
             RxEventBus eventBus
     ) {
         this.scanService = scanService;
         this.selectionService = selectionService;
         this.profileScanService = profileScanService;
+        this.profileParser = profileParser;
+        this.schedulingPolicy = schedulingPolicy;
+        this.failureRegistry = failureRegistry;
+        this.preemptionPolicy = preemptionPolicy;
+        this.config = config;
+        this.clock = clock;
         this.eventBus = eventBus;
     }
 
     void onMediaScanRequest(ScanMediaCommand msg) {
+        cancelScheduledScan();
         eventBus.emitAsync(MediaScannedMessage
                 .builder()
                 .mediaList(scanService.retrieveFilesAsList())
@@ -42,16 +78,67 @@ class ScanServicesMessageHandler {
 
     void onSuccessfulMediaScan(MediaScannedMessage msg) {
         log.info("Found {} possible media entries.", msg.getMediaList().size());
-        log.debug("Selecting a suitable media for scheduling...");
-        Optional<Media> result = selectionService.selectMedia(msg.getMediaList());
+        int slots = eventBus.emit(TranscodeSlotsMessage.builder().build()).getAvailableSlots();
+        if (slots < 1) {
+            log.info("All transcoding slots are busy, skipping selection.");
+            if (preemptionPolicy.isEnabled() && !tryPreemption(msg.getMediaList())) scheduleScan();
+            return;
+        }
+        log.debug("Selecting up to {} suitable media for scheduling...", slots);
+        List<Media> result = selectionService.selectMedia(msg.getMediaList(), slots);
+        if (result.isEmpty()) eventBus.emitAsync(MediaSelectedMessage.builder().build());
+        result.forEach(media -> eventBus.emitAsync(MediaSelectedMessage
+                .builder()
+                .media(media)
+                .build()));
+        if (result.size() < slots) {
+            // Slots remain idle, so look again when a verdict may change rather than only when a job finishes.
+            List<Media> remaining = new ArrayList<>(msg.getMediaList());
+            remaining.removeAll(result);
+            Optional<Instant> nextChange = selectionService.getNextVerdictChange(remaining);
+            if (nextChange.isPresent()) {
+                scheduleScan(nextChange.get());
+            } else {
+                scheduleScan();
+            }
+        }
+    }
+
+    /**
+     * Preempts the lowest-priority running transcoding if a candidate with sufficiently higher priority is accepted by
+     * the selection. The preempted media stays in the input dir and is therefore re-queued with the next scan.
+     *
+     * @return true if a transcoding has been preempted.
+     */
+    private boolean tryPreemption(List<Media> candidates) {
+        Optional<Media> victim = preemptionPolicy.getVictim();
+        if (!victim.isPresent()) return false;
+        List<Media> eligible = preemptionPolicy.getPreemptingCandidates(candidates, victim.get());
+        if (eligible.isEmpty()) return false;
+        // Selecting from the subset would let the scheduling policy forget the state of all other media.
+        Optional<Media> selected = selectionService.peekMedia(eligible);
+        if (!selected.isPresent()) return false;
+        CancelTranscodeMessage result = eventBus.emit(CancelTranscodeMessage
+                .builder()
+                .media(victim.get())
+                .build());
+        if (!result.isCancelled()) {
+            log.warn("Could not preempt {}.", victim.get());
+            return false;
+        }
+        log.info("Preempted {} at {}% progress in favour of {}.", victim.get(), result.getProgress(), selected.get());
+        preemptionPolicy.onPreempted(victim.get(), result.getProgress());
+        selectionService.onSelected(selected.get());
         eventBus.emitAsync(MediaSelectedMessage
                 .builder()
-                .media(result.orElse(null))
+                .media(selected.get())
                 .build());
+        return true;
     }
 
     void onFailedMediaScan(MediaScannedMessage msg) {
         log.info("No media found.");
+        scheduleScan();
     }
 
     void onSuccessfulMediaSelection(Media media) {
@@ -69,16 +156,90 @@ class ScanServicesMessageHandler {
                 "being transcoded by a cluster member.");
     }
 
-    void onTimeout(Object msg) {
-        startScanning();
+    void onSuccessfulProfileSelection(ProfileSelectedMessage msg) {
+        log.info("Selected {}", msg.getProfile());
+    }
+
+    void onFailedProfileSelection(ProfileSelectedMessage msg) {
+        scheduleScan();
+    }
+
+    /**
+     * Schedules the next media scan after the configured scan interval.
+     */
+    private void scheduleScan() {
+        scheduleScan(clock.instant().plus(Duration.ofMinutes(config.media_scan_interval())));
+    }
+
+    /**
+     * Schedules the next media scan at the given instant. There is at most one pending scan, a previously scheduled
+     * scan is replaced. If the instant is not in the future, the scan interval is used instead so that a
+     * misbehaving constraint cannot cause a scan loop.
+     *
+     * @param instant the instant of the next scan.
+     */
+    @Synchronized
+    private void scheduleScan(Instant instant) {
+        long delay = Duration.between(clock.instant(), instant).toMillis();
+        if (delay <= 0) {
+            scheduleScan();
+            return;
+        }
+        cancelScheduledScan();
+        log.info("Next media scan at {}.", instant);
+        pendingScan = Completable
+                .timer(delay, TimeUnit.MILLISECONDS)
+                .subscribe(this::startScanning);
+    }
+
+    /**
+     * Cancels the pending media scan, if any.
+     */
+    @Synchronized
+    void cancelScheduledScan() {
+        if (pendingScan == null) return;
+        pendingScan.dispose();
+        pendingScan = null;
     }
 
     private void startScanning() {
         eventBus.emitAsync(new ScanMediaCommand());
     }
 
-    void onSuccessfulProfileSelection(ProfileSelectedMessage msg) {
-        log.info("Selected {}", msg.getProfile());
+    void onQueueStatisticsQuery(QueueStatisticsMessage msg) {
+        msg.setQueues(schedulingPolicy.getQueueStatistics());
+    }
+
+    void onProfileCacheStatisticsQuery(ProfileCacheStatisticsMessage msg) {
+        msg.setStatistics(profileParser.getCacheStatistics().orElse(null));
+    }
+
+    void onTranscodeBegin(TranscodeBeginEvent event) {
+        preemptionPolicy.onTranscodeBegin(event.getTask().getMedia());
+    }
+
+    void onTranscodeFinished(TranscodeFinishedEvent event) {
+        if (event.getMedia() != null) {
+            preemptionPolicy.onTranscodeFinished(event.getMedia(), event.isSuccessful() && !event.isCancelled());
+        }
+        if (event.isNotWorthIt() && event.getMedia() != null) {
+            failureRegistry.recordNotWorthIt(event.getMedia());
+            return;
+        }
+        if (event.isCancelled() || event.getMedia() == null) return;
+        if (event.isSuccessful()) {
+            failureRegistry.recordSuccess(event.getMedia());
+        } else {
+            failureRegistry.recordFailure(event.getMedia());
+        }
+    }
+
+    void onFailuresQuery(FailuresMessage msg) {
+        msg.setFailures(failureRegistry.getFailures());
+    }
+
+    void onReleaseFailureCommand(ReleaseFailureCommand cmd) {
+        cmd.setReleased(failureRegistry.release(config.base_input_dir().getFileSystem().getPath(cmd.getSourcePath())));
     }
 
 }
@@ -2,33 +2,118 @@ package clustercode.impl.scan;
 
 import clustercode.api.domain.Constraint;
 import clustercode.api.domain.Media;
+import clustercode.api.scan.FailureRegistry;
+import clustercode.api.scan.SchedulingPolicy;
 import clustercode.api.scan.SelectionService;
+import clustercode.api.scan.TranscodeEstimator;
 import lombok.extern.slf4j.XSlf4j;
 
 import javax.inject.Inject;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @XSlf4j
 public class SelectionServiceImpl implements SelectionService {
 
     private final Set<Constraint> constraints;
+    private final SchedulingPolicy schedulingPolicy;
+    private final FailureRegistry failureRegistry;
+    private final TranscodeEstimator estimator;
+    private final Duration endPhase;
+    private final Clock clock;
 
     @Inject
-    SelectionServiceImpl(Set<Constraint> constraints) {
+    SelectionServiceImpl(Set<Constraint> constraints,
+                         SchedulingPolicy schedulingPolicy,
+                         FailureRegistry failureRegistry,
+                         TranscodeEstimator estimator,
+                         MediaScanConfig mediaScanConfig,
+                         Clock clock) {
         this.constraints = constraints;
+        this.schedulingPolicy = schedulingPolicy;
+        this.failureRegistry = failureRegistry;
+        this.estimator = estimator;
+        this.endPhase = Duration.ofMinutes(mediaScanConfig.scheduling_end_phase());
+        this.clock = clock;
     }
 
     @Override
-    public Optional<Media> selectMedia(List<Media> list) {
+    public List<Media> selectMedia(List<Media> list, int count) {
+        log.entry(list.size(), count);
+        if (count < 1) return log.exit(Collections.emptyList());
+        failureRegistry.refresh();
+        List<Media> result = preferShorterJobsNearDeadline(schedulingPolicy.order(list)).stream()
+                .distinct()
+                .filter(failureRegistry::isEligible)
+                .filter(this::checkConstraints)
+                // The stream is lazy, so the constraints learn about a selection before the next candidate is tested.
+                .peek(media -> constraints.forEach(constraint -> constraint.onSelected(media)))
+                .limit(count)
+                .collect(Collectors.toList());
+        result.forEach(schedulingPolicy::onSelected);
+        return log.exit(result);
+    }
+
+    @Override
+    public Optional<Media> peekMedia(List<Media> list) {
+        log.entry(list.size());
+        failureRegistry.refresh();
         return log.exit(list.stream()
+                .distinct()
                 .sorted(Comparator.comparingInt(Media::getPriority).reversed())
+                .filter(failureRegistry::isEligible)
                 .filter(this::checkConstraints)
                 .findFirst());
     }
 
+    @Override
+    public void onSelected(Media media) {
+        constraints.forEach(constraint -> constraint.onSelected(media));
+        schedulingPolicy.onSelected(media);
+    }
+
+    /**
+     * Reorders the candidates by their estimated transcoding duration (shortest first) if a constraint enforces a
+     * deadline which is less than the configured end phase away. This fills the rest of a time window with jobs that
+     * can still finish. The sort is stable, so the order of the scheduling policy is kept for equal estimates, media
+     * without estimate come last.
+     *
+     * @param ordered the candidates in order of the scheduling policy.
+     * @return the given list or a reordered copy.
+     */
+    List<Media> preferShorterJobsNearDeadline(List<Media> ordered) {
+        Optional<Instant> deadline = constraints.stream()
+                .map(Constraint::getDeadline)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .min(Instant::compareTo);
+        if (!deadline.isPresent() || Duration.between(clock.instant(), deadline.get()).compareTo(endPhase) > 0) {
+            return ordered;
+        }
+        log.debug("Deadline at {} is near, preferring shorter jobs.", deadline.get());
+        Map<Media, Long> estimates = new HashMap<>();
+        List<Media> result = new ArrayList<>(ordered);
+        result.sort(Comparator.comparingLong(media -> estimates.computeIfAbsent(media, m -> estimator
+                .estimateDuration(m)
+                .map(Duration::toMillis)
+                .orElse(Long.MAX_VALUE))));
+        return result;
+    }
+
+    @Override
+    public Optional<Instant> getNextVerdictChange(List<Media> list) {
+        if (list.isEmpty()) return Optional.empty();
+        return constraints.stream()
+                .map(constraint -> constraint.getNextVerdictChange()
+                        .filter(instant -> list.stream().noneMatch(constraint::accept)))
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .max(Instant::compareTo);
+    }
+
     /**
      * Checks whether the given media candidate fulfills all constraints. May not evaluate all constraints if one
      * declines the given media.
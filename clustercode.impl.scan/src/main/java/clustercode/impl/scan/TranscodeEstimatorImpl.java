@@ -0,0 +1,82 @@
+package clustercode.impl.scan;
+
+import clustercode.api.domain.Media;
+import clustercode.api.domain.Profile;
+import clustercode.api.scan.ProfileScanService;
+import clustercode.api.scan.TranscodeEstimator;
+import clustercode.api.transcode.TranscodeStatistics;
+import lombok.Synchronized;
+import lombok.extern.slf4j.XSlf4j;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+
+/**
+ * Estimates the transcoding duration by dividing the size of the source file by the throughput (bytes per second)
+ * observed for the media's profile, and the output size by multiplying it with the observed size ratio. The resolved profiles of the most recently estimated media are cached, as the
+ * estimation is done for many candidates on each scan.
+ */
+@XSlf4j
+public class TranscodeEstimatorImpl implements TranscodeEstimator {
+
+    private static final int MAX_CACHED_PROFILES = 1000;
+
+    private final ProfileScanService profileScanService;
+    private final TranscodeStatistics statistics;
+    private final MediaScanConfig mediaScanConfig;
+    private final Map<Media, Optional<Profile>> profiles = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Media, Optional<Profile>> eldest) {
+            return size() > MAX_CACHED_PROFILES;
+        }
+    };
+
+    @Inject
+    TranscodeEstimatorImpl(ProfileScanService profileScanService,
+                           TranscodeStatistics statistics,
+                           MediaScanConfig mediaScanConfig) {
+        this.profileScanService = profileScanService;
+        this.statistics = statistics;
+        this.mediaScanConfig = mediaScanConfig;
+    }
+
+    @Override
+    public Optional<Duration> estimateDuration(Media media) {
+        OptionalDouble throughput = getProfile(media).map(statistics::getThroughput).orElse(OptionalDouble.empty());
+        if (!throughput.isPresent() || throughput.getAsDouble() <= 0) return Optional.empty();
+        OptionalLong size = getSourceSize(media);
+        if (!size.isPresent()) return Optional.empty();
+        return Optional.of(Duration.ofMillis((long) (size.getAsLong() * 1000d / throughput.getAsDouble())));
+    }
+
+    @Override
+    public OptionalLong estimateOutputSize(Media media) {
+        OptionalDouble ratio = getProfile(media).map(statistics::getSizeRatio).orElse(OptionalDouble.empty());
+        if (!ratio.isPresent()) return OptionalLong.empty();
+        OptionalLong size = getSourceSize(media);
+        if (!size.isPresent()) return OptionalLong.empty();
+        return OptionalLong.of((long) Math.ceil(size.getAsLong() * ratio.getAsDouble()));
+    }
+
+    private OptionalLong getSourceSize(Media media) {
+        try {
+            return OptionalLong.of(Files.size(mediaScanConfig.base_input_dir().resolve(media.getSourcePath())));
+        } catch (IOException e) {
+            log.warn("Could not determine size of {}: {}", media.getSourcePath(), e.toString());
+            return OptionalLong.empty();
+        }
+    }
+
+    @Synchronized
+    private Optional<Profile> getProfile(Media media) {
+        return profiles.computeIfAbsent(media, profileScanService::selectProfile);
+    }
+
+}
@@ -4,6 +4,7 @@ import clustercode.api.domain.Media;
 import clustercode.api.domain.Profile;
 import clustercode.api.scan.ProfileMatcher;
 import clustercode.api.scan.ProfileParser;
+import clustercode.impl.scan.ProfileIndex;
 import clustercode.impl.scan.ProfileScanConfig;
 import lombok.extern.slf4j.XSlf4j;
 
@@ -17,25 +18,32 @@ import java.util.Optional;
  * of the media. For a media file such as {@code 0/movies/subdir/movie.mp4} this matcher will look for a profile in
  * {@code /profiles/0/movies/subdir/}. If it did not find it or on error, the parent will be searched ({@code
  * /profiles/0/movies/}). This matcher stops at the root directory of the input dir, in the example case it is {@code
- * 0/}.
+ * 0/}. The profile files are looked up in the {@link ProfileIndex} if it is available, so that only the dirs which
+ * actually contain a profile are visited, otherwise the file system is probed for each dir.
  */
 @XSlf4j
 public class DirectoryStructureMatcher implements ProfileMatcher {
 
     private final ProfileParser profileParser;
     private final ProfileScanConfig profileScanConfig;
+    private final ProfileIndex profileIndex;
 
     @Inject
     DirectoryStructureMatcher(ProfileScanConfig profileScanConfig,
-                              ProfileParser profileParser) {
+                              ProfileParser profileParser,
+                              ProfileIndex profileIndex) {
         this.profileParser = profileParser;
         this.profileScanConfig = profileScanConfig;
+        this.profileIndex = profileIndex;
     }
 
     @Override
     public Optional<Profile> apply(Media candidate) {
         log.entry(candidate);
         Path mediaFileParent = candidate.getSourcePath().getParent();
+        if (profileIndex.isAvailable()) {
+            return log.exit(parseIndexed(mediaFileParent));
+        }
         Path sisterDir = profileScanConfig.profile_base_dir().resolve(mediaFileParent);
         Path profileFile = sisterDir.resolve(profileScanConfig.profile_file_name() + profileScanConfig
                 .profile_file_name_extension());
@@ -44,6 +52,18 @@ public class DirectoryStructureMatcher implements ProfileMatcher {
         return log.exit(parseRecursive(profileFile, rootDir));
     }
 
+    private Optional<Profile> parseIndexed(Path dir) {
+        for (Path file : profileIndex.getProfileFiles(dir, dir.getName(0))) {
+            Optional<Profile> result = profileParser.parseFile(file);
+            if (result.isPresent()) {
+                log.info("Found profile: {}", result.get().getLocation());
+                return result;
+            }
+        }
+        log.debug("Did not find a suitable profile in any subdir of {}", dir.getName(0));
+        return Optional.empty();
+    }
+
     private Optional<Profile> parseRecursive(Path file, Path root) {
         if (Files.exists(file)) {
             Optional<Profile> result = profileParser.parseFile(file);
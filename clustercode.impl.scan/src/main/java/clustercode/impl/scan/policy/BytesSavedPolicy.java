@@ -0,0 +1,67 @@
+package clustercode.impl.scan.policy;
+
+import clustercode.api.domain.Media;
+import clustercode.api.domain.Profile;
+import clustercode.api.scan.ProfileScanService;
+import clustercode.api.scan.SchedulingPolicy;
+import clustercode.api.transcode.TranscodeStatistics;
+import lombok.Synchronized;
+import lombok.extern.slf4j.XSlf4j;
+
+import javax.inject.Inject;
+import java.util.*;
+
+/**
+ * Provides a policy which prefers media with higher priority and, within the same priority, the media whose profile
+ * saved the most bytes per hour of transcoding in the past (throughput multiplied with the relative size reduction).
+ * Profiles without history are assumed to perform like the average of the known ones. Ties are resolved with the
+ * {@link ShortestJobFirstPolicy}. The resolved profiles are remembered as long as a media stays a candidate.
+ */
+@XSlf4j
+public class BytesSavedPolicy implements SchedulingPolicy {
+
+    private static final double SECONDS_PER_HOUR = 3600d;
+
+    private final ProfileScanService profileScanService;
+    private final TranscodeStatistics statistics;
+    private final ShortestJobFirstPolicy shortestJobFirstPolicy;
+    private final Map<Media, Optional<Profile>> profiles = new HashMap<>();
+
+    @Inject
+    BytesSavedPolicy(ProfileScanService profileScanService,
+                     TranscodeStatistics statistics,
+                     ShortestJobFirstPolicy shortestJobFirstPolicy) {
+        this.profileScanService = profileScanService;
+        this.statistics = statistics;
+        this.shortestJobFirstPolicy = shortestJobFirstPolicy;
+    }
+
+    @Synchronized
+    @Override
+    public List<Media> order(List<Media> candidates) {
+        profiles.keySet().retainAll(new HashSet<>(candidates));
+        Map<Media, OptionalDouble> scores = new HashMap<>();
+        candidates.forEach(media -> scores.computeIfAbsent(media, this::getSavedBytesPerHour));
+        double fallback = scores.values().stream()
+                .filter(OptionalDouble::isPresent)
+                .mapToDouble(OptionalDouble::getAsDouble)
+                .average()
+                .orElse(0d);
+        log.debug("Assuming {} saved bytes per hour for profiles without history.", fallback);
+
+        Comparator<Media> bySavedBytes = Comparator.comparingDouble(media -> scores.get(media).orElse(fallback));
+        List<Media> result = new ArrayList<>(shortestJobFirstPolicy.order(candidates));
+        result.sort(PriorityPolicy.HIGHEST_PRIORITY_FIRST.thenComparing(bySavedBytes.reversed()));
+        return result;
+    }
+
+    OptionalDouble getSavedBytesPerHour(Media media) {
+        Optional<Profile> profile = profiles.computeIfAbsent(media, profileScanService::selectProfile);
+        if (!profile.isPresent()) return OptionalDouble.empty();
+        OptionalDouble ratio = statistics.getSizeRatio(profile.get());
+        OptionalDouble throughput = statistics.getThroughput(profile.get());
+        if (!ratio.isPresent() || !throughput.isPresent()) return OptionalDouble.empty();
+        return OptionalDouble.of(throughput.getAsDouble() * SECONDS_PER_HOUR * (1d - ratio.getAsDouble()));
+    }
+
+}
@@ -0,0 +1,25 @@
+package clustercode.impl.scan.policy;
+
+import clustercode.api.domain.Media;
+import clustercode.api.scan.SchedulingPolicy;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Provides a policy which prefers media with higher priority. The order of media with the same priority is
+ * unspecified.
+ */
+public class PriorityPolicy implements SchedulingPolicy {
+
+    static final Comparator<Media> HIGHEST_PRIORITY_FIRST = Comparator.comparingInt(Media::getPriority).reversed();
+
+    @Override
+    public List<Media> order(List<Media> candidates) {
+        return candidates.stream()
+                .sorted(HIGHEST_PRIORITY_FIRST)
+                .collect(Collectors.toList());
+    }
+
+}
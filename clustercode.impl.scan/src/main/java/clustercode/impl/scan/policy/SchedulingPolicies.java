@@ -0,0 +1,10 @@
+package clustercode.impl.scan.policy;
+
+public enum SchedulingPolicies {
+
+    PRIORITY,
+    SHORTEST_JOB_FIRST,
+    BYTES_SAVED_PER_CPU_HOUR,
+    WEIGHTED_FAIR
+
+}
@@ -0,0 +1,49 @@
+package clustercode.impl.scan.policy;
+
+import clustercode.api.domain.Media;
+import clustercode.api.scan.SchedulingPolicy;
+import clustercode.impl.scan.MediaScanConfig;
+import lombok.extern.slf4j.XSlf4j;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Provides a policy which prefers media with higher priority and, within the same priority, the smallest source
+ * file. This prevents a single huge file from blocking many short ones. Files whose size cannot be determined are
+ * considered last.
+ */
+@XSlf4j
+public class ShortestJobFirstPolicy implements SchedulingPolicy {
+
+    private final MediaScanConfig mediaScanConfig;
+
+    @Inject
+    ShortestJobFirstPolicy(MediaScanConfig mediaScanConfig) {
+        this.mediaScanConfig = mediaScanConfig;
+    }
+
+    @Override
+    public List<Media> order(List<Media> candidates) {
+        Map<Media, Long> sizes = new HashMap<>();
+        return candidates.stream()
+                .sorted(PriorityPolicy.HIGHEST_PRIORITY_FIRST
+                        .thenComparingLong(media -> sizes.computeIfAbsent(media, this::getSize)))
+                .collect(Collectors.toList());
+    }
+
+    long getSize(Media media) {
+        try {
+            return Files.size(mediaScanConfig.base_input_dir().resolve(media.getSourcePath()));
+        } catch (IOException e) {
+            log.warn("Could not determine size of {}: {}", media.getSourcePath(), e.toString());
+            return Long.MAX_VALUE;
+        }
+    }
+
+}
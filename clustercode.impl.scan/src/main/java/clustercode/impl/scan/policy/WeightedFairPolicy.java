@@ -0,0 +1,203 @@
+package clustercode.impl.scan.policy;
+
+import clustercode.api.domain.Media;
+import clustercode.api.scan.QueueStatistics;
+import clustercode.api.scan.SchedulingPolicy;
+import clustercode.impl.scan.MediaScanConfig;
+import clustercode.impl.util.InvalidConfigurationException;
+import lombok.Synchronized;
+import lombok.extern.slf4j.XSlf4j;
+
+import javax.inject.Inject;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Provides a policy which treats each priority directory as a queue and shares the transcoding slots among the
+ * backlogged queues in proportion to their weights (weighted fair queueing). The weight of a queue defaults to its
+ * priority + 1, so that directory 9 gets ten times the share of directory 0 as long as both have waiting media.
+ * Waiting media age: each aging interval that the head of a queue has been waiting counts as much as one selection
+ * from a queue with weight 1, so that no queue starves. Within a queue, media are served in the order they were first
+ * seen.
+ */
+@XSlf4j
+public class WeightedFairPolicy implements SchedulingPolicy {
+
+    private static final int MAX_SAMPLES = 1000;
+
+    private final Clock clock;
+    private final Map<Integer, Double> weights;
+    private final double agingIntervalMillis;
+    private final Map<Media, Instant> firstSeen = new HashMap<>();
+    private final Map<Integer, QueueState> queues = new HashMap<>();
+
+    @Inject
+    WeightedFairPolicy(MediaScanConfig mediaScanConfig,
+                       Clock clock) {
+        this.clock = clock;
+        this.weights = parseWeights(mediaScanConfig.scheduling_weights());
+        this.agingIntervalMillis = TimeUnit.MINUTES.toMillis(mediaScanConfig.scheduling_aging_interval());
+        if (agingIntervalMillis < 0) {
+            throw new InvalidConfigurationException("The aging interval must be >= 0.");
+        }
+    }
+
+    private Map<Integer, Double> parseWeights(List<String> entries) {
+        Map<Integer, Double> map = new HashMap<>();
+        for (String entry : entries) {
+            if (entry.trim().isEmpty()) continue;
+            String[] parts = entry.trim().split(":");
+            try {
+                if (parts.length != 2) throw new NumberFormatException(entry);
+                double weight = Double.parseDouble(parts[1]);
+                if (weight <= 0) throw new NumberFormatException(entry);
+                map.put(Integer.parseInt(parts[0]), weight);
+            } catch (NumberFormatException ex) {
+                throw new InvalidConfigurationException(
+                        "Invalid scheduling weight '{}'. Expected <priority>:<weight> with weight > 0.", ex, entry);
+            }
+        }
+        return map;
+    }
+
+    @Synchronized
+    @Override
+    public List<Media> order(List<Media> candidates) {
+        Instant now = clock.instant();
+        Set<Media> distinct = new LinkedHashSet<>(candidates);
+        firstSeen.keySet().retainAll(distinct);
+        distinct.forEach(media -> firstSeen.putIfAbsent(media, now));
+
+        Map<Integer, Deque<Media>> backlog = new TreeMap<>(Comparator.reverseOrder());
+        distinct.stream()
+                .sorted(Comparator.<Media, Instant>comparing(firstSeen::get)
+                        .thenComparing(media -> media.getSourcePath().toString()))
+                .forEach(media -> backlog.computeIfAbsent(media.getPriority(), p -> new ArrayDeque<>()).add(media));
+        activateQueues(backlog.keySet());
+
+        Map<Integer, Double> virtualTimes = new HashMap<>();
+        backlog.keySet().forEach(priority -> virtualTimes.put(priority, getQueue(priority).virtualTime));
+        List<Media> result = new ArrayList<>(distinct.size());
+        while (!backlog.isEmpty()) {
+            int next = pickQueue(backlog, virtualTimes, now);
+            Deque<Media> queue = backlog.get(next);
+            result.add(queue.poll());
+            virtualTimes.merge(next, 1d / getWeight(next), Double::sum);
+            if (queue.isEmpty()) backlog.remove(next);
+        }
+        return result;
+    }
+
+    /**
+     * Marks the given queues as backlogged. Queues which were idle start at the virtual time of the queues which are
+     * still backlogged, so that idle queues do not accumulate credit. If no queue was backlogged, all queues start
+     * equally.
+     */
+    private void activateQueues(Set<Integer> active) {
+        double systemTime = active.stream()
+                .map(queues::get)
+                .filter(Objects::nonNull)
+                .filter(queue -> queue.backlogged)
+                .mapToDouble(queue -> queue.virtualTime)
+                .min()
+                .orElseGet(() -> queues.values().stream().mapToDouble(queue -> queue.virtualTime).max().orElse(0d));
+        active.stream()
+                .map(this::getQueue)
+                .filter(queue -> !queue.backlogged)
+                .forEach(queue -> queue.virtualTime = Math.max(queue.virtualTime, systemTime));
+        queues.forEach((priority, queue) -> queue.backlogged = active.contains(priority));
+    }
+
+    private int pickQueue(Map<Integer, Deque<Media>> backlog, Map<Integer, Double> virtualTimes, Instant now) {
+        int best = 0;
+        double bestTag = Double.MAX_VALUE;
+        for (Map.Entry<Integer, Deque<Media>> entry : backlog.entrySet()) {
+            int priority = entry.getKey();
+            double tag = virtualTimes.get(priority) + 1d / getWeight(priority)
+                    - getAgingCredit(entry.getValue().peek(), now);
+            if (tag < bestTag) {
+                best = priority;
+                bestTag = tag;
+            }
+        }
+        return best;
+    }
+
+    private double getAgingCredit(Media media, Instant now) {
+        if (agingIntervalMillis == 0) return 0d;
+        return Duration.between(firstSeen.get(media), now).toMillis() / agingIntervalMillis;
+    }
+
+    private double getWeight(int priority) {
+        return weights.getOrDefault(priority, priority + 1d);
+    }
+
+    private QueueState getQueue(int priority) {
+        return queues.computeIfAbsent(priority, p -> new QueueState());
+    }
+
+    @Synchronized
+    @Override
+    public void onSelected(Media media) {
+        QueueState queue = getQueue(media.getPriority());
+        queue.virtualTime += 1d / getWeight(media.getPriority());
+        queue.selected++;
+        Instant seen = firstSeen.remove(media);
+        if (seen != null) queue.addSample(Duration.between(seen, clock.instant()).toMillis());
+    }
+
+    @Synchronized
+    @Override
+    public List<QueueStatistics> getQueueStatistics() {
+        Map<Integer, Long> waiting = firstSeen.keySet().stream()
+                .collect(Collectors.groupingBy(Media::getPriority, Collectors.counting()));
+        Set<Integer> priorities = new TreeSet<>(Comparator.reverseOrder());
+        priorities.addAll(queues.keySet());
+        priorities.addAll(waiting.keySet());
+        return priorities.stream()
+                .map(priority -> {
+                    QueueState queue = getQueue(priority);
+                    long[] samples = queue.samples.stream().mapToLong(Long::longValue).sorted().toArray();
+                    return QueueStatistics.builder()
+                            .priority(priority)
+                            .weight(getWeight(priority))
+                            .waiting(waiting.getOrDefault(priority, 0L))
+                            .selected(queue.selected)
+                            .medianWaitTime(getPercentile(samples, 50))
+                            .p90WaitTime(getPercentile(samples, 90))
+                            .p99WaitTime(getPercentile(samples, 99))
+                            .maxWaitTime(getPercentile(samples, 100))
+                            .build();
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the percentile using the nearest-rank method.
+     *
+     * @param sorted     the samples in ascending order.
+     * @param percentile the percentile, 0 < x <= 100.
+     * @return the duration, {@link Duration#ZERO} if there are no samples.
+     */
+    static Duration getPercentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) return Duration.ZERO;
+        int rank = (int) Math.ceil(percentile / 100d * sorted.length);
+        return Duration.ofMillis(sorted[Math.max(0, rank - 1)]);
+    }
+
+    private static class QueueState {
+        private final Deque<Long> samples = new ArrayDeque<>();
+        private double virtualTime;
+        private boolean backlogged;
+        private long selected;
+
+        void addSample(long millis) {
+            if (samples.size() >= MAX_SAMPLES) samples.removeFirst();
+            samples.addLast(millis);
+        }
+    }
+}
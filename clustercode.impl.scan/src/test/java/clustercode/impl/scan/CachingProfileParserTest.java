@@ -0,0 +1,97 @@
+package clustercode.impl.scan;
+
+import clustercode.api.domain.Profile;
+import clustercode.api.scan.ProfileCacheStatistics;
+import clustercode.test.util.FileBasedUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class CachingProfileParserTest implements FileBasedUnitTest {
+
+    private CachingProfileParser subject;
+    private ProfileParserImpl delegate;
+    private ProfileDirWatcher watcher;
+    private Path profileDir;
+    private Path profileFile;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        setupFileSystem();
+        profileDir = getPath("profiles");
+        profileFile = profileDir.resolve("0").resolve("profile.ffmpeg");
+        Files.createDirectories(profileFile.getParent());
+        Files.write(profileFile, Arrays.asList("-i", "${INPUT}"));
+        delegate = spy(new ProfileParserImpl());
+        watcher = new ProfileDirWatcher(profileDir);
+        subject = new CachingProfileParser(delegate, watcher);
+    }
+
+    @Test
+    public void parseFile_ShouldReturnCachedProfile_IfFileIsUnchanged() throws Exception {
+        Optional<Profile> first = subject.parseFile(profileFile);
+        Optional<Profile> second = subject.parseFile(profileFile);
+
+        assertThat(second).isEqualTo(first);
+        verify(delegate, times(1)).parseFile(profileFile);
+        ProfileCacheStatistics statistics = subject.getCacheStatistics().get();
+        assertThat(statistics.getHits()).isEqualTo(1);
+        assertThat(statistics.getMisses()).isEqualTo(1);
+        assertThat(statistics.getEntries()).isEqualTo(1);
+        assertThat(statistics.isWatching()).isFalse();
+    }
+
+    @Test
+    public void parseFile_ShouldParseAgain_IfFileHasChanged() throws Exception {
+        subject.parseFile(profileFile);
+        Files.write(profileFile, Collections.singletonList("-y"));
+
+        Optional<Profile> result = subject.parseFile(profileFile);
+
+        assertThat(result.get().getArguments()).containsExactly("-y");
+        verify(delegate, times(2)).parseFile(profileFile);
+    }
+
+    @Test
+    public void parseFile_ShouldReturnEmpty_IfFileHasBeenDeleted() throws Exception {
+        subject.parseFile(profileFile);
+        Files.delete(profileFile);
+
+        assertThat(subject.parseFile(profileFile)).isEmpty();
+        assertThat(subject.getCacheStatistics().get().getInvalidations()).isEqualTo(1);
+    }
+
+    @Test
+    public void parseFile_ShouldNotCacheMissingFiles() throws Exception {
+        Path missing = profileDir.resolve("missing.ffmpeg");
+
+        subject.parseFile(missing);
+        subject.parseFile(missing);
+
+        verify(delegate, times(2)).parseFile(missing);
+        assertThat(subject.getCacheStatistics().get().getEntries()).isEqualTo(0);
+    }
+
+    @Test
+    public void parseFile_ShouldTrustCache_UntilInvalidated_IfWatching() throws Exception {
+        watcher.start();
+        subject.parseFile(profileFile);
+        Files.write(profileFile, Collections.singletonList("-y"));
+
+        assertThat(subject.parseFile(profileFile).get().getArguments()).containsExactly("-i", "${INPUT}");
+
+        subject.onChanged(profileFile.getParent().toAbsolutePath());
+
+        assertThat(subject.parseFile(profileFile).get().getArguments()).containsExactly("-y");
+        assertThat(subject.getCacheStatistics().get().isWatching()).isTrue();
+    }
+
+}
@@ -0,0 +1,200 @@
+package clustercode.impl.scan;
+
+import clustercode.api.domain.Media;
+import clustercode.api.scan.FailureRecord;
+import clustercode.impl.util.InvalidConfigurationException;
+import clustercode.test.util.FileBasedUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Files;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.when;
+
+public class FailureRegistryImplTest implements FileBasedUnitTest {
+
+    private FailureRegistryImpl subject;
+
+    @Mock
+    private MediaScanConfig config;
+    @Mock
+    private Clock clock;
+
+    private Instant now = Instant.parse("2017-01-31T08:00:00Z");
+    private Media media;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        setupFileSystem();
+        when(clock.instant()).thenAnswer(invocation -> now);
+        when(config.failure_registry_file()).thenReturn(getPath("var", "failures.properties"));
+        when(config.failure_backoff()).thenReturn(30L);
+        when(config.failure_max_backoff()).thenReturn(120L);
+        when(config.failure_quarantine_threshold()).thenReturn(3);
+        media = Media.builder().sourcePath(getPath("0", "movie.mkv")).build();
+        subject = new FailureRegistryImpl(config, clock);
+    }
+
+    @Test
+    public void isEligible_ShouldReturnTrue_IfMediaHasNotFailed() throws Exception {
+        assertThat(subject.isEligible(media)).isTrue();
+    }
+
+    @Test
+    public void isEligible_ShouldReturnFalse_UntilBackoffElapsed() throws Exception {
+        subject.recordFailure(media);
+
+        now = now.plus(Duration.ofMinutes(29));
+        assertThat(subject.isEligible(media)).isFalse();
+        now = now.plus(Duration.ofMinutes(1));
+        assertThat(subject.isEligible(media)).isTrue();
+    }
+
+    @Test
+    public void recordFailure_ShouldDoubleBackoff_IfFailedAgain() throws Exception {
+        subject.recordFailure(media);
+        subject.recordFailure(media);
+
+        assertThat(subject.getFailures()).extracting(FailureRecord::getNextAttempt)
+                                          .containsExactly(now.plus(Duration.ofMinutes(60)));
+    }
+
+    @Test
+    public void getBackoff_ShouldNotExceedMaximum() throws Exception {
+        assertThat(subject.getBackoff(1)).isEqualTo(Duration.ofMinutes(30));
+        assertThat(subject.getBackoff(3)).isEqualTo(Duration.ofMinutes(120));
+        assertThat(subject.getBackoff(100)).isEqualTo(Duration.ofMinutes(120));
+    }
+
+    @Test
+    public void recordFailure_ShouldQuarantineMedia_IfThresholdReached() throws Exception {
+        subject.recordFailure(media);
+        subject.recordFailure(media);
+        subject.recordFailure(media);
+        now = now.plus(Duration.ofDays(30));
+
+        assertThat(subject.isEligible(media)).isFalse();
+        assertThat(subject.getFailures()).extracting(FailureRecord::isQuarantined).containsExactly(true);
+    }
+
+    @Test
+    public void recordSuccess_ShouldForgetFailures() throws Exception {
+        subject.recordFailure(media);
+
+        subject.recordSuccess(media);
+
+        assertThat(subject.isEligible(media)).isTrue();
+        assertThat(subject.getFailures()).isEmpty();
+    }
+
+    @Test
+    public void release_ShouldMakeQuarantinedMediaEligible() throws Exception {
+        subject.recordFailure(media);
+        subject.recordFailure(media);
+        subject.recordFailure(media);
+
+        assertThat(subject.release(subject.getPath("0/movie.mkv"))).isTrue();
+        assertThat(subject.isEligible(media)).isTrue();
+        assertThat(subject.release(media.getSourcePath())).isFalse();
+    }
+
+    @Test
+    public void ctor_ShouldLoadPersistedFailures() throws Exception {
+        subject.recordFailure(media);
+        subject.recordFailure(media);
+
+        subject = new FailureRegistryImpl(config, clock);
+        List<FailureRecord> result = subject.getFailures();
+
+        assertThat(Files.exists(config.failure_registry_file())).isTrue();
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getSourcePath()).isEqualTo(media.getSourcePath());
+        assertThat(result.get(0).getFailures()).isEqualTo(2);
+        assertThat(subject.isEligible(media)).isFalse();
+    }
+
+    @Test
+    public void recordNotWorthIt_ShouldQuarantineMediaImmediately() throws Exception {
+        subject.recordNotWorthIt(media);
+        now = now.plus(Duration.ofDays(30));
+
+        assertThat(subject.isEligible(media)).isFalse();
+        assertThat(subject.getFailures()).extracting(FailureRecord::isQuarantined).containsExactly(true);
+        assertThat(subject.getFailures()).extracting(FailureRecord::isNotWorthIt).containsExactly(true);
+    }
+
+    @Test
+    public void ctor_ShouldLoadPersistedNotWorthIt() throws Exception {
+        subject.recordNotWorthIt(media);
+
+        subject = new FailureRegistryImpl(config, clock);
+
+        assertThat(subject.getFailures()).extracting(FailureRecord::isNotWorthIt).containsExactly(true);
+        assertThat(subject.isEligible(media)).isFalse();
+    }
+
+    @Test
+    public void recordFailure_ShouldMergeFailuresOfOtherNodes() throws Exception {
+        FailureRegistryImpl otherNode = new FailureRegistryImpl(config, clock);
+        Media otherMedia = Media.builder().sourcePath(getPath("0", "other.mkv")).build();
+        otherNode.recordFailure(otherMedia);
+
+        subject.recordFailure(media);
+
+        assertThat(new FailureRegistryImpl(config, clock).getFailures()).extracting(FailureRecord::getSourcePath)
+                .containsExactly(media.getSourcePath(), otherMedia.getSourcePath());
+        assertThat(subject.isEligible(otherMedia)).isFalse();
+    }
+
+    @Test
+    public void recordFailure_ShouldCountFailuresOfOtherNodes() throws Exception {
+        FailureRegistryImpl otherNode = new FailureRegistryImpl(config, clock);
+        otherNode.recordFailure(media);
+
+        subject.recordFailure(media);
+
+        assertThat(otherNode.getFailures()).extracting(FailureRecord::getFailures).containsExactly(2);
+    }
+
+    @Test
+    public void release_ShouldNotRestoreRecord_IfReleasedByOtherNode() throws Exception {
+        FailureRegistryImpl otherNode = new FailureRegistryImpl(config, clock);
+        Media otherMedia = Media.builder().sourcePath(getPath("0", "other.mkv")).build();
+        subject.recordFailure(media);
+        otherNode.release(media.getSourcePath());
+
+        subject.recordFailure(otherMedia);
+
+        assertThat(otherNode.getFailures()).extracting(FailureRecord::getSourcePath)
+                .containsExactly(otherMedia.getSourcePath());
+    }
+
+    @Test
+    public void refresh_ShouldLoadFailuresOfOtherNodes() throws Exception {
+        FailureRegistryImpl otherNode = new FailureRegistryImpl(config, clock);
+        otherNode.recordNotWorthIt(media);
+        assertThat(subject.isEligible(media)).isTrue();
+
+        subject.refresh();
+
+        assertThat(subject.isEligible(media)).isFalse();
+    }
+
+    @Test
+    public void ctor_ShouldThrowException_IfMaxBackoffIsSmallerThanBackoff() throws Exception {
+        when(config.failure_max_backoff()).thenReturn(10L);
+
+        assertThatExceptionOfType(InvalidConfigurationException.class)
+                .isThrownBy(() -> new FailureRegistryImpl(config, clock));
+    }
+
+}
@@ -0,0 +1,125 @@
+package clustercode.impl.scan;
+
+import clustercode.api.domain.Media;
+import clustercode.api.scan.TranscodeEstimator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.when;
+
+public class PreemptionPolicyTest {
+
+    private PreemptionPolicy subject;
+
+    @Mock
+    private MediaScanConfig config;
+    @Mock
+    private TranscodeEstimator estimator;
+    @Mock
+    private Clock clock;
+
+    private Instant now = Instant.parse("2017-01-31T08:00:00Z");
+    private Media low;
+    private Media medium;
+    private Media high;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        when(clock.instant()).thenAnswer(invocation -> now);
+        when(config.preemption_priority_gap()).thenReturn(5);
+        when(config.preemption_min_runtime()).thenReturn(10L);
+        when(config.preemption_min_remaining()).thenReturn(15L);
+        when(config.preemption_cooldown()).thenReturn(30L);
+        when(config.preemption_max_per_media()).thenReturn(1);
+        when(estimator.estimateDuration(any())).thenReturn(Optional.empty());
+        low = Media.builder().sourcePath(Paths.get("0", "low.mkv")).priority(0).build();
+        medium = Media.builder().sourcePath(Paths.get("4", "medium.mkv")).priority(4).build();
+        high = Media.builder().sourcePath(Paths.get("9", "high.mkv")).priority(9).build();
+        subject = new PreemptionPolicy(config, estimator, clock);
+    }
+
+    private void advance(long minutes) {
+        now = now.plus(Duration.ofMinutes(minutes));
+    }
+
+    @Test
+    public void getVictim_ShouldReturnEmpty_IfDisabled() throws Exception {
+        when(config.preemption_priority_gap()).thenReturn(0);
+        subject = new PreemptionPolicy(config, estimator, clock);
+        subject.onTranscodeBegin(low);
+        advance(60);
+
+        assertThat(subject.isEnabled()).isFalse();
+        assertThat(subject.getVictim()).isEmpty();
+    }
+
+    @Test
+    public void getVictim_ShouldReturnLowestPriority() throws Exception {
+        subject.onTranscodeBegin(medium);
+        subject.onTranscodeBegin(low);
+        advance(20);
+
+        assertThat(subject.getVictim()).hasValue(low);
+    }
+
+    @Test
+    public void getVictim_ShouldReturnEmpty_IfMinRuntimeNotReached() throws Exception {
+        subject.onTranscodeBegin(low);
+        advance(5);
+
+        assertThat(subject.getVictim()).isEmpty();
+    }
+
+    @Test
+    public void getVictim_ShouldReturnEmpty_IfTaskIsAboutToFinish() throws Exception {
+        when(estimator.estimateDuration(low)).thenReturn(Optional.of(Duration.ofMinutes(30)));
+        subject.onTranscodeBegin(low);
+        advance(20);
+
+        assertThat(subject.getVictim()).isEmpty();
+    }
+
+    @Test
+    public void getVictim_ShouldReturnEmpty_DuringCooldown() throws Exception {
+        subject.onTranscodeBegin(low);
+        subject.onTranscodeBegin(medium);
+        advance(20);
+        subject.onPreempted(low, 42d);
+        subject.onTranscodeFinished(low, false);
+
+        assertThat(subject.getVictim()).isEmpty();
+        advance(30);
+        assertThat(subject.getVictim()).hasValue(medium);
+    }
+
+    @Test
+    public void getVictim_ShouldNotPreemptSameMediaAgain_IfMaximumReached() throws Exception {
+        subject.onTranscodeBegin(low);
+        advance(20);
+        subject.onPreempted(low, 42d);
+        subject.onTranscodeFinished(low, false);
+        advance(60);
+        subject.onTranscodeBegin(low);
+        advance(20);
+
+        assertThat(subject.getVictim()).isEmpty();
+    }
+
+    @Test
+    public void getPreemptingCandidates_ShouldRequirePriorityGap() throws Exception {
+        assertThat(subject.getPreemptingCandidates(Arrays.asList(low, medium, high), low)).containsExactly(high);
+    }
+
+}
@@ -0,0 +1,111 @@
+package clustercode.impl.scan;
+
+import clustercode.test.util.FileBasedUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+public class ProfileIndexTest implements FileBasedUnitTest {
+
+    private ProfileIndex subject;
+    private Path profileDir;
+
+    @Mock
+    private ProfileScanConfig config;
+    @Mock
+    private ProfileDirWatcher watcher;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        setupFileSystem();
+        profileDir = getPath("profiles").toAbsolutePath();
+        Files.createDirectories(profileDir);
+        when(config.profile_file_name()).thenReturn("profile");
+        when(config.profile_file_name_extension()).thenReturn(".ffmpeg");
+        when(watcher.getBaseDir()).thenReturn(profileDir);
+        when(watcher.isWatching()).thenReturn(true);
+        subject = new ProfileIndex(config, watcher);
+    }
+
+    private Path createProfile(String dir) throws Exception {
+        return createFile(profileDir.resolve(dir).resolve("profile.ffmpeg"));
+    }
+
+    @Test
+    public void getProfileFiles_ShouldReturnNearestFirst() throws Exception {
+        Path top = createProfile("0");
+        Path nearest = createProfile("0/movies/subdir");
+        createProfile("0/series");
+
+        assertThat(subject.getProfileFiles(getPath("0", "movies", "subdir"), getPath("0")))
+                .containsExactly(nearest, top);
+    }
+
+    @Test
+    public void getProfileFiles_ShouldNotReturnFilesAboveTopDir() throws Exception {
+        createProfile("0");
+        Path movies = createProfile("0/movies");
+
+        assertThat(subject.getProfileFiles(getPath("0", "movies", "subdir"), getPath("0", "movies")))
+                .containsExactly(movies);
+    }
+
+    @Test
+    public void getProfileFiles_ShouldReturnEmptyList_IfNoProfileExists() throws Exception {
+        createFile(profileDir.resolve("0/movies/other.txt"));
+
+        assertThat(subject.getProfileFiles(getPath("0", "movies"), getPath("0"))).isEmpty();
+    }
+
+    @Test
+    public void onChanged_ShouldAddProfile_IfFileCreated() throws Exception {
+        subject.getProfileFiles(getPath("0"), getPath("0"));
+        Path profile = createProfile("0/movies");
+
+        subject.onChanged(profileDir.resolve("0/movies"));
+
+        assertThat(subject.getProfileFiles(getPath("0", "movies"), getPath("0"))).containsExactly(profile);
+    }
+
+    @Test
+    public void onChanged_ShouldRemoveProfile_IfFileDeleted() throws Exception {
+        Path profile = createProfile("0/movies");
+        subject.getProfileFiles(getPath("0"), getPath("0"));
+        Files.delete(profile);
+
+        subject.onChanged(profile);
+
+        assertThat(subject.getProfileFiles(getPath("0", "movies"), getPath("0"))).isEmpty();
+    }
+
+    @Test
+    public void onChanged_ShouldRemoveSubtree_IfDirDeleted() throws Exception {
+        Path profile = createProfile("0/movies/subdir");
+        subject.getProfileFiles(getPath("0"), getPath("0"));
+        Files.delete(profile);
+        Files.delete(profile.getParent());
+
+        subject.onChanged(profile.getParent());
+
+        assertThat(subject.getProfileFiles(getPath("0", "movies", "subdir"), getPath("0"))).isEmpty();
+    }
+
+    @Test
+    public void onReset_ShouldRebuildIndex() throws Exception {
+        subject.getProfileFiles(getPath("0"), getPath("0"));
+        Path profile = createProfile("0");
+
+        subject.onReset();
+
+        assertThat(subject.getProfileFiles(getPath("0", "movies"), getPath("0"))).containsExactly(profile);
+    }
+
+}
@@ -63,6 +63,61 @@ public class ProfileParserImplTest implements FileBasedUnitTest {
                 .hasSize(2);
     }
 
+    @Test
+    public void parseFile_ShouldCompileArguments() throws Exception {
+        Path testFile = getPath("profile.ffmpeg");
+        Files.write(testFile, Arrays.asList("%{FORMAT=.mkv}", "-i", "${INPUT}", "${OUTPUT}${FORMAT}"));
+
+        Profile result = subject.parseFile(testFile).get();
+
+        assertThat(result.getTemplates()).hasSize(3);
+        assertThat(result.getTemplates().get(2).getVariables()).containsExactly("OUTPUT", "FORMAT");
+    }
+
+    @Test
+    public void parseFile_ShouldReturnEmptyProfile_IfVariableIsUndefined() throws Exception {
+        Path testFile = getPath("profile.ffmpeg");
+        Files.write(testFile, Arrays.asList("-i", "${INPUT}", "-crf", "${QUALITY}"));
+
+        Optional<Profile> result = subject.parseFile(testFile);
+
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    public void parseFile_ShouldReturnEmptyProfile_IfDurationIsUsed() throws Exception {
+        Path testFile = getPath("profile.ffmpeg");
+        Files.write(testFile, Arrays.asList("-i", "${INPUT}", "-t", "${DURATION}"));
+
+        Optional<Profile> result = subject.parseFile(testFile);
+
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    public void parseFile_ShouldEqualProfile_RegardlessOfCompiledTemplates() throws Exception {
+        Path testFile = getPath("profile.ffmpeg");
+        Files.write(testFile, Arrays.asList("-i", "${INPUT}"));
+
+        Profile result = subject.parseFile(testFile).get();
+        Profile other = Profile.builder().location(testFile).arguments(result.getArguments())
+                               .fields(result.getFields()).build();
+        other.getTemplates();
+
+        assertThat(result).isEqualTo(other);
+        assertThat(other.toString()).isEqualTo(result.toString());
+    }
+
+    @Test
+    public void parseFile_ShouldReturnEmptyProfile_IfVariableIsNotTerminated() throws Exception {
+        Path testFile = getPath("profile.ffmpeg");
+        Files.write(testFile, Arrays.asList("-i", "${INPUT"));
+
+        Optional<Profile> result = subject.parseFile(testFile);
+
+        assertThat(result).isEmpty();
+    }
+
     @Test
     public void parseFile_ShouldReturnEmptyProfile_OnError() throws Exception {
         Path testFile = getPath("profile.ffmpeg");
@@ -0,0 +1,207 @@
+package clustercode.impl.scan;
+
+import clustercode.api.domain.Constraint;
+import clustercode.api.domain.Media;
+import clustercode.api.scan.FailureRegistry;
+import clustercode.api.scan.SchedulingPolicy;
+import clustercode.api.scan.TranscodeEstimator;
+import clustercode.impl.scan.policy.PriorityPolicy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class SelectionServiceImplTest {
+
+    private SelectionServiceImpl subject;
+
+    @Mock
+    private Constraint constraint;
+    @Mock
+    private FailureRegistry failureRegistry;
+    @Mock
+    private TranscodeEstimator estimator;
+    @Mock
+    private MediaScanConfig mediaScanConfig;
+
+    private Media low;
+    private Media medium;
+    private Media high;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        low = Media.builder().sourcePath(Paths.get("0", "low.mp4")).priority(0).build();
+        medium = Media.builder().sourcePath(Paths.get("1", "medium.mp4")).priority(1).build();
+        high = Media.builder().sourcePath(Paths.get("2", "high.mp4")).priority(2).build();
+        when(constraint.accept(any())).thenReturn(true);
+        when(constraint.getDeadline()).thenReturn(Optional.empty());
+        when(failureRegistry.isEligible(any())).thenReturn(true);
+        when(mediaScanConfig.scheduling_end_phase()).thenReturn(60L);
+        subject = new SelectionServiceImpl(Collections.singleton(constraint), new PriorityPolicy(), failureRegistry,
+                estimator, mediaScanConfig, Clock.fixed(Instant.parse("2017-01-31T15:30:00Z"), ZoneOffset.UTC));
+    }
+
+    @Test
+    public void selectMedia_ShouldReturnMediaWithHighestPriority() throws Exception {
+        Optional<Media> result = subject.selectMedia(Arrays.asList(low, high, medium));
+
+        assertThat(result).hasValue(high);
+    }
+
+    @Test
+    public void selectMedia_ShouldReturnMultipleMedia_InPriorityOrder() throws Exception {
+        List<Media> result = subject.selectMedia(Arrays.asList(low, high, medium), 2);
+
+        assertThat(result).containsExactly(high, medium);
+    }
+
+    @Test
+    public void selectMedia_ShouldNotifyConstraints_BeforeTestingNextCandidate() throws Exception {
+        subject.selectMedia(Arrays.asList(low, high, medium), 2);
+
+        var order = inOrder(constraint);
+        order.verify(constraint).accept(high);
+        order.verify(constraint).onSelected(high);
+        order.verify(constraint).accept(medium);
+        order.verify(constraint).onSelected(medium);
+        verify(constraint, never()).onSelected(low);
+    }
+
+    @Test
+    public void peekMedia_ShouldReturnHighestAcceptedMedia_WithoutSideEffects() throws Exception {
+        SchedulingPolicy policy = mock(SchedulingPolicy.class);
+        subject = new SelectionServiceImpl(Collections.singleton(constraint), policy, failureRegistry,
+                estimator, mediaScanConfig, Clock.fixed(Instant.parse("2017-01-31T15:30:00Z"), ZoneOffset.UTC));
+        when(constraint.accept(high)).thenReturn(false);
+
+        Optional<Media> result = subject.peekMedia(Arrays.asList(low, high, medium));
+
+        assertThat(result).hasValue(medium);
+        verifyZeroInteractions(policy);
+        verify(constraint, never()).onSelected(any());
+    }
+
+    @Test
+    public void onSelected_ShouldNotifyConstraints() throws Exception {
+        subject.onSelected(high);
+
+        verify(constraint).onSelected(high);
+    }
+
+    @Test
+    public void selectMedia_ShouldRefreshFailureRegistry_BeforeCheckingEligibility() throws Exception {
+        subject.selectMedia(Arrays.asList(low, high, medium), 1);
+
+        var order = inOrder(failureRegistry);
+        order.verify(failureRegistry).refresh();
+        order.verify(failureRegistry).isEligible(any());
+    }
+
+    @Test
+    public void selectMedia_ShouldSkipDeclinedMedia() throws Exception {
+        when(constraint.accept(high)).thenReturn(false);
+
+        List<Media> result = subject.selectMedia(Arrays.asList(low, high, medium), 2);
+
+        assertThat(result).containsExactly(medium, low);
+    }
+
+    @Test
+    public void selectMedia_ShouldSkipMedia_IfNotEligibleAfterFailure() throws Exception {
+        when(failureRegistry.isEligible(high)).thenReturn(false);
+
+        List<Media> result = subject.selectMedia(Arrays.asList(low, high, medium), 2);
+
+        assertThat(result).containsExactly(medium, low);
+        verify(constraint, never()).accept(high);
+    }
+
+    @Test
+    public void selectMedia_ShouldNotReturnDuplicates() throws Exception {
+        Media duplicate = Media.builder().sourcePath(high.getSourcePath()).priority(2).build();
+
+        List<Media> result = subject.selectMedia(Arrays.asList(high, duplicate, low), 3);
+
+        assertThat(result).containsExactly(high, low);
+    }
+
+    @Test
+    public void selectMedia_ShouldStopEvaluating_IfEnoughMediaFound() throws Exception {
+        subject.selectMedia(Arrays.asList(low, high, medium), 1);
+
+        verify(constraint).accept(high);
+        verify(constraint, never()).accept(medium);
+        verify(constraint, never()).accept(low);
+    }
+
+    @Test
+    public void selectMedia_ShouldReturnEmptyList_IfCountIsZero() throws Exception {
+        List<Media> result = subject.selectMedia(Arrays.asList(low, high), 0);
+
+        assertThat(result).isEmpty();
+        verifyZeroInteractions(constraint);
+    }
+
+    @Test
+    public void selectMedia_ShouldPreferShorterJobs_IfDeadlineIsNear() throws Exception {
+        when(constraint.getDeadline()).thenReturn(Optional.of(Instant.parse("2017-01-31T16:00:00Z")));
+        when(estimator.estimateDuration(high)).thenReturn(Optional.of(Duration.ofMinutes(20)));
+        when(estimator.estimateDuration(medium)).thenReturn(Optional.empty());
+        when(estimator.estimateDuration(low)).thenReturn(Optional.of(Duration.ofMinutes(5)));
+
+        List<Media> result = subject.selectMedia(Arrays.asList(low, high, medium), 3);
+
+        assertThat(result).containsExactly(low, high, medium);
+    }
+
+    @Test
+    public void selectMedia_ShouldKeepPolicyOrder_IfDeadlineIsFarAway() throws Exception {
+        when(constraint.getDeadline()).thenReturn(Optional.of(Instant.parse("2017-01-31T20:00:00Z")));
+
+        List<Media> result = subject.selectMedia(Arrays.asList(low, high, medium), 3);
+
+        assertThat(result).containsExactly(high, medium, low);
+        verifyZeroInteractions(estimator);
+    }
+
+    @Test
+    public void getNextVerdictChange_ShouldReturnInstant_IfConstraintDeclinesAllMedia() throws Exception {
+        Instant instant = Instant.parse("2017-01-31T13:00:00Z");
+        when(constraint.accept(any())).thenReturn(false);
+        when(constraint.getNextVerdictChange()).thenReturn(Optional.of(instant));
+
+        assertThat(subject.getNextVerdictChange(Arrays.asList(low, high))).hasValue(instant);
+    }
+
+    @Test
+    public void getNextVerdictChange_ShouldReturnEmpty_IfConstraintAcceptsSomeMedia() throws Exception {
+        when(constraint.accept(high)).thenReturn(false);
+        when(constraint.getNextVerdictChange()).thenReturn(Optional.of(Instant.parse("2017-01-31T13:00:00Z")));
+
+        assertThat(subject.getNextVerdictChange(Arrays.asList(low, high))).isEmpty();
+    }
+
+    @Test
+    public void getNextVerdictChange_ShouldReturnEmpty_IfConstraintDoesNotKnow() throws Exception {
+        when(constraint.accept(any())).thenReturn(false);
+        when(constraint.getNextVerdictChange()).thenReturn(Optional.empty());
+
+        assertThat(subject.getNextVerdictChange(Arrays.asList(low, high))).isEmpty();
+    }
+
+}
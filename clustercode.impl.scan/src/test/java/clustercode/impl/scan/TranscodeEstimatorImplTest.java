@@ -0,0 +1,98 @@
+package clustercode.impl.scan;
+
+import clustercode.api.domain.Media;
+import clustercode.api.domain.Profile;
+import clustercode.api.scan.ProfileScanService;
+import clustercode.api.transcode.TranscodeStatistics;
+import clustercode.test.util.FileBasedUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalDouble;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class TranscodeEstimatorImplTest implements FileBasedUnitTest {
+
+    private TranscodeEstimatorImpl subject;
+
+    @Mock
+    private ProfileScanService profileScanService;
+    @Mock
+    private TranscodeStatistics statistics;
+    @Mock
+    private MediaScanConfig config;
+
+    private Path inputDir;
+    private Media media;
+    private Profile profile;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        setupFileSystem();
+        inputDir = getPath("input");
+        when(config.base_input_dir()).thenReturn(inputDir);
+        Path source = getPath("0", "movie.mkv");
+        Files.write(createParentDirOf(inputDir.resolve(source)), new byte[2000]);
+        media = Media.builder().sourcePath(source).build();
+        profile = Profile.builder().location(getPath("profile.ffmpeg")).build();
+        when(profileScanService.selectProfile(media)).thenReturn(Optional.of(profile));
+        subject = new TranscodeEstimatorImpl(profileScanService, statistics, config);
+    }
+
+    @Test
+    public void estimateDuration_ShouldDivideSizeByThroughput() throws Exception {
+        when(statistics.getThroughput(profile)).thenReturn(OptionalDouble.of(100d));
+
+        assertThat(subject.estimateDuration(media)).hasValue(Duration.ofSeconds(20));
+    }
+
+    @Test
+    public void estimateDuration_ShouldReturnEmpty_IfThroughputIsUnknown() throws Exception {
+        when(statistics.getThroughput(profile)).thenReturn(OptionalDouble.empty());
+
+        assertThat(subject.estimateDuration(media)).isEmpty();
+    }
+
+    @Test
+    public void estimateDuration_ShouldReturnEmpty_IfSourceDoesNotExist() throws Exception {
+        Media missing = Media.builder().sourcePath(getPath("0", "missing.mkv")).build();
+        when(profileScanService.selectProfile(missing)).thenReturn(Optional.of(profile));
+        when(statistics.getThroughput(profile)).thenReturn(OptionalDouble.of(100d));
+
+        assertThat(subject.estimateDuration(missing)).isEmpty();
+    }
+
+    @Test
+    public void estimateOutputSize_ShouldMultiplySizeWithRatio() throws Exception {
+        when(statistics.getSizeRatio(profile)).thenReturn(OptionalDouble.of(0.25));
+
+        assertThat(subject.estimateOutputSize(media)).hasValue(500L);
+    }
+
+    @Test
+    public void estimateOutputSize_ShouldReturnEmpty_IfRatioIsUnknown() throws Exception {
+        when(statistics.getSizeRatio(profile)).thenReturn(OptionalDouble.empty());
+
+        assertThat(subject.estimateOutputSize(media)).isEmpty();
+    }
+
+    @Test
+    public void estimateDuration_ShouldCacheProfile() throws Exception {
+        when(statistics.getThroughput(profile)).thenReturn(OptionalDouble.of(100d));
+
+        subject.estimateDuration(media);
+        subject.estimateDuration(media);
+
+        verify(profileScanService, times(1)).selectProfile(media);
+    }
+
+}
@@ -3,6 +3,7 @@ package clustercode.impl.scan.matcher;
 import clustercode.api.domain.Media;
 import clustercode.api.domain.Profile;
 import clustercode.api.scan.ProfileParser;
+import clustercode.impl.scan.ProfileIndex;
 import clustercode.impl.scan.ProfileScanConfig;
 import clustercode.test.util.FileBasedUnitTest;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,11 +13,13 @@ import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
 
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 public class DirectoryStructureMatcherTest implements FileBasedUnitTest {
 
@@ -26,6 +29,8 @@ public class DirectoryStructureMatcherTest implements FileBasedUnitTest {
     @Mock
     private ProfileScanConfig config;
     @Mock
+    private ProfileIndex index;
+    @Mock
     private Media candidate;
     @Spy
     private Profile profile;
@@ -39,7 +44,7 @@ public class DirectoryStructureMatcherTest implements FileBasedUnitTest {
         when(config.profile_file_name()).thenReturn("profile");
         when(config.profile_file_name_extension()).thenReturn(".ffmpeg");
         when(config.profile_base_dir()).thenReturn(profileFolder);
-        subject = new DirectoryStructureMatcher(config, parser);
+        subject = new DirectoryStructureMatcher(config, parser, index);
     }
 
     @Test
@@ -110,4 +115,33 @@ public class DirectoryStructureMatcherTest implements FileBasedUnitTest {
         assertThat(result).hasValue(profile);
     }
 
+    @Test
+    public void apply_ShouldUseIndex_IfAvailable() throws Exception {
+        Path media = getPath("0", "movies", "subdir", "movie.mp4");
+        Path nearest = profileFolder.resolve("0/movies/profile.ffmpeg");
+        Path top = profileFolder.resolve("0/profile.ffmpeg");
+        when(index.isAvailable()).thenReturn(true);
+        when(index.getProfileFiles(media.getParent(), getPath("0"))).thenReturn(Arrays.asList(nearest, top));
+        when(candidate.getSourcePath()).thenReturn(media);
+        when(parser.parseFile(nearest)).thenReturn(Optional.empty());
+        when(parser.parseFile(top)).thenReturn(Optional.of(profile));
+
+        Optional<Profile> result = subject.apply(candidate);
+
+        assertThat(result).hasValue(profile);
+    }
+
+    @Test
+    public void apply_ShouldReturnEmptyProfile_IfIndexHasNoFiles() throws Exception {
+        Path media = getPath("0", "movies", "subdir", "movie.mp4");
+        when(index.isAvailable()).thenReturn(true);
+        when(index.getProfileFiles(any(), any())).thenReturn(Collections.emptyList());
+        when(candidate.getSourcePath()).thenReturn(media);
+
+        Optional<Profile> result = subject.apply(candidate);
+
+        assertThat(result).isEmpty();
+        verifyZeroInteractions(parser);
+    }
+
 }
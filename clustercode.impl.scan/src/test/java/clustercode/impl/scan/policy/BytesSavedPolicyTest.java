@@ -0,0 +1,94 @@
+package clustercode.impl.scan.policy;
+
+import clustercode.api.domain.Media;
+import clustercode.api.domain.Profile;
+import clustercode.api.scan.ProfileScanService;
+import clustercode.api.transcode.TranscodeStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalDouble;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class BytesSavedPolicyTest {
+
+    private BytesSavedPolicy subject;
+
+    @Mock
+    private ProfileScanService profileScanService;
+    @Mock
+    private TranscodeStatistics statistics;
+    @Mock
+    private ShortestJobFirstPolicy shortestJobFirstPolicy;
+
+    private Media media1;
+    private Media media2;
+    private Profile efficient;
+    private Profile wasteful;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        media1 = Media.builder().sourcePath(Paths.get("1", "one.mkv")).priority(1).build();
+        media2 = Media.builder().sourcePath(Paths.get("1", "two.mkv")).priority(1).build();
+        efficient = Profile.builder().location(Paths.get("efficient.ffmpeg")).build();
+        wasteful = Profile.builder().location(Paths.get("wasteful.ffmpeg")).build();
+        when(shortestJobFirstPolicy.order(any())).thenAnswer(invocation -> invocation.getArguments()[0]);
+        when(statistics.getSizeRatio(efficient)).thenReturn(OptionalDouble.of(0.2));
+        when(statistics.getThroughput(efficient)).thenReturn(OptionalDouble.of(1000));
+        when(statistics.getSizeRatio(wasteful)).thenReturn(OptionalDouble.of(0.9));
+        when(statistics.getThroughput(wasteful)).thenReturn(OptionalDouble.of(1000));
+        subject = new BytesSavedPolicy(profileScanService, statistics, shortestJobFirstPolicy);
+    }
+
+    @Test
+    public void order_ShouldPreferProfileWithMoreSavedBytes() throws Exception {
+        when(profileScanService.selectProfile(media1)).thenReturn(Optional.of(wasteful));
+        when(profileScanService.selectProfile(media2)).thenReturn(Optional.of(efficient));
+
+        List<Media> result = subject.order(Arrays.asList(media1, media2));
+
+        assertThat(result).containsExactly(media2, media1);
+    }
+
+    @Test
+    public void order_ShouldPreferHigherPriority_OverSavedBytes() throws Exception {
+        media1.setPriority(2);
+        when(profileScanService.selectProfile(media1)).thenReturn(Optional.of(wasteful));
+        when(profileScanService.selectProfile(media2)).thenReturn(Optional.of(efficient));
+
+        List<Media> result = subject.order(Arrays.asList(media2, media1));
+
+        assertThat(result).containsExactly(media1, media2);
+    }
+
+    @Test
+    public void order_ShouldKeepOrderOfShortestJobFirst_IfNoHistoryAvailable() throws Exception {
+        when(profileScanService.selectProfile(any())).thenReturn(Optional.empty());
+
+        List<Media> result = subject.order(Arrays.asList(media1, media2));
+
+        assertThat(result).containsExactly(media1, media2);
+    }
+
+    @Test
+    public void order_ShouldResolveProfileOnlyOnce_IfMediaIsStillCandidate() throws Exception {
+        when(profileScanService.selectProfile(any())).thenReturn(Optional.of(efficient));
+
+        subject.order(Arrays.asList(media1, media2));
+        subject.order(Arrays.asList(media1, media2));
+
+        verify(profileScanService, times(1)).selectProfile(media1);
+        verify(profileScanService, times(1)).selectProfile(media2);
+    }
+
+}
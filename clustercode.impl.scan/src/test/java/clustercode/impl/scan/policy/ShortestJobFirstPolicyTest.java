@@ -0,0 +1,74 @@
+package clustercode.impl.scan.policy;
+
+import clustercode.api.domain.Media;
+import clustercode.impl.scan.MediaScanConfig;
+import clustercode.test.util.FileBasedUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+public class ShortestJobFirstPolicyTest implements FileBasedUnitTest {
+
+    private ShortestJobFirstPolicy subject;
+
+    @Mock
+    private MediaScanConfig config;
+
+    private Path inputDir;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        setupFileSystem();
+        inputDir = getPath("input");
+        when(config.base_input_dir()).thenReturn(inputDir);
+        subject = new ShortestJobFirstPolicy(config);
+    }
+
+    private Media createMedia(int priority, String name, int size) throws Exception {
+        Path source = getPath(String.valueOf(priority), name);
+        Files.write(createParentDirOf(inputDir.resolve(source)), new byte[size]);
+        return Media.builder().sourcePath(source).priority(priority).build();
+    }
+
+    @Test
+    public void order_ShouldPreferSmallerFiles_WithinSamePriority() throws Exception {
+        Media big = createMedia(1, "big.mkv", 300);
+        Media small = createMedia(1, "small.mkv", 10);
+        Media medium = createMedia(1, "medium.mkv", 100);
+
+        List<Media> result = subject.order(Arrays.asList(big, small, medium));
+
+        assertThat(result).containsExactly(small, medium, big);
+    }
+
+    @Test
+    public void order_ShouldPreferHigherPriority_OverSmallerFiles() throws Exception {
+        Media big = createMedia(2, "big.mkv", 300);
+        Media small = createMedia(1, "small.mkv", 10);
+
+        List<Media> result = subject.order(Arrays.asList(small, big));
+
+        assertThat(result).containsExactly(big, small);
+    }
+
+    @Test
+    public void order_ShouldPutMissingFilesLast() throws Exception {
+        Media big = createMedia(1, "big.mkv", 300);
+        Media missing = Media.builder().sourcePath(getPath("1", "missing.mkv")).priority(1).build();
+
+        List<Media> result = subject.order(Arrays.asList(missing, big));
+
+        assertThat(result).containsExactly(big, missing);
+    }
+
+}
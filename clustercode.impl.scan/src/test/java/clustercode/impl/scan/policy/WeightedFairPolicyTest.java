@@ -0,0 +1,137 @@
+package clustercode.impl.scan.policy;
+
+import clustercode.api.domain.Media;
+import clustercode.api.scan.QueueStatistics;
+import clustercode.impl.scan.MediaScanConfig;
+import clustercode.impl.util.InvalidConfigurationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.when;
+
+public class WeightedFairPolicyTest {
+
+    private WeightedFairPolicy subject;
+
+    @Mock
+    private MediaScanConfig config;
+    @Mock
+    private Clock clock;
+
+    private Instant now = Instant.parse("2017-01-31T08:00:00Z");
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        when(clock.instant()).thenAnswer(invocation -> now);
+        when(config.scheduling_weights()).thenReturn(Arrays.asList("9:3", "0:1"));
+        when(config.scheduling_aging_interval()).thenReturn(60L);
+        subject = new WeightedFairPolicy(config, clock);
+    }
+
+    private Media createMedia(int priority, String name) {
+        return Media.builder().sourcePath(Paths.get(String.valueOf(priority), name)).priority(priority).build();
+    }
+
+    @Test
+    public void ctor_ShouldThrowException_IfWeightIsInvalid() throws Exception {
+        when(config.scheduling_weights()).thenReturn(Collections.singletonList("9:0"));
+
+        assertThatExceptionOfType(InvalidConfigurationException.class)
+                .isThrownBy(() -> new WeightedFairPolicy(config, clock));
+    }
+
+    @Test
+    public void order_ShouldInterleaveQueues_AccordingToWeights() throws Exception {
+        Media a9 = createMedia(9, "a"), b9 = createMedia(9, "b"), c9 = createMedia(9, "c"), d9 = createMedia(9, "d");
+        Media a0 = createMedia(0, "a"), b0 = createMedia(0, "b");
+
+        List<Media> result = subject.order(Arrays.asList(a0, b0, a9, b9, c9, d9));
+
+        assertThat(result).containsExactly(a9, b9, c9, a0, d9, b0);
+    }
+
+    @Test
+    public void order_ShouldUseDefaultWeight_IfNotConfigured() throws Exception {
+        Media a1 = createMedia(1, "a"), b1 = createMedia(1, "b"), c1 = createMedia(1, "c");
+        Media a0 = createMedia(0, "a"), b0 = createMedia(0, "b");
+
+        List<Media> result = subject.order(Arrays.asList(a0, b0, a1, b1, c1));
+
+        assertThat(result).containsExactly(a1, b1, a0, c1, b0);
+    }
+
+    @Test
+    public void order_ShouldPreferAgedMedia() throws Exception {
+        Media old = createMedia(0, "old");
+        subject.order(Collections.singletonList(old));
+        now = now.plus(Duration.ofHours(5));
+        Media a9 = createMedia(9, "a"), b9 = createMedia(9, "b");
+
+        List<Media> result = subject.order(Arrays.asList(a9, b9, old));
+
+        assertThat(result).startsWith(old);
+    }
+
+    @Test
+    public void order_ShouldPreferOtherQueue_IfQueueHasBeenServed() throws Exception {
+        Media a9 = createMedia(9, "a"), b9 = createMedia(9, "b"), c9 = createMedia(9, "c");
+        Media a0 = createMedia(0, "a");
+        subject.order(Arrays.asList(a9, b9, c9, a0));
+
+        subject.onSelected(a9);
+        subject.onSelected(b9);
+        subject.onSelected(c9);
+        Media d9 = createMedia(9, "d");
+        List<Media> result = subject.order(Arrays.asList(a0, d9));
+
+        assertThat(result).containsExactly(a0, d9);
+    }
+
+    @Test
+    public void getQueueStatistics_ShouldReportWaitTimes() throws Exception {
+        Media a9 = createMedia(9, "a"), b9 = createMedia(9, "b"), a0 = createMedia(0, "a");
+        subject.order(Arrays.asList(a9, b9, a0));
+        now = now.plus(Duration.ofMinutes(10));
+        subject.onSelected(a9);
+        now = now.plus(Duration.ofMinutes(20));
+        subject.onSelected(b9);
+
+        List<QueueStatistics> result = subject.getQueueStatistics();
+
+        assertThat(result).hasSize(2);
+        QueueStatistics queue9 = result.get(0);
+        assertThat(queue9.getPriority()).isEqualTo(9);
+        assertThat(queue9.getSelected()).isEqualTo(2);
+        assertThat(queue9.getWaiting()).isEqualTo(0);
+        assertThat(queue9.getMedianWaitTime()).isEqualTo(Duration.ofMinutes(10));
+        assertThat(queue9.getMaxWaitTime()).isEqualTo(Duration.ofMinutes(30));
+        QueueStatistics queue0 = result.get(1);
+        assertThat(queue0.getPriority()).isEqualTo(0);
+        assertThat(queue0.getWaiting()).isEqualTo(1);
+        assertThat(queue0.getMaxWaitTime()).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    public void getPercentile_ShouldUseNearestRank() throws Exception {
+        long[] samples = new long[]{10, 20, 30, 40, 50, 60, 70, 80, 90, 100};
+
+        assertThat(WeightedFairPolicy.getPercentile(samples, 50)).isEqualTo(Duration.ofMillis(50));
+        assertThat(WeightedFairPolicy.getPercentile(samples, 90)).isEqualTo(Duration.ofMillis(90));
+        assertThat(WeightedFairPolicy.getPercentile(samples, 99)).isEqualTo(Duration.ofMillis(100));
+        assertThat(WeightedFairPolicy.getPercentile(new long[0], 99)).isEqualTo(Duration.ZERO);
+    }
+
+}
@@ -0,0 +1,196 @@
+package clustercode.impl.transcode;
+
+import clustercode.api.event.RxEventBus;
+import clustercode.api.event.messages.ScanMediaCommand;
+import clustercode.api.transcode.ConcurrencyStatistics;
+import clustercode.impl.util.InvalidConfigurationException;
+import clustercode.impl.util.system.ContainerLimits;
+import clustercode.impl.util.system.SystemLoad;
+import clustercode.impl.util.system.SystemLoadSampler;
+import io.reactivex.Observable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import lombok.Synchronized;
+import lombok.extern.slf4j.XSlf4j;
+
+import javax.inject.Inject;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adjusts the amount of transcoding slots to the system load, within the configured bounds. In every sample interval
+ * the CPU utilization and the run queue length are read from /proc and the frames encoded per second of the running
+ * jobs are summed up. A slot is added if all slots are busy and the CPU is below the target utilization. Slots are
+ * removed (to 3/4, at least one) if the run queue exceeds its threshold, or if the throughput has dropped by more than
+ * 10% since the last slot was added. A media scan is requested after a slot has been added, so that it is filled
+ * without waiting for a running job to finish. An adjustment is only made after the configured amount of
+ * consecutive samples agree, so that a single spike does not change the amount of slots. Running jobs are never
+ * cancelled. The upper bound is reduced to the CPU quota of the container, if there is one.
+ */
+@XSlf4j
+public class AdaptiveSlotController {
+
+    private static final double DECREASE_FACTOR = 0.75;
+    private static final double THROUGHPUT_TOLERANCE = 0.9;
+
+    private final TranscodingServiceImpl transcodingService;
+    private final SystemLoadSampler sampler;
+    private final RxEventBus eventBus;
+    private final boolean enabled;
+    private final int minSlots;
+    private final int maxSlots;
+    private final Duration interval;
+    private final double targetCpu;
+    private final double maxRunQueue;
+    private final int hysteresis;
+
+    private int pending;
+    private int agreeingSamples;
+    private double baseline = -1;
+    private long increases;
+    private long decreases;
+    private SystemLoad lastLoad;
+    private double lastThroughput;
+
+    @Inject
+    AdaptiveSlotController(TranscoderConfig config,
+                           TranscodingServiceImpl transcodingService,
+                           RxEventBus eventBus,
+                           ContainerLimits limits,
+                           Clock clock) {
+        this(config, transcodingService, eventBus, new SystemLoadSampler(Paths.get("/proc"), clock,
+                limits.getEffectiveCpus()));
+    }
+
+    AdaptiveSlotController(TranscoderConfig config,
+                           TranscodingServiceImpl transcodingService,
+                           RxEventBus eventBus,
+                           SystemLoadSampler sampler) {
+        this.transcodingService = transcodingService;
+        this.eventBus = eventBus;
+        this.sampler = sampler;
+        this.enabled = config.max_transcode_slots() > 0;
+        this.minSlots = Math.max(1, config.min_transcode_slots());
+        this.interval = Duration.ofSeconds(config.slots_sample_interval());
+        this.targetCpu = config.slots_target_cpu_utilization();
+        this.maxRunQueue = config.slots_max_run_queue();
+        this.hysteresis = config.slots_hysteresis();
+        if (enabled) checkConfiguration(config.max_transcode_slots());
+        this.maxSlots = enabled ?
+                Math.max(minSlots, transcodingService.limitSlots(config.max_transcode_slots())) :
+                transcodingService.getSlots();
+    }
+
+    private void checkConfiguration(int max) {
+        if (max < minSlots) {
+            throw new InvalidConfigurationException("The maximum amount of slots must be >= {}. You specified: {}",
+                    minSlots, max);
+        }
+        if (interval.isNegative() || interval.isZero()) {
+            throw new InvalidConfigurationException("The slots sample interval must be >= 1. You specified: {}",
+                    interval.getSeconds());
+        }
+        if (hysteresis < 1) {
+            throw new InvalidConfigurationException("The slots hysteresis must be >= 1. You specified: {}",
+                    hysteresis);
+        }
+    }
+
+    /**
+     * Starts sampling the system load and adjusting the slots, if enabled. The current amount of slots is clamped to
+     * the bounds first.
+     *
+     * @return the handle to stop sampling.
+     */
+    public Disposable start() {
+        if (!enabled) return Disposables.disposed();
+        int slots = transcodingService.getSlots();
+        int clamped = Math.max(minSlots, Math.min(maxSlots, slots));
+        if (clamped != slots) transcodingService.setSlots(clamped);
+        log.info("Adjusting transcoding slots between {} and {} every {} seconds, starting with {}.",
+                minSlots, maxSlots, interval.getSeconds(), clamped);
+        return Observable
+                .interval(interval.toMillis(), TimeUnit.MILLISECONDS)
+                .subscribe(tick -> evaluate(), ex -> log.catching(ex));
+    }
+
+    /**
+     * Samples the system load and the throughput of the running jobs and adjusts the slots if the configured amount
+     * of consecutive samples agree.
+     */
+    @Synchronized
+    void evaluate() {
+        var load = sampler.getLoad(Duration.ZERO);
+        var jobs = transcodingService.getJobs();
+        double throughput = jobs.stream().mapToDouble(TranscodeJobImpl::getFps).filter(fps -> fps > 0).sum();
+        int slots = transcodingService.getSlots();
+        boolean saturated = jobs.size() >= slots;
+        lastLoad = load;
+        lastThroughput = throughput;
+
+        int direction = 0;
+        if (isOverloaded(load, throughput, saturated) && slots > minSlots) {
+            direction = -1;
+        } else if (saturated && slots < maxSlots && isBelowTarget(load)) {
+            direction = 1;
+        }
+        agreeingSamples = direction != 0 && direction == pending ? agreeingSamples + 1 : 1;
+        pending = direction;
+        if (direction == 0 || agreeingSamples < hysteresis) return;
+
+        agreeingSamples = 0;
+        pending = 0;
+        if (direction > 0) {
+            increases++;
+            baseline = throughput;
+            transcodingService.setSlots(slots + 1);
+            log.info("Increased transcoding slots to {}: cpu {}%, run queue per cpu {}, throughput {} fps.",
+                    slots + 1, format(load.getCpuUtilization().orElse(-1)),
+                    format(load.getRunQueuePerCpu().orElse(-1)), format(throughput));
+            eventBus.emitAsync(new ScanMediaCommand());
+        } else {
+            int reduced = Math.max(minSlots, Math.min(slots - 1, (int) Math.floor(slots * DECREASE_FACTOR)));
+            decreases++;
+            baseline = -1;
+            transcodingService.setSlots(reduced);
+            log.info("Decreased transcoding slots to {}: cpu {}%, run queue per cpu {}, throughput {} fps.",
+                    reduced, format(load.getCpuUtilization().orElse(-1)),
+                    format(load.getRunQueuePerCpu().orElse(-1)), format(throughput));
+        }
+    }
+
+    private boolean isOverloaded(SystemLoad load, double throughput, boolean saturated) {
+        if (maxRunQueue > 0 && load.getRunQueuePerCpu().isPresent() &&
+                load.getRunQueuePerCpu().getAsDouble() > maxRunQueue) return true;
+        return saturated && baseline > 0 && throughput < baseline * THROUGHPUT_TOLERANCE;
+    }
+
+    private boolean isBelowTarget(SystemLoad load) {
+        return load.getCpuUtilization().isPresent() && load.getCpuUtilization().getAsDouble() < targetCpu;
+    }
+
+    /**
+     * Gets the current figures of the slot adjustment.
+     *
+     * @return the statistics, not null.
+     */
+    @Synchronized
+    public ConcurrencyStatistics getStatistics() {
+        return ConcurrencyStatistics.builder()
+                .slots(transcodingService.getSlots())
+                .minSlots(enabled ? minSlots : maxSlots)
+                .maxSlots(maxSlots)
+                .increases(increases)
+                .decreases(decreases)
+                .cpuUtilization(lastLoad == null ? -1 : lastLoad.getCpuUtilization().orElse(-1))
+                .runQueuePerCpu(lastLoad == null ? -1 : lastLoad.getRunQueuePerCpu().orElse(-1))
+                .throughput(lastThroughput)
+                .build();
+    }
+
+    private String format(double value) {
+        return value < 0 ? "n/a" : String.format("%.2f", value);
+    }
+}
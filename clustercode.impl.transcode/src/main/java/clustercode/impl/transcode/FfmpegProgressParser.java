@@ -0,0 +1,81 @@
+package clustercode.impl.transcode;
+
+import clustercode.api.transcode.TranscodeReport;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Parses the output of {@code ffmpeg -progress pipe:1}. Each progress block consists of {@code key=value} lines on
+ * stdout and is terminated by {@code progress=continue} or {@code progress=end}. The duration of the input is taken
+ * from the task if known, otherwise from the first {@code Duration: HH:MM:SS.ss} line that ffmpeg prints on stderr.
+ */
+class FfmpegProgressParser extends ProgressParser {
+
+    /**
+     * The arguments which make ffmpeg report its progress in machine readable form on stdout.
+     */
+    static final List<String> ARGUMENTS = List.of("-progress", "pipe:1", "-nostats");
+
+    private static final String DURATION = "Duration:";
+
+    private volatile double duration;
+    private double outTime = -1;
+    private double fps = -1;
+    private double speed = -1;
+
+    FfmpegProgressParser(String jobId, double duration, Consumer<TranscodeReport> listener) {
+        super(jobId, listener);
+        this.duration = duration;
+    }
+
+    @Override
+    void onStdout(String line) {
+        int separator = line.indexOf('=');
+        if (separator <= 0) return;
+        int end = line.length();
+        int from = separator + 1;
+        if (isKey(line, separator, "out_time_us") || isKey(line, separator, "out_time_ms")) {
+            // out_time_ms is in microseconds as well, older versions only print that one.
+            double micros = parseDecimal(line, from, end);
+            if (!Double.isNaN(micros)) outTime = micros / 1_000_000d;
+        } else if (isKey(line, separator, "fps")) {
+            fps = orUnknown(parseDecimal(line, from, end));
+        } else if (isKey(line, separator, "speed")) {
+            speed = orUnknown(parseDecimal(line, from, end));
+        } else if (isKey(line, separator, "progress")) {
+            boolean finished = startsWith(line, from, "end");
+            report(getPercentage(finished), fps, speed, getRemainingSeconds(finished));
+        }
+    }
+
+    @Override
+    void onStderr(String line) {
+        if (duration > 0) return;
+        int index = skipSpaces(line, 0, line.length());
+        if (!line.startsWith(DURATION, index)) return;
+        index = skipSpaces(line, index + DURATION.length(), line.length());
+        // HH:MM:SS.ss
+        double hours = parseDecimal(line, index, index + 2);
+        double minutes = parseDecimal(line, index + 3, index + 5);
+        double seconds = parseDecimal(line, index + 6, line.length());
+        if (Double.isNaN(hours) || Double.isNaN(minutes) || Double.isNaN(seconds)) return;
+        duration = hours * 3600 + minutes * 60 + seconds;
+    }
+
+    private double getPercentage(boolean finished) {
+        if (finished) return 100d;
+        if (duration <= 0 || outTime < 0) return -1d;
+        return Math.min(100d, outTime / duration * 100d);
+    }
+
+    private long getRemainingSeconds(boolean finished) {
+        if (finished) return 0;
+        if (duration <= 0 || outTime < 0 || speed <= 0) return -1;
+        return Math.round(Math.max(0d, duration - outTime) / speed);
+    }
+
+    private static boolean isKey(String line, int separator, String key) {
+        return separator == key.length() && line.startsWith(key);
+    }
+}
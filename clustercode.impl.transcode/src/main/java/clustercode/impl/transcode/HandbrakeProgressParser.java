@@ -0,0 +1,114 @@
+package clustercode.impl.transcode;
+
+import clustercode.api.transcode.TranscodeReport;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Parses the output of {@code HandBrakeCLI --json}. HandBrake prints pretty-printed JSON blocks on stdout which start
+ * with {@code Progress:} and contain one value per line, e.g.
+ * <pre>
+ * Progress: {
+ *     "State": "WORKING",
+ *     "Working": {
+ *         "ETASeconds": 42,
+ *         "Pass": 1,
+ *         "PassCount": 2,
+ *         "Progress": 0.25,
+ *         "RateAvg": 90.1,
+ *         ...
+ *     }
+ * }
+ * </pre>
+ * The block is not parsed as a document: the lines are scanned for the few keys of interest and the report is created
+ * once the block is closed. With multiple passes, the percentage spans over all passes.
+ */
+class HandbrakeProgressParser extends ProgressParser {
+
+    /**
+     * The arguments which make HandBrake report its progress in machine readable form on stdout.
+     */
+    static final List<String> ARGUMENTS = List.of("--json");
+
+    private static final String BLOCK_START = "Progress:";
+
+    private boolean inBlock;
+    private int depth;
+    private boolean working;
+    private boolean done;
+    private double progress;
+    private double rate;
+    private long eta;
+    private int pass;
+    private int passCount;
+
+    HandbrakeProgressParser(String jobId, Consumer<TranscodeReport> listener) {
+        super(jobId, listener);
+    }
+
+    @Override
+    void onStdout(String line) {
+        if (!inBlock) {
+            if (!startsWith(line, 0, BLOCK_START)) return;
+            startBlock();
+        }
+        int end = line.length();
+        for (int i = 0; i < end; i++) {
+            char c = line.charAt(i);
+            if (c == '{') depth++;
+            else if (c == '}') depth--;
+        }
+        int keyStart = line.indexOf('"');
+        int keyEnd = keyStart < 0 ? -1 : line.indexOf('"', keyStart + 1);
+        if (keyEnd > 0) {
+            int colon = line.indexOf(':', keyEnd);
+            if (colon > 0) parseValue(line, keyStart + 1, keyEnd, colon + 1);
+        }
+        if (depth <= 0) {
+            inBlock = false;
+            if (working || done) report(getPercentage(), rate, -1, done ? 0 : eta);
+        }
+    }
+
+    private void startBlock() {
+        inBlock = true;
+        depth = 0;
+        working = false;
+        done = false;
+        progress = -1;
+        rate = -1;
+        eta = -1;
+        pass = 1;
+        passCount = 1;
+    }
+
+    private void parseValue(String line, int keyStart, int keyEnd, int valueStart) {
+        int length = keyEnd - keyStart;
+        if (isKey(line, keyStart, length, "State")) {
+            working = line.indexOf("\"WORKING\"", valueStart) >= 0;
+            done = line.indexOf("\"WORKDONE\"", valueStart) >= 0;
+        } else if (isKey(line, keyStart, length, "Progress")) {
+            progress = orUnknown(parseDecimal(line, valueStart, line.length()));
+        } else if (isKey(line, keyStart, length, "RateAvg")) {
+            rate = orUnknown(parseDecimal(line, valueStart, line.length()));
+        } else if (isKey(line, keyStart, length, "ETASeconds")) {
+            eta = (long) orUnknown(parseDecimal(line, valueStart, line.length()));
+        } else if (isKey(line, keyStart, length, "Pass")) {
+            pass = (int) Math.max(1, orUnknown(parseDecimal(line, valueStart, line.length())));
+        } else if (isKey(line, keyStart, length, "PassCount")) {
+            passCount = (int) Math.max(1, orUnknown(parseDecimal(line, valueStart, line.length())));
+        }
+    }
+
+    private double getPercentage() {
+        if (done) return 100d;
+        if (progress < 0) return -1d;
+        int passes = Math.max(passCount, pass);
+        return Math.min(100d, (pass - 1 + progress) / passes * 100d);
+    }
+
+    private static boolean isKey(String line, int keyStart, int length, String key) {
+        return length == key.length() && line.startsWith(key, keyStart);
+    }
+}
@@ -0,0 +1,66 @@
+package clustercode.impl.transcode;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Represents the duration and keyframe times of a source, as reported by ffprobe with
+ * {@code -show_entries format=duration:packet=pts_time,flags -of csv=p=0}. Packet lines have the form
+ * {@code pts_time,flags} (keyframes have a "K" flag), the format line only contains the duration.
+ */
+final class KeyframeIndex {
+
+    private final double duration;
+    private final double[] keyframes;
+
+    KeyframeIndex(double duration, double[] keyframes) {
+        this.duration = duration;
+        this.keyframes = keyframes;
+    }
+
+    /**
+     * Parses the ffprobe output.
+     *
+     * @param reader the reader of the output, not closed.
+     * @return the index with the keyframes in ascending order.
+     * @throws IOException if the output could not be read.
+     */
+    static KeyframeIndex parse(BufferedReader reader) throws IOException {
+        double duration = -1;
+        double[] keyframes = new double[256];
+        int count = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            int comma = line.indexOf(',');
+            if (comma < 0) {
+                double value = ProgressParser.parseDecimal(line, 0, line.length());
+                if (!Double.isNaN(value)) duration = value;
+                continue;
+            }
+            if (comma + 1 >= line.length() || line.charAt(comma + 1) != 'K') continue;
+            double time = ProgressParser.parseDecimal(line, 0, comma);
+            if (Double.isNaN(time)) continue;
+            if (count == keyframes.length) keyframes = Arrays.copyOf(keyframes, count * 2);
+            keyframes[count++] = time;
+        }
+        keyframes = Arrays.copyOf(keyframes, count);
+        Arrays.sort(keyframes);
+        if (duration < 0 && count > 0) duration = keyframes[count - 1];
+        return new KeyframeIndex(duration, keyframes);
+    }
+
+    /**
+     * @return the duration in seconds, negative if unknown.
+     */
+    double getDuration() {
+        return duration;
+    }
+
+    /**
+     * @return the keyframe times in seconds in ascending order. Not to be modified.
+     */
+    double[] getKeyframes() {
+        return keyframes;
+    }
+}
@@ -0,0 +1,64 @@
+package clustercode.impl.transcode;
+
+import clustercode.api.process.ExternalProcessService;
+import clustercode.api.process.ProcessConfiguration;
+import io.reactivex.Single;
+import lombok.extern.slf4j.XSlf4j;
+
+import javax.inject.Inject;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Finds the keyframes of a source with ffprobe. Only the packet headers of the video stream are read, the frames are
+ * not decoded. The output is written to a temporary file, so that it can be read completely once the process exits.
+ */
+@XSlf4j
+class KeyframeProbe {
+
+    private final TranscoderConfig config;
+    private final ExternalProcessService processService;
+
+    @Inject
+    KeyframeProbe(TranscoderConfig config,
+                  ExternalProcessService processService) {
+        this.config = config;
+        this.processService = processService;
+    }
+
+    /**
+     * Probes the given source.
+     *
+     * @param source the absolute path of the source.
+     * @return the keyframe index, or an error if ffprobe failed.
+     */
+    Single<KeyframeIndex> probe(Path source) {
+        return Single
+            .fromCallable(() -> Files.createTempFile(
+                Files.createDirectories(config.temporary_dir()), "probe", ".csv"))
+            .flatMap(output -> processService
+                .start(ProcessConfiguration
+                    .builder()
+                    .executable(config.probe_executable())
+                    .argument("-v").argument("error")
+                    .argument("-select_streams").argument("v:0")
+                    .argument("-show_entries").argument("format=duration:packet=pts_time,flags")
+                    .argument("-of").argument("csv=p=0")
+                    .argument("-o").argument(output.toString())
+                    .argument(source.toString())
+                    .build())
+                .map(exitCode -> read(output, exitCode))
+                .doFinally(() -> Files.deleteIfExists(output)));
+    }
+
+    private KeyframeIndex read(Path output, int exitCode) throws IOException {
+        if (exitCode != 0) throw new IOException("ffprobe exited with code " + exitCode);
+        try (BufferedReader reader = Files.newBufferedReader(output)) {
+            KeyframeIndex index = KeyframeIndex.parse(reader);
+            log.debug("Found {} keyframes in {} s.", index.getKeyframes().length, index.getDuration());
+            return index;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package clustercode.impl.transcode;
+
+import clustercode.api.transcode.AbortStatistics;
+import clustercode.impl.util.InvalidConfigurationException;
+import io.reactivex.Observable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.schedulers.Schedulers;
+import lombok.Synchronized;
+import lombok.extern.slf4j.XSlf4j;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aborts transcodings whose output is projected to be larger than the source by more than the configured ratio. In
+ * every check interval the size of the temporary file of each running job is divided by its progress. Jobs below the
+ * configured progress are not checked, as the projection is unreliable at the beginning. Segments are not checked,
+ * since their progress refers to a part of the source. The time the aborted jobs would still have needed is summed up.
+ */
+@XSlf4j
+public class OutputSizeWatchdog {
+
+    private final TranscoderConfig config;
+    private final TranscodingServiceImpl transcodingService;
+    private final Clock clock;
+    private final double maxRatio;
+    private final double minProgress;
+    private final Duration interval;
+
+    private long aborted;
+    private Duration savedCpuTime = Duration.ZERO;
+    private Duration savedWallTime = Duration.ZERO;
+
+    @Inject
+    OutputSizeWatchdog(TranscoderConfig config,
+                       TranscodingServiceImpl transcodingService,
+                       Clock clock) {
+        this.config = config;
+        this.transcodingService = transcodingService;
+        this.clock = clock;
+        this.maxRatio = config.max_size_ratio();
+        this.minProgress = config.size_check_min_progress();
+        this.interval = Duration.ofSeconds(config.size_check_interval());
+        if (maxRatio < 0) {
+            throw new InvalidConfigurationException("The maximum size ratio must be >= 0. You specified: {}",
+                    maxRatio);
+        }
+        if (maxRatio > 0) checkConfiguration();
+    }
+
+    private void checkConfiguration() {
+        if (minProgress <= 0 || minProgress >= 100) {
+            throw new InvalidConfigurationException("The size check progress must be between 0 and 100. " +
+                    "You specified: {}", minProgress);
+        }
+        if (interval.isNegative() || interval.isZero()) {
+            throw new InvalidConfigurationException("The size check interval must be >= 1. You specified: {}",
+                    interval.getSeconds());
+        }
+    }
+
+    /**
+     * Starts checking the output of the running jobs, if enabled.
+     *
+     * @return the handle to stop checking.
+     */
+    public Disposable start() {
+        if (maxRatio <= 0) return Disposables.disposed();
+        log.info("Aborting transcodings whose output exceeds {} times the source, checked every {} seconds " +
+                "from {}% progress.", maxRatio, interval.getSeconds(), minProgress);
+        // Aborting a job blocks until its process is destroyed, which must not occupy a computation thread.
+        return Observable
+                .interval(interval.toMillis(), TimeUnit.MILLISECONDS, Schedulers.io())
+                .subscribe(tick -> check(), ex -> log.catching(ex));
+    }
+
+    /**
+     * Projects the output size of each running job and aborts the jobs which exceed the ratio.
+     */
+    @Synchronized
+    void check() {
+        for (TranscodeJobImpl job : transcodingService.getJobs()) {
+            if (job.isCancelRequested() || TranscodingServiceImpl.isSegment(job.getTask())) continue;
+            check(job);
+        }
+    }
+
+    private void check(TranscodeJobImpl job) {
+        var progress = job.getProgress();
+        if (!progress.isPresent() || progress.getAsDouble() < minProgress || progress.getAsDouble() >= 100) return;
+        double percentage = progress.getAsDouble();
+        var source = config.base_input_dir().resolve(job.getTask().getMedia().getSourcePath());
+        long sourceSize;
+        long outputSize;
+        try {
+            sourceSize = Files.size(source);
+            outputSize = Files.size(job.getTemporaryPath());
+        } catch (IOException e) {
+            log.debug("Could not check output size of job {}: {}", job.getId(), e.toString());
+            return;
+        }
+        if (sourceSize <= 0) return;
+        double projected = outputSize * 100d / percentage;
+        if (projected <= sourceSize * maxRatio) return;
+
+        // The remaining work is projected from the work done so far.
+        double remaining = (100 - percentage) / percentage;
+        var cpuTime = job.getCpuTime();
+        var elapsed = Duration.between(job.getStarted(), clock.instant());
+        log.warn("Aborting job {}: the output of {} is projected to {} bytes at {}% progress, which exceeds {} " +
+                        "times the source of {} bytes.", job.getId(), job.getTask().getMedia().getSourcePath(),
+                Math.round(projected), String.format("%.1f", percentage), maxRatio, sourceSize);
+        if (!job.abortNotWorthIt()) log.warn("Transcoder process of job {} did not stop in time.", job.getId());
+        aborted++;
+        savedWallTime = savedWallTime.plus(scale(elapsed, remaining));
+        cpuTime.ifPresent(duration -> savedCpuTime = savedCpuTime.plus(scale(duration, remaining)));
+        log.info("Saved about {} wall time{} by aborting job {}.", scale(elapsed, remaining),
+                cpuTime.map(duration -> " and " + scale(duration, remaining) + " CPU time").orElse(""),
+                job.getId());
+    }
+
+    private static Duration scale(Duration duration, double factor) {
+        return Duration.ofMillis(Math.round(duration.toMillis() * factor));
+    }
+
+    /**
+     * Gets the figures of the aborted transcodings.
+     *
+     * @return the statistics, not null.
+     */
+    @Synchronized
+    public AbortStatistics getStatistics() {
+        return AbortStatistics.builder()
+                .aborted(aborted)
+                .savedCpuTime(savedCpuTime)
+                .savedWallTime(savedWallTime)
+                .build();
+    }
+}
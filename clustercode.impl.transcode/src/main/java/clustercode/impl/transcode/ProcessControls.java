@@ -0,0 +1,94 @@
+package clustercode.impl.transcode;
+
+import clustercode.api.domain.Profile;
+import clustercode.api.process.ProcessConfiguration.ProcessConfigurationBuilder;
+import lombok.extern.slf4j.XSlf4j;
+
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the resource controls of the transcoder process. Each control is read from a profile field, e.g.
+ * {@code %{NICE=15}}, or from the configured default if the profile does not define it. Invalid values are ignored with
+ * a warning.
+ */
+@XSlf4j
+final class ProcessControls {
+
+    static final String NICE = "NICE";
+    static final String IONICE = "IONICE";
+    static final String CPUS = "CPUS";
+    static final String CGROUP = "CGROUP";
+
+    private static final Pattern CPU_LIST = Pattern.compile("\\d+(-\\d+)?(,\\d+(-\\d+)?)*");
+
+    private ProcessControls() {
+    }
+
+    /**
+     * Applies the resource controls for the given profile to the builder.
+     *
+     * @param config  the config with the defaults.
+     * @param profile the profile of the task, not null.
+     * @param builder the builder of the process configuration.
+     * @return the builder.
+     */
+    static ProcessConfigurationBuilder apply(TranscoderConfig config, Profile profile,
+                                             ProcessConfigurationBuilder builder) {
+        var fields = profile.getFields() == null ? Collections.<String, String>emptyMap() : profile.getFields();
+        var niceness = get(fields, NICE, config.process_niceness());
+        if (!niceness.isEmpty()) builder.niceness(parseNiceness(niceness));
+        var ioClass = get(fields, IONICE, config.process_io_class());
+        if (!ioClass.isEmpty()) builder.ioClass(parseIoClass(ioClass));
+        var cpus = get(fields, CPUS, config.process_cpu_affinity());
+        if (!cpus.isEmpty()) {
+            if (CPU_LIST.matcher(cpus).matches()) builder.cpuAffinity(cpus);
+            else log.warn("Ignoring invalid CPU list: {}", cpus);
+        }
+        var cgroup = get(fields, CGROUP, config.process_cgroup());
+        if (!cgroup.isEmpty()) {
+            try {
+                builder.cgroup(Paths.get(cgroup));
+            } catch (InvalidPathException e) {
+                log.warn("Ignoring invalid cgroup: {}", cgroup);
+            }
+        }
+        return builder;
+    }
+
+    private static String get(Map<String, String> fields, String key, String defaultValue) {
+        var value = fields.getOrDefault(key, defaultValue);
+        return value == null ? "" : value.trim();
+    }
+
+    private static Integer parseNiceness(String value) {
+        try {
+            int niceness = Integer.parseInt(value);
+            if (niceness >= -20 && niceness <= 19) return niceness;
+        } catch (NumberFormatException ignored) {
+        }
+        log.warn("Ignoring invalid niceness: {}", value);
+        return null;
+    }
+
+    private static Integer parseIoClass(String value) {
+        switch (value.toLowerCase(Locale.ENGLISH)) {
+            case "1":
+            case "realtime":
+                return 1;
+            case "2":
+            case "best-effort":
+                return 2;
+            case "3":
+            case "idle":
+                return 3;
+            default:
+                log.warn("Ignoring invalid I/O class: {}", value);
+                return null;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package clustercode.impl.transcode;
+
+import clustercode.api.transcode.TranscodeReport;
+
+import java.util.function.Consumer;
+
+/**
+ * Represents a streaming parser of the output of a transcoder process. Lines are fed one at a time and in order per
+ * stream, the parser keeps only the few values it needs between lines and reports a {@link TranscodeReport} once a
+ * progress block is complete. Numbers are read directly from the line without splitting or substrings.
+ */
+abstract class ProgressParser {
+
+    private final String jobId;
+    private final Consumer<TranscodeReport> listener;
+
+    ProgressParser(String jobId, Consumer<TranscodeReport> listener) {
+        this.jobId = jobId;
+        this.listener = listener;
+    }
+
+    /**
+     * Creates the parser for the given transcoder.
+     *
+     * @param transcoder the transcoder type, not null.
+     * @param jobId      the id of the job to which the reports belong, not null.
+     * @param duration   the duration of the transcoded range in seconds, or a value {@literal <= 0} if the parser has
+     *                   to find out the duration itself (where supported).
+     * @param listener   the listener for the reports, not null.
+     * @return the new parser.
+     */
+    static ProgressParser create(Transcoders transcoder, String jobId, double duration,
+                                 Consumer<TranscodeReport> listener) {
+        switch (transcoder) {
+            case HANDBRAKE:
+                return new HandbrakeProgressParser(jobId, listener);
+            default:
+                return new FfmpegProgressParser(jobId, duration, listener);
+        }
+    }
+
+    /**
+     * Parses a line of the standard output.
+     *
+     * @param line the line without line terminator.
+     */
+    abstract void onStdout(String line);
+
+    /**
+     * Parses a line of the standard error. Ignored by default.
+     *
+     * @param line the line without line terminator.
+     */
+    void onStderr(String line) {
+    }
+
+    /**
+     * Reports the progress of a completed block.
+     *
+     * @param percentage       the progress in percent, -1 if unknown.
+     * @param fps              the frames per second, -1 if unknown.
+     * @param speed            the speed factor, -1 if unknown.
+     * @param remainingSeconds the estimated remaining time, -1 if unknown.
+     */
+    void report(double percentage, double fps, double speed, long remainingSeconds) {
+        listener.accept(new ProgressReport(jobId, percentage, fps, speed, remainingSeconds));
+    }
+
+    /**
+     * Parses a decimal number in the form {@code [-]digits[.digits]} within the given range of the line. Leading and
+     * trailing spaces are skipped, a trailing comma (JSON) or other suffix (e.g. "1.5x") ends the number.
+     *
+     * @return the number, or {@link Double#NaN} if the range does not start with a number.
+     */
+    static double parseDecimal(String line, int from, int to) {
+        int i = skipSpaces(line, from, to);
+        boolean negative = i < to && line.charAt(i) == '-';
+        if (negative) i++;
+        long integer = 0;
+        long fraction = 0;
+        long divisor = 1;
+        boolean digits = false;
+        boolean decimals = false;
+        for (; i < to; i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+                if (decimals) {
+                    if (divisor < 1_000_000_000L) {
+                        fraction = fraction * 10 + (c - '0');
+                        divisor *= 10;
+                    }
+                } else {
+                    integer = integer * 10 + (c - '0');
+                }
+            } else if (c == '.' && !decimals) {
+                decimals = true;
+            } else {
+                break;
+            }
+        }
+        if (!digits) return Double.NaN;
+        double value = integer + (double) fraction / divisor;
+        return negative ? -value : value;
+    }
+
+    static double orUnknown(double value) {
+        return Double.isNaN(value) ? -1d : value;
+    }
+
+    /**
+     * Returns true if the given range of the line, with leading spaces skipped, starts with the given prefix.
+     */
+    static boolean startsWith(String line, int from, String prefix) {
+        return line.startsWith(prefix, skipSpaces(line, from, line.length()));
+    }
+
+    static int skipSpaces(String line, int from, int to) {
+        int i = from;
+        while (i < to && Character.isWhitespace(line.charAt(i))) i++;
+        return i;
+    }
+}
@@ -0,0 +1,39 @@
+package clustercode.impl.transcode;
+
+import clustercode.api.transcode.TranscodeReport;
+import lombok.Value;
+
+/**
+ * Represents a snapshot of the progress of a running transcoder process. One instance is created per progress block
+ * reported by the transcoder, not per output line.
+ */
+@Value
+public class ProgressReport implements TranscodeReport {
+
+    /**
+     * The id of the transcoding job.
+     */
+    private final String jobId;
+
+    /**
+     * The progress in percent (0-100), -1 if unknown.
+     */
+    private final double percentage;
+
+    /**
+     * The amount of frames encoded per second, -1 if unknown.
+     */
+    private final double fps;
+
+    /**
+     * The speed factor, which is the media time encoded per wall clock time (e.g. 2.5 if 25s of media are encoded in
+     * 10s), -1 if unknown.
+     */
+    private final double speed;
+
+    /**
+     * The estimated remaining time in seconds, -1 if unknown.
+     */
+    private final long remainingSeconds;
+
+}
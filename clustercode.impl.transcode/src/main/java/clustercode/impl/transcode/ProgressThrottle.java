@@ -0,0 +1,116 @@
+package clustercode.impl.transcode;
+
+import clustercode.api.transcode.TranscodeReport;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Coalesces the progress reports of one job before they are published. A report is passed on if the interval has
+ * passed since the last passed report and its percentage differs by at least the minimum delta. Otherwise the latest
+ * report is kept and passed when the interval expires, so that the latest value is sampled at the given rate and the
+ * last report of a burst is not lost. The first report (0%) and the first report of 100% are always passed. Reports
+ * with unknown percentage are only rate-limited.
+ * <p>
+ * Reports may be accepted from several threads (e.g. the segments of a media), the passed reports keep their order.
+ * Once the job has finished, the throttle must be closed, so that no pending report is passed after the finished
+ * event.
+ * </p>
+ */
+class ProgressThrottle implements Consumer<TranscodeReport> {
+
+    private final Clock clock;
+    private final long intervalMillis;
+    private final double minDelta;
+    private final Scheduler scheduler;
+    private final Consumer<TranscodeReport> downstream;
+    private long lastMillis;
+    private double lastPercentage = Double.NaN;
+    private TranscodeReport pending;
+    private Disposable timer;
+    private boolean closed;
+
+    /**
+     * @param clock          the clock.
+     * @param intervalMillis the minimum time between two reports, 0 to only suppress small changes.
+     * @param minDelta       the minimum change of the percentage, 0 to only limit the rate.
+     * @param scheduler      the scheduler on which a pending report is passed when the interval expires.
+     * @param downstream     the consumer of the passed reports.
+     */
+    ProgressThrottle(Clock clock, long intervalMillis, double minDelta, Scheduler scheduler,
+                     Consumer<TranscodeReport> downstream) {
+        this.clock = clock;
+        this.intervalMillis = Math.max(0, intervalMillis);
+        this.minDelta = Math.max(0, minDelta);
+        this.scheduler = scheduler;
+        this.downstream = downstream;
+    }
+
+    /**
+     * Creates a throttle with the configured interval and delta.
+     */
+    static ProgressThrottle create(TranscoderConfig config, Clock clock, Consumer<TranscodeReport> downstream) {
+        return new ProgressThrottle(clock, config.progress_interval(), config.progress_min_delta(),
+            Schedulers.computation(), downstream);
+    }
+
+    @Override
+    public synchronized void accept(TranscodeReport report) {
+        if (closed) return;
+        long now = clock.millis();
+        double percentage = report.getPercentage();
+        if (Double.isNaN(lastPercentage) || isFirstCompletion(percentage) || isDue(now, percentage)) {
+            pass(report, now);
+        } else if (now - lastMillis < intervalMillis) {
+            pending = report;
+            if (timer == null) {
+                timer = scheduler.scheduleDirect(this::flush, lastMillis + intervalMillis - now,
+                    TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Discards the pending report and drops all further reports.
+     */
+    synchronized void close() {
+        closed = true;
+        pending = null;
+        if (timer != null) timer.dispose();
+        timer = null;
+    }
+
+    private synchronized void flush() {
+        timer = null;
+        if (closed || pending == null) return;
+        var report = pending;
+        pending = null;
+        if (isChanged(report.getPercentage())) pass(report, clock.millis());
+    }
+
+    private void pass(TranscodeReport report, long now) {
+        pending = null;
+        if (timer != null) timer.dispose();
+        timer = null;
+        lastMillis = now;
+        lastPercentage = report.getPercentage();
+        downstream.accept(report);
+    }
+
+    private boolean isFirstCompletion(double percentage) {
+        return percentage >= 100 && lastPercentage < 100;
+    }
+
+    private boolean isDue(long now, double percentage) {
+        return now - lastMillis >= intervalMillis && isChanged(percentage);
+    }
+
+    private boolean isChanged(double percentage) {
+        if (percentage < 0 || lastPercentage < 0) return true;
+        return Math.abs(percentage - lastPercentage) >= minDelta;
+    }
+}
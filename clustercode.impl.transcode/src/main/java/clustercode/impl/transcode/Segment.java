@@ -0,0 +1,23 @@
+package clustercode.impl.transcode;
+
+import lombok.Value;
+
+/**
+ * Represents a time range of a source which is transcoded as a separate task.
+ */
+@Value
+class Segment {
+
+    private final int index;
+
+    /**
+     * The offset in seconds, which is a keyframe of the source.
+     */
+    private final double start;
+
+    /**
+     * The duration in seconds.
+     */
+    private final double duration;
+
+}
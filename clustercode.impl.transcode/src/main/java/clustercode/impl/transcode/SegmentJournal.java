@@ -0,0 +1,224 @@
+package clustercode.impl.transcode;
+
+import clustercode.api.domain.TranscodeTask;
+import lombok.Value;
+import lombok.extern.slf4j.XSlf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Records the segment plan of a source and the segments which have been transcoded, so that an interrupted segmented
+ * transcoding can resume from the completed segments. The journal is a small text file in the temporary dir, next to
+ * the segment outputs:
+ * <pre>
+ * source=0/movie.mkv
+ * fingerprint=734003200,1514793600000,9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08
+ * segment=0,0.000000,30.000000
+ * segment=1,30.000000,30.000000
+ * done=0,movie.part0.mp4
+ * </pre>
+ * The plan is written once by replacing the file atomically, completed segments are appended and synced. Segment
+ * outputs are recorded relative to the temporary dir, so that a journal on a shared dir remains valid for another
+ * node. The fingerprint consists of the size and modification time of the source and the SHA-256 hash of the profile
+ * arguments (joined by newlines). A journal whose source or fingerprint does not match is ignored, as are completed
+ * segments whose output is missing.
+ */
+@XSlf4j
+final class SegmentJournal {
+
+    private static final String SOURCE = "source=";
+    private static final String FINGERPRINT = "fingerprint=";
+    private static final String SEGMENT = "segment=";
+    private static final String DONE = "done=";
+
+    private final Path file;
+    private final String source;
+    private final String fingerprint;
+
+    SegmentJournal(Path file, String source, String fingerprint) {
+        this.file = file;
+        this.source = source;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Creates the journal of the given task. The file is not accessed until the journal is loaded or written.
+     *
+     * @param dir    the dir to which the segments are transcoded.
+     * @param config the config.
+     * @param task   the task, not null.
+     * @return the journal in the given dir.
+     */
+    static SegmentJournal of(Path dir, TranscoderConfig config, TranscodeTask task) {
+        var sourcePath = task.getMedia().getSourcePath();
+        long size = -1;
+        long modified = -1;
+        try {
+            var attributes = Files.readAttributes(config.base_input_dir().resolve(sourcePath),
+                    BasicFileAttributes.class);
+            size = attributes.size();
+            modified = attributes.lastModifiedTime().toMillis();
+        } catch (IOException e) {
+            log.debug("Could not read attributes of {}: {}", sourcePath, e.toString());
+        }
+        var arguments = task.getProfile() == null ? null : task.getProfile().getArguments();
+        return new SegmentJournal(
+                dir.resolve(TranscodingServiceImpl.getTemporaryFileName(config, task) + ".journal"),
+                sourcePath.toString(),
+                size + "," + modified + "," + sha256(arguments == null ? "" : String.join("\n", arguments)));
+    }
+
+    private static String sha256(String value) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return String.format("%064x", new BigInteger(1, digest));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the path of the journal file.
+     */
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Loads the checkpoint of a previous transcoding of the same source.
+     *
+     * @return the checkpoint, empty if there is no journal, it belongs to another source or is outdated.
+     */
+    Optional<Checkpoint> load() {
+        String journalSource = null;
+        String journalFingerprint = null;
+        List<Segment> segments = new ArrayList<>();
+        Map<Integer, Path> completed = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(SOURCE)) {
+                    journalSource = line.substring(SOURCE.length());
+                } else if (line.startsWith(FINGERPRINT)) {
+                    journalFingerprint = line.substring(FINGERPRINT.length());
+                } else if (line.startsWith(SEGMENT)) {
+                    var values = line.substring(SEGMENT.length()).split(",", 3);
+                    if (values.length < 3) continue;
+                    segments.add(new Segment(Integer.parseInt(values[0]),
+                            Double.parseDouble(values[1]), Double.parseDouble(values[2])));
+                } else if (line.startsWith(DONE)) {
+                    var values = line.substring(DONE.length()).split(",", 2);
+                    if (values.length < 2) continue;
+                    completed.put(Integer.parseInt(values[0]), file.resolveSibling(values[1]));
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read segment journal {}: {}", file, e.toString());
+            return Optional.empty();
+        }
+        if (!source.equals(journalSource) || !fingerprint.equals(journalFingerprint) || segments.isEmpty()) {
+            log.debug("Ignoring outdated segment journal {}.", file);
+            return Optional.empty();
+        }
+        for (int i = 0; i < segments.size(); i++) {
+            if (segments.get(i).getIndex() != i) {
+                log.warn("Ignoring segment journal {} with invalid plan.", file);
+                return Optional.empty();
+            }
+        }
+        completed.entrySet().removeIf(entry -> entry.getKey() < 0 || entry.getKey() >= segments.size()
+                || !isNonEmptyFile(entry.getValue()));
+        return Optional.of(new Checkpoint(segments, completed));
+    }
+
+    private static boolean isNonEmptyFile(Path path) {
+        try {
+            return Files.size(path) > 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes the plan of a new segmented transcoding, replacing any previous journal.
+     *
+     * @param segments the segments in order.
+     * @return true if the journal has been written.
+     */
+    boolean begin(List<Segment> segments) {
+        var lines = new ArrayList<String>(segments.size() + 2);
+        lines.add(SOURCE + source);
+        lines.add(FINGERPRINT + fingerprint);
+        for (Segment segment : segments) {
+            lines.add(String.format(Locale.ROOT, "%s%d,%.6f,%.6f",
+                    SEGMENT, segment.getIndex(), segment.getStart(), segment.getDuration()));
+        }
+        var temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.write(temporary, lines, StandardCharsets.UTF_8);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            log.warn("Could not write segment journal {}, the transcoding cannot be resumed: {}", file, e.toString());
+            return false;
+        }
+    }
+
+    /**
+     * Records that the given segment has been transcoded.
+     *
+     * @param index the index of the segment.
+     * @param part  the output of the segment in the temporary dir.
+     */
+    void complete(int index, Path part) {
+        var dir = file.getParent();
+        var name = dir != null && part.startsWith(dir) ? dir.relativize(part) : part.toAbsolutePath();
+        try {
+            Files.write(file, List.of(DONE + index + "," + name), StandardCharsets.UTF_8,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND, StandardOpenOption.DSYNC);
+        } catch (IOException e) {
+            log.warn("Could not record segment {} in journal {}: {}", index, file, e.toString());
+        }
+    }
+
+    /**
+     * Deletes the journal file.
+     */
+    void delete() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete segment journal {}: {}", file, e.toString());
+        }
+    }
+
+    @Value
+    static class Checkpoint {
+
+        /**
+         * The planned segments in order.
+         */
+        private final List<Segment> segments;
+
+        /**
+         * The existing outputs of the completed segments by index.
+         */
+        private final Map<Integer, Path> completed;
+
+    }
+}
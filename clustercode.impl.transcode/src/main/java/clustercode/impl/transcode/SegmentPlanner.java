@@ -0,0 +1,35 @@
+package clustercode.impl.transcode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class SegmentPlanner {
+
+    private SegmentPlanner() {
+        // utility class
+    }
+
+    /**
+     * Splits the source into segments of about the target duration. Each segment starts at a keyframe, so that the
+     * segments can be transcoded independently and concatenated without gaps. A segment is at least as long as the
+     * target, except that the last segment is merged into its predecessor if it would be shorter than half the
+     * target.
+     *
+     * @param index  the keyframes of the source, not null.
+     * @param target the target duration in seconds, {@literal > 0}.
+     * @return the segments in order, a single segment if the source cannot be split.
+     */
+    static List<Segment> plan(KeyframeIndex index, double target) {
+        double duration = index.getDuration();
+        List<Segment> segments = new ArrayList<>();
+        if (duration <= 0) return segments;
+        double start = 0;
+        for (double keyframe : index.getKeyframes()) {
+            if (keyframe - start < target || duration - keyframe < target / 2) continue;
+            segments.add(new Segment(segments.size(), start, keyframe - start));
+            start = keyframe;
+        }
+        segments.add(new Segment(segments.size(), start, duration - start));
+        return segments;
+    }
+}
@@ -0,0 +1,416 @@
+package clustercode.impl.transcode;
+
+import clustercode.api.domain.ArgumentTemplate;
+import clustercode.api.domain.Media;
+import clustercode.api.domain.TranscodeTask;
+import clustercode.api.event.RxEventBus;
+import clustercode.api.event.messages.TranscodeBeginEvent;
+import clustercode.api.event.messages.TranscodeFinishedEvent;
+import clustercode.api.process.ExternalProcessService;
+import clustercode.api.process.ProcessConfiguration;
+import clustercode.api.transcode.TranscodeReport;
+import clustercode.api.transcode.TranscodingService;
+import lombok.Synchronized;
+import lombok.extern.slf4j.XSlf4j;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Transcodes long sources in segments. The source is probed for keyframes and split into segments of about the
+ * configured duration, each of which is a separate task for the transcoding service. Pending segments take precedence
+ * over new media: they are started as soon as a slot is free and the slots they will occupy are not offered to the
+ * scheduler. Once all segments have been transcoded, they are concatenated with ffmpeg into the regular temporary
+ * file, before the {@link TranscodeFinishedEvent} of the media is emitted.
+ * <p>
+ * The events of the segment jobs are kept from the event bus. Instead, the media is reported as one job whose id is
+ * the id of the segment group and whose progress is the progress of all segments, weighted by their duration. If a
+ * segment fails or is cancelled, the remaining segments are cancelled as well and the media has failed.
+ * </p>
+ * <p>
+ * The plan and the completed segments are recorded in a {@link SegmentJournal}. If the transcoding is interrupted, be
+ * it by a cancellation, a failure or a restart of the node, the outputs of the completed segments are kept and the
+ * next transcoding of the same source resumes from them instead of probing again. The journal and the outputs are
+ * deleted once the segments have been concatenated. Outputs of segments which were interrupted are left to the
+ * cleanup.
+ * </p>
+ */
+@XSlf4j
+public class SegmentedTranscoder {
+
+    private final TranscoderConfig config;
+    private final TranscodingService transcodingService;
+    private final ExternalProcessService processService;
+    private final KeyframeProbe probe;
+    private final TemporaryDirSelector temporaryDirSelector;
+    private final RxEventBus eventBus;
+    private final Clock clock;
+    private final Map<TranscodeTask, Group> groupsByTask = new IdentityHashMap<>();
+    private final Map<String, Group> groupsByJob = new HashMap<>();
+    private final Deque<TranscodeTask> pending = new ArrayDeque<>();
+    private final Object lock = new Object();
+    private int probing;
+
+    @Inject
+    SegmentedTranscoder(TranscoderConfig config,
+                        TranscodingService transcodingService,
+                        ExternalProcessService processService,
+                        KeyframeProbe probe,
+                        TemporaryDirSelector temporaryDirSelector,
+                        RxEventBus eventBus,
+                        Clock clock) {
+        this.config = config;
+        this.transcodingService = transcodingService;
+        this.processService = processService;
+        this.probe = probe;
+        this.temporaryDirSelector = temporaryDirSelector;
+        this.eventBus = eventBus;
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return config.segment_duration() > 0 && config.transcoder_type() == Transcoders.FFMPEG;
+    }
+
+    /**
+     * Transcodes the given task, in segments if enabled and the source is long enough. Otherwise the task is passed
+     * to the transcoding service as is.
+     *
+     * @param task the task, not null.
+     */
+    public void transcode(TranscodeTask task) {
+        if (!isEnabled()) {
+            transcodingService.transcode(task);
+            return;
+        }
+        var dir = temporaryDirSelector.getTemporaryDir(task);
+        var journal = SegmentJournal.of(dir, config, task);
+        var checkpoint = journal.load();
+        if (checkpoint.isPresent()) {
+            start(task, dir, journal, checkpoint.get().getSegments(), checkpoint.get().getCompleted());
+            return;
+        }
+        reserveProbingSlot(1);
+        var source = config.base_input_dir().resolve(task.getMedia().getSourcePath());
+        probe.probe(source)
+             .map(index -> SegmentPlanner.plan(index, config.segment_duration()))
+             .subscribe(segments -> {
+                 reserveProbingSlot(-1);
+                 if (segments.size() < 2) transcodingService.transcode(task);
+                 else start(task, dir, journal.begin(segments) ? journal : null, segments, Collections.emptyMap());
+             }, ex -> {
+                 reserveProbingSlot(-1);
+                 log.warn("Could not probe {}, transcoding it as a whole: {}", source, ex.toString());
+                 transcodingService.transcode(task);
+             });
+    }
+
+    @Synchronized("lock")
+    private void reserveProbingSlot(int delta) {
+        probing += delta;
+    }
+
+    /**
+     * Gets the amount of slots which are reserved for pending segments and sources being probed.
+     *
+     * @return the amount of slots, 0 if none.
+     */
+    @Synchronized("lock")
+    public int getReservedSlots() {
+        return pending.size() + probing;
+    }
+
+    private void start(TranscodeTask task, Path dir, SegmentJournal journal, List<Segment> segments,
+                       Map<Integer, Path> completed) {
+        var group = new Group(UUID.randomUUID().toString(), task, dir, journal, segments,
+                ProgressThrottle.create(config, clock, eventBus::emit));
+        boolean complete;
+        synchronized (lock) {
+            startSegments(group, segments, completed);
+            complete = group.outstanding == 0;
+        }
+        if (complete) concat(group);
+    }
+
+    private void startSegments(Group group, List<Segment> segments, Map<Integer, Path> completed) {
+        var task = group.task;
+        if (completed.isEmpty()) {
+            log.info("Transcoding {} in {} segments as job {}.", task.getMedia(), segments.size(), group.id);
+        } else {
+            log.info("Resuming {} as job {}, {} of {} segments have been transcoded already.",
+                    task.getMedia(), group.id, completed.size(), segments.size());
+        }
+        for (Segment segment : segments) {
+            var variables = new HashMap<String, String>();
+            if (task.getVariables() != null) variables.putAll(task.getVariables());
+            variables.put(ArgumentTemplate.SEGMENT, String.valueOf(segment.getIndex()));
+            variables.put(ArgumentTemplate.START, format(segment.getStart()));
+            variables.put(ArgumentTemplate.DURATION, format(segment.getDuration()));
+            var segmentTask = TranscodeTask
+                .builder()
+                .media(task.getMedia())
+                .profile(task.getProfile())
+                .variables(variables)
+                .build();
+            group.tasks.add(segmentTask);
+            var part = completed.get(segment.getIndex());
+            if (part != null) {
+                group.parts[segment.getIndex()] = part;
+                group.progress[segment.getIndex()] = 100;
+                group.outstanding--;
+                continue;
+            }
+            groupsByTask.put(segmentTask, group);
+            pending.add(segmentTask);
+        }
+        eventBus.emit(TranscodeBeginEvent
+            .builder()
+            .jobId(group.id)
+            .task(task)
+            .build());
+        fillSlots();
+    }
+
+    private static String format(double seconds) {
+        return String.format(Locale.ROOT, "%.6f", seconds);
+    }
+
+    /**
+     * Starts pending segments while slots are free.
+     */
+    @Synchronized("lock")
+    public void fillSlots() {
+        while (!pending.isEmpty() && transcodingService.getAvailableSlots() > 0) {
+            transcodingService.transcode(pending.poll());
+        }
+    }
+
+    /**
+     * Handles the begin of a job. The job id is only needed to route the progress reports of the segment, the end of a
+     * segment is recognized by its task.
+     *
+     * @param event the event.
+     * @return true if the job transcodes a segment, in which case the event must not be published.
+     */
+    @Synchronized("lock")
+    public boolean onTranscodeBegin(TranscodeBeginEvent event) {
+        var group = groupsByTask.get(event.getTask());
+        if (group == null) return false;
+        groupsByJob.put(event.getJobId(), group);
+        group.jobs.put(event.getJobId(), group.indexOf(event.getTask()));
+        return true;
+    }
+
+    /**
+     * Handles a progress report of a job.
+     *
+     * @param report the report.
+     * @return true if the job transcodes a segment, in which case the report must not be published. The progress of
+     * the group is published instead.
+     */
+    public boolean onProgressUpdated(TranscodeReport report) {
+        double percentage;
+        Group group;
+        synchronized (lock) {
+            group = groupsByJob.get(report.getJobId());
+            if (group == null) return false;
+            var index = group.jobs.get(report.getJobId());
+            // Late reports of finished segments are swallowed.
+            if (index == null) return true;
+            group.progress[index] = Math.max(0, report.getPercentage());
+            percentage = group.getPercentage();
+        }
+        group.throttle.accept(new ProgressReport(group.id, percentage, -1, -1, -1));
+        return true;
+    }
+
+    /**
+     * Handles the end of a job and starts pending segments in the freed slot.
+     *
+     * @param event the event.
+     * @return true if the job transcoded a segment, in which case the event must not be published.
+     */
+    public boolean onTranscodeFinished(TranscodeFinishedEvent event) {
+        Group group;
+        List<String> toCancel = Collections.emptyList();
+        boolean complete;
+        synchronized (lock) {
+            // A segment may finish without a begin event, e.g. if its temporary dir could not be created.
+            group = event.getTask() == null ? null : groupsByTask.remove(event.getTask());
+            if (group == null) {
+                fillSlots();
+                return false;
+            }
+            int index = group.indexOf(event.getTask());
+            if (event.getJobId() != null) group.jobs.remove(event.getJobId());
+            group.outstanding--;
+            if (event.isSuccessful()) {
+                group.parts[index] = event.getTemporaryPath();
+                group.progress[index] = 100;
+                if (group.journal != null) group.journal.complete(index, event.getTemporaryPath());
+            } else if (!group.failed) {
+                group.failed = true;
+                group.cancelled = event.isCancelled();
+                int before = pending.size();
+                pending.removeIf(task -> groupsByTask.get(task) == group && groupsByTask.remove(task) != null);
+                group.outstanding -= before - pending.size();
+                toCancel = new ArrayList<>(group.jobs.keySet());
+            }
+            complete = group.outstanding == 0;
+            if (complete) groupsByJob.values().removeIf(other -> other == group);
+            fillSlots();
+        }
+        toCancel.forEach(transcodingService::cancelTranscode);
+        if (complete) {
+            if (group.failed) finish(group, null, -1);
+            else concat(group);
+        }
+        return true;
+    }
+
+    /**
+     * Gets the progress of the segmented transcoding of the given media.
+     *
+     * @param media the media.
+     * @return the progress in percent, empty if the media is not transcoded in segments.
+     */
+    @Synchronized("lock")
+    public OptionalDouble getProgress(Media media) {
+        return new HashSet<>(groupsByJob.values()).stream()
+                                                  .filter(group -> group.task.getMedia().equals(media))
+                                                  .mapToDouble(Group::getPercentage)
+                                                  .findFirst();
+    }
+
+    private void concat(Group group) {
+        var task = group.task;
+        var output = group.dir.resolve(TranscodingServiceImpl.getTemporaryFileName(config, task));
+        Path list;
+        try {
+            list = Files.write(group.dir.resolve(group.id + ".txt"),
+                    Arrays.stream(group.parts)
+                          .map(part -> "file '" + part.toAbsolutePath().toString().replace("'", "'\\''") + "'")
+                          .collect(Collectors.toList()));
+        } catch (IOException e) {
+            log.error("Could not write segment list of {}: {}", task.getMedia(), e.toString());
+            finish(group, null, -1);
+            return;
+        }
+        log.info("Concatenating {} segments of {}.", group.parts.length, task.getMedia());
+        processService
+            .start(ProcessConfiguration
+                .builder()
+                .executable(config.transcoder_executable())
+                .argument("-y")
+                .argument("-f").argument("concat")
+                .argument("-safe").argument("0")
+                .argument("-i").argument(list.toString())
+                .argument("-map").argument("0")
+                .argument("-c").argument("copy")
+                .argument(output.toString())
+                .build())
+            .doFinally(() -> Files.deleteIfExists(list))
+            .subscribe(
+                exitCode -> finish(group, output, exitCode),
+                ex -> {
+                    log.error("Could not concatenate segments of {}: {}", task.getMedia(), ex.toString());
+                    finish(group, null, -1);
+                });
+    }
+
+    private void finish(Group group, Path output, int exitCode) {
+        group.throttle.close();
+        var successful = !group.failed && exitCode == 0;
+        // Without journal, the completed segments cannot be resumed.
+        if (successful || group.journal == null) deleteSegments(group);
+        log.info("Segmented transcode of {} {}.", group.task.getMedia(),
+                successful ? "finished" : group.cancelled ? "cancelled" : "failed");
+        eventBus.emit(TranscodeFinishedEvent
+            .builder()
+            .jobId(group.id)
+            .task(group.task)
+            .media(group.task.getMedia())
+            .profile(group.task.getProfile())
+            .temporaryPath(output)
+            .exitCode(exitCode)
+            .successful(successful)
+            .cancelled(group.cancelled)
+            .build());
+    }
+
+    private void deleteSegments(Group group) {
+        for (Path part : group.parts) {
+            if (part == null) continue;
+            try {
+                Files.deleteIfExists(part);
+            } catch (IOException e) {
+                log.warn("Could not delete segment {}: {}", part, e.toString());
+            }
+        }
+        if (group.journal != null) group.journal.delete();
+    }
+
+    private static class Group {
+        private final String id;
+        private final TranscodeTask task;
+        /**
+         * The dir to which the segments are transcoded and concatenated.
+         */
+        private final Path dir;
+        /**
+         * The journal of the group, null if it could not be written.
+         */
+        private final SegmentJournal journal;
+        private final ProgressThrottle throttle;
+        private final List<TranscodeTask> tasks;
+        private final double[] weights;
+        private final double[] progress;
+        private final Path[] parts;
+        /**
+         * The index of the segment by job id of the running segments. Finished segments are removed, but stay in the
+         * groups by job id until the group is complete.
+         */
+        private final Map<String, Integer> jobs = new HashMap<>();
+        private int outstanding;
+        private boolean failed;
+        private boolean cancelled;
+
+        Group(String id, TranscodeTask task, Path dir, SegmentJournal journal, List<Segment> segments,
+              ProgressThrottle throttle) {
+            this.id = id;
+            this.task = task;
+            this.dir = dir;
+            this.journal = journal;
+            this.throttle = throttle;
+            this.tasks = new ArrayList<>(segments.size());
+            this.weights = new double[segments.size()];
+            this.progress = new double[segments.size()];
+            this.parts = new Path[segments.size()];
+            this.outstanding = segments.size();
+            double total = segments.stream().mapToDouble(Segment::getDuration).sum();
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = total > 0 ? segments.get(i).getDuration() / total : 1d / weights.length;
+            }
+        }
+
+        int indexOf(TranscodeTask segmentTask) {
+            for (int i = 0; i < tasks.size(); i++) {
+                if (tasks.get(i) == segmentTask) return i;
+            }
+            return -1;
+        }
+
+        double getPercentage() {
+            double percentage = 0;
+            for (int i = 0; i < weights.length; i++) {
+                percentage += weights[i] * progress[i];
+            }
+            return percentage;
+        }
+    }
+}
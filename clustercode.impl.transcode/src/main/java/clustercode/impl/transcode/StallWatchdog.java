@@ -0,0 +1,122 @@
+package clustercode.impl.transcode;
+
+import clustercode.impl.util.InvalidConfigurationException;
+import io.reactivex.Observable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.schedulers.Schedulers;
+import lombok.Synchronized;
+import lombok.Value;
+import lombok.extern.slf4j.XSlf4j;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Terminates transcoders which have stalled, e.g. on a corrupt stream or a read from a dead network share. In every
+ * check interval the progress and the size of the temporary file of each running job are compared with the previous
+ * check. A job whose progress has not advanced and whose output has not grown within the configured timeout is
+ * terminated with SIGTERM and SIGKILL. The job fails, so that the media is retried after the failure backoff.
+ */
+@XSlf4j
+public class StallWatchdog {
+
+    private final TranscodingServiceImpl transcodingService;
+    private final Clock clock;
+    private final Duration timeout;
+    private final Duration killTimeout;
+    private final Duration interval;
+    private final Map<String, Activity> activities = new HashMap<>();
+
+    @Inject
+    StallWatchdog(TranscoderConfig config,
+                  TranscodingServiceImpl transcodingService,
+                  Clock clock) {
+        this.transcodingService = transcodingService;
+        this.clock = clock;
+        this.timeout = Duration.ofSeconds(config.stall_timeout());
+        this.killTimeout = Duration.ofSeconds(config.stall_kill_timeout());
+        this.interval = Duration.ofSeconds(config.stall_check_interval());
+        if (timeout.isNegative()) {
+            throw new InvalidConfigurationException("The stall timeout must be >= 0. You specified: {}",
+                    timeout.getSeconds());
+        }
+        if (!timeout.isZero()) checkConfiguration();
+    }
+
+    private void checkConfiguration() {
+        if (killTimeout.isNegative() || killTimeout.isZero()) {
+            throw new InvalidConfigurationException("The stall kill timeout must be >= 1. You specified: {}",
+                    killTimeout.getSeconds());
+        }
+        if (interval.isNegative() || interval.isZero()) {
+            throw new InvalidConfigurationException("The stall check interval must be >= 1. You specified: {}",
+                    interval.getSeconds());
+        }
+    }
+
+    /**
+     * Starts checking the running jobs for stalls, if enabled.
+     *
+     * @return the handle to stop checking.
+     */
+    public Disposable start() {
+        if (timeout.isZero()) return Disposables.disposed();
+        log.info("Terminating transcoders without progress for {} seconds, checked every {} seconds.",
+                timeout.getSeconds(), interval.getSeconds());
+        // Terminating a process blocks until it exits, which must not occupy a computation thread.
+        return Observable
+                .interval(interval.toMillis(), TimeUnit.MILLISECONDS, Schedulers.io())
+                .subscribe(tick -> check(), ex -> log.catching(ex));
+    }
+
+    /**
+     * Records the activity of the running jobs and terminates the jobs which have been inactive for too long.
+     */
+    @Synchronized
+    void check() {
+        var now = clock.instant();
+        var jobs = transcodingService.getJobs().stream()
+                .filter(job -> !job.isCancelRequested())
+                .collect(Collectors.toList());
+        activities.keySet().retainAll(jobs.stream().map(TranscodeJobImpl::getId).collect(Collectors.toSet()));
+        for (TranscodeJobImpl job : jobs) {
+            double progress = job.getProgress().orElse(-1);
+            long size = getSize(job);
+            var previous = activities.get(job.getId());
+            if (previous == null || progress > previous.getProgress() || size > previous.getSize()) {
+                activities.put(job.getId(), new Activity(progress, size, now));
+                continue;
+            }
+            var inactive = Duration.between(previous.getLastChange(), now);
+            if (inactive.compareTo(timeout) < 0) continue;
+            log.warn("Job {} has stalled: no progress beyond {}% and no output beyond {} bytes for {} seconds.",
+                    job.getId(), String.format("%.1f", progress), size, inactive.getSeconds());
+            activities.remove(job.getId());
+            transcodingService.abortStalled(job, killTimeout.getSeconds(), TimeUnit.SECONDS);
+        }
+    }
+
+    private long getSize(TranscodeJobImpl job) {
+        try {
+            return Files.size(job.getTemporaryPath());
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    @Value
+    private static class Activity {
+        private double progress;
+        private long size;
+        private Instant lastChange;
+    }
+}
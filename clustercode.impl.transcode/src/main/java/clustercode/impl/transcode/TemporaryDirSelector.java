@@ -0,0 +1,93 @@
+package clustercode.impl.transcode;
+
+import clustercode.api.domain.TranscodeTask;
+import lombok.extern.slf4j.XSlf4j;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Selects the dir to which a task is transcoded. The cleanup moves the result into the output dir, which is a rename
+ * if both are on the same file store, but a copy of the whole file otherwise. If the configured temporary dir is on
+ * another file store than the output dir of the media, a dir on the output store is used instead. It is created at the
+ * top of the output dir on that store, so that media whose output dirs are on different mounts get different dirs.
+ */
+@XSlf4j
+class TemporaryDirSelector {
+
+    static final String DIR_NAME = ".clustercode-tmp";
+
+    private final TranscoderConfig config;
+    private final Map<FileStore, Path> dirsByStore = new ConcurrentHashMap<>();
+
+    @Inject
+    TemporaryDirSelector(TranscoderConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Gets the dir to which the given task should be transcoded. Falls back to the configured temporary dir if the
+     * file stores cannot be determined.
+     *
+     * @param task the task, not null.
+     * @return the dir, which is created if it is not the configured temporary dir.
+     */
+    Path getTemporaryDir(TranscodeTask task) {
+        var temporaryDir = config.temporary_dir();
+        if (!config.temporary_dir_on_output_store()) return temporaryDir;
+        var baseOutputDir = config.base_output_dir().toAbsolutePath().normalize();
+        try {
+            var outputDir = getExistingAncestor(getOutputDir(baseOutputDir, task.getMedia().getSourcePath()));
+            var temporaryAncestor = getExistingAncestor(temporaryDir);
+            if (outputDir == null || !outputDir.startsWith(baseOutputDir)) return temporaryDir;
+            var outputStore = getFileStore(outputDir);
+            if (temporaryAncestor != null && outputStore.equals(getFileStore(temporaryAncestor))) return temporaryDir;
+            var dir = dirsByStore.get(outputStore);
+            if (dir == null) {
+                dir = Files.createDirectories(getTopDir(baseOutputDir, outputDir, outputStore).resolve(DIR_NAME));
+                log.info("Temporary dir {} is not on the file store of {}, transcoding to {} instead.",
+                    temporaryDir, outputDir, dir);
+                dirsByStore.put(outputStore, dir);
+            }
+            return dir;
+        } catch (IOException e) {
+            log.warn("Could not determine the file store of the output of {}: {}", task.getMedia(), e.toString());
+            return temporaryDir;
+        }
+    }
+
+    /**
+     * Gets the output dir as recreated by the structured output of the cleanup, i.e. without the priority dir.
+     */
+    private static Path getOutputDir(Path baseOutputDir, Path source) {
+        if (source.getNameCount() < 3) return baseOutputDir;
+        return baseOutputDir.resolve(source.subpath(1, source.getNameCount() - 1).toString());
+    }
+
+    private static Path getExistingAncestor(Path path) {
+        var existing = path.toAbsolutePath().normalize();
+        while (existing != null && !Files.isDirectory(existing)) {
+            existing = existing.getParent();
+        }
+        return existing;
+    }
+
+    /**
+     * Gets the top-most dir within the base output dir which is on the given store.
+     */
+    private Path getTopDir(Path baseOutputDir, Path dir, FileStore store) throws IOException {
+        while (!dir.equals(baseOutputDir) && dir.getParent() != null && store.equals(getFileStore(dir.getParent()))) {
+            dir = dir.getParent();
+        }
+        return dir;
+    }
+
+    FileStore getFileStore(Path path) throws IOException {
+        return Files.getFileStore(path);
+    }
+}
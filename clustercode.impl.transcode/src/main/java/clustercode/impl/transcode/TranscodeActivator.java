@@ -6,7 +6,10 @@ import clustercode.api.domain.TranscodeTask;
 import clustercode.api.event.RxEventBus;
 import clustercode.api.event.messages.CancelTranscodeMessage;
 import clustercode.api.event.messages.ProfileSelectedMessage;
+import clustercode.api.event.messages.TranscodeSlotsMessage;
 import clustercode.api.transcode.TranscodingService;
+import clustercode.api.transcode.messages.ConcurrencyStatisticsMessage;
+import clustercode.api.transcode.messages.EncodeStatisticsMessage;
 import io.reactivex.disposables.Disposable;
 import lombok.extern.slf4j.Slf4j;
 
@@ -20,17 +23,32 @@ public class TranscodeActivator implements Activator {
     private final TranscodingService transcodingService;
     private final RxEventBus eventBus;
     private final TranscodingMessageHandler messageHandler;
+    private final SegmentedTranscoder segmentedTranscoder;
+    private final AdaptiveSlotController slotController;
+    private final TranscodeStatisticsImpl statistics;
+    private final OutputSizeWatchdog outputSizeWatchdog;
+    private final StallWatchdog stallWatchdog;
     private final List<Disposable> handlers = new LinkedList<>();
 
     @Inject
     TranscodeActivator(
             TranscodingService transcodingService,
             RxEventBus eventBus,
-            TranscodingMessageHandler messageHandler
+            TranscodingMessageHandler messageHandler,
+            SegmentedTranscoder segmentedTranscoder,
+            AdaptiveSlotController slotController,
+            TranscodeStatisticsImpl statistics,
+            OutputSizeWatchdog outputSizeWatchdog,
+            StallWatchdog stallWatchdog
     ) {
         this.transcodingService = transcodingService;
         this.eventBus = eventBus;
         this.messageHandler = messageHandler;
+        this.segmentedTranscoder = segmentedTranscoder;
+        this.slotController = slotController;
+        this.statistics = statistics;
+        this.outputSizeWatchdog = outputSizeWatchdog;
+        this.stallWatchdog = stallWatchdog;
     }
 
     @Override
@@ -40,10 +58,23 @@ public class TranscodeActivator implements Activator {
                 .listenFor(CancelTranscodeMessage.class, this::onCancelTranscodeTask));
         handlers.add(eventBus
                 .listenFor(TranscodeTask.class, transcodingService::transcode));
+        handlers.add(eventBus
+                .listenFor(TranscodeSlotsMessage.class, this::onTranscodeSlotsQuery));
+        handlers.add(eventBus
+                .listenFor(ConcurrencyStatisticsMessage.class, this::onConcurrencyStatisticsQuery));
+        handlers.add(eventBus
+                .listenFor(EncodeStatisticsMessage.class, this::onEncodeStatisticsQuery));
+        // The events of segment jobs are handled by the segmented transcoder, which publishes those of the media.
         transcodingService
-                .onProgressUpdated(eventBus::emit)
-                .onTranscodeBegin(eventBus::emit)
-                .onTranscodeFinished(eventBus::emit);
+                .onProgressUpdated(report -> {
+                    if (!segmentedTranscoder.onProgressUpdated(report)) eventBus.emit(report);
+                })
+                .onTranscodeBegin(event -> {
+                    if (!segmentedTranscoder.onTranscodeBegin(event)) eventBus.emit(event);
+                })
+                .onTranscodeFinished(event -> {
+                    if (!segmentedTranscoder.onTranscodeFinished(event)) eventBus.emit(event);
+                });
 
         handlers.add(eventBus
                 .listenFor(ProfileSelectedMessage.class)
@@ -53,11 +84,41 @@ public class TranscodeActivator implements Activator {
 
     @Override
     public void activate(ActivatorContext context) {
+        handlers.add(slotController.start());
+        handlers.add(outputSizeWatchdog.start());
+        handlers.add(stallWatchdog.start());
+    }
+
+    private void onConcurrencyStatisticsQuery(ConcurrencyStatisticsMessage msg) {
+        msg.setStatistics(slotController.getStatistics());
+    }
+
+    private void onTranscodeSlotsQuery(TranscodeSlotsMessage msg) {
+        msg.setAvailableSlots(Math.max(0,
+                transcodingService.getAvailableSlots() - segmentedTranscoder.getReservedSlots()));
+    }
 
+    private void onEncodeStatisticsQuery(EncodeStatisticsMessage msg) {
+        msg.setProfiles(statistics.getProfileStatistics());
+        msg.setJobs(transcodingService.getEstimates());
+        msg.setSlots(slotController.getStatistics().getSlots());
+        msg.setAverageWallTime(statistics.getAverageWallTime().orElse(null));
+        msg.setAborts(outputSizeWatchdog.getStatistics());
     }
 
     private void onCancelTranscodeTask(CancelTranscodeMessage event) {
-        event.setCancelled(transcodingService.cancelTranscode());
+        if (event.getJobId() != null) {
+            event.setCancelled(transcodingService.cancelTranscode(event.getJobId()));
+            return;
+        }
+        if (event.getMedia() == null) {
+            event.setCancelled(transcodingService.cancelTranscode());
+            return;
+        }
+        var progress = segmentedTranscoder.getProgress(event.getMedia());
+        if (!progress.isPresent()) progress = transcodingService.getProgress(event.getMedia());
+        event.setProgress(progress.orElse(-1));
+        event.setCancelled(transcodingService.cancelTranscode(event.getMedia()));
     }
 
     @Override
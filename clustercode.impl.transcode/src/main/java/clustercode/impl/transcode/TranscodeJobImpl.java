@@ -0,0 +1,242 @@
+package clustercode.impl.transcode;
+
+import clustercode.api.domain.TranscodeTask;
+import clustercode.api.process.RunningExternalProcess;
+import clustercode.api.transcode.TranscodeJob;
+import clustercode.api.transcode.TranscodeReport;
+import lombok.Synchronized;
+import lombok.extern.slf4j.XSlf4j;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.concurrent.TimeUnit;
+
+@XSlf4j
+class TranscodeJobImpl implements TranscodeJob {
+
+    private final String id;
+    private final TranscodeTask task;
+    private final Path temporaryPath;
+    private final Instant started;
+    private volatile double progress = -1;
+    private volatile double fps = -1;
+    private volatile long remainingSeconds = -1;
+    private volatile boolean cancelRequested;
+    private volatile boolean notWorthIt;
+    private boolean finished;
+    private RunningExternalProcess process;
+    private ProgressThrottle throttle;
+    private final Object reportLock = new Object();
+    private double fpsSum;
+    private int fpsSamples;
+    private double speedSum;
+    private int speedSamples;
+
+    TranscodeJobImpl(String id, TranscodeTask task, Path temporaryPath, Instant started) {
+        this.id = id;
+        this.task = task;
+        this.temporaryPath = temporaryPath;
+        this.started = started;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public TranscodeTask getTask() {
+        return task;
+    }
+
+    @Override
+    public Path getTemporaryPath() {
+        return temporaryPath;
+    }
+
+    @Override
+    public Instant getStarted() {
+        return started;
+    }
+
+    @Override
+    public OptionalDouble getProgress() {
+        double value = progress;
+        return value < 0 ? OptionalDouble.empty() : OptionalDouble.of(value);
+    }
+
+    void setProgress(double progress) {
+        this.progress = progress;
+    }
+
+    /**
+     * Sets the throttle which publishes the reports of this job. It is closed when the job finishes.
+     *
+     * @param throttle the throttle, not null.
+     */
+    @Synchronized("reportLock")
+    void setThrottle(ProgressThrottle throttle) {
+        this.throttle = throttle;
+    }
+
+    /**
+     * Updates this job with the given report of the transcoder and passes the report to the throttle, unless this job
+     * has finished already. Reports which are parsed while the transcoder exits are thereby never published after the
+     * finished event.
+     *
+     * @param report the report, not null.
+     */
+    @Synchronized("reportLock")
+    void onReport(TranscodeReport report) {
+        if (finished) return;
+        setProgress(report.getPercentage());
+        if (report instanceof ProgressReport) update((ProgressReport) report);
+        if (throttle != null) throttle.accept(report);
+    }
+
+    /**
+     * @return the most recent amount of frames encoded per second, -1 if unknown.
+     */
+    double getFps() {
+        return fps;
+    }
+
+    /**
+     * @return the most recent estimate of the transcoder of the remaining time in seconds, -1 if unknown.
+     */
+    long getRemainingSeconds() {
+        return remainingSeconds;
+    }
+
+    /**
+     * @return the average of the reported frames per second, -1 if none has been reported.
+     */
+    @Synchronized("reportLock")
+    double getAverageFps() {
+        return fpsSamples == 0 ? -1 : fpsSum / fpsSamples;
+    }
+
+    /**
+     * @return the average of the reported speed factors, -1 if none has been reported.
+     */
+    @Synchronized("reportLock")
+    double getAverageSpeed() {
+        return speedSamples == 0 ? -1 : speedSum / speedSamples;
+    }
+
+    /**
+     * Updates the figures of this job with the given report of the transcoder.
+     *
+     * @param report the report, not null.
+     */
+    @Synchronized("reportLock")
+    void update(ProgressReport report) {
+        this.fps = report.getFps();
+        this.remainingSeconds = report.getRemainingSeconds();
+        if (report.getFps() > 0) {
+            fpsSum += report.getFps();
+            fpsSamples++;
+        }
+        if (report.getSpeed() > 0) {
+            speedSum += report.getSpeed();
+            speedSamples++;
+        }
+    }
+
+    boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    @Override
+    public boolean cancel() {
+        log.debug("Cancelling job {}...", id);
+        cancelRequested = true;
+        return destroyProcess();
+    }
+
+    /**
+     * Cancels this job because its output would not be smaller than the source.
+     *
+     * @return the result of {@link #cancel()}.
+     */
+    boolean abortNotWorthIt() {
+        notWorthIt = true;
+        return cancel();
+    }
+
+    /**
+     * @return true if this job has been aborted because its output would not be smaller than the source.
+     */
+    boolean isNotWorthIt() {
+        return notWorthIt;
+    }
+
+    /**
+     * @return the CPU time consumed by the transcoder process so far, empty if unknown or the process is not running.
+     */
+    @Synchronized
+    Optional<Duration> getCpuTime() {
+        return process == null ? Optional.empty() : process.getCpuTime();
+    }
+
+    /**
+     * Terminates the transcoder process of this job, which has stalled, without cancelling the job: it fails.
+     *
+     * @return the result of {@link RunningExternalProcess#terminate(long, TimeUnit)}.
+     */
+    boolean terminate(long timeout, TimeUnit unit) {
+        // The process is terminated outside the lock, which would otherwise block the reads of the CPU time.
+        var process = getProcess();
+        if (process == null) return true;
+        log.info("Terminating transcoder process of job {}...", id);
+        return process.terminate(timeout, unit);
+    }
+
+    void onProcessStarted(RunningExternalProcess process) {
+        setProcess(process);
+        // Either this or cancel() sees the other's write, as both access the process under the lock.
+        if (cancelRequested) destroyProcess();
+    }
+
+    /**
+     * Marks this job as finished.
+     *
+     * @return false if the job has already been finished before, e.g. because its process could not be killed.
+     */
+    @Synchronized
+    boolean onProcessFinished() {
+        this.process = null;
+        synchronized (reportLock) {
+            if (finished) return false;
+            finished = true;
+            // A pending report of the throttle would otherwise be published after the finished event.
+            if (throttle != null) throttle.close();
+            return true;
+        }
+    }
+
+    @Synchronized
+    private RunningExternalProcess getProcess() {
+        return process;
+    }
+
+    @Synchronized
+    private void setProcess(RunningExternalProcess process) {
+        this.process = process;
+    }
+
+    private boolean destroyProcess() {
+        var process = getProcess();
+        if (process == null) return true;
+        log.info("Stopping transcoder process of job {}...", id);
+        return process.destroyNowWithTimeout(10, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return "TranscodeJob(" + id + ", " + task.getMedia() + ")";
+    }
+}
@@ -0,0 +1,236 @@
+package clustercode.impl.transcode;
+
+import clustercode.api.domain.Profile;
+import clustercode.api.transcode.ProfileStatistics;
+import clustercode.api.transcode.TranscodeStatistics;
+import clustercode.impl.util.InvalidConfigurationException;
+import lombok.Synchronized;
+import lombok.Value;
+import lombok.extern.slf4j.XSlf4j;
+
+import javax.inject.Inject;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the figures of the most recent successfully finished transcodings per profile: the sizes, the wall time and
+ * the average frames per second and speed factor reported by the transcoder. Only the configured amount of samples is
+ * kept per profile, so that the statistics follow changes of the profile or the hardware. The samples are persisted in
+ * a small CSV file (one sample per line), which is rewritten after each transcoding.
+ */
+@XSlf4j
+public class TranscodeStatisticsImpl implements TranscodeStatistics {
+
+    private static final int DEFAULT_SAMPLES = 50;
+
+    private final Map<Path, Deque<Sample>> records = new HashMap<>();
+    private final Path file;
+    private final int maxSamples;
+    private final String node;
+
+    @Inject
+    TranscodeStatisticsImpl(TranscoderConfig config) {
+        this(config.statistics_file(), config.statistics_samples(), getLocalNodeName());
+    }
+
+    /**
+     * Creates statistics which are kept in memory only.
+     */
+    TranscodeStatisticsImpl() {
+        this(null, DEFAULT_SAMPLES, "localhost");
+    }
+
+    TranscodeStatisticsImpl(Path file, int maxSamples, String node) {
+        if (maxSamples < 1) {
+            throw new InvalidConfigurationException("The amount of statistics samples must be >= 1. You specified: {}",
+                    maxSamples);
+        }
+        this.file = file;
+        this.maxSamples = maxSamples;
+        this.node = node;
+        if (file != null) load();
+    }
+
+    private static String getLocalNodeName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            log.debug("Could not determine host name: {}", e.toString());
+            return "localhost";
+        }
+    }
+
+    /**
+     * Adds the figures of a successfully finished transcoding to the statistics of the given profile.
+     *
+     * @param profile    the profile, not null.
+     * @param sourceSize the size of the source file in bytes.
+     * @param outputSize the size of the transcoded file in bytes.
+     * @param duration   the time it took to transcode the source.
+     */
+    public void record(Profile profile, long sourceSize, long outputSize, Duration duration) {
+        record(profile, sourceSize, outputSize, duration, -1, -1);
+    }
+
+    /**
+     * Adds the figures of a successfully finished transcoding to the statistics of the given profile.
+     *
+     * @param profile    the profile, not null.
+     * @param sourceSize the size of the source file in bytes.
+     * @param outputSize the size of the transcoded file in bytes.
+     * @param duration   the time it took to transcode the source.
+     * @param fps        the average frames per second, -1 if unknown.
+     * @param speed      the average speed factor, -1 if unknown.
+     */
+    @Synchronized
+    public void record(Profile profile, long sourceSize, long outputSize, Duration duration, double fps,
+                       double speed) {
+        if (profile.getLocation() == null || sourceSize <= 0 || duration.isNegative()) return;
+        log.debug("Recording transcode of {} bytes to {} bytes in {} with {}.",
+                sourceSize, outputSize, duration, profile.getLocation());
+        add(profile.getLocation(), new Sample(node, sourceSize, outputSize, duration.toMillis(), fps, speed));
+        if (file != null) save();
+    }
+
+    private void add(Path location, Sample sample) {
+        var samples = records.computeIfAbsent(location, key -> new ArrayDeque<>());
+        samples.addLast(sample);
+        while (samples.size() > maxSamples) samples.removeFirst();
+    }
+
+    @Synchronized
+    @Override
+    public OptionalDouble getSizeRatio(Profile profile) {
+        return getSamples(profile)
+                .map(samples -> OptionalDouble.of((double) sum(samples, Sample::getOutputBytes) /
+                        sum(samples, Sample::getSourceBytes)))
+                .orElse(OptionalDouble.empty());
+    }
+
+    @Synchronized
+    @Override
+    public OptionalDouble getThroughput(Profile profile) {
+        return getSamples(profile)
+                .filter(samples -> sum(samples, Sample::getMillis) > 0)
+                .map(samples -> OptionalDouble.of(sum(samples, Sample::getSourceBytes) * 1000d /
+                        sum(samples, Sample::getMillis)))
+                .orElse(OptionalDouble.empty());
+    }
+
+    /**
+     * Gets the figures of the recent transcodings, aggregated per profile and node.
+     *
+     * @return the list sorted by profile and node, may be empty.
+     */
+    @Synchronized
+    public List<ProfileStatistics> getProfileStatistics() {
+        var result = new ArrayList<ProfileStatistics>();
+        records.forEach((location, samples) -> samples.stream()
+                .collect(Collectors.groupingBy(Sample::getNode, TreeMap::new, Collectors.toList()))
+                .forEach((name, group) -> result.add(createStatistics(location, name, group))));
+        result.sort(Comparator.comparing((ProfileStatistics s) -> s.getProfile().toString())
+                .thenComparing(ProfileStatistics::getNode));
+        return result;
+    }
+
+    /**
+     * Gets the average time it took to transcode a media with any profile.
+     *
+     * @return the duration, empty if nothing has been recorded yet.
+     */
+    @Synchronized
+    public Optional<Duration> getAverageWallTime() {
+        var samples = records.values().stream().flatMap(Collection::stream).collect(Collectors.toList());
+        if (samples.isEmpty()) return Optional.empty();
+        return Optional.of(Duration.ofMillis(sum(samples, Sample::getMillis) / samples.size()));
+    }
+
+    private ProfileStatistics createStatistics(Path location, String name, List<Sample> samples) {
+        long millis = sum(samples, Sample::getMillis);
+        return ProfileStatistics.builder()
+                .profile(location)
+                .node(name)
+                .samples(samples.size())
+                .averageFps(average(samples, Sample::getFps))
+                .speedFactor(average(samples, Sample::getSpeed))
+                .averageWallTime(Duration.ofMillis(millis / samples.size()))
+                .sizeRatio((double) sum(samples, Sample::getOutputBytes) / sum(samples, Sample::getSourceBytes))
+                .throughput(millis > 0 ? sum(samples, Sample::getSourceBytes) * 1000d / millis : -1)
+                .build();
+    }
+
+    private static long sum(Collection<Sample> samples, ToLongFunction<Sample> figure) {
+        return samples.stream().mapToLong(figure).sum();
+    }
+
+    private static double average(Collection<Sample> samples, ToDoubleFunction<Sample> figure) {
+        return samples.stream().mapToDouble(figure).filter(value -> value > 0).average().orElse(-1);
+    }
+
+    private Optional<Deque<Sample>> getSamples(Profile profile) {
+        if (profile.getLocation() == null) return Optional.empty();
+        return Optional.ofNullable(records.get(profile.getLocation())).filter(samples -> !samples.isEmpty());
+    }
+
+    private void load() {
+        int count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] values = line.split(",", 7);
+                if (values.length < 7) continue;
+                try {
+                    add(file.getFileSystem().getPath(values[6]), new Sample(values[0], Long.parseLong(values[1]),
+                            Long.parseLong(values[2]), Long.parseLong(values[3]), Double.parseDouble(values[4]),
+                            Double.parseDouble(values[5])));
+                    count++;
+                } catch (RuntimeException e) {
+                    log.warn("Ignoring invalid statistics sample '{}': {}", line, e.toString());
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (IOException e) {
+            log.warn("Could not read statistics {}: {}", file, e.toString());
+            return;
+        }
+        log.info("Loaded {} statistics sample(s) from {}.", count, file);
+    }
+
+    private void save() {
+        var lines = new ArrayList<String>();
+        records.forEach((location, samples) -> samples.forEach(sample -> lines.add(String.join(",",
+                sample.getNode(), String.valueOf(sample.getSourceBytes()), String.valueOf(sample.getOutputBytes()),
+                String.valueOf(sample.getMillis()), String.valueOf(sample.getFps()),
+                String.valueOf(sample.getSpeed()), location.toString()))));
+        try {
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write statistics {}: {}", file, e.toString());
+        }
+    }
+
+    @Value
+    private static class Sample {
+        private String node;
+        private long sourceBytes;
+        private long outputBytes;
+        private long millis;
+        private double fps;
+        private double speed;
+    }
+}
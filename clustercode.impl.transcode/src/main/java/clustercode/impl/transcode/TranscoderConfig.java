@@ -26,6 +26,278 @@ public interface TranscoderConfig extends Config {
     @DefaultValue(".mkv")
     String default_video_extension();
 
+    /**
+     * Gets the type of the transcoder, which determines how its progress is parsed.
+     *
+     * @return the type, not null.
+     */
+    @Key("CC_TRANSCODE_TYPE")
+    @DefaultValue("FFMPEG")
+    Transcoders transcoder_type();
+
+    /**
+     * Gets the path to the executable of the transcoder.
+     *
+     * @return the path, not null.
+     */
+    @Key("CC_TRANSCODE_CLI")
+    @DefaultValue("/usr/bin/ffmpeg")
+    @ConverterClass(PathConverter.class)
+    Path transcoder_executable();
+
+    /**
+     * Gets the amount of transcoding jobs which may run concurrently on this node. The amount is reduced to the CPUs
+     * of the CPU quota if the container has one.
+     *
+     * @return the amount of slots, at least 1.
+     */
+    @Key("CC_TRANSCODE_SLOTS")
+    @DefaultValue("1")
+    int transcode_slots();
+
+    /**
+     * Gets the upper bound of transcoding slots. If it is greater than {@link #transcode_slots()}, the amount of
+     * slots is adjusted to the system load between {@link #min_transcode_slots()} and this bound.
+     *
+     * @return the maximum amount of slots, 0 to keep the amount of slots fixed.
+     */
+    @Key("CC_TRANSCODE_SLOTS_MAX")
+    @DefaultValue("0")
+    int max_transcode_slots();
+
+    /**
+     * Gets the lower bound of transcoding slots if the amount of slots is adjusted to the system load.
+     *
+     * @return the minimum amount of slots, at least 1.
+     */
+    @Key("CC_TRANSCODE_SLOTS_MIN")
+    @DefaultValue("1")
+    int min_transcode_slots();
+
+    /**
+     * Gets the interval in which the system load is sampled to adjust the amount of slots.
+     *
+     * @return the interval in seconds, at least 1.
+     */
+    @Key("CC_TRANSCODE_SLOTS_INTERVAL")
+    @DefaultValue("30")
+    long slots_sample_interval();
+
+    /**
+     * Gets the CPU utilization below which another slot is added, provided that all slots are busy.
+     *
+     * @return the utilization in percent (0-100).
+     */
+    @Key("CC_TRANSCODE_SLOTS_TARGET_CPU")
+    @DefaultValue("85")
+    double slots_target_cpu_utilization();
+
+    /**
+     * Gets the amount of runnable tasks per CPU above which the amount of slots is reduced.
+     *
+     * @return the run queue length per CPU.
+     */
+    @Key("CC_TRANSCODE_SLOTS_MAX_RUN_QUEUE")
+    @DefaultValue("1.5")
+    double slots_max_run_queue();
+
+    /**
+     * Gets the amount of consecutive samples that have to indicate the same adjustment before the amount of slots is
+     * changed.
+     *
+     * @return the amount of samples, at least 1.
+     */
+    @Key("CC_TRANSCODE_SLOTS_HYSTERESIS")
+    @DefaultValue("2")
+    int slots_hysteresis();
+
+    /**
+     * Gets the path to the ffprobe executable, which is used to find the keyframes of sources to transcode in
+     * segments.
+     *
+     * @return the path, not null.
+     */
+    @Key("CC_TRANSCODE_PROBE_CLI")
+    @DefaultValue("/usr/bin/ffprobe")
+    @ConverterClass(PathConverter.class)
+    Path probe_executable();
+
+    /**
+     * Gets the target duration of the segments in which a source is split for transcoding. The segments are cut at
+     * keyframes and transcoded in parallel on the free slots, then concatenated. Sources which would not yield at
+     * least two segments are transcoded as a whole. Only supported with ffmpeg.
+     *
+     * @return the duration in seconds, 0 disables segmented transcoding.
+     */
+    @Key("CC_TRANSCODE_SEGMENT_DURATION")
+    @DefaultValue("0")
+    int segment_duration();
+
+    /**
+     * Gets the amount of threads that the transcoder may use, available as ${THREADS} in the profile arguments.
+     *
+     * @return the amount of threads, 0 lets the transcoder decide. If the container has a CPU quota, 0 divides the
+     * CPUs of the quota by the amount of slots instead, as the transcoder would see all cores of the host.
+     */
+    @Key("CC_TRANSCODE_THREADS")
+    @DefaultValue("0")
+    int threads();
+
+    /**
+     * Gets the minimum time between two progress reports of a job which are published to the event bus and the
+     * cluster. Reports in between are dropped in favour of the latest.
+     *
+     * @return the interval in milliseconds, 0 publishes every report which passes the delta.
+     */
+    @Key("CC_TRANSCODE_PROGRESS_INTERVAL")
+    @DefaultValue("1000")
+    long progress_interval();
+
+    /**
+     * Gets the minimum change of the percentage for which a progress report of a job is published. The start (0%) and
+     * the completion (100%) are always published.
+     *
+     * @return the delta in percent, 0 publishes every report which passes the interval.
+     */
+    @Key("CC_TRANSCODE_PROGRESS_MIN_DELTA")
+    @DefaultValue("0.1")
+    double progress_min_delta();
+
+    /**
+     * Returns true if the media should be transcoded to a dir on the file store of its output dir, if the temporary dir
+     * is on another file store. Moving the result to the output dir is then a rename instead of a copy of the whole
+     * file. The dir ".clustercode-tmp" is created at the top of the output dir on that store.
+     *
+     * @return true if enabled.
+     */
+    @Key("CC_TRANSCODE_TEMP_ON_OUTPUT_STORE")
+    @DefaultValue("true")
+    boolean temporary_dir_on_output_store();
+
+    /**
+     * Gets the niceness of the transcoder process, which may be overridden by the profile field NICE. Linux only.
+     *
+     * @return the niceness from -20 to 19, empty to inherit it.
+     */
+    @Key("CC_TRANSCODE_NICE")
+    @DefaultValue("")
+    String process_niceness();
+
+    /**
+     * Gets the I/O scheduling class of the transcoder process, which may be overridden by the profile field IONICE.
+     * Linux only.
+     *
+     * @return "realtime", "best-effort" or "idle" (or 1 to 3), empty to inherit it.
+     */
+    @Key("CC_TRANSCODE_IONICE")
+    @DefaultValue("")
+    String process_io_class();
+
+    /**
+     * Gets the CPUs on which the transcoder process may run, which may be overridden by the profile field CPUS. Linux
+     * only.
+     *
+     * @return the CPU list as understood by taskset (e.g. "0-3,6"), empty for all.
+     */
+    @Key("CC_TRANSCODE_CPUS")
+    @DefaultValue("")
+    String process_cpu_affinity();
+
+    /**
+     * Gets the cgroup (v2) into which the transcoder process is moved, which may be overridden by the profile field
+     * CGROUP. The cgroup.procs file of the cgroup has to be writable.
+     *
+     * @return the path of the cgroup dir (e.g. "/sys/fs/cgroup/clustercode"), empty to keep the process in the cgroup
+     * of clustercode.
+     */
+    @Key("CC_TRANSCODE_CGROUP")
+    @DefaultValue("")
+    String process_cgroup();
+
+    /**
+     * Gets the file in which the figures of the recent transcodings are kept across restarts. Each node needs its own
+     * file.
+     *
+     * @return the path to the file.
+     */
+    @Key("CC_TRANSCODE_STATISTICS_FILE")
+    @DefaultValue("/var/tmp/clustercode/statistics.csv")
+    @ConverterClass(PathConverter.class)
+    Path statistics_file();
+
+    /**
+     * Gets the amount of recent transcodings per profile from which the statistics are computed. Older transcodings
+     * are forgotten.
+     *
+     * @return the amount of samples, at least 1.
+     */
+    @Key("CC_TRANSCODE_STATISTICS_SAMPLES")
+    @DefaultValue("50")
+    int statistics_samples();
+
+    /**
+     * Gets the maximum size of the output relative to the source. A transcoding is aborted if its output is projected
+     * to exceed the source by this factor. The media is then not selected again until it is released. The projection
+     * is the size of the temporary file divided by the progress.
+     *
+     * @return the ratio, 0 to disable.
+     */
+    @Key("CC_TRANSCODE_MAX_SIZE_RATIO")
+    @DefaultValue("1.0")
+    double max_size_ratio();
+
+    /**
+     * Gets the progress in percent from which the output size is projected. The size of early output is dominated by
+     * headers and the first scenes, which makes the projection unreliable.
+     *
+     * @return the percentage, between 0 and 100.
+     */
+    @Key("CC_TRANSCODE_SIZE_CHECK_MIN_PROGRESS")
+    @DefaultValue("20")
+    double size_check_min_progress();
+
+    /**
+     * Gets the interval in which the output size of the running jobs is projected.
+     *
+     * @return the interval in seconds, at least 1.
+     */
+    @Key("CC_TRANSCODE_SIZE_CHECK_INTERVAL")
+    @DefaultValue("60")
+    long size_check_interval();
+
+    /**
+     * Gets the time after which a job is considered stalled if neither its progress has advanced nor its output has
+     * grown. A stalled transcoder is terminated and the job fails, which releases its slot.
+     *
+     * @return the timeout in seconds, 0 to disable.
+     */
+    @Key("CC_TRANSCODE_STALL_TIMEOUT")
+    @DefaultValue("600")
+    long stall_timeout();
+
+    /**
+     * Gets the time a stalled transcoder is given to exit after SIGTERM before it is killed with SIGKILL.
+     *
+     * @return the timeout in seconds, at least 1.
+     */
+    @Key("CC_TRANSCODE_STALL_KILL_TIMEOUT")
+    @DefaultValue("30")
+    long stall_kill_timeout();
+
+    /**
+     * Gets the interval in which the running jobs are checked for stalls.
+     *
+     * @return the interval in seconds, at least 1.
+     */
+    @Key("CC_TRANSCODE_STALL_CHECK_INTERVAL")
+    @DefaultValue("30")
+    long stall_check_interval();
+
+    @Key("CC_MEDIA_OUTPUT_DIR")
+    @DefaultValue("/output")
+    @ConverterClass(PathConverter.class)
+    Path base_output_dir();
+
     @Key("CC_MEDIA_INPUT_DIR")
     @DefaultValue("/input")
     @ConverterClass(PathConverter.class)
@@ -0,0 +1,8 @@
+package clustercode.impl.transcode;
+
+public enum Transcoders {
+
+    FFMPEG,
+    HANDBRAKE
+
+}
@@ -3,7 +3,6 @@ package clustercode.impl.transcode;
 import clustercode.api.domain.TranscodeTask;
 import clustercode.api.event.RxEventBus;
 import clustercode.api.event.messages.ProfileSelectedMessage;
-import clustercode.api.transcode.TranscodingService;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.inject.Inject;
@@ -11,14 +10,14 @@ import javax.inject.Inject;
 @Slf4j
 public class TranscodingMessageHandler {
 
-    private final TranscodingService transcodingService;
+    private final SegmentedTranscoder segmentedTranscoder;
     private final RxEventBus eventBus;
 
     @Inject
-    TranscodingMessageHandler(TranscodingService transcodingService,
+    TranscodingMessageHandler(SegmentedTranscoder segmentedTranscoder,
                               RxEventBus eventBus) {
 
-        this.transcodingService = transcodingService;
+        this.segmentedTranscoder = segmentedTranscoder;
         this.eventBus = eventBus;
     }
 
@@ -29,6 +28,6 @@ public class TranscodingMessageHandler {
                 .profile(msg.getProfile())
                 .media(msg.getMedia())
                 .build();
-        transcodingService.transcode(task);
+        segmentedTranscoder.transcode(task);
     }
 }
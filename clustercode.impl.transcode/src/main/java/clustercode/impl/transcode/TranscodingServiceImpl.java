@@ -1,43 +1,90 @@
 package clustercode.impl.transcode;
 
-import clustercode.api.domain.Profile;
+import clustercode.api.domain.ArgumentTemplate;
+import clustercode.api.domain.Media;
 import clustercode.api.domain.TranscodeTask;
 import clustercode.api.event.messages.TranscodeBeginEvent;
 import clustercode.api.event.messages.TranscodeFinishedEvent;
+import clustercode.api.process.ExternalProcessService;
+import clustercode.api.process.ProcessConfiguration;
+import clustercode.api.transcode.JobEstimate;
+import clustercode.api.transcode.TranscodeJob;
 import clustercode.api.transcode.TranscodeReport;
 import clustercode.api.transcode.TranscodingService;
 import clustercode.impl.util.FileUtil;
+import clustercode.impl.util.system.ContainerLimits;
 import io.reactivex.BackpressureStrategy;
 import io.reactivex.Flowable;
 import io.reactivex.Observable;
 import io.reactivex.schedulers.Schedulers;
 import io.reactivex.subjects.PublishSubject;
 import io.reactivex.subjects.Subject;
-import lombok.Synchronized;
 import lombok.extern.slf4j.XSlf4j;
 
 import javax.inject.Inject;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.List;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 @XSlf4j
 public class TranscodingServiceImpl implements TranscodingService {
 
-    public static final String OUTPUT_PLACEHOLDER = "${OUTPUT}";
-    public static final String INPUT_PLACEHOLDER = "${INPUT}";
-
     private final TranscoderConfig transcoderConfig;
+    private final ExternalProcessService processService;
+    private final TranscodeStatisticsImpl statistics;
+    private final TemporaryDirSelector temporaryDirSelector;
+    private final ContainerLimits limits;
+    private final Clock clock;
     private final Subject<Object> publisher;
-
-    private boolean cancelRequested;
+    /**
+     * The events for the listeners, delivered in the order of publication on a single thread.
+     */
+    private final Observable<Object> events;
+    private volatile int slots;
+    /**
+     * The amount of slots which are reserved by accepted tasks, including tasks whose job has not been created yet.
+     */
+    private final AtomicInteger activeTasks = new AtomicInteger();
+    /**
+     * The tasks which arrived while all slots were taken, e.g. because two scans selected media for the same free
+     * slot. They are started in order of arrival as slots are released.
+     */
+    private final Queue<TranscodeTask> queue = new ArrayDeque<>();
+    private final Map<String, TranscodeJobImpl> jobs = new ConcurrentHashMap<>();
 
     @Inject
-    TranscodingServiceImpl(TranscoderConfig transcoderConfig) {
+    TranscodingServiceImpl(TranscoderConfig transcoderConfig,
+                           ExternalProcessService processService,
+                           TranscodeStatisticsImpl statistics,
+                           TemporaryDirSelector temporaryDirSelector,
+                           ContainerLimits limits,
+                           Clock clock) {
         this.transcoderConfig = transcoderConfig;
+        this.processService = processService;
+        this.statistics = statistics;
+        this.temporaryDirSelector = temporaryDirSelector;
+        this.limits = limits;
+        this.clock = clock;
+        this.slots = limitSlots(Math.max(1, transcoderConfig.transcode_slots()));
 
         this.publisher = PublishSubject.create().toSerialized();
+        // Separate observeOn() per event type would let the events of a job overtake each other. The thread is not
+        // shared with other components, so that a slow listener only delays the job events.
+        this.events = publisher.observeOn(Schedulers.from(Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "transcode-events");
+            thread.setDaemon(true);
+            return thread;
+        }))).share();
 
         publisher.ofType(TranscodeTask.class)
                  .observeOn(Schedulers.computation())
@@ -45,142 +92,473 @@ public class TranscodingServiceImpl implements TranscodingService {
                  .subscribe(this::prepareTranscode);
     }
 
-    @Synchronized
-    private void doTranscode(Path tempFile, TranscodeTask task) {
-
+    private void doTranscode(TranscodeJobImpl job) {
+        var task = job.getTask();
         var source = task.getMedia().getSourcePath();
-        log.info("Starting transcoding process: from {} to {}. This might take a while...", source, tempFile);
+        log.info("Starting transcoding job {}: from {} to {}. This might take a while...",
+            job.getId(), source, job.getTemporaryPath());
+
+        var throttle = ProgressThrottle.create(transcoderConfig, clock, publisher::onNext);
+        job.setThrottle(throttle);
+        ProcessConfiguration configuration;
+        try {
+            configuration = createProcessConfiguration(source, job);
+        } catch (IllegalArgumentException ex) {
+            onError(job, ex);
+            return;
+        }
+        jobs.put(job.getId(), job);
 
         publisher.onNext(TranscodeBeginEvent
             .builder()
+            .jobId(job.getId())
             .task(task)
             .build());
+        throttle.accept(new ProgressReport(job.getId(), 0, -1, -1, -1));
+
+        processService
+            .start(configuration, job::onProcessStarted)
+            .subscribe(
+                exitCode -> onProcessFinished(job, exitCode),
+                ex -> onError(job, ex));
+    }
+
+    private ProcessConfiguration createProcessConfiguration(Path source, TranscodeJobImpl job) {
+        var type = transcoderConfig.transcoder_type();
+        // The progress of the job is updated with every report, only the throttled reports are published.
+        var parser = ProgressParser.create(type, job.getId(), getDuration(job.getTask()), job::onReport);
+        return ProcessControls.apply(transcoderConfig, job.getTask().getProfile(), ProcessConfiguration.builder())
+            .executable(transcoderConfig.transcoder_executable())
+            .arguments(type == Transcoders.HANDBRAKE ?
+                HandbrakeProgressParser.ARGUMENTS : FfmpegProgressParser.ARGUMENTS)
+            .arguments(buildRangeArguments(type, job.getTask()))
+            .arguments(buildArguments(source, job.getTemporaryPath(), job.getTask()))
+            .stdoutObserver(parser::onStdout)
+            .errorObserver(parser::onStderr)
+            .build();
+    }
+
+    /**
+     * Gets the duration of the range to transcode in seconds from the task variables.
+     *
+     * @return the duration, 0 if the whole source is transcoded or the duration is not a number.
+     */
+    private double getDuration(TranscodeTask task) {
+        if (task.getVariables() == null) return 0;
+        var duration = task.getVariables().get(ArgumentTemplate.DURATION);
+        if (duration == null) return 0;
+        double value = ProgressParser.parseDecimal(duration, 0, duration.length());
+        return Double.isNaN(value) ? 0 : value;
     }
 
-    private List<String> buildArguments(Path source, Path target, TranscodeTask task) {
-        return task.getProfile()
-                   .getArguments()
-                   .stream()
-                   .map(s -> replaceInput(s, source))
-                   .map(s -> replaceOutput(s, target))
-                   .collect(Collectors.toList());
+    /**
+     * Builds the arguments which restrict the transcoder to the range of the task. For ffmpeg these are input options,
+     * which seek to the start before decoding.
+     *
+     * @return the arguments, empty if the task transcodes the whole source.
+     */
+    List<String> buildRangeArguments(Transcoders type, TranscodeTask task) {
+        var variables = task.getVariables();
+        if (variables == null || !variables.containsKey(ArgumentTemplate.START)) return Collections.emptyList();
+        var start = variables.get(ArgumentTemplate.START);
+        var duration = variables.get(ArgumentTemplate.DURATION);
+        var arguments = new ArrayList<String>(4);
+        if (type == Transcoders.HANDBRAKE) {
+            arguments.add("--start-at");
+            arguments.add("seconds:" + start);
+            if (duration != null) {
+                arguments.add("--stop-at");
+                arguments.add("seconds:" + duration);
+            }
+        } else {
+            arguments.add("-ss");
+            arguments.add(start);
+            if (duration != null) {
+                arguments.add("-t");
+                arguments.add(duration);
+            }
+        }
+        return arguments;
+    }
+
+    /**
+     * Renders the compiled profile arguments of the given task. Variables are resolved from the built-in values, the
+     * variables of the task and the fields of the profile, in this order. ${START} and ${SEGMENT} default to 0.
+     */
+    List<String> buildArguments(Path source, Path target, TranscodeTask task) {
+        var input = transcoderConfig.base_input_dir().resolve(source).toString();
+        var output = target.toString();
+        var threads = String.valueOf(getThreads());
+        var tempDir = transcoderConfig.temporary_dir().toString();
+        var variables = task.getVariables() == null ? Collections.<String, String>emptyMap() : task.getVariables();
+        var fields = task.getProfile().getFields() == null ?
+                Collections.<String, String>emptyMap() : task.getProfile().getFields();
+        Function<String, String> resolver = name -> {
+            switch (name) {
+                case ArgumentTemplate.INPUT:
+                    return input;
+                case ArgumentTemplate.OUTPUT:
+                    return output;
+                case ArgumentTemplate.THREADS:
+                    return threads;
+                case ArgumentTemplate.TEMP_DIR:
+                    return tempDir;
+                case ArgumentTemplate.START:
+                case ArgumentTemplate.SEGMENT:
+                    // Tasks which transcode the whole source start at 0 and are the only segment.
+                    return variables.getOrDefault(name, "0");
+                default:
+                    return variables.getOrDefault(name, fields.get(name));
+            }
+        };
+        var templates = task.getProfile().getTemplates();
+        var arguments = new ArrayList<String>(templates.size());
+        for (ArgumentTemplate template : templates) {
+            arguments.add(template.render(resolver));
+        }
+        return arguments;
     }
 
-    private void onSuccess(Path tempFile, TranscodeTask task) {
-        log.entry(tempFile, task);
+    private void onProcessFinished(TranscodeJobImpl job, int exitCode) {
+        log.entry(job, exitCode);
+        if (!job.onProcessFinished()) return;
+        var task = job.getTask();
         var event = TranscodeFinishedEvent
             .builder()
-            .temporaryPath(tempFile)
+            .jobId(job.getId())
+            .task(task)
+            .temporaryPath(job.getTemporaryPath())
             .media(task.getMedia())
             .profile(task.getProfile())
-            .successful(true)
-            .cancelled(cancelRequested)
+            .exitCode(exitCode)
+            .successful(exitCode == 0 && !job.isCancelRequested())
+            .cancelled(job.isCancelRequested())
+            .notWorthIt(job.isNotWorthIt())
             .build();
 
-        cancelRequested = false;
+        releaseSlot(job);
+        if (event.isSuccessful() && !isSegment(task)) recordStatistics(job);
 
-        if (event.isSuccessful()) log.info("Transcode finished.");
+        if (event.isSuccessful()) log.info("Transcode of job {} finished.", job.getId());
         else {
-            log.info("Transcode {}.", event.isCancelled() ? "cancelled" : "failed");
+            log.info("Transcode of job {} {}.", job.getId(), event.isNotWorthIt() ? "aborted as not worth it" :
+                event.isCancelled() ? "cancelled" : "failed");
         }
         publisher.onNext(event);
     }
 
-    private void onError(Throwable ex) {
-        log.error(ex.toString());
+    private void recordStatistics(TranscodeJobImpl job) {
+        var task = job.getTask();
+        var source = transcoderConfig.base_input_dir().resolve(task.getMedia().getSourcePath());
+        try {
+            statistics.record(task.getProfile(), Files.size(source), Files.size(job.getTemporaryPath()),
+                    Duration.between(job.getStarted(), clock.instant()), job.getAverageFps(), job.getAverageSpeed());
+        } catch (IOException e) {
+            log.warn("Could not record statistics of {}: {}", source, e.toString());
+        }
+    }
+
+    private void onError(TranscodeJobImpl job, Throwable ex) {
+        if (!job.onProcessFinished()) return;
+        var task = job.getTask();
+        log.error("Could not transcode {}: {}", task.getMedia(), ex.toString());
         var event = TranscodeFinishedEvent
             .builder()
+            .jobId(job.getId())
+            .task(task)
+            .media(task.getMedia())
+            .profile(task.getProfile())
+            .exitCode(-1)
             .successful(false)
+            .cancelled(job.isCancelRequested())
+            .notWorthIt(job.isNotWorthIt())
             .build();
-        cancelRequested = false;
+        releaseSlot(job);
         publisher.onNext(event);
     }
 
+    /**
+     * Terminates the transcoder of a stalled job, which then fails. If the process does not exit even after being
+     * killed (e.g. blocked in a read from a dead network share), the job is finished as failed anyway, so that its slot
+     * and its reservation in the cluster are released.
+     *
+     * @param job     the stalled job, not null.
+     * @param timeout the time to wait after SIGTERM and SIGKILL each.
+     * @param unit    the unit of {@code timeout}, not null.
+     */
+    void abortStalled(TranscodeJobImpl job, long timeout, TimeUnit unit) {
+        if (job.terminate(timeout, unit)) return;
+        log.error("Transcoder process of job {} could not be killed, releasing its slot.", job.getId());
+        onProcessFinished(job, -1);
+    }
+
+    private void releaseSlot(TranscodeJobImpl job) {
+        jobs.remove(job.getId());
+        activeTasks.decrementAndGet();
+        startQueued();
+    }
+
+    private void startQueued() {
+        var next = new ArrayList<TranscodeTask>();
+        synchronized (queue) {
+            while (activeTasks.get() < slots && !queue.isEmpty()) {
+                next.add(queue.poll());
+                activeTasks.incrementAndGet();
+            }
+        }
+        next.forEach(task -> {
+            log.info("Starting queued transcoding of {}.", task.getMedia());
+            publisher.onNext(task);
+        });
+    }
+
+    static boolean isSegment(TranscodeTask task) {
+        return task.getVariables() != null && task.getVariables().containsKey(ArgumentTemplate.SEGMENT);
+    }
+
+    /**
+     * Gets the name of the file to which the given task is transcoded. Segments get a ".partN" suffix before the
+     * extension.
+     */
+    static String getTemporaryFileName(TranscoderConfig config, TranscodeTask task) {
+        var baseName = FileUtil.getFileNameWithoutExtension(task.getMedia().getSourcePath());
+        var extension = task.getProfile().getFields().getOrDefault("FORMAT", config.default_video_extension());
+        if (isSegment(task)) return baseName + ".part" + task.getVariables().get(ArgumentTemplate.SEGMENT) + extension;
+        return baseName + extension;
+    }
+
     private void prepareTranscode(TranscodeTask task) {
         log.entry(task);
-        var tempFile = transcoderConfig
-            .temporary_dir()
-            .resolve(FileUtil.getFileNameWithoutExtension(
-                task.getMedia().getSourcePath()) + getPropertyOrDefault(
-                task.getProfile(), "FORMAT", transcoderConfig.default_video_extension())
-            );
+        var id = UUID.randomUUID().toString();
+        var fileName = getTemporaryFileName(transcoderConfig, task);
+        var tempDir = temporaryDirSelector.getTemporaryDir(task);
+        var tempFile = tempDir.resolve(fileName);
+        if (isTemporaryPathInUse(tempFile)) {
+            // Another slot writes a file with the same name (e.g. same file name in a different dir).
+            tempFile = tempDir.resolve(id).resolve(fileName);
+        }
+        var job = new TranscodeJobImpl(id, task, tempFile, clock.instant());
+        try {
+            Files.createDirectories(tempFile.getParent());
+        } catch (IOException e) {
+            onError(job, e);
+            return;
+        }
+        doTranscode(job);
+    }
+
+    /**
+     * Reduces the given amount of slots to the CPUs of the CPU quota, if there is one. More jobs than CPUs would only
+     * get the process throttled by the container runtime.
+     */
+    int limitSlots(int slots) {
+        if (!limits.getCpuQuota().isPresent() || slots <= limits.getEffectiveCpus()) return slots;
+        log.warn("Reducing transcoding slots from {} to {}, as the CPU quota is {} CPUs.",
+            slots, limits.getEffectiveCpus(), limits.getCpuQuota().getAsDouble());
+        return limits.getEffectiveCpus();
+    }
 
-        doTranscode(tempFile, task);
+    /**
+     * Gets the value of ${THREADS}: the configured amount or, if there is a CPU quota, the CPUs of the quota divided
+     * by the slots. Without quota, 0 lets the transcoder use all cores.
+     */
+    int getThreads() {
+        if (transcoderConfig.threads() > 0 || !limits.getCpuQuota().isPresent()) return transcoderConfig.threads();
+        return Math.max(1, limits.getEffectiveCpus() / slots);
     }
 
+    private boolean isTemporaryPathInUse(Path tempFile) {
+        return jobs.values().stream().anyMatch(job -> job.getTemporaryPath().equals(tempFile));
+    }
+
+    /**
+     * Starts the given task if a slot is free, otherwise the task is queued until a slot is released. This enforces
+     * the slots even if more media have been selected than there are slots.
+     *
+     * @param task the task, not null.
+     */
     @Override
     public void transcode(TranscodeTask task) {
+        synchronized (queue) {
+            if (activeTasks.get() >= slots) {
+                log.info("All {} transcoding slots are taken, queueing {}.", slots, task.getMedia());
+                queue.add(task);
+                return;
+            }
+            activeTasks.incrementAndGet();
+        }
         publisher.onNext(task);
     }
 
     @Override
-    @Synchronized
+    public int getAvailableSlots() {
+        synchronized (queue) {
+            return Math.max(0, slots - activeTasks.get() - queue.size());
+        }
+    }
+
+    /**
+     * @return the amount of jobs which may run concurrently.
+     */
+    int getSlots() {
+        return slots;
+    }
+
+    /**
+     * Sets the amount of jobs which may run concurrently. Running jobs are not affected if the amount is reduced, no
+     * new jobs are started until enough of them have finished. Queued tasks are started if the amount is increased.
+     *
+     * @param slots the amount of slots, at least 1.
+     */
+    void setSlots(int slots) {
+        this.slots = Math.max(1, slots);
+        startQueued();
+    }
+
+    Collection<TranscodeJobImpl> getJobs() {
+        return jobs.values();
+    }
+
+    @Override
+    public Collection<TranscodeJob> getActiveJobs() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    @Override
+    public List<JobEstimate> getEstimates() {
+        var now = clock.instant();
+        var result = new ArrayList<JobEstimate>(jobs.size());
+        for (TranscodeJobImpl job : jobs.values()) {
+            var elapsed = Duration.between(job.getStarted(), now);
+            var percentage = job.getProgress().orElse(-1);
+            result.add(JobEstimate.builder()
+                .jobId(job.getId())
+                .sourcePath(job.getTask().getMedia().getSourcePath())
+                .percentage(percentage)
+                .elapsed(elapsed)
+                .remaining(estimateRemaining(job, elapsed, percentage))
+                .build());
+        }
+        return result;
+    }
+
+    private Duration estimateRemaining(TranscodeJobImpl job, Duration elapsed, double percentage) {
+        if (job.getRemainingSeconds() >= 0) return Duration.ofSeconds(job.getRemainingSeconds());
+        if (percentage >= 100) return Duration.ZERO;
+        if (percentage > 0) return Duration.ofMillis(Math.round(elapsed.toMillis() * (100 - percentage) / percentage));
+        var throughput = job.getTask().getProfile() == null ?
+            OptionalDouble.empty() : statistics.getThroughput(job.getTask().getProfile());
+        if (!throughput.isPresent() || throughput.getAsDouble() <= 0) return null;
+        try {
+            var source = transcoderConfig.base_input_dir().resolve(job.getTask().getMedia().getSourcePath());
+            long millis = Math.round(Files.size(source) * 1000d / throughput.getAsDouble()) - elapsed.toMillis();
+            return Duration.ofMillis(Math.max(0, millis));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
     public boolean cancelTranscode() {
-        log.debug("Cancelling task...");
-        this.cancelRequested = true;
-        return true;
+        log.debug("Cancelling all jobs...");
+        cancelQueued(task -> true);
+        boolean cancelled = true;
+        for (TranscodeJobImpl job : jobs.values()) {
+            cancelled &= job.cancel();
+        }
+        return cancelled;
+    }
+
+    @Override
+    public boolean cancelTranscode(String jobId) {
+        var job = jobs.get(jobId);
+        return job != null && job.cancel();
+    }
+
+    @Override
+    public boolean cancelTranscode(Media media) {
+        boolean cancelled = cancelQueued(task -> media.equals(task.getMedia()));
+        for (TranscodeJobImpl job : jobs.values()) {
+            if (media.equals(job.getTask().getMedia())) cancelled |= job.cancel();
+        }
+        return cancelled;
+    }
+
+    /**
+     * Removes the matching tasks from the queue and publishes a cancelled event for each, so that their media is
+     * released like the media of a cancelled job.
+     *
+     * @return true if at least one task has been removed.
+     */
+    private boolean cancelQueued(Predicate<TranscodeTask> filter) {
+        var removed = new ArrayList<TranscodeTask>();
+        synchronized (queue) {
+            queue.removeIf(task -> filter.test(task) && removed.add(task));
+        }
+        removed.forEach(task -> publisher.onNext(TranscodeFinishedEvent
+            .builder()
+            .task(task)
+            .media(task.getMedia())
+            .profile(task.getProfile())
+            .exitCode(-1)
+            .successful(false)
+            .cancelled(true)
+            .build()));
+        return !removed.isEmpty();
+    }
+
+    @Override
+    public OptionalDouble getProgress(Media media) {
+        return jobs.values().stream()
+                   .filter(job -> media.equals(job.getTask().getMedia()))
+                   .map(TranscodeJobImpl::getProgress)
+                   .filter(OptionalDouble::isPresent)
+                   .findFirst()
+                   .orElse(OptionalDouble.empty());
     }
 
     @Override
     public Flowable<TranscodeBeginEvent> onTranscodeBegin() {
-        return publisher
-            .subscribeOn(Schedulers.computation())
-            .observeOn(Schedulers.computation())
+        return events
             .ofType(TranscodeBeginEvent.class)
             .toFlowable(BackpressureStrategy.BUFFER);
     }
 
     @Override
     public Flowable<TranscodeFinishedEvent> onTranscodeFinished() {
-        return publisher
-            .subscribeOn(Schedulers.computation())
-            .observeOn(Schedulers.computation())
+        return events
             .ofType(TranscodeFinishedEvent.class)
             .toFlowable(BackpressureStrategy.BUFFER);
     }
 
     @Override
     public Observable<TranscodeReport> onProgressUpdated() {
-        throw new UnsupportedOperationException("not implemented");
+        return events
+            .ofType(TranscodeReport.class);
     }
 
     @Override
     public TranscodingService onProgressUpdated(Consumer<TranscodeReport> listener) {
-        publisher
+        events
             .ofType(TranscodeReport.class)
-            .observeOn(Schedulers.computation())
             .subscribe(listener::accept);
         return this;
     }
 
     @Override
     public TranscodingService onTranscodeFinished(Consumer<TranscodeFinishedEvent> listener) {
-        publisher
+        events
             .ofType(TranscodeFinishedEvent.class)
-            .observeOn(Schedulers.computation())
             .subscribe(listener::accept);
         return this;
     }
 
     @Override
     public TranscodingService onTranscodeBegin(Consumer<TranscodeBeginEvent> listener) {
-        publisher
+        events
             .ofType(TranscodeBeginEvent.class)
-            .observeOn(Schedulers.computation())
             .subscribe(listener::accept);
         return this;
     }
 
-    private String getPropertyOrDefault(Profile profile, String key, String defaultValue) {
-        return profile.getFields().getOrDefault(key, defaultValue);
-    }
-
-    String replaceOutput(String s, Path path) {
-        return s.replace(OUTPUT_PLACEHOLDER, path.toString());
-    }
-
-    String replaceInput(String s, Path path) {
-        return s.replace(INPUT_PLACEHOLDER, transcoderConfig.base_input_dir().resolve(path).toString());
-    }
-
 }
@@ -0,0 +1,221 @@
+package clustercode.impl.transcode;
+
+import clustercode.api.event.RxEventBus;
+import clustercode.api.event.messages.ScanMediaCommand;
+import clustercode.impl.util.InvalidConfigurationException;
+import clustercode.impl.util.system.SystemLoad;
+import clustercode.impl.util.system.SystemLoadSampler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalDouble;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.*;
+
+public class AdaptiveSlotControllerTest {
+
+    @Mock
+    private TranscoderConfig config;
+    @Mock
+    private TranscodingServiceImpl transcodingService;
+    @Mock
+    private SystemLoadSampler sampler;
+    @Mock
+    private RxEventBus eventBus;
+
+    private List<TranscodeJobImpl> jobs = new ArrayList<>();
+    private AdaptiveSlotController subject;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        when(config.max_transcode_slots()).thenReturn(4);
+        when(config.min_transcode_slots()).thenReturn(1);
+        when(config.slots_sample_interval()).thenReturn(30L);
+        when(config.slots_target_cpu_utilization()).thenReturn(85d);
+        when(config.slots_max_run_queue()).thenReturn(1.5);
+        when(config.slots_hysteresis()).thenReturn(2);
+        when(transcodingService.getJobs()).thenReturn(jobs);
+        when(transcodingService.limitSlots(anyInt())).thenAnswer(invocation -> invocation.getArguments()[0]);
+        givenSlots(2);
+        subject = new AdaptiveSlotController(config, transcodingService, eventBus, sampler);
+    }
+
+    private void givenSlots(int slots) {
+        when(transcodingService.getSlots()).thenReturn(slots);
+    }
+
+    private void givenLoad(double cpu, double runQueue) {
+        when(sampler.getLoad(any())).thenReturn(SystemLoad.builder()
+                .sampled(Instant.now())
+                .cpuUtilization(OptionalDouble.of(cpu))
+                .runQueuePerCpu(OptionalDouble.of(runQueue))
+                .build());
+    }
+
+    private void givenJobs(double... fps) {
+        jobs.clear();
+        for (double value : fps) {
+            var job = mock(TranscodeJobImpl.class);
+            when(job.getFps()).thenReturn(value);
+            jobs.add(job);
+        }
+    }
+
+    @Test
+    public void evaluate_ShouldAddSlot_IfAllSlotsBusyAndCpuBelowTarget() throws Exception {
+        givenLoad(50, 0.5);
+        givenJobs(30, 30);
+
+        subject.evaluate();
+        subject.evaluate();
+
+        verify(transcodingService).setSlots(3);
+        verify(eventBus).emitAsync(any(ScanMediaCommand.class));
+        assertThat(subject.getStatistics().getIncreases()).isEqualTo(1);
+    }
+
+    @Test
+    public void evaluate_ShouldNotAdjust_IfSamplesDoNotAgree() throws Exception {
+        givenLoad(50, 0.5);
+        givenJobs(30, 30);
+        subject.evaluate();
+
+        givenLoad(95, 0.5);
+        subject.evaluate();
+        givenLoad(50, 0.5);
+        subject.evaluate();
+
+        verify(transcodingService, never()).setSlots(anyInt());
+    }
+
+    @Test
+    public void evaluate_ShouldNotAddSlot_IfSlotIsIdle() throws Exception {
+        givenLoad(20, 0.2);
+        givenJobs(30);
+
+        subject.evaluate();
+        subject.evaluate();
+
+        verify(transcodingService, never()).setSlots(anyInt());
+    }
+
+    @Test
+    public void evaluate_ShouldNotAddSlot_IfMaximumReached() throws Exception {
+        givenSlots(4);
+        givenLoad(20, 0.2);
+        givenJobs(30, 30, 30, 30);
+
+        subject.evaluate();
+        subject.evaluate();
+
+        verify(transcodingService, never()).setSlots(anyInt());
+    }
+
+    @Test
+    public void evaluate_ShouldRemoveSlots_IfRunQueueExceedsThreshold() throws Exception {
+        givenSlots(4);
+        givenLoad(100, 3);
+        givenJobs(10, 10, 10, 10);
+
+        subject.evaluate();
+        subject.evaluate();
+
+        verify(transcodingService).setSlots(3);
+        verify(eventBus, never()).emitAsync(any());
+        assertThat(subject.getStatistics().getDecreases()).isEqualTo(1);
+    }
+
+    @Test
+    public void evaluate_ShouldNotRemoveSlots_IfMinimumReached() throws Exception {
+        givenSlots(1);
+        givenLoad(100, 3);
+        givenJobs(10);
+
+        subject.evaluate();
+        subject.evaluate();
+
+        verify(transcodingService, never()).setSlots(anyInt());
+    }
+
+    @Test
+    public void evaluate_ShouldRemoveSlot_IfThroughputDroppedAfterIncrease() throws Exception {
+        givenLoad(50, 0.5);
+        givenJobs(30, 30);
+        subject.evaluate();
+        subject.evaluate();
+        verify(transcodingService).setSlots(3);
+
+        givenSlots(3);
+        givenLoad(80, 1);
+        givenJobs(15, 15, 15);
+        subject.evaluate();
+        subject.evaluate();
+
+        verify(transcodingService).setSlots(2);
+    }
+
+    @Test
+    public void getStatistics_ShouldReturnLastSample() throws Exception {
+        givenLoad(50, 0.5);
+        givenJobs(30, 20);
+
+        subject.evaluate();
+
+        var result = subject.getStatistics();
+        assertThat(result.getSlots()).isEqualTo(2);
+        assertThat(result.getMinSlots()).isEqualTo(1);
+        assertThat(result.getMaxSlots()).isEqualTo(4);
+        assertThat(result.getCpuUtilization()).isEqualTo(50);
+        assertThat(result.getRunQueuePerCpu()).isEqualTo(0.5);
+        assertThat(result.getThroughput()).isEqualTo(50);
+    }
+
+    @Test
+    public void start_ShouldNotAdjustSlots_IfDisabled() throws Exception {
+        when(config.max_transcode_slots()).thenReturn(0);
+        subject = new AdaptiveSlotController(config, transcodingService, eventBus, sampler);
+
+        assertThat(subject.start().isDisposed()).isTrue();
+        verify(transcodingService, never()).setSlots(anyInt());
+    }
+
+    @Test
+    public void start_ShouldClampSlots_IfAboveMaximum() throws Exception {
+        givenSlots(6);
+
+        subject.start().dispose();
+
+        verify(transcodingService).setSlots(4);
+    }
+
+    @Test
+    public void start_ShouldClampSlots_IfAboveCpuQuota() throws Exception {
+        givenSlots(4);
+        when(transcodingService.limitSlots(anyInt())).thenReturn(3);
+        subject = new AdaptiveSlotController(config, transcodingService, eventBus, sampler);
+
+        subject.start().dispose();
+
+        verify(transcodingService).setSlots(3);
+        assertThat(subject.getStatistics().getMaxSlots()).isEqualTo(3);
+    }
+
+    @Test
+    public void ctor_ShouldThrowException_IfMaximumBelowMinimum() throws Exception {
+        when(config.min_transcode_slots()).thenReturn(3);
+        when(config.max_transcode_slots()).thenReturn(2);
+
+        assertThatExceptionOfType(InvalidConfigurationException.class).isThrownBy(() ->
+                new AdaptiveSlotController(config, transcodingService, eventBus, sampler));
+    }
+}
@@ -0,0 +1,90 @@
+package clustercode.impl.transcode;
+
+import clustercode.api.transcode.TranscodeReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class FfmpegProgressParserTest {
+
+    private List<TranscodeReport> reports;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        reports = new ArrayList<>();
+    }
+
+    private void feed(ProgressParser parser, String... lines) {
+        for (String line : lines) {
+            parser.onStdout(line);
+        }
+    }
+
+    @Test
+    public void onStdout_ShouldReportPercentage_IfDurationIsKnown() throws Exception {
+        var subject = new FfmpegProgressParser("job", 200, reports::add);
+
+        feed(subject, "frame=100", "fps=25.50", "bitrate=1000.0kbits/s", "out_time_us=50000000",
+                "out_time_ms=50000000", "out_time=00:00:50.000000", "speed=2.5x", "progress=continue");
+
+        assertThat(reports).hasSize(1);
+        ProgressReport report = (ProgressReport) reports.get(0);
+        assertThat(report.getPercentage()).isCloseTo(25d, within(0.001));
+        assertThat(report.getFps()).isCloseTo(25.5d, within(0.001));
+        assertThat(report.getSpeed()).isCloseTo(2.5d, within(0.001));
+        assertThat(report.getRemainingSeconds()).isEqualTo(60);
+    }
+
+    @Test
+    public void onStdout_ShouldReportOneReport_PerProgressBlock() throws Exception {
+        var subject = new FfmpegProgressParser("job", 100, reports::add);
+
+        feed(subject, "out_time_ms=10000000", "progress=continue", "out_time_ms=20000000", "progress=continue");
+
+        assertThat(reports).extracting(TranscodeReport::getPercentage).containsExactly(10d, 20d);
+    }
+
+    @Test
+    public void onStdout_ShouldReportUnknownPercentage_IfDurationIsUnknown() throws Exception {
+        var subject = new FfmpegProgressParser("job", 0, reports::add);
+
+        feed(subject, "out_time_us=N/A", "speed=N/A", "progress=continue");
+
+        ProgressReport report = (ProgressReport) reports.get(0);
+        assertThat(report.getPercentage()).isEqualTo(-1d);
+        assertThat(report.getRemainingSeconds()).isEqualTo(-1);
+    }
+
+    @Test
+    public void onStdout_ShouldReportCompletion_IfProgressEnds() throws Exception {
+        var subject = new FfmpegProgressParser("job", 0, reports::add);
+
+        feed(subject, "progress=end");
+
+        assertThat(reports).extracting(TranscodeReport::getPercentage).containsExactly(100d);
+    }
+
+    @Test
+    public void onStderr_ShouldParseDuration_OfInput() throws Exception {
+        var subject = new FfmpegProgressParser("job", 0, reports::add);
+
+        subject.onStderr("Input #0, matroska,webm, from 'video.mkv':");
+        subject.onStderr("  Duration: 01:02:03.50, start: 0.000000, bitrate: 4000 kb/s");
+        subject.onStderr("  Duration: 00:00:01.00, start: 0.000000, bitrate: 4000 kb/s");
+        feed(subject, "out_time_us=3723500000", "progress=continue");
+
+        assertThat(reports.get(0).getPercentage()).isCloseTo(100d, within(0.001));
+    }
+
+    @Test
+    public void parseDecimal_ShouldParseNumber_WithinRange() throws Exception {
+        assertThat(ProgressParser.parseDecimal("x= 12.25x", 2, 9)).isCloseTo(12.25, within(0.0001));
+        assertThat(ProgressParser.parseDecimal("-3,", 0, 3)).isEqualTo(-3d);
+        assertThat(ProgressParser.parseDecimal("N/A", 0, 3)).isNaN();
+    }
+}
@@ -0,0 +1,90 @@
+package clustercode.impl.transcode;
+
+import clustercode.api.transcode.TranscodeReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class HandbrakeProgressParserTest {
+
+    private List<TranscodeReport> reports;
+    private HandbrakeProgressParser subject;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        reports = new ArrayList<>();
+        subject = new HandbrakeProgressParser("job", reports::add);
+    }
+
+    private void feed(String... lines) {
+        for (String line : lines) {
+            subject.onStdout(line);
+        }
+    }
+
+    private void feedWorking(int pass, int passCount, String progress) {
+        feed("Progress: {",
+                "    \"State\": \"WORKING\",",
+                "    \"Working\": {",
+                "        \"ETASeconds\": 42,",
+                "        \"Hours\": 0,",
+                "        \"Pass\": " + pass + ",",
+                "        \"PassCount\": " + passCount + ",",
+                "        \"PassID\": -1,",
+                "        \"Progress\": " + progress + ",",
+                "        \"Rate\": 88.0,",
+                "        \"RateAvg\": 90.5,",
+                "        \"SequenceID\": 1",
+                "    }",
+                "}");
+    }
+
+    @Test
+    public void onStdout_ShouldReportProgress_OfWorkingBlock() throws Exception {
+        feedWorking(1, 1, "0.25");
+
+        assertThat(reports).hasSize(1);
+        ProgressReport report = (ProgressReport) reports.get(0);
+        assertThat(report.getPercentage()).isCloseTo(25d, within(0.001));
+        assertThat(report.getFps()).isCloseTo(90.5d, within(0.001));
+        assertThat(report.getRemainingSeconds()).isEqualTo(42);
+    }
+
+    @Test
+    public void onStdout_ShouldSpanPercentage_OverAllPasses() throws Exception {
+        feedWorking(2, 2, "0.5");
+
+        assertThat(reports.get(0).getPercentage()).isCloseTo(75d, within(0.001));
+    }
+
+    @Test
+    public void onStdout_ShouldIgnoreScanningBlocksAndLogLines() throws Exception {
+        feed("[12:00:00] hb_init: starting libhb thread",
+                "Progress: {",
+                "    \"Scanning\": {",
+                "        \"Progress\": 0.5,",
+                "        \"Title\": 1",
+                "    },",
+                "    \"State\": \"SCANNING\"",
+                "}");
+
+        assertThat(reports).isEmpty();
+    }
+
+    @Test
+    public void onStdout_ShouldReportCompletion_IfWorkIsDone() throws Exception {
+        feed("Progress: {",
+                "    \"State\": \"WORKDONE\",",
+                "    \"WorkDone\": {",
+                "        \"Error\": 0",
+                "    }",
+                "}");
+
+        assertThat(reports).extracting(TranscodeReport::getPercentage).containsExactly(100d);
+    }
+}
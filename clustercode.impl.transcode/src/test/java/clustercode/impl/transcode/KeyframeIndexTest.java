@@ -0,0 +1,31 @@
+package clustercode.impl.transcode;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class KeyframeIndexTest {
+
+    private KeyframeIndex parse(String output) throws Exception {
+        return KeyframeIndex.parse(new BufferedReader(new StringReader(output)));
+    }
+
+    @Test
+    public void parse_ShouldReadKeyframesAndDuration() throws Exception {
+        var result = parse("0.000000,K_\n0.040000,__\n2.250000,K_\n1.960000,__\nN/A,K_\n4.500000,K_\n120.500000\n");
+
+        assertThat(result.getKeyframes()).containsExactly(0d, 2.25d, 4.5d);
+        assertThat(result.getDuration()).isEqualTo(120.5d);
+    }
+
+    @Test
+    public void parse_ShouldUseLastKeyframe_IfDurationIsMissing() throws Exception {
+        var result = parse("4.0,K_\n0.0,K_\n");
+
+        assertThat(result.getKeyframes()).containsExactly(0d, 4d);
+        assertThat(result.getDuration()).isEqualTo(4d);
+    }
+}
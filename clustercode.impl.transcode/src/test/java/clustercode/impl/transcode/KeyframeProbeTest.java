@@ -0,0 +1,88 @@
+package clustercode.impl.transcode;
+
+import clustercode.impl.process.ExternalProcessServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@EnabledOnOs({OS.LINUX, OS.MAC})
+public class KeyframeProbeTest {
+
+    @Mock
+    private TranscoderConfig config;
+
+    private Path dir;
+    private KeyframeProbe subject;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        dir = Files.createTempDirectory("clustercode");
+        when(config.temporary_dir()).thenReturn(dir);
+        subject = new KeyframeProbe(config, new ExternalProcessServiceImpl());
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    /**
+     * Creates a stub of ffprobe which writes the given lines to the file given with "-o".
+     */
+    private void createStubProbe(int exitCode, String... lines) throws Exception {
+        Path script = dir.resolve("ffprobe.sh");
+        StringBuilder output = new StringBuilder();
+        for (String line : lines) {
+            output.append(line).append("\\n");
+        }
+        Files.write(script, Arrays.asList(
+                "#!/bin/sh",
+                "while [ $# -gt 0 ]; do",
+                "  if [ \"$1\" = \"-o\" ]; then out=\"$2\"; fi",
+                "  shift",
+                "done",
+                "printf '" + output + "' > \"$out\"",
+                "exit " + exitCode));
+        Files.setPosixFilePermissions(script, PosixFilePermissions.fromString("rwxr-xr-x"));
+        when(config.probe_executable()).thenReturn(script);
+    }
+
+    @Test
+    public void probe_ShouldReadKeyframes_FromOutputFile() throws Exception {
+        createStubProbe(0, "0.000000,K_", "0.040000,__", "30.000000,K_", "61.500000");
+
+        KeyframeIndex result = subject.probe(dir.resolve("movie.mkv")).blockingGet();
+
+        assertThat(result.getKeyframes()).containsExactly(0d, 30d);
+        assertThat(result.getDuration()).isEqualTo(61.5d);
+        try (Stream<Path> files = Files.list(dir)) {
+            assertThat(files).extracting(file -> file.getFileName().toString()).containsExactly("ffprobe.sh");
+        }
+    }
+
+    @Test
+    public void probe_ShouldFail_IfProbeExitsWithError() throws Exception {
+        createStubProbe(1);
+
+        assertThat(subject.probe(dir.resolve("movie.mkv")).test().awaitDone(5, TimeUnit.SECONDS)
+                .errorCount()).isEqualTo(1);
+    }
+}
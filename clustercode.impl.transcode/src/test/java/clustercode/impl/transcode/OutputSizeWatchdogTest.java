@@ -0,0 +1,145 @@
+package clustercode.impl.transcode;
+
+import clustercode.api.domain.ArgumentTemplate;
+import clustercode.api.domain.Media;
+import clustercode.api.domain.TranscodeTask;
+import clustercode.api.process.RunningExternalProcess;
+import clustercode.impl.util.InvalidConfigurationException;
+import clustercode.test.util.FileBasedUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Files;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.when;
+
+public class OutputSizeWatchdogTest implements FileBasedUnitTest {
+
+    @Mock
+    private TranscoderConfig config;
+    @Mock
+    private TranscodingServiceImpl transcodingService;
+    @Mock
+    private RunningExternalProcess process;
+    @Mock
+    private Clock clock;
+
+    private Instant started = Instant.parse("2018-01-01T08:00:00Z");
+    private List<TranscodeJobImpl> jobs = new ArrayList<>();
+    private OutputSizeWatchdog subject;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        setupFileSystem();
+        when(config.base_input_dir()).thenReturn(createDirectory(getPath("input")));
+        when(config.max_size_ratio()).thenReturn(1.0);
+        when(config.size_check_min_progress()).thenReturn(20d);
+        when(config.size_check_interval()).thenReturn(60L);
+        when(transcodingService.getJobs()).thenReturn(jobs);
+        when(clock.instant()).thenReturn(started.plus(Duration.ofMinutes(10)));
+        when(process.destroyNowWithTimeout(anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(process.getCpuTime()).thenReturn(Optional.of(Duration.ofMinutes(40)));
+        createDirectory(getPath("tmp"));
+        Files.write(getPath("input", "movie.mkv"), new byte[1000]);
+        subject = new OutputSizeWatchdog(config, transcodingService, clock);
+    }
+
+    private TranscodeJobImpl givenJob(TranscodeTask task, double progress, int outputSize) throws Exception {
+        var job = new TranscodeJobImpl("id", task, getPath("tmp", "movie.mp4"), started);
+        Files.write(job.getTemporaryPath(), new byte[outputSize]);
+        job.setProgress(progress);
+        job.onProcessStarted(process);
+        jobs.add(job);
+        return job;
+    }
+
+    private TranscodeJobImpl givenJob(double progress, int outputSize) throws Exception {
+        return givenJob(TranscodeTask.builder()
+                .media(Media.builder().sourcePath(getPath("movie.mkv")).build())
+                .build(), progress, outputSize);
+    }
+
+    @Test
+    public void check_ShouldAbortJob_IfProjectedOutputExceedsSource() throws Exception {
+        var job = givenJob(25, 300);
+
+        subject.check();
+
+        assertThat(job.isNotWorthIt()).isTrue();
+        assertThat(job.isCancelRequested()).isTrue();
+    }
+
+    @Test
+    public void check_ShouldNotAbortJob_IfProjectedOutputIsSmaller() throws Exception {
+        var job = givenJob(50, 400);
+
+        subject.check();
+
+        assertThat(job.isCancelRequested()).isFalse();
+        assertThat(subject.getStatistics().getAborted()).isZero();
+    }
+
+    @Test
+    public void check_ShouldNotAbortJob_IfBelowMinimumProgress() throws Exception {
+        var job = givenJob(10, 300);
+
+        subject.check();
+
+        assertThat(job.isCancelRequested()).isFalse();
+    }
+
+    @Test
+    public void check_ShouldNotAbortSegment() throws Exception {
+        var job = givenJob(TranscodeTask.builder()
+                .media(Media.builder().sourcePath(getPath("movie.mkv")).build())
+                .variables(Map.of(ArgumentTemplate.SEGMENT, "0"))
+                .build(), 25, 300);
+
+        subject.check();
+
+        assertThat(job.isCancelRequested()).isFalse();
+    }
+
+    @Test
+    public void getStatistics_ShouldProjectSavedTime_IfJobAborted() throws Exception {
+        givenJob(25, 300);
+
+        subject.check();
+
+        var result = subject.getStatistics();
+        assertThat(result.getAborted()).isEqualTo(1);
+        assertThat(result.getSavedWallTime()).isEqualTo(Duration.ofMinutes(30));
+        assertThat(result.getSavedCpuTime()).isEqualTo(Duration.ofMinutes(120));
+    }
+
+    @Test
+    public void start_ShouldNotCheck_IfDisabled() throws Exception {
+        when(config.max_size_ratio()).thenReturn(0d);
+        subject = new OutputSizeWatchdog(config, transcodingService, clock);
+
+        assertThat(subject.start().isDisposed()).isTrue();
+    }
+
+    @Test
+    public void ctor_ShouldThrowException_IfMinimumProgressOutOfRange() throws Exception {
+        when(config.size_check_min_progress()).thenReturn(100d);
+
+        assertThatExceptionOfType(InvalidConfigurationException.class).isThrownBy(() ->
+                new OutputSizeWatchdog(config, transcodingService, clock));
+    }
+}
@@ -0,0 +1,88 @@
+package clustercode.impl.transcode;
+
+import clustercode.api.domain.Profile;
+import clustercode.api.process.ProcessConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+public class ProcessControlsTest {
+
+    @Mock
+    private TranscoderConfig config;
+
+    private Map<String, String> fields = new HashMap<>();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        when(config.process_niceness()).thenReturn("");
+        when(config.process_io_class()).thenReturn("");
+        when(config.process_cpu_affinity()).thenReturn("");
+        when(config.process_cgroup()).thenReturn("");
+    }
+
+    private ProcessConfiguration apply() {
+        return ProcessControls.apply(config, Profile.builder().fields(fields).build(), ProcessConfiguration.builder())
+                .executable(Paths.get("ffmpeg"))
+                .build();
+    }
+
+    @Test
+    public void apply_ShouldNotSetControls_IfNothingIsConfigured() throws Exception {
+        var result = apply();
+
+        assertThat(result.getNiceness()).isNull();
+        assertThat(result.getIoClass()).isNull();
+        assertThat(result.getCpuAffinity()).isNull();
+        assertThat(result.getCgroup()).isNull();
+    }
+
+    @Test
+    public void apply_ShouldUseConfiguredDefaults() throws Exception {
+        when(config.process_niceness()).thenReturn("10");
+        when(config.process_io_class()).thenReturn("idle");
+        when(config.process_cpu_affinity()).thenReturn("0-3,6");
+        when(config.process_cgroup()).thenReturn("/sys/fs/cgroup/clustercode");
+
+        var result = apply();
+
+        assertThat(result.getNiceness()).isEqualTo(10);
+        assertThat(result.getIoClass()).isEqualTo(3);
+        assertThat(result.getCpuAffinity()).isEqualTo("0-3,6");
+        assertThat(result.getCgroup()).isEqualTo(Paths.get("/sys/fs/cgroup/clustercode"));
+    }
+
+    @Test
+    public void apply_ShouldPreferProfileFields_OverDefaults() throws Exception {
+        when(config.process_niceness()).thenReturn("10");
+        fields.put(ProcessControls.NICE, "19");
+        fields.put(ProcessControls.IONICE, "2");
+
+        var result = apply();
+
+        assertThat(result.getNiceness()).isEqualTo(19);
+        assertThat(result.getIoClass()).isEqualTo(2);
+    }
+
+    @Test
+    public void apply_ShouldIgnoreInvalidValues() throws Exception {
+        fields.put(ProcessControls.NICE, "25");
+        fields.put(ProcessControls.IONICE, "low");
+        fields.put(ProcessControls.CPUS, "0;rm -rf");
+
+        var result = apply();
+
+        assertThat(result.getNiceness()).isNull();
+        assertThat(result.getIoClass()).isNull();
+        assertThat(result.getCpuAffinity()).isNull();
+    }
+}
@@ -0,0 +1,119 @@
+package clustercode.impl.transcode;
+
+import clustercode.api.transcode.TranscodeReport;
+import io.reactivex.schedulers.TestScheduler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+public class ProgressThrottleTest {
+
+    @Mock
+    private Clock clock;
+
+    private TestScheduler scheduler = new TestScheduler();
+    private List<TranscodeReport> reports = new ArrayList<>();
+    private ProgressThrottle subject;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        subject = new ProgressThrottle(clock, 1000, 1, scheduler, reports::add);
+    }
+
+    private void accept(long millis, double percentage) {
+        advanceTo(millis);
+        subject.accept(new ProgressReport("job", percentage, -1, -1, -1));
+    }
+
+    private void advanceTo(long millis) {
+        when(clock.millis()).thenReturn(millis);
+        scheduler.advanceTimeTo(millis, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void accept_ShouldPassFirstReport() throws Exception {
+        accept(0, 0);
+
+        assertThat(reports).extracting(TranscodeReport::getPercentage).containsExactly(0d);
+    }
+
+    @Test
+    public void accept_ShouldDropReports_WithinInterval() throws Exception {
+        accept(0, 0);
+        accept(200, 5);
+        accept(999, 10);
+        accept(1000, 12);
+
+        assertThat(reports).extracting(TranscodeReport::getPercentage).containsExactly(0d, 12d);
+    }
+
+    @Test
+    public void accept_ShouldDropReports_BelowDelta() throws Exception {
+        accept(0, 10);
+        accept(1000, 10.5);
+        accept(2000, 11);
+
+        assertThat(reports).extracting(TranscodeReport::getPercentage).containsExactly(10d, 11d);
+    }
+
+    @Test
+    public void accept_ShouldAlwaysPassCompletion_ButOnlyOnce() throws Exception {
+        accept(0, 99.5);
+        accept(10, 100);
+        accept(2000, 100);
+
+        assertThat(reports).extracting(TranscodeReport::getPercentage).containsExactly(99.5d, 100d);
+    }
+
+    @Test
+    public void accept_ShouldOnlyLimitRate_IfPercentageIsUnknown() throws Exception {
+        accept(0, -1);
+        accept(500, -1);
+        accept(1000, -1);
+
+        assertThat(reports).hasSize(2);
+    }
+
+    @Test
+    public void accept_ShouldPassLastReportOfBurst_WhenIntervalExpires() throws Exception {
+        accept(0, 0);
+        accept(200, 5);
+        accept(400, 10);
+
+        advanceTo(1000);
+
+        assertThat(reports).extracting(TranscodeReport::getPercentage).containsExactly(0d, 10d);
+    }
+
+    @Test
+    public void accept_ShouldMeasureInterval_FromPendingReport() throws Exception {
+        accept(0, 0);
+        accept(400, 10);
+        advanceTo(1000);
+        accept(1500, 20);
+
+        assertThat(reports).extracting(TranscodeReport::getPercentage).containsExactly(0d, 10d);
+    }
+
+    @Test
+    public void close_ShouldDiscardPendingReport() throws Exception {
+        accept(0, 0);
+        accept(200, 5);
+
+        subject.close();
+        advanceTo(1000);
+        accept(2000, 20);
+
+        assertThat(reports).extracting(TranscodeReport::getPercentage).containsExactly(0d);
+    }
+}
@@ -0,0 +1,146 @@
+package clustercode.impl.transcode;
+
+import clustercode.api.domain.Media;
+import clustercode.api.domain.Profile;
+import clustercode.api.domain.TranscodeTask;
+import clustercode.test.util.FileBasedUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+public class SegmentJournalTest implements FileBasedUnitTest {
+
+    @Mock
+    private TranscoderConfig config;
+
+    private TranscodeTask task;
+    private List<Segment> segments = List.of(new Segment(0, 0, 30), new Segment(1, 30, 30.5));
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        setupFileSystem();
+
+        when(config.base_input_dir()).thenReturn(getPath("input"));
+        createDirectory(getPath("tmp"));
+        when(config.default_video_extension()).thenReturn(".mkv");
+
+        Files.write(createParentDirOf(getPath("input", "0", "movie.mkv")), new byte[]{1, 2, 3});
+        task = createTask(List.of("-c:v", "libx265"));
+    }
+
+    private TranscodeTask createTask(List<String> arguments) {
+        return TranscodeTask.builder()
+                .media(Media.builder().sourcePath(getPath("0", "movie.mkv")).build())
+                .profile(Profile.builder()
+                        .arguments(arguments)
+                        .fields(Collections.singletonMap("FORMAT", ".mp4"))
+                        .build())
+                .build();
+    }
+
+    private SegmentJournal journalOf(TranscodeTask task) {
+        return SegmentJournal.of(getPath("tmp"), config, task);
+    }
+
+    private Path createPart(int index) throws Exception {
+        return Files.write(getPath("tmp", "movie.part" + index + ".mp4"), new byte[]{1});
+    }
+
+    @Test
+    public void of_ShouldPlaceJournal_InGivenDir() throws Exception {
+        assertThat(journalOf(task).getFile()).isEqualTo(getPath("tmp", "movie.mp4.journal"));
+    }
+
+    @Test
+    public void load_ShouldReturnEmpty_IfJournalDoesNotExist() throws Exception {
+        assertThat(journalOf(task).load()).isEmpty();
+    }
+
+    @Test
+    public void load_ShouldReturnPlanAndCompletedSegments() throws Exception {
+        var journal = journalOf(task);
+        assertThat(journal.begin(segments)).isTrue();
+        journal.complete(1, createPart(1));
+
+        var result = journalOf(task).load();
+
+        assertThat(result).isPresent();
+        assertThat(result.get().getSegments()).isEqualTo(segments);
+        assertThat(result.get().getCompleted()).containsOnlyKeys(1)
+                .containsEntry(1, getPath("tmp", "movie.part1.mp4"));
+    }
+
+    @Test
+    public void load_ShouldIgnoreCompletedSegment_IfOutputIsMissing() throws Exception {
+        var journal = journalOf(task);
+        journal.begin(segments);
+        journal.complete(0, createPart(0));
+        Files.delete(getPath("tmp", "movie.part0.mp4"));
+
+        assertThat(journal.load().get().getCompleted()).isEmpty();
+    }
+
+    @Test
+    public void load_ShouldReturnEmpty_IfProfileHasChanged() throws Exception {
+        journalOf(task).begin(segments);
+
+        assertThat(journalOf(createTask(List.of("-c:v", "libx264"))).load()).isEmpty();
+    }
+
+    @Test
+    public void load_ShouldReturnEmpty_IfSourceHasChanged() throws Exception {
+        journalOf(task).begin(segments);
+        Files.write(getPath("input", "0", "movie.mkv"), new byte[]{1, 2, 3, 4});
+
+        assertThat(journalOf(task).load()).isEmpty();
+    }
+
+    @Test
+    public void load_ShouldReturnEmpty_IfSourceWasModifiedWithSameSize() throws Exception {
+        var source = getPath("input", "0", "movie.mkv");
+        journalOf(task).begin(segments);
+        Files.setLastModifiedTime(source, FileTime.fromMillis(Files.getLastModifiedTime(source).toMillis() + 1000));
+
+        assertThat(journalOf(task).load()).isEmpty();
+    }
+
+    @Test
+    public void load_ShouldReturnEmpty_IfArgumentsAreSplitDifferently() throws Exception {
+        journalOf(createTask(List.of("-c:v libx265", "-crf 28"))).begin(segments);
+
+        assertThat(journalOf(createTask(List.of("-c:v", "libx265 -crf 28"))).load()).isEmpty();
+    }
+
+    @Test
+    public void begin_ShouldReplacePreviousJournal() throws Exception {
+        var journal = journalOf(task);
+        journal.begin(segments);
+        journal.complete(0, createPart(0));
+
+        journal.begin(segments);
+
+        assertThat(journal.load().get().getCompleted()).isEmpty();
+        assertThat(getPath("tmp", "movie.mp4.journal.tmp")).doesNotExist();
+    }
+
+    @Test
+    public void delete_ShouldRemoveJournal() throws Exception {
+        var journal = journalOf(task);
+        journal.begin(segments);
+
+        journal.delete();
+
+        assertThat(journal.getFile()).doesNotExist();
+    }
+}
@@ -0,0 +1,47 @@
+package clustercode.impl.transcode;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SegmentPlannerTest {
+
+    @Test
+    public void plan_ShouldCutAtKeyframes_AfterTargetDuration() throws Exception {
+        var index = new KeyframeIndex(100, new double[]{0, 8, 12, 25, 31, 50, 62, 75, 90});
+
+        List<Segment> result = SegmentPlanner.plan(index, 30);
+
+        assertThat(result).containsExactly(
+                new Segment(0, 0, 31),
+                new Segment(1, 31, 31),
+                new Segment(2, 62, 38));
+    }
+
+    @Test
+    public void plan_ShouldMergeShortTail_IntoPreviousSegment() throws Exception {
+        var index = new KeyframeIndex(65, new double[]{0, 30, 60});
+
+        List<Segment> result = SegmentPlanner.plan(index, 30);
+
+        assertThat(result).containsExactly(
+                new Segment(0, 0, 30),
+                new Segment(1, 30, 35));
+    }
+
+    @Test
+    public void plan_ShouldReturnSingleSegment_IfSourceIsShort() throws Exception {
+        var index = new KeyframeIndex(20, new double[]{0, 10});
+
+        assertThat(SegmentPlanner.plan(index, 30)).containsExactly(new Segment(0, 0, 20));
+    }
+
+    @Test
+    public void plan_ShouldReturnEmptyList_IfDurationIsUnknown() throws Exception {
+        var index = new KeyframeIndex(-1, new double[0]);
+
+        assertThat(SegmentPlanner.plan(index, 30)).isEmpty();
+    }
+}
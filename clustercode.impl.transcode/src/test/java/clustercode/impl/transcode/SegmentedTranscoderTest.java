@@ -0,0 +1,314 @@
+package clustercode.impl.transcode;
+
+import clustercode.api.domain.ArgumentTemplate;
+import clustercode.api.domain.Media;
+import clustercode.api.domain.Profile;
+import clustercode.api.domain.TranscodeTask;
+import clustercode.api.event.RxEventBus;
+import clustercode.api.event.RxEventBusImpl;
+import clustercode.api.event.messages.TranscodeBeginEvent;
+import clustercode.api.event.messages.TranscodeFinishedEvent;
+import clustercode.api.process.ExternalProcessService;
+import clustercode.api.process.ProcessConfiguration;
+import clustercode.api.transcode.TranscodeReport;
+import clustercode.api.transcode.TranscodingService;
+import clustercode.test.util.FileBasedUnitTest;
+import io.reactivex.Single;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class SegmentedTranscoderTest implements FileBasedUnitTest {
+
+    @Mock
+    private TranscoderConfig config;
+    @Mock
+    private TranscodingService transcodingService;
+    @Mock
+    private ExternalProcessService processService;
+    @Mock
+    private KeyframeProbe probe;
+
+    private RxEventBus eventBus = new RxEventBusImpl();
+    private List<TranscodeBeginEvent> beginEvents = new ArrayList<>();
+    private List<TranscodeFinishedEvent> finishedEvents = new ArrayList<>();
+    private List<TranscodeReport> reports = new ArrayList<>();
+    private List<TranscodeTask> submitted = new ArrayList<>();
+
+    private TranscodeTask task;
+    private SegmentedTranscoder subject;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        setupFileSystem();
+
+        when(config.segment_duration()).thenReturn(30);
+        when(config.transcoder_type()).thenReturn(Transcoders.FFMPEG);
+        when(config.base_input_dir()).thenReturn(getPath("input"));
+        when(config.temporary_dir()).thenReturn(createDirectory(getPath("tmp")));
+        when(config.transcoder_executable()).thenReturn(getPath("ffmpeg"));
+        when(config.default_video_extension()).thenReturn(".mkv");
+        when(probe.probe(any())).thenReturn(Single.just(new KeyframeIndex(90, new double[]{0, 30, 60})));
+        when(transcodingService.getAvailableSlots()).thenReturn(3);
+
+        task = TranscodeTask.builder()
+                .media(Media.builder().sourcePath(getPath("0", "movie.mkv")).build())
+                .profile(Profile.builder().fields(Collections.singletonMap("FORMAT", ".mp4")).build())
+                .build();
+
+        eventBus.listenFor(TranscodeBeginEvent.class, beginEvents::add);
+        eventBus.listenFor(TranscodeFinishedEvent.class, finishedEvents::add);
+        eventBus.listenFor(TranscodeReport.class, reports::add);
+
+        subject = new SegmentedTranscoder(config, transcodingService, processService, probe,
+                new TemporaryDirSelector(config), eventBus, Clock.systemUTC());
+    }
+
+    private List<TranscodeTask> captureSubmittedTasks(int count) {
+        ArgumentCaptor<TranscodeTask> captor = ArgumentCaptor.forClass(TranscodeTask.class);
+        verify(transcodingService, times(count)).transcode(captor.capture());
+        submitted = captor.getAllValues();
+        return submitted;
+    }
+
+    private void beginSegments(List<TranscodeTask> segments) {
+        for (int i = 0; i < segments.size(); i++) {
+            assertThat(subject.onTranscodeBegin(new TranscodeBeginEvent("job" + i, segments.get(i)))).isTrue();
+        }
+    }
+
+    private TranscodeFinishedEvent finishedSegment(int index, boolean successful) {
+        return TranscodeFinishedEvent.builder()
+                .jobId("job" + index)
+                .task(submitted.get(index))
+                .media(task.getMedia())
+                .successful(successful)
+                .cancelled(!successful && index > 0)
+                .temporaryPath(createFile(getPath("tmp", "movie.part" + index + ".mp4")))
+                .build();
+    }
+
+    @Test
+    public void transcode_ShouldPassTaskThrough_IfDisabled() throws Exception {
+        when(config.segment_duration()).thenReturn(0);
+
+        subject.transcode(task);
+
+        verify(transcodingService).transcode(task);
+        verifyZeroInteractions(probe);
+    }
+
+    @Test
+    public void transcode_ShouldPassTaskThrough_IfSourceIsTooShort() throws Exception {
+        when(probe.probe(any())).thenReturn(Single.just(new KeyframeIndex(40, new double[]{0, 30})));
+
+        subject.transcode(task);
+
+        verify(transcodingService).transcode(task);
+        assertThat(beginEvents).isEmpty();
+    }
+
+    @Test
+    public void transcode_ShouldPassTaskThrough_IfProbeFails() throws Exception {
+        when(probe.probe(any())).thenReturn(Single.error(new RuntimeException("ffprobe not found")));
+
+        subject.transcode(task);
+
+        verify(transcodingService).transcode(task);
+        assertThat(subject.getReservedSlots()).isZero();
+    }
+
+    @Test
+    public void transcode_ShouldSubmitSegments_WhileSlotsAreFree() throws Exception {
+        when(transcodingService.getAvailableSlots()).thenReturn(2, 1, 0);
+
+        subject.transcode(task);
+
+        List<TranscodeTask> segments = captureSubmittedTasks(2);
+        assertThat(segments).extracting(segment -> segment.getVariables().get(ArgumentTemplate.START))
+                .containsExactly("0.000000", "30.000000");
+        assertThat(segments).extracting(segment -> segment.getVariables().get(ArgumentTemplate.SEGMENT))
+                .containsExactly("0", "1");
+        assertThat(segments.get(0).getVariables()).containsEntry(ArgumentTemplate.DURATION, "30.000000");
+        assertThat(subject.getReservedSlots()).isEqualTo(1);
+        assertThat(beginEvents).hasSize(1);
+        assertThat(beginEvents.get(0).getTask()).isSameAs(task);
+    }
+
+    @Test
+    public void onTranscodeFinished_ShouldStartPendingSegment_InFreedSlot() throws Exception {
+        when(transcodingService.getAvailableSlots()).thenReturn(1, 0, 1, 0);
+        subject.transcode(task);
+        beginSegments(captureSubmittedTasks(1));
+
+        assertThat(subject.onTranscodeFinished(finishedSegment(0, true))).isTrue();
+
+        captureSubmittedTasks(2);
+    }
+
+    @Test
+    public void onTranscodeFinished_ShouldConcatSegments_IfAllSucceeded() throws Exception {
+        when(processService.start(any())).thenReturn(Single.just(0));
+        subject.transcode(task);
+        beginSegments(captureSubmittedTasks(3));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(subject.onTranscodeFinished(finishedSegment(i, true))).isTrue();
+        }
+
+        ArgumentCaptor<ProcessConfiguration> captor = ArgumentCaptor.forClass(ProcessConfiguration.class);
+        verify(processService).start(captor.capture());
+        assertThat(captor.getValue().getArguments()).containsSequence("-f", "concat");
+        assertThat(finishedEvents).hasSize(1);
+        TranscodeFinishedEvent result = finishedEvents.get(0);
+        assertThat(result.isSuccessful()).isTrue();
+        assertThat(result.getJobId()).isEqualTo(beginEvents.get(0).getJobId());
+        assertThat(result.getTemporaryPath()).isEqualTo(getPath("tmp", "movie.mp4"));
+        assertThat(getPath("tmp", "movie.part0.mp4")).doesNotExist();
+    }
+
+    @Test
+    public void onTranscodeFinished_ShouldCancelRemainingSegments_IfOneFailed() throws Exception {
+        subject.transcode(task);
+        beginSegments(captureSubmittedTasks(3));
+
+        subject.onTranscodeFinished(finishedSegment(0, false));
+
+        verify(transcodingService).cancelTranscode("job1");
+        verify(transcodingService).cancelTranscode("job2");
+        assertThat(finishedEvents).isEmpty();
+
+        subject.onTranscodeFinished(finishedSegment(1, false));
+        subject.onTranscodeFinished(finishedSegment(2, false));
+
+        assertThat(finishedEvents).hasSize(1);
+        assertThat(finishedEvents.get(0).isSuccessful()).isFalse();
+        verify(processService, never()).start(any());
+    }
+
+    @Test
+    public void onTranscodeFinished_ShouldCompleteGroup_IfSegmentFinishedWithoutBeginEvent() throws Exception {
+        subject.transcode(task);
+        var segments = captureSubmittedTasks(3);
+        subject.onTranscodeBegin(new TranscodeBeginEvent("job1", segments.get(1)));
+        subject.onTranscodeBegin(new TranscodeBeginEvent("job2", segments.get(2)));
+
+        assertThat(subject.onTranscodeFinished(TranscodeFinishedEvent.builder()
+                .jobId("lost")
+                .task(segments.get(0))
+                .media(task.getMedia())
+                .exitCode(-1)
+                .build())).isTrue();
+        subject.onTranscodeFinished(finishedSegment(1, false));
+        subject.onTranscodeFinished(finishedSegment(2, false));
+
+        verify(transcodingService).cancelTranscode("job1");
+        verify(transcodingService).cancelTranscode("job2");
+        assertThat(finishedEvents).hasSize(1);
+        assertThat(finishedEvents.get(0).isSuccessful()).isFalse();
+        assertThat(finishedEvents.get(0).getJobId()).isEqualTo(beginEvents.get(0).getJobId());
+        assertThat(subject.getReservedSlots()).isZero();
+    }
+
+    @Test
+    public void onTranscodeFinished_ShouldIgnoreJobs_OfWholeMedia() throws Exception {
+        assertThat(subject.onTranscodeFinished(TranscodeFinishedEvent.builder().jobId("other").build())).isFalse();
+    }
+
+    @Test
+    public void onProgressUpdated_ShouldReportWeightedProgress_OfGroup() throws Exception {
+        subject.transcode(task);
+        beginSegments(captureSubmittedTasks(3));
+
+        assertThat(subject.onProgressUpdated(new ProgressReport("job0", 50, -1, -1, -1))).isTrue();
+        assertThat(subject.onProgressUpdated(new ProgressReport("other", 50, -1, -1, -1))).isFalse();
+
+        assertThat(reports).hasSize(1);
+        assertThat(reports.get(0).getJobId()).isEqualTo(beginEvents.get(0).getJobId());
+        assertThat(reports.get(0).getPercentage()).isCloseTo(50d / 3, within(0.01));
+    }
+
+    @Test
+    public void transcode_ShouldResumeFromCheckpoint_WithoutProbing() throws Exception {
+        var journal = SegmentJournal.of(getPath("tmp"), config, task);
+        journal.begin(List.of(new Segment(0, 0, 30), new Segment(1, 30, 30), new Segment(2, 60, 30)));
+        journal.complete(0, Files.write(getPath("tmp", "movie.part0.mp4"), new byte[]{1}));
+
+        subject.transcode(task);
+
+        verifyZeroInteractions(probe);
+        List<TranscodeTask> segments = captureSubmittedTasks(2);
+        assertThat(segments).extracting(segment -> segment.getVariables().get(ArgumentTemplate.SEGMENT))
+                .containsExactly("1", "2");
+        assertThat(beginEvents).hasSize(1);
+    }
+
+    @Test
+    public void transcode_ShouldConcatSegments_IfCheckpointIsComplete() throws Exception {
+        when(processService.start(any())).thenReturn(Single.just(0));
+        var journal = SegmentJournal.of(getPath("tmp"), config, task);
+        journal.begin(List.of(new Segment(0, 0, 30), new Segment(1, 30, 30)));
+        journal.complete(0, Files.write(getPath("tmp", "movie.part0.mp4"), new byte[]{1}));
+        journal.complete(1, Files.write(getPath("tmp", "movie.part1.mp4"), new byte[]{1}));
+
+        subject.transcode(task);
+
+        verify(transcodingService, never()).transcode(any());
+        verify(processService).start(any());
+        assertThat(finishedEvents).hasSize(1);
+        assertThat(finishedEvents.get(0).isSuccessful()).isTrue();
+        assertThat(journal.getFile()).doesNotExist();
+    }
+
+    @Test
+    public void onTranscodeFinished_ShouldKeepCheckpoint_IfCancelled() throws Exception {
+        subject.transcode(task);
+        beginSegments(captureSubmittedTasks(3));
+        Files.write(getPath("tmp", "movie.part0.mp4"), new byte[]{1});
+
+        subject.onTranscodeFinished(TranscodeFinishedEvent.builder()
+                .jobId("job0")
+                .task(submitted.get(0))
+                .media(task.getMedia())
+                .successful(true)
+                .temporaryPath(getPath("tmp", "movie.part0.mp4"))
+                .build());
+        subject.onTranscodeFinished(finishedSegment(1, false));
+        subject.onTranscodeFinished(finishedSegment(2, false));
+
+        assertThat(finishedEvents).hasSize(1);
+        assertThat(finishedEvents.get(0).isCancelled()).isTrue();
+        assertThat(getPath("tmp", "movie.part0.mp4")).exists();
+        var checkpoint = SegmentJournal.of(getPath("tmp"), config, task).load();
+        assertThat(checkpoint).isPresent();
+        assertThat(checkpoint.get().getCompleted()).containsOnlyKeys(0);
+    }
+
+    @Test
+    public void onTranscodeFinished_ShouldDeleteJournal_IfConcatenated() throws Exception {
+        when(processService.start(any())).thenReturn(Single.just(0));
+        subject.transcode(task);
+        beginSegments(captureSubmittedTasks(3));
+
+        for (int i = 0; i < 3; i++) {
+            subject.onTranscodeFinished(finishedSegment(i, true));
+        }
+
+        assertThat(getPath("tmp", "movie.mp4.journal")).doesNotExist();
+    }
+}
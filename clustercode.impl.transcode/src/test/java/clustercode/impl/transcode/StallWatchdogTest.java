@@ -0,0 +1,125 @@
+package clustercode.impl.transcode;
+
+import clustercode.api.domain.Media;
+import clustercode.api.domain.TranscodeTask;
+import clustercode.impl.util.InvalidConfigurationException;
+import clustercode.test.util.FileBasedUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Files;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class StallWatchdogTest implements FileBasedUnitTest {
+
+    @Mock
+    private TranscoderConfig config;
+    @Mock
+    private TranscodingServiceImpl transcodingService;
+    @Mock
+    private Clock clock;
+
+    private Instant now = Instant.parse("2018-01-01T08:00:00Z");
+    private List<TranscodeJobImpl> jobs = new ArrayList<>();
+    private TranscodeJobImpl job;
+    private StallWatchdog subject;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        setupFileSystem();
+        when(config.stall_timeout()).thenReturn(600L);
+        when(config.stall_kill_timeout()).thenReturn(30L);
+        when(config.stall_check_interval()).thenReturn(30L);
+        when(transcodingService.getJobs()).thenReturn(jobs);
+        when(clock.instant()).thenAnswer(invocation -> now);
+        createDirectory(getPath("tmp"));
+        job = new TranscodeJobImpl("id", TranscodeTask.builder()
+                .media(Media.builder().sourcePath(getPath("movie.mkv")).build())
+                .build(), getPath("tmp", "movie.mp4"), now);
+        job.setProgress(10);
+        jobs.add(job);
+        subject = new StallWatchdog(config, transcodingService, clock);
+    }
+
+    private void advance(long minutes) {
+        now = now.plus(Duration.ofMinutes(minutes));
+    }
+
+    @Test
+    public void check_ShouldAbortJob_IfNeitherProgressNorOutputAdvanced() throws Exception {
+        subject.check();
+        advance(10);
+
+        subject.check();
+
+        verify(transcodingService).abortStalled(job, 30, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void check_ShouldNotAbortJob_IfProgressAdvanced() throws Exception {
+        subject.check();
+        advance(6);
+        job.setProgress(11);
+        subject.check();
+        advance(6);
+
+        subject.check();
+
+        verify(transcodingService, never()).abortStalled(any(), anyLong(), any());
+    }
+
+    @Test
+    public void check_ShouldNotAbortJob_IfOutputGrew() throws Exception {
+        Files.write(job.getTemporaryPath(), new byte[10]);
+        subject.check();
+        advance(6);
+        Files.write(job.getTemporaryPath(), new byte[20]);
+        subject.check();
+        advance(6);
+
+        subject.check();
+
+        verify(transcodingService, never()).abortStalled(any(), anyLong(), any());
+    }
+
+    @Test
+    public void check_ShouldNotAbortJob_IfCancelled() throws Exception {
+        subject.check();
+        advance(10);
+        job.cancel();
+
+        subject.check();
+
+        verify(transcodingService, never()).abortStalled(any(), anyLong(), any());
+    }
+
+    @Test
+    public void start_ShouldNotCheck_IfDisabled() throws Exception {
+        when(config.stall_timeout()).thenReturn(0L);
+        subject = new StallWatchdog(config, transcodingService, clock);
+
+        assertThat(subject.start().isDisposed()).isTrue();
+    }
+
+    @Test
+    public void ctor_ShouldThrowException_IfKillTimeoutIsZero() throws Exception {
+        when(config.stall_kill_timeout()).thenReturn(0L);
+
+        assertThatExceptionOfType(InvalidConfigurationException.class).isThrownBy(() ->
+                new StallWatchdog(config, transcodingService, clock));
+    }
+}
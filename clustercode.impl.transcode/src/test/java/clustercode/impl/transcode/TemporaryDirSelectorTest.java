@@ -0,0 +1,115 @@
+package clustercode.impl.transcode;
+
+import clustercode.api.domain.Media;
+import clustercode.api.domain.TranscodeTask;
+import clustercode.test.util.FileBasedUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TemporaryDirSelectorTest implements FileBasedUnitTest {
+
+    @Mock
+    private TranscoderConfig config;
+
+    private Map<Path, FileStore> stores = new HashMap<>();
+    private FileStore temporaryStore = mock(FileStore.class);
+    private FileStore outputStore = mock(FileStore.class);
+    private TemporaryDirSelector subject;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        setupFileSystem();
+
+        when(config.temporary_dir()).thenReturn(createDirectory(getPath("/var", "tmp", "clustercode")));
+        when(config.base_output_dir()).thenReturn(createDirectory(getPath("/output")));
+        when(config.temporary_dir_on_output_store()).thenReturn(true);
+        createDirectory(getPath("/output", "movies", "2018"));
+
+        stores.put(getPath("/"), temporaryStore);
+        stores.put(getPath("/var", "tmp", "clustercode"), temporaryStore);
+        stores.put(getPath("/output"), outputStore);
+        stores.put(getPath("/output", "movies"), outputStore);
+        stores.put(getPath("/output", "movies", "2018"), outputStore);
+
+        subject = new TemporaryDirSelector(config) {
+            @Override
+            FileStore getFileStore(Path path) {
+                return stores.get(path);
+            }
+        };
+    }
+
+    private TranscodeTask createTask(Path source) {
+        return TranscodeTask.builder().media(Media.builder().sourcePath(source).build()).build();
+    }
+
+    @Test
+    public void getTemporaryDir_ShouldReturnConfiguredDir_IfDisabled() throws Exception {
+        when(config.temporary_dir_on_output_store()).thenReturn(false);
+
+        var result = subject.getTemporaryDir(createTask(getPath("0", "movies", "2018", "movie.mkv")));
+
+        assertThat(result).isEqualTo(getPath("/var", "tmp", "clustercode"));
+    }
+
+    @Test
+    public void getTemporaryDir_ShouldReturnConfiguredDir_IfOnSameStore() throws Exception {
+        stores.put(getPath("/var", "tmp", "clustercode"), outputStore);
+
+        var result = subject.getTemporaryDir(createTask(getPath("0", "movies", "2018", "movie.mkv")));
+
+        assertThat(result).isEqualTo(getPath("/var", "tmp", "clustercode"));
+    }
+
+    @Test
+    public void getTemporaryDir_ShouldCreateDirOnOutputStore_IfOnDifferentStore() throws Exception {
+        var result = subject.getTemporaryDir(createTask(getPath("0", "movies", "2018", "movie.mkv")));
+
+        assertThat(result).isEqualTo(getPath("/output", TemporaryDirSelector.DIR_NAME)).isDirectory();
+    }
+
+    @Test
+    public void getTemporaryDir_ShouldCreateDirAtTopOfMount_IfOutputSubDirIsOnOtherStore() throws Exception {
+        var mountStore = mock(FileStore.class);
+        stores.put(getPath("/output", "movies"), mountStore);
+        stores.put(getPath("/output", "movies", "2018"), mountStore);
+
+        var result = subject.getTemporaryDir(createTask(getPath("0", "movies", "2018", "movie.mkv")));
+
+        assertThat(result).isEqualTo(getPath("/output", "movies", TemporaryDirSelector.DIR_NAME)).isDirectory();
+    }
+
+    @Test
+    public void getTemporaryDir_ShouldUseNearestExistingDir_IfOutputDirDoesNotExistYet() throws Exception {
+        var result = subject.getTemporaryDir(createTask(getPath("0", "series", "show.mkv")));
+
+        assertThat(result).isEqualTo(getPath("/output", TemporaryDirSelector.DIR_NAME));
+    }
+
+    @Test
+    public void getTemporaryDir_ShouldReturnConfiguredDir_IfStoreCannotBeDetermined() throws Exception {
+        subject = new TemporaryDirSelector(config) {
+            @Override
+            FileStore getFileStore(Path path) throws IOException {
+                throw new IOException("no store");
+            }
+        };
+
+        var result = subject.getTemporaryDir(createTask(getPath("0", "movies", "2018", "movie.mkv")));
+
+        assertThat(result).isEqualTo(getPath("/var", "tmp", "clustercode"));
+    }
+}
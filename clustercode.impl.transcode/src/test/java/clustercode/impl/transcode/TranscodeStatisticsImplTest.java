@@ -0,0 +1,105 @@
+package clustercode.impl.transcode;
+
+import clustercode.api.domain.Profile;
+import clustercode.api.transcode.ProfileStatistics;
+import clustercode.test.util.FileBasedUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.assertj.core.api.Assertions.within;
+
+public class TranscodeStatisticsImplTest implements FileBasedUnitTest {
+
+    private TranscodeStatisticsImpl subject;
+
+    private Profile profile;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        profile = Profile.builder().location(Paths.get("profiles", "x264.ffmpeg")).build();
+        subject = new TranscodeStatisticsImpl();
+        setupFileSystem();
+    }
+
+    @Test
+    public void getSizeRatio_ShouldReturnEmpty_IfNothingRecorded() throws Exception {
+        assertThat(subject.getSizeRatio(profile)).isEmpty();
+        assertThat(subject.getThroughput(profile)).isEmpty();
+    }
+
+    @Test
+    public void getSizeRatio_ShouldAggregateAllRecords() throws Exception {
+        subject.record(profile, 1000, 500, Duration.ofSeconds(10));
+        subject.record(profile, 3000, 500, Duration.ofSeconds(10));
+
+        assertThat(subject.getSizeRatio(profile).getAsDouble()).isCloseTo(0.25, within(0.001));
+    }
+
+    @Test
+    public void getThroughput_ShouldReturnBytesPerSecond() throws Exception {
+        subject.record(profile, 1000, 500, Duration.ofSeconds(10));
+        subject.record(profile, 3000, 500, Duration.ofSeconds(10));
+
+        assertThat(subject.getThroughput(profile).getAsDouble()).isCloseTo(200, within(0.001));
+    }
+
+    @Test
+    public void record_ShouldIgnoreEmptySources() throws Exception {
+        subject.record(profile, 0, 500, Duration.ofSeconds(10));
+
+        assertThat(subject.getSizeRatio(profile)).isEmpty();
+    }
+
+    @Test
+    public void getThroughput_ShouldOnlyConsiderRecentSamples() throws Exception {
+        subject = new TranscodeStatisticsImpl(null, 2, "node");
+        subject.record(profile, 1000, 500, Duration.ofSeconds(100));
+        subject.record(profile, 2000, 500, Duration.ofSeconds(10));
+        subject.record(profile, 2000, 500, Duration.ofSeconds(10));
+
+        assertThat(subject.getThroughput(profile).getAsDouble()).isCloseTo(200, within(0.001));
+    }
+
+    @Test
+    public void getProfileStatistics_ShouldAverageFpsAndSpeed() throws Exception {
+        subject.record(profile, 1000, 500, Duration.ofSeconds(10), 20, 1.5);
+        subject.record(profile, 3000, 500, Duration.ofSeconds(30), 40, -1);
+
+        assertThat(subject.getProfileStatistics()).hasSize(1);
+        ProfileStatistics result = subject.getProfileStatistics().get(0);
+        assertThat(result.getNode()).isEqualTo("localhost");
+        assertThat(result.getSamples()).isEqualTo(2);
+        assertThat(result.getAverageFps()).isCloseTo(30, within(0.001));
+        assertThat(result.getSpeedFactor()).isCloseTo(1.5, within(0.001));
+        assertThat(result.getAverageWallTime()).isEqualTo(Duration.ofSeconds(20));
+        assertThat(result.getSizeRatio()).isCloseTo(0.25, within(0.001));
+        assertThat(result.getThroughput()).isCloseTo(100, within(0.001));
+    }
+
+    @Test
+    public void getAverageWallTime_ShouldReturnEmpty_IfNothingRecorded() throws Exception {
+        assertThat(subject.getAverageWallTime()).isEmpty();
+    }
+
+    @Test
+    public void ctor_ShouldLoadPersistedSamples() throws Exception {
+        var file = getPath("var", "statistics.csv");
+        profile = Profile.builder().location(getPath("profiles", "x264.ffmpeg")).build();
+        subject = new TranscodeStatisticsImpl(file, 10, "node-1");
+        subject.record(profile, 1000, 500, Duration.ofSeconds(10), 25, 2);
+
+        subject = new TranscodeStatisticsImpl(file, 10, "node-2");
+        subject.record(profile, 1000, 250, Duration.ofSeconds(10));
+
+        assertThat(subject.getProfileStatistics())
+                .extracting(ProfileStatistics::getNode, ProfileStatistics::getAverageFps)
+                .containsExactly(tuple("node-1", 25d), tuple("node-2", -1d));
+        assertThat(subject.getSizeRatio(profile).getAsDouble()).isCloseTo(0.375, within(0.001));
+    }
+
+}
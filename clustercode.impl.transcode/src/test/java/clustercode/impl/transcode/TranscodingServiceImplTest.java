@@ -6,24 +6,53 @@ import clustercode.api.domain.TranscodeTask;
 import clustercode.api.process.ExternalProcessService;
 import clustercode.api.process.ProcessConfiguration;
 import clustercode.api.process.RunningExternalProcess;
+import clustercode.api.transcode.TranscodeJob;
+import clustercode.api.transcode.TranscodeReport;
+import clustercode.impl.process.ExternalProcessServiceImpl;
+import clustercode.impl.util.system.ContainerLimits;
 import clustercode.test.util.CompletableUnitTest;
 import clustercode.test.util.FileBasedUnitTest;
 import io.reactivex.Single;
+import io.reactivex.subjects.SingleSubject;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Clock;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class TranscodingServiceImplTest implements FileBasedUnitTest, CompletableUnitTest {
@@ -46,6 +75,8 @@ public class TranscodingServiceImplTest implements FileBasedUnitTest, Completabl
 
     private ProcessConfiguration processConfiguration;
 
+    private Path scriptDir;
+
     @BeforeEach
     public void setUp() throws Exception {
         MockitoAnnotations.initMocks(this);
@@ -60,39 +91,177 @@ public class TranscodingServiceImplTest implements FileBasedUnitTest, Completabl
         when(transcoderConfig.temporary_dir()).thenReturn(getPath("tmp"));
         when(transcoderConfig.base_input_dir()).thenReturn(getPath("root"));
         when(profile.getArguments()).thenReturn(Collections.emptyList());
+        when(transcoderConfig.transcoder_type()).thenReturn(Transcoders.FFMPEG);
+        when(transcoderConfig.transcoder_executable()).thenReturn(getPath("ffmpeg"));
+        when(transcoderConfig.transcode_slots()).thenReturn(2);
 
         task.setMedia(media);
         task.setProfile(profile);
 
         subject = new TranscodingServiceImpl(
-            transcoderConfig
+            transcoderConfig,
+            process,
+            new TranscodeStatisticsImpl(),
+            new TemporaryDirSelector(transcoderConfig),
+            ContainerLimits.builder().processors(8).build(),
+            Clock.systemDefaultZone()
         );
     }
 
-    @Test
-    public void replaceOutput_ShouldReplaceOutput_WithNewValue() throws Exception {
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (scriptDir == null) return;
+        try (Stream<Path> files = Files.walk(scriptDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
 
-        Path output = getPath("tmp", "video.mp4");
-        when(profile.getArguments()).thenReturn(Collections.singletonList(TranscodingServiceImpl.OUTPUT_PLACEHOLDER));
+    /**
+     * Creates an executable shell script in a temporary dir of the default file system, which stands in for the
+     * transcoder.
+     */
+    private Path createStubScript(String... lines) throws IOException {
+        scriptDir = Files.createTempDirectory("clustercode");
+        Path script = scriptDir.resolve("transcoder.sh");
+        Files.write(script, Arrays.asList(lines));
+        Files.setPosixFilePermissions(script, PosixFilePermissions.fromString("rwxr-xr-x"));
+        return script;
+    }
+
+    /**
+     * Lets the process mock hand out the given handle and never finish.
+     */
+    @SuppressWarnings("unchecked")
+    private void startProcessesForever(RunningExternalProcess handle) {
+        when(process.start(any(), any())).thenAnswer(invocation -> {
+            ((Consumer<RunningExternalProcess>) invocation.getArguments()[1]).accept(handle);
+            return Single.never();
+        });
+    }
+
+    private Media createMedia(String... path) {
+        return Media.builder().sourcePath(getPath("0", path)).build();
+    }
 
-        String result = subject.replaceOutput(
-            TranscodingServiceImpl.OUTPUT_PLACEHOLDER,
-            output
+    private TranscodingServiceImpl createServiceWithStubScript(Path script) {
+        when(transcoderConfig.transcoder_executable()).thenReturn(script);
+        when(transcoderConfig.temporary_dir()).thenReturn(scriptDir);
+        when(transcoderConfig.base_input_dir()).thenReturn(scriptDir);
+        when(media.getSourcePath()).thenReturn(Paths.get("0", "video.mkv"));
+        return new TranscodingServiceImpl(
+            transcoderConfig,
+            new ExternalProcessServiceImpl(),
+            new TranscodeStatisticsImpl(),
+            new TemporaryDirSelector(transcoderConfig),
+            ContainerLimits.builder().processors(8).build(),
+            Clock.systemDefaultZone()
         );
+    }
+
+    @Test
+    public void buildArguments_ShouldReplaceOutput_WithNewValue() throws Exception {
+        Path output = getPath("tmp", "video.mp4");
+        when(profile.getArguments()).thenReturn(Collections.singletonList("${OUTPUT}"));
+
+        List<String> result = subject.buildArguments(media.getSourcePath(), output, task);
 
-        assertThat(result).isEqualTo(output.toString());
+        assertThat(result).containsExactly(output.toString());
     }
 
     @Test
-    public void replaceInput_ShouldReplaceInput_WithBasePath() throws Exception {
+    public void buildArguments_ShouldReplaceInput_WithBasePath() throws Exception {
         Path input = getPath("0", "video.mkv");
-        when(profile.getArguments()).thenReturn(Arrays.asList());
+        when(profile.getArguments()).thenReturn(Arrays.asList("-i", "${INPUT}"));
+
+        List<String> result = subject.buildArguments(input, getPath("tmp", "video.mp4"), task);
+
+        assertThat(result).containsExactly("-i", transcoderConfig.base_input_dir().resolve(input).toString());
+    }
+
+    private TranscodingServiceImpl createServiceWithCpuQuota(double cpus) {
+        return new TranscodingServiceImpl(
+            transcoderConfig,
+            process,
+            new TranscodeStatisticsImpl(),
+            new TemporaryDirSelector(transcoderConfig),
+            ContainerLimits.builder().processors(8).cpuQuota(OptionalDouble.of(cpus)).build(),
+            Clock.systemDefaultZone()
+        );
+    }
+
+    @Test
+    public void getThreads_ShouldDivideCpuQuotaBySlots_IfThreadsNotConfigured() throws Exception {
+        subject = createServiceWithCpuQuota(4.5);
+
+        assertThat(subject.getThreads()).isEqualTo(2);
+    }
+
+    @Test
+    public void getThreads_ShouldReturnConfiguredThreads_IfCpuQuotaExists() throws Exception {
+        when(transcoderConfig.threads()).thenReturn(6);
+        subject = createServiceWithCpuQuota(4.5);
+
+        assertThat(subject.getThreads()).isEqualTo(6);
+    }
+
+    @Test
+    public void getThreads_ShouldReturnZero_IfNoCpuQuotaExists() throws Exception {
+        assertThat(subject.getThreads()).isEqualTo(0);
+    }
+
+    @Test
+    public void ctor_ShouldReduceSlotsToCpuQuota() throws Exception {
+        when(transcoderConfig.transcode_slots()).thenReturn(4);
+        subject = createServiceWithCpuQuota(1.5);
+
+        assertThat(subject.getSlots()).isEqualTo(2);
+    }
+
+    @Test
+    public void buildArguments_ShouldReplaceBuiltInAndProfileVariables() throws Exception {
+        when(transcoderConfig.threads()).thenReturn(4);
+        when(profile.getArguments()).thenReturn(Arrays.asList("-threads", "${THREADS}", "${TEMP_DIR}/log${FORMAT}",
+                "-t", "${DURATION}"));
+        task.setVariables(Collections.singletonMap("DURATION", "60"));
+
+        List<String> result = subject.buildArguments(media.getSourcePath(), getPath("tmp", "video.mp4"), task);
+
+        assertThat(result).containsExactly("-threads", "4", getPath("tmp") + "/log.mp4", "-t", "60");
+    }
+
+    @Test
+    public void buildArguments_ShouldRenderRangeVariables_IfTaskTranscodesWholeSource() throws Exception {
+        when(profile.getArguments()).thenReturn(Arrays.asList("-ss", "${START}", "${TEMP_DIR}/pass${SEGMENT}"));
+
+        List<String> result = subject.buildArguments(media.getSourcePath(), getPath("tmp", "video.mp4"), task);
+
+        assertThat(result).containsExactly("-ss", "0", getPath("tmp") + "/pass0");
+    }
+
+    @Test
+    public void buildRangeArguments_ShouldSeekInput_IfTaskHasRange() throws Exception {
+        Map<String, String> variables = new HashMap<>();
+        variables.put("START", "30.000000");
+        variables.put("DURATION", "15.500000");
+        task.setVariables(variables);
+
+        assertThat(subject.buildRangeArguments(Transcoders.FFMPEG, task))
+            .containsExactly("-ss", "30.000000", "-t", "15.500000");
+        assertThat(subject.buildRangeArguments(Transcoders.HANDBRAKE, task))
+            .containsExactly("--start-at", "seconds:30.000000", "--stop-at", "seconds:15.500000");
+    }
 
-        String result = subject.replaceInput(
-            TranscodingServiceImpl.INPUT_PLACEHOLDER,
-            input);
+    @Test
+    public void buildRangeArguments_ShouldReturnEmptyList_IfTaskHasNoRange() throws Exception {
+        assertThat(subject.buildRangeArguments(Transcoders.FFMPEG, task)).isEmpty();
+    }
 
-        assertThat(result).isEqualTo(transcoderConfig.base_input_dir().resolve(input).toString());
+    @Test
+    public void buildArguments_ShouldThrowException_IfVariableIsNotDefinedForTask() throws Exception {
+        when(profile.getArguments()).thenReturn(Arrays.asList("-t", "${DURATION}"));
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> subject.buildArguments(media.getSourcePath(), getPath("tmp", "video.mp4"), task));
     }
 
     @Test
@@ -142,4 +311,263 @@ public class TranscodingServiceImplTest implements FileBasedUnitTest, Completabl
             waitForCompletion();
         });
     }
+
+    @Test
+    public void transcode_ShouldPassProgressArgumentsFirst() {
+        Assertions.assertTimeoutPreemptively(Duration.ofMillis(1000), () -> {
+            when(profile.getArguments()).thenReturn(Arrays.asList("-i", "${INPUT}"));
+            when(process.start(any(), any())).thenReturn(Single.just(0));
+
+            subject.onTranscodeFinished()
+                   .subscribe(result -> completeOne());
+            setExpectedCountForCompletion(1);
+            subject.transcode(task);
+            waitForCompletion();
+
+            ArgumentCaptor<ProcessConfiguration> captor = ArgumentCaptor.forClass(ProcessConfiguration.class);
+            verify(process).start(captor.capture(), any());
+            assertThat(captor.getValue().getExecutable()).isEqualTo(getPath("ffmpeg"));
+            assertThat(captor.getValue().getArguments()).containsExactly("-progress", "pipe:1", "-nostats",
+                "-i", getPath("root").resolve(media.getSourcePath()).toString());
+        });
+    }
+
+    @Test
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    public void transcode_ShouldReportProgressAndExitCode_OfStubTranscoder() throws Exception {
+        Path script = createStubScript(
+            "#!/bin/sh",
+            "echo 'frame=25'",
+            "echo 'fps=50.0'",
+            "echo 'out_time_us=5000000'",
+            "echo 'speed=2.0x'",
+            "echo 'progress=continue'",
+            "echo 'out_time_us=10000000'",
+            "echo 'progress=end'",
+            "exit 3");
+        subject = createServiceWithStubScript(script);
+        task.setVariables(Collections.singletonMap("DURATION", "10"));
+        List<TranscodeReport> reports = new CopyOnWriteArrayList<>();
+        List<Integer> exitCodes = new CopyOnWriteArrayList<>();
+        setExpectedCountForCompletion(4);
+
+        Assertions.assertTimeoutPreemptively(Duration.ofMillis(5000), () -> {
+            subject.onProgressUpdated(report -> {
+                reports.add(report);
+                completeOne();
+            });
+            subject.onTranscodeFinished()
+                   .subscribe(result -> {
+                       assertThat(result.isSuccessful()).isFalse();
+                       exitCodes.add(result.getExitCode());
+                       completeOne();
+                   });
+            subject.transcode(task);
+
+            waitForCompletion();
+        });
+
+        assertThat(exitCodes).containsExactly(3);
+        assertThat(reports).extracting(TranscodeReport::getPercentage).containsExactly(0d, 50d, 100d);
+    }
+
+    @Test
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    public void transcode_ShouldFireSuccessfulEvent_IfStubTranscoderExitsWithZero() throws Exception {
+        Path script = createStubScript(
+            "#!/bin/sh",
+            "echo 'progress=end'",
+            "exit 0");
+        subject = createServiceWithStubScript(script);
+        setExpectedCountForCompletion(1);
+
+        Assertions.assertTimeoutPreemptively(Duration.ofMillis(5000), () -> {
+            subject.onTranscodeFinished()
+                   .subscribe(result -> {
+                       assertThat(result.isSuccessful()).isTrue();
+                       assertThat(result.getExitCode()).isZero();
+                       completeOne();
+                   });
+            subject.transcode(task);
+
+            waitForCompletion();
+        });
+    }
+
+    @Test
+    public void getAvailableSlots_ShouldSubtractActiveJobs_FromConfiguredSlots() throws Exception {
+        startProcessesForever(runningProcessMock);
+        assertThat(subject.getAvailableSlots()).isEqualTo(2);
+
+        subject.transcode(task);
+
+        assertThat(subject.getAvailableSlots()).isEqualTo(1);
+    }
+
+    @Test
+    public void transcode_ShouldRunJobsConcurrently_WithDistinctIds() {
+        Assertions.assertTimeoutPreemptively(Duration.ofMillis(1000), () -> {
+            startProcessesForever(runningProcessMock);
+            List<String> jobIds = new CopyOnWriteArrayList<>();
+            setExpectedCountForCompletion(2);
+            subject.onTranscodeBegin(event -> {
+                jobIds.add(event.getJobId());
+                completeOne();
+            });
+
+            subject.transcode(task);
+            subject.transcode(TranscodeTask.builder().media(createMedia("other.mkv")).profile(profile).build());
+            waitForCompletion();
+
+            assertThat(jobIds).doesNotHaveDuplicates().doesNotContainNull();
+            assertThat(subject.getActiveJobs())
+                .extracting(TranscodeJob::getId)
+                .containsExactlyInAnyOrderElementsOf(jobIds);
+            assertThat(subject.getAvailableSlots()).isZero();
+        });
+    }
+
+    @Test
+    public void transcode_ShouldQueueTask_IfScansSelectedMoreMediaThanSlots() {
+        Assertions.assertTimeoutPreemptively(Duration.ofMillis(1000), () -> {
+            startProcessesForever(runningProcessMock);
+            setExpectedCountForCompletion(2);
+            subject.onTranscodeBegin(event -> completeOne());
+
+            // Both scans saw two free slots before the task of the other arrived.
+            subject.transcode(TranscodeTask.builder().media(createMedia("a.mkv")).profile(profile).build());
+            subject.transcode(TranscodeTask.builder().media(createMedia("b.mkv")).profile(profile).build());
+            subject.transcode(TranscodeTask.builder().media(createMedia("c.mkv")).profile(profile).build());
+            waitForCompletion();
+
+            verify(process, times(2)).start(any(), any());
+            assertThat(subject.getActiveJobs()).hasSize(2);
+            assertThat(subject.getAvailableSlots()).isZero();
+        });
+    }
+
+    @Test
+    public void transcode_ShouldStartQueuedTask_IfSlotIsReleased() {
+        Assertions.assertTimeoutPreemptively(Duration.ofMillis(1000), () -> {
+            var first = SingleSubject.<Integer>create();
+            when(process.start(any(), any())).thenReturn(first, Single.never());
+            var media = new CopyOnWriteArrayList<Media>();
+            subject.setSlots(1);
+            setExpectedCountForCompletion(1);
+            subject.onTranscodeBegin(event -> {
+                media.add(event.getTask().getMedia());
+                completeOne();
+            });
+            subject.transcode(TranscodeTask.builder().media(createMedia("a.mkv")).profile(profile).build());
+            subject.transcode(TranscodeTask.builder().media(createMedia("b.mkv")).profile(profile).build());
+            waitForCompletion();
+
+            setExpectedCountForCompletion(1);
+            first.onSuccess(1);
+            waitForCompletion();
+
+            assertThat(media).containsExactly(createMedia("a.mkv"), createMedia("b.mkv"));
+            assertThat(subject.getAvailableSlots()).isZero();
+        });
+    }
+
+    @Test
+    public void cancelTranscode_ShouldFireCancelledEvent_IfTaskIsQueued() {
+        Assertions.assertTimeoutPreemptively(Duration.ofMillis(1000), () -> {
+            startProcessesForever(runningProcessMock);
+            subject.setSlots(1);
+            var queued = createMedia("b.mkv");
+            setExpectedCountForCompletion(1);
+            subject.onTranscodeBegin(event -> completeOne());
+            subject.transcode(TranscodeTask.builder().media(createMedia("a.mkv")).profile(profile).build());
+            subject.transcode(TranscodeTask.builder().media(queued).profile(profile).build());
+            waitForCompletion();
+
+            setExpectedCountForCompletion(1);
+            subject.onTranscodeFinished(result -> {
+                assertThat(result.getMedia()).isEqualTo(queued);
+                assertThat(result.isCancelled()).isTrue();
+                completeOne();
+            });
+
+            assertThat(subject.cancelTranscode(queued)).isTrue();
+            waitForCompletion();
+
+            assertThat(subject.getAvailableSlots()).isZero();
+            verify(process).start(any(), any());
+        });
+    }
+
+    @Test
+    public void transcode_ShouldUseSeparateTemporaryPath_IfFileNameIsInUse() {
+        Assertions.assertTimeoutPreemptively(Duration.ofMillis(1000), () -> {
+            startProcessesForever(runningProcessMock);
+            setExpectedCountForCompletion(2);
+            subject.onTranscodeBegin(event -> completeOne());
+
+            subject.transcode(TranscodeTask.builder().media(createMedia("a", "video.mkv")).profile(profile).build());
+            subject.transcode(TranscodeTask.builder().media(createMedia("b", "video.mkv")).profile(profile).build());
+            waitForCompletion();
+
+            assertThat(subject.getActiveJobs())
+                .extracting(TranscodeJob::getTemporaryPath)
+                .doesNotHaveDuplicates()
+                .allMatch(path -> path.getFileName().toString().equals("video.mp4"));
+        });
+    }
+
+    @Test
+    public void abortStalled_ShouldFireFailedEventAndReleaseSlot_IfProcessCannotBeKilled() {
+        Assertions.assertTimeoutPreemptively(Duration.ofMillis(1000), () -> {
+            startProcessesForever(runningProcessMock);
+            when(runningProcessMock.terminate(anyLong(), any())).thenReturn(false);
+            setExpectedCountForCompletion(1);
+            subject.onTranscodeBegin(event -> completeOne());
+            subject.transcode(task);
+            waitForCompletion();
+
+            setExpectedCountForCompletion(1);
+            subject.onTranscodeFinished(result -> {
+                assertThat(result.isSuccessful()).isFalse();
+                assertThat(result.isCancelled()).isFalse();
+                completeOne();
+            });
+            subject.abortStalled(subject.getJobs().iterator().next(), 1, TimeUnit.SECONDS);
+            waitForCompletion();
+
+            verify(runningProcessMock).terminate(1, TimeUnit.SECONDS);
+            assertThat(subject.getActiveJobs()).isEmpty();
+            assertThat(subject.getAvailableSlots()).isEqualTo(2);
+        });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void cancelTranscode_ShouldDestroyProcess_OfGivenJobOnly() {
+        Assertions.assertTimeoutPreemptively(Duration.ofMillis(1000), () -> {
+            RunningExternalProcess otherProcess = mock(RunningExternalProcess.class);
+            AtomicInteger count = new AtomicInteger();
+            when(process.start(any(), any())).thenAnswer(invocation -> {
+                ((Consumer<RunningExternalProcess>) invocation.getArguments()[1])
+                    .accept(count.getAndIncrement() == 0 ? runningProcessMock : otherProcess);
+                return Single.never();
+            });
+            List<String> jobIds = new CopyOnWriteArrayList<>();
+            setExpectedCountForCompletion(2);
+            subject.onTranscodeBegin(event -> {
+                jobIds.add(event.getJobId());
+                completeOne();
+            });
+            subject.transcode(task);
+            subject.transcode(TranscodeTask.builder().media(createMedia("other.mkv")).profile(profile).build());
+            waitForCompletion();
+            when(runningProcessMock.destroyNowWithTimeout(anyLong(), any())).thenReturn(true);
+
+            assertThat(subject.cancelTranscode(jobIds.get(0))).isTrue();
+            assertThat(subject.cancelTranscode("unknown")).isFalse();
+
+            verify(runningProcessMock).destroyNowWithTimeout(anyLong(), any(TimeUnit.class));
+            verify(otherProcess, never()).destroyNowWithTimeout(anyLong(), any(TimeUnit.class));
+        });
+    }
 }
@@ -0,0 +1,42 @@
+package clustercode.impl.util.system;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+
+@Value
+@Builder
+public class ContainerLimits {
+
+    /**
+     * The amount of processors reported by the JVM.
+     */
+    private int processors;
+
+    /**
+     * The CPU quota of the cgroup in CPUs (e.g. 2.5 if the cgroup may use 250ms per 100ms period). Empty if
+     * unlimited or unavailable.
+     */
+    @Builder.Default
+    private OptionalDouble cpuQuota = OptionalDouble.empty();
+
+    /**
+     * The memory limit of the cgroup in bytes. Empty if unlimited or unavailable.
+     */
+    @Builder.Default
+    private OptionalLong memoryLimit = OptionalLong.empty();
+
+    /**
+     * Gets the amount of CPUs that can actually be used: the processors, reduced to the CPU quota (rounded up).
+     *
+     * @return the amount of CPUs, at least 1.
+     */
+    public int getEffectiveCpus() {
+        int cpus = Math.max(1, processors);
+        if (!cpuQuota.isPresent()) return cpus;
+        return Math.max(1, Math.min(cpus, (int) Math.ceil(cpuQuota.getAsDouble())));
+    }
+
+}
@@ -0,0 +1,125 @@
+package clustercode.impl.util.system;
+
+import lombok.extern.slf4j.XSlf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+
+/**
+ * Reads the CPU quota and memory limit of the cgroup of this process, which is what a container runtime enforces for
+ * {@code --cpus} and {@code --memory}. With cgroup v2 ({@code cgroup.controllers} exists in the cgroup dir), the
+ * limits are read from {@code cpu.max} and {@code memory.max}. With cgroup v1, they are read from
+ * {@code cpu.cfs_quota_us}/{@code cpu.cfs_period_us} of the cpu controller and {@code memory.limit_in_bytes} of the
+ * memory controller. Processes (and transcoders) in a container still see all cores of the host, so the quota has to
+ * be taken into account when sizing the amount of jobs and threads.
+ */
+@XSlf4j
+public class ContainerLimitsReader {
+
+    /**
+     * cgroup v1 reports an unlimited memory limit as a huge, page-aligned value near {@link Long#MAX_VALUE}.
+     */
+    private static final long UNLIMITED_MEMORY = 1L << 62;
+
+    private final Path cgroupDir;
+    private final int processors;
+
+    /**
+     * Creates a new reader.
+     *
+     * @param cgroupDir  the mount point of the cgroup file system, usually "/sys/fs/cgroup".
+     * @param processors the amount of processors reported by the JVM.
+     */
+    public ContainerLimitsReader(Path cgroupDir, int processors) {
+        this.cgroupDir = cgroupDir;
+        this.processors = processors;
+    }
+
+    /**
+     * Reads the limits. Limits that cannot be read (e.g. on other platforms) are reported as empty.
+     *
+     * @return the limits, not null.
+     */
+    public ContainerLimits read() {
+        boolean unified = Files.exists(cgroupDir.resolve("cgroup.controllers"));
+        var limits = ContainerLimits.builder()
+                .processors(processors)
+                .cpuQuota(unified ? readCpuMax() : readCfsQuota())
+                .memoryLimit(unified ? readMemoryMax() : readMemoryLimitInBytes())
+                .build();
+        log.debug("Read container limits (cgroup v{}): {}", unified ? 2 : 1, limits);
+        return limits;
+    }
+
+    /**
+     * Parses "$MAX $PERIOD" of cgroup v2, where $MAX is "max" if unlimited.
+     */
+    private OptionalDouble readCpuMax() {
+        var line = readFirstLine(cgroupDir.resolve("cpu.max"));
+        if (!line.isPresent()) return OptionalDouble.empty();
+        String[] fields = line.get().trim().split("\\s+");
+        if (fields.length < 2 || "max".equals(fields[0])) return OptionalDouble.empty();
+        try {
+            return toCpus(Long.parseLong(fields[0]), Long.parseLong(fields[1]));
+        } catch (NumberFormatException e) {
+            log.debug("Could not parse cpu.max: {}", e.toString());
+            return OptionalDouble.empty();
+        }
+    }
+
+    private OptionalDouble readCfsQuota() {
+        for (String controller : new String[]{"cpu", "cpu,cpuacct", "cpuacct,cpu"}) {
+            var dir = cgroupDir.resolve(controller);
+            var quota = readLong(dir.resolve("cpu.cfs_quota_us"));
+            var period = readLong(dir.resolve("cpu.cfs_period_us"));
+            if (quota.isPresent() && period.isPresent()) return toCpus(quota.getAsLong(), period.getAsLong());
+        }
+        return OptionalDouble.empty();
+    }
+
+    private OptionalDouble toCpus(long quota, long period) {
+        if (quota <= 0 || period <= 0) return OptionalDouble.empty();
+        return OptionalDouble.of((double) quota / period);
+    }
+
+    private OptionalLong readMemoryMax() {
+        var file = cgroupDir.resolve("memory.max");
+        if (readFirstLine(file).map(line -> "max".equals(line.trim())).orElse(true)) return OptionalLong.empty();
+        return readLong(file);
+    }
+
+    private OptionalLong readMemoryLimitInBytes() {
+        var limit = readLong(cgroupDir.resolve("memory").resolve("memory.limit_in_bytes"));
+        if (!limit.isPresent() || limit.getAsLong() <= 0 || limit.getAsLong() >= UNLIMITED_MEMORY) {
+            return OptionalLong.empty();
+        }
+        return limit;
+    }
+
+    private OptionalLong readLong(Path file) {
+        var line = readFirstLine(file);
+        if (!line.isPresent()) return OptionalLong.empty();
+        try {
+            return OptionalLong.of(Long.parseLong(line.get().trim()));
+        } catch (NumberFormatException e) {
+            log.debug("Could not parse {}: {}", file, e.toString());
+            return OptionalLong.empty();
+        }
+    }
+
+    private Optional<String> readFirstLine(Path path) {
+        if (!Files.isReadable(path)) return Optional.empty();
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            return Optional.ofNullable(reader.readLine());
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not read {}: {}", path, e.toString());
+            return Optional.empty();
+        }
+    }
+
+}
@@ -0,0 +1,45 @@
+package clustercode.impl.util.system;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.OptionalDouble;
+
+@Value
+@Builder
+public class SystemLoad {
+
+    /**
+     * The time at which the figures have been sampled.
+     */
+    private Instant sampled;
+
+    /**
+     * The 1-minute load average divided by the amount of available processors. Empty if unavailable.
+     */
+    @Builder.Default
+    private OptionalDouble loadPerCpu = OptionalDouble.empty();
+
+    /**
+     * The amount of currently runnable tasks divided by the amount of available processors. Values above 1 mean that
+     * tasks are waiting for a CPU. Empty if unavailable.
+     */
+    @Builder.Default
+    private OptionalDouble runQueuePerCpu = OptionalDouble.empty();
+
+    /**
+     * The CPU utilization in percent (0-100) since the previous sample. Empty if unavailable or if this is the
+     * first sample.
+     */
+    @Builder.Default
+    private OptionalDouble cpuUtilization = OptionalDouble.empty();
+
+    /**
+     * The share of time in percent (0-100) in which at least one task was stalled waiting for CPU during the last 10
+     * seconds (pressure stall information, "some avg10"). Empty if the kernel does not provide PSI.
+     */
+    @Builder.Default
+    private OptionalDouble cpuPressure = OptionalDouble.empty();
+
+}
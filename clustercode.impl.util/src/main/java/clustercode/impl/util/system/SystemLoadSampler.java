@@ -0,0 +1,143 @@
+package clustercode.impl.util.system;
+
+import lombok.Synchronized;
+import lombok.extern.slf4j.XSlf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.function.Supplier;
+
+/**
+ * Samples the system load from the Linux proc file system ({@code loadavg}, {@code stat} and
+ * {@code pressure/cpu}). Samples are cached, so that frequent callers do not read the files more often than needed.
+ * Figures that cannot be read (e.g. on other platforms or older kernels) are reported as empty.
+ */
+@XSlf4j
+public class SystemLoadSampler {
+
+    /**
+     * The amount of time fields of the "cpu" line of {@code /proc/stat} from user to steal.
+     */
+    private static final int CPU_TIME_FIELDS = 8;
+
+    private final Path procDir;
+    private final Clock clock;
+    private final int processors;
+
+    private SystemLoad lastSample;
+    private long[] lastCpuTimes;
+
+    /**
+     * Creates a new sampler.
+     *
+     * @param procDir    the root of the proc file system, usually "/proc".
+     * @param clock      the clock.
+     * @param processors the amount of processors by which the load average is divided, {@literal >= 1}.
+     */
+    public SystemLoadSampler(Path procDir, Clock clock, int processors) {
+        this.procDir = procDir;
+        this.clock = clock;
+        this.processors = Math.max(1, processors);
+    }
+
+    /**
+     * Gets the current system load. The files are only read if the last sample is older than {@code maxAge}.
+     *
+     * @param maxAge the maximum age of a cached sample.
+     * @return the load, not null.
+     */
+    @Synchronized
+    public SystemLoad getLoad(Duration maxAge) {
+        Instant now = clock.instant();
+        if (lastSample != null && !lastSample.getSampled().plus(maxAge).isBefore(now)) return lastSample;
+        lastSample = SystemLoad.builder()
+                .sampled(now)
+                .loadPerCpu(parse(this::readLoadAverage))
+                .runQueuePerCpu(parse(this::readRunQueue))
+                .cpuUtilization(parse(this::readCpuUtilization))
+                .cpuPressure(parse(this::readCpuPressure))
+                .build();
+        log.debug("Sampled {}", lastSample);
+        return lastSample;
+    }
+
+    private OptionalDouble parse(Supplier<OptionalDouble> reader) {
+        try {
+            return reader.get();
+        } catch (RuntimeException e) {
+            log.warn("Could not parse system load: {}", e.toString());
+            return OptionalDouble.empty();
+        }
+    }
+
+    private OptionalDouble readLoadAverage() {
+        return readFirstLine("loadavg")
+                .map(line -> OptionalDouble.of(Double.parseDouble(line.trim().split("\\s+")[0]) / processors))
+                .orElse(OptionalDouble.empty());
+    }
+
+    /**
+     * Reads the amount of runnable tasks from the fourth field of {@code loadavg} ("running/total").
+     */
+    private OptionalDouble readRunQueue() {
+        var line = readFirstLine("loadavg");
+        if (!line.isPresent()) return OptionalDouble.empty();
+        String[] fields = line.get().trim().split("\\s+");
+        if (fields.length < 4 || fields[3].indexOf('/') < 0) return OptionalDouble.empty();
+        return OptionalDouble.of(Double.parseDouble(fields[3].substring(0, fields[3].indexOf('/'))) / processors);
+    }
+
+    /**
+     * Computes the utilization from the aggregated "cpu" line of {@code /proc/stat}: the share of non-idle time
+     * (idle and iowait count as idle) between the previous and the current sample. Only the fields user to steal are
+     * summed up: guest and guest_nice are already accounted for in user and nice.
+     */
+    private OptionalDouble readCpuUtilization() {
+        var line = readFirstLine("stat").filter(l -> l.startsWith("cpu "));
+        if (!line.isPresent()) return OptionalDouble.empty();
+        String[] fields = line.get().trim().split("\\s+");
+        long[] times = new long[Math.min(fields.length - 1, CPU_TIME_FIELDS)];
+        for (int i = 1; i <= times.length; i++) {
+            times[i - 1] = Long.parseLong(fields[i]);
+        }
+        long[] previous = lastCpuTimes;
+        lastCpuTimes = times;
+        if (previous == null || previous.length != times.length || times.length < 4) return OptionalDouble.empty();
+        long total = 0;
+        for (int i = 0; i < times.length; i++) {
+            total += times[i] - previous[i];
+        }
+        long idle = times[3] - previous[3];
+        if (times.length > 4) idle += times[4] - previous[4];
+        if (total <= 0) return OptionalDouble.empty();
+        return OptionalDouble.of(100d * (total - idle) / total);
+    }
+
+    private OptionalDouble readCpuPressure() {
+        var line = readFirstLine("pressure/cpu").filter(l -> l.startsWith("some "));
+        if (!line.isPresent()) return OptionalDouble.empty();
+        for (String field : line.get().split("\\s+")) {
+            if (field.startsWith("avg10=")) return OptionalDouble.of(Double.parseDouble(field.substring(6)));
+        }
+        return OptionalDouble.empty();
+    }
+
+    private Optional<String> readFirstLine(String file) {
+        Path path = procDir.resolve(file);
+        if (!Files.isReadable(path)) return Optional.empty();
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            return Optional.ofNullable(reader.readLine());
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not read {}: {}", path, e.toString());
+            return Optional.empty();
+        }
+    }
+
+}
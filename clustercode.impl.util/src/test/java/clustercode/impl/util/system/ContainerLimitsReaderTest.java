@@ -0,0 +1,99 @@
+package clustercode.impl.util.system;
+
+import com.google.common.jimfs.Jimfs;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ContainerLimitsReaderTest {
+
+    private ContainerLimitsReader subject;
+
+    private Path cgroupDir;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        cgroupDir = Jimfs.newFileSystem().getPath("/sys", "fs", "cgroup");
+        Files.createDirectories(cgroupDir);
+        subject = new ContainerLimitsReader(cgroupDir, 16);
+    }
+
+    private void write(String file, String... lines) throws Exception {
+        Path path = cgroupDir.resolve(file);
+        Files.createDirectories(path.getParent());
+        Files.write(path, Arrays.asList(lines));
+    }
+
+    @Test
+    public void read_ShouldReadCpuAndMemoryLimits_FromCgroupV2() throws Exception {
+        write("cgroup.controllers", "cpuset cpu io memory pids");
+        write("cpu.max", "250000 100000");
+        write("memory.max", "4294967296");
+
+        ContainerLimits result = subject.read();
+
+        assertThat(result.getCpuQuota()).hasValue(2.5);
+        assertThat(result.getMemoryLimit()).hasValue(4294967296L);
+        assertThat(result.getEffectiveCpus()).isEqualTo(3);
+    }
+
+    @Test
+    public void read_ShouldReturnEmptyLimits_IfUnlimitedInCgroupV2() throws Exception {
+        write("cgroup.controllers", "cpu memory");
+        write("cpu.max", "max 100000");
+        write("memory.max", "max");
+
+        ContainerLimits result = subject.read();
+
+        assertThat(result.getCpuQuota()).isEmpty();
+        assertThat(result.getMemoryLimit()).isEmpty();
+        assertThat(result.getEffectiveCpus()).isEqualTo(16);
+    }
+
+    @Test
+    public void read_ShouldReadCpuAndMemoryLimits_FromCgroupV1() throws Exception {
+        write("cpu,cpuacct/cpu.cfs_quota_us", "200000");
+        write("cpu,cpuacct/cpu.cfs_period_us", "100000");
+        write("memory/memory.limit_in_bytes", "1073741824");
+
+        ContainerLimits result = subject.read();
+
+        assertThat(result.getCpuQuota()).hasValue(2);
+        assertThat(result.getMemoryLimit()).hasValue(1073741824L);
+        assertThat(result.getEffectiveCpus()).isEqualTo(2);
+    }
+
+    @Test
+    public void read_ShouldReturnEmptyLimits_IfUnlimitedInCgroupV1() throws Exception {
+        write("cpu/cpu.cfs_quota_us", "-1");
+        write("cpu/cpu.cfs_period_us", "100000");
+        write("memory/memory.limit_in_bytes", "9223372036854771712");
+
+        ContainerLimits result = subject.read();
+
+        assertThat(result.getCpuQuota()).isEmpty();
+        assertThat(result.getMemoryLimit()).isEmpty();
+    }
+
+    @Test
+    public void read_ShouldReturnEmptyLimits_IfFilesDoNotExist() throws Exception {
+        ContainerLimits result = subject.read();
+
+        assertThat(result.getCpuQuota()).isEmpty();
+        assertThat(result.getMemoryLimit()).isEmpty();
+        assertThat(result.getEffectiveCpus()).isEqualTo(16);
+    }
+
+    @Test
+    public void getEffectiveCpus_ShouldNotExceedProcessors_IfQuotaIsHigher() throws Exception {
+        write("cgroup.controllers", "cpu");
+        write("cpu.max", "3200000 100000");
+
+        assertThat(subject.read().getEffectiveCpus()).isEqualTo(16);
+    }
+}
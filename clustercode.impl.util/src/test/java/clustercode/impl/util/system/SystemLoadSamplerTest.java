@@ -0,0 +1,119 @@
+package clustercode.impl.util.system;
+
+import com.google.common.jimfs.Jimfs;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+public class SystemLoadSamplerTest {
+
+    private SystemLoadSampler subject;
+
+    @Mock
+    private Clock clock;
+
+    private Instant now = Instant.parse("2017-01-31T08:00:00Z");
+    private Path procDir;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        when(clock.instant()).thenAnswer(invocation -> now);
+        procDir = Jimfs.newFileSystem().getPath("/proc");
+        Files.createDirectories(procDir.resolve("pressure"));
+        subject = new SystemLoadSampler(procDir, clock, 4);
+    }
+
+    private void write(String file, String... lines) throws Exception {
+        Files.write(procDir.resolve(file), Arrays.asList(lines));
+    }
+
+    @Test
+    public void getLoad_ShouldDivideLoadAverageByProcessors() throws Exception {
+        write("loadavg", "2.00 1.50 1.00 3/512 12345");
+
+        assertThat(subject.getLoad(Duration.ZERO).getLoadPerCpu()).hasValue(0.5);
+    }
+
+    @Test
+    public void getLoad_ShouldDivideRunnableTasksByProcessors() throws Exception {
+        write("loadavg", "2.00 1.50 1.00 6/512 12345");
+
+        assertThat(subject.getLoad(Duration.ZERO).getRunQueuePerCpu()).hasValue(1.5);
+    }
+
+    @Test
+    public void getLoad_ShouldComputeCpuUtilization_FromDifferenceOfSamples() throws Exception {
+        write("stat", "cpu  100 0 100 700 100 0 0 0 0 0", "cpu0 1 2 3 4");
+        assertThat(subject.getLoad(Duration.ZERO).getCpuUtilization()).isEmpty();
+
+        now = now.plusSeconds(1);
+        write("stat", "cpu  160 0 120 780 140 0 0 0 0 0", "cpu0 1 2 3 4");
+
+        assertThat(subject.getLoad(Duration.ZERO).getCpuUtilization()).hasValue(40d);
+    }
+
+    @Test
+    public void getLoad_ShouldIgnoreGuestTime() throws Exception {
+        write("stat", "cpu  100 0 100 700 100 0 0 0 50 50");
+        subject.getLoad(Duration.ZERO);
+
+        now = now.plusSeconds(1);
+        write("stat", "cpu  160 0 120 780 140 0 0 0 110 70");
+
+        assertThat(subject.getLoad(Duration.ZERO).getCpuUtilization()).hasValue(40d);
+    }
+
+    @Test
+    public void getLoad_ShouldReadCpuPressure() throws Exception {
+        write("pressure/cpu", "some avg10=12.50 avg60=8.00 avg300=2.00 total=123456",
+                "full avg10=0.00 avg60=0.00 avg300=0.00 total=0");
+
+        assertThat(subject.getLoad(Duration.ZERO).getCpuPressure()).hasValue(12.5);
+    }
+
+    @Test
+    public void getLoad_ShouldReturnEmptyFigures_IfFilesDoNotExist() throws Exception {
+        SystemLoad result = subject.getLoad(Duration.ZERO);
+
+        assertThat(result.getLoadPerCpu()).isEmpty();
+        assertThat(result.getCpuUtilization()).isEmpty();
+        assertThat(result.getCpuPressure()).isEmpty();
+    }
+
+    @Test
+    public void getLoad_ShouldReturnCachedSample_IfNotOlderThanMaxAge() throws Exception {
+        write("loadavg", "2.00 1.50 1.00 3/512 12345");
+        SystemLoad first = subject.getLoad(Duration.ofSeconds(10));
+        write("loadavg", "4.00 1.50 1.00 3/512 12345");
+
+        now = now.plusSeconds(10);
+        assertThat(subject.getLoad(Duration.ofSeconds(10))).isSameAs(first);
+        now = now.plusSeconds(1);
+        assertThat(subject.getLoad(Duration.ofSeconds(10)).getLoadPerCpu()).hasValue(1d);
+    }
+
+    @Test
+    public void getLoad_ShouldIgnoreInvalidFile() throws Exception {
+        write("loadavg", "invalid");
+        Files.write(procDir.resolve("stat"), Collections.emptyList());
+
+        SystemLoad result = subject.getLoad(Duration.ZERO);
+
+        assertThat(result.getLoadPerCpu()).isEmpty();
+        assertThat(result.getCpuUtilization()).isEmpty();
+    }
+
+}
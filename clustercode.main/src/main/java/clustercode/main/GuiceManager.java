@@ -3,6 +3,7 @@ package clustercode.main;
 import clustercode.api.config.ConfigLoader;
 import clustercode.api.event.RxEventBus;
 import clustercode.api.event.messages.StartupCompletedEvent;
+import clustercode.impl.util.system.ContainerLimits;
 import clustercode.main.modules.*;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
@@ -46,10 +47,16 @@ public class GuiceManager {
         log.info("Activating components...");
         componentActivator.activateServices();
         log.info("Bootup complete.");
+        var limits = injector.getInstance(ContainerLimits.class);
+        log.info("Using {} of {} CPUs (CPU quota: {}, memory limit: {}).", limits.getEffectiveCpus(),
+                limits.getProcessors(), limits.getCpuQuota(), limits.getMemoryLimit());
         injector.getInstance(RxEventBus.class)
                 .emit(StartupCompletedEvent
                         .builder()
                         .mainVersion(getApplicationVersion().orElse("unknown"))
+                        .cpus(limits.getEffectiveCpus())
+                        .cpuQuota(limits.getCpuQuota().isPresent() ? limits.getCpuQuota().getAsDouble() : null)
+                        .memoryLimit(limits.getMemoryLimit().isPresent() ? limits.getMemoryLimit().getAsLong() : null)
                         .build());
     }
 
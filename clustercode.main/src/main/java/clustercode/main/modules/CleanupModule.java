@@ -28,6 +28,7 @@ public class CleanupModule extends ConfigurableModule {
         bind(CleanupConfig.class).toInstance(config);
 
         bind(CleanupService.class).to(CleanupServiceImpl.class);
+        bind(MoveCounter.class).in(Singleton.class);
 
         try {
             ModuleHelper.verifyIn(config.cleanup_processors())
@@ -1,13 +1,17 @@
 package clustercode.main.modules;
 
 import clustercode.api.config.ConfigLoader;
+import clustercode.api.domain.Activator;
 import clustercode.api.domain.Constraint;
 import clustercode.impl.constraint.*;
 import clustercode.impl.util.InvalidConfigurationException;
 import clustercode.impl.util.di.ModuleHelper;
+import com.google.inject.Singleton;
+import com.google.inject.multibindings.MapBinder;
 import com.google.inject.multibindings.Multibinder;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 
 public class ConstraintModule extends ConfigurableModule {
@@ -22,7 +26,13 @@ public class ConstraintModule extends ConfigurableModule {
         bind(ConstraintConfig.class).toInstance(config);
 
         var setBinder = Multibinder.newSetBinder(binder(), Constraint.class);
-        var map = getConstraintMap();
+        var map = getConstraintMap(config);
+
+        // The constraint samples the load, which must be shared by the set and the map bindings.
+        bind(SystemLoadConstraint.class).in(Singleton.class);
+
+        var mapBinder = MapBinder.newMapBinder(binder(), Constraints.class, Constraint.class);
+        map.forEach((key, value) -> mapBinder.addBinding(key).to(value));
 
         try {
             ModuleHelper.verifyIn(config.active_constraints())
@@ -32,22 +42,33 @@ public class ConstraintModule extends ConfigurableModule {
             addError(ex);
         }
 
+        var active = new HashSet<Class<? extends Constraint>>();
         if (config.active_constraints().contains(Constraints.ALL)) {
-            map.forEach((key, value) -> setBinder.addBinding().to(value));
+            active.addAll(map.values());
         } else if (config.active_constraints().contains(Constraints.NONE)) {
-            setBinder.addBinding().to(NoConstraint.class);
+            active.add(NoConstraint.class);
         } else {
-            config.active_constraints().forEach(key -> setBinder.addBinding().to(map.get(key)));
+            var activeMap = new HashMap<>(map);
+            activeMap.put(Constraints.EXPRESSION, ExpressionConstraint.class);
+            config.active_constraints().forEach(key -> active.add(activeMap.get(key)));
         }
+        active.forEach(value -> setBinder.addBinding().to(value));
 
+        // The expression may reference the disk space constraint, which needs its events in that case too.
+        if (active.contains(DiskSpaceConstraint.class) || active.contains(ExpressionConstraint.class)) {
+            Multibinder.newSetBinder(binder(), Activator.class)
+                       .addBinding().to(DiskSpaceActivator.class).in(Singleton.class);
+        }
     }
 
-    private Map<Constraints, Class<? extends Constraint>> getConstraintMap() {
+    private Map<Constraints, Class<? extends Constraint>> getConstraintMap(ConstraintConfig config) {
         Map<Constraints, Class<? extends Constraint>> map = new HashMap<>();
         map.put(Constraints.FILE_NAME, FileNameConstraint.class);
-        map.put(Constraints.TIME, TimeConstraint.class);
+        map.put(Constraints.TIME, config.time_deadline() ? DeadlineTimeConstraint.class : TimeConstraint.class);
         map.put(Constraints.FILE_SIZE, FileSizeConstraint.class);
         map.put(Constraints.CLUSTER, ClusterConstraint.class);
+        map.put(Constraints.SYSTEM_LOAD, SystemLoadConstraint.class);
+        map.put(Constraints.DISK_SPACE, DiskSpaceConstraint.class);
         return map;
     }
 }
@@ -3,10 +3,13 @@ package clustercode.main.modules;
 import clustercode.api.domain.ActivatorContext;
 import clustercode.api.event.RxEventBus;
 import clustercode.api.event.RxEventBusImpl;
+import clustercode.impl.util.system.ContainerLimits;
+import clustercode.impl.util.system.ContainerLimitsReader;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
 
+import java.nio.file.Paths;
 import java.time.Clock;
 
 public class GlobalModule extends AbstractModule {
@@ -22,4 +25,11 @@ public class GlobalModule extends AbstractModule {
     private Clock getSystemClock() {
         return Clock.systemDefaultZone();
     }
+
+    @Provides
+    @Singleton
+    private ContainerLimits getContainerLimits() {
+        return new ContainerLimitsReader(Paths.get("/sys/fs/cgroup"), Runtime.getRuntime().availableProcessors())
+                .read();
+    }
 }
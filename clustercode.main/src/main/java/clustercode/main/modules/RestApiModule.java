@@ -4,8 +4,14 @@ import clustercode.api.config.ConfigLoader;
 import clustercode.api.domain.Activator;
 import clustercode.api.rest.v1.RestServiceConfig;
 import clustercode.api.rest.v1.RestServicesActivator;
+import clustercode.api.rest.v1.hook.FailureHook;
+import clustercode.api.rest.v1.hook.FailureHookImpl;
 import clustercode.api.rest.v1.hook.ProgressHook;
 import clustercode.api.rest.v1.hook.ProgressHookImpl;
+import clustercode.api.rest.v1.hook.SchedulingHook;
+import clustercode.api.rest.v1.hook.SchedulingHookImpl;
+import clustercode.api.rest.v1.hook.StatisticsHook;
+import clustercode.api.rest.v1.hook.StatisticsHookImpl;
 import clustercode.api.rest.v1.hook.TaskHook;
 import clustercode.api.rest.v1.hook.TaskHookImpl;
 import com.google.inject.Singleton;
@@ -31,6 +37,9 @@ public class RestApiModule extends ConfigurableModule {
 
         bind(ProgressHook.class).to(ProgressHookImpl.class).in(Singleton.class);
         bind(TaskHook.class).to(TaskHookImpl.class).in(Singleton.class);
+        bind(SchedulingHook.class).to(SchedulingHookImpl.class).in(Singleton.class);
+        bind(FailureHook.class).to(FailureHookImpl.class).in(Singleton.class);
+        bind(StatisticsHook.class).to(StatisticsHookImpl.class).in(Singleton.class);
     }
 
     private void installJersey(int port) {
@@ -5,6 +5,7 @@ import clustercode.api.domain.Activator;
 import clustercode.api.scan.*;
 import clustercode.impl.scan.*;
 import clustercode.impl.scan.matcher.*;
+import clustercode.impl.scan.policy.*;
 import clustercode.impl.util.InvalidConfigurationException;
 import clustercode.impl.util.di.ModuleHelper;
 import com.google.inject.Singleton;
@@ -37,9 +38,14 @@ public class ScanModule extends ConfigurableModule {
         bind(MediaScanService.class).to(MediaScanServiceImpl.class);
 
         bind(SelectionService.class).to(SelectionServiceImpl.class);
+        bind(TranscodeEstimator.class).to(TranscodeEstimatorImpl.class).in(Singleton.class);
+        bind(FailureRegistry.class).to(FailureRegistryImpl.class).in(Singleton.class);
+        bind(SchedulingPolicy.class).to(getPolicyMap().get(mediaScanConfig.scheduling_policy())).in(Singleton.class);
 
         bind(ProfileScanService.class).to(ProfileScanServiceImpl.class);
-        bind(ProfileParser.class).to(ProfileParserImpl.class);
+        bind(ProfileDirWatcher.class).in(Singleton.class);
+        bind(ProfileIndex.class).in(Singleton.class);
+        bind(ProfileParser.class).to(CachingProfileParser.class).in(Singleton.class);
 
         ModuleHelper.verifyIn(profileScanConfig.profile_matchers())
                     .that(ProfileMatchers.COMPANION)
@@ -63,6 +69,15 @@ public class ScanModule extends ConfigurableModule {
         }
     }
 
+    private Map<SchedulingPolicies, Class<? extends SchedulingPolicy>> getPolicyMap() {
+        Map<SchedulingPolicies, Class<? extends SchedulingPolicy>> map = new HashMap<>();
+        map.put(SchedulingPolicies.PRIORITY, PriorityPolicy.class);
+        map.put(SchedulingPolicies.SHORTEST_JOB_FIRST, ShortestJobFirstPolicy.class);
+        map.put(SchedulingPolicies.BYTES_SAVED_PER_CPU_HOUR, BytesSavedPolicy.class);
+        map.put(SchedulingPolicies.WEIGHTED_FAIR, WeightedFairPolicy.class);
+        return map;
+    }
+
     private Map<ProfileMatchers, Class<? extends ProfileMatcher>> getMatcherMap() {
         Map<ProfileMatchers, Class<? extends ProfileMatcher>> map = new HashMap<>();
         map.put(ProfileMatchers.COMPANION, CompanionProfileMatcher.class);
@@ -2,8 +2,14 @@ package clustercode.main.modules;
 
 import clustercode.api.config.ConfigLoader;
 import clustercode.api.domain.Activator;
+import clustercode.api.transcode.TranscodeStatistics;
 import clustercode.api.transcode.TranscodingService;
+import clustercode.impl.transcode.AdaptiveSlotController;
+import clustercode.impl.transcode.OutputSizeWatchdog;
+import clustercode.impl.transcode.SegmentedTranscoder;
+import clustercode.impl.transcode.StallWatchdog;
 import clustercode.impl.transcode.TranscodeActivator;
+import clustercode.impl.transcode.TranscodeStatisticsImpl;
 import clustercode.impl.transcode.TranscoderConfig;
 import clustercode.impl.transcode.TranscodingServiceImpl;
 import com.google.inject.Singleton;
@@ -20,7 +26,14 @@ public class TranscodeModule extends ConfigurableModule {
         var config = loader.getConfig(TranscoderConfig.class);
         bind(TranscoderConfig.class).toInstance(config);
 
-        bind(TranscodingService.class).to(TranscodingServiceImpl.class).in(Singleton.class);
+        bind(TranscodingServiceImpl.class).in(Singleton.class);
+        bind(TranscodingService.class).to(TranscodingServiceImpl.class);
+        bind(AdaptiveSlotController.class).in(Singleton.class);
+        bind(OutputSizeWatchdog.class).in(Singleton.class);
+        bind(StallWatchdog.class).in(Singleton.class);
+        bind(SegmentedTranscoder.class).in(Singleton.class);
+        bind(TranscodeStatisticsImpl.class).in(Singleton.class);
+        bind(TranscodeStatistics.class).to(TranscodeStatisticsImpl.class);
         Multibinder<Activator> multibinder = Multibinder.newSetBinder(binder(), Activator.class);
         multibinder.addBinding().to(TranscodeActivator.class).in(Singleton.class);
 